@@ -0,0 +1,38 @@
+package com.Cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * A Cache controller exposing how well the second level cache is doing.
+ *
+ */
+@RestController
+@RequestMapping("/api/v1/")
+public class CacheController {
+
+    @Autowired // Injected Singleton
+    private final CacheService cacheService;
+
+    //Constructor
+    public CacheController(CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    /***
+     * Gets the hit and miss counters of every cache region in json format at
+     * http://localhost:8080/api/{version}/cache/stats
+     *
+     * @return Json List of region statistics
+     */
+    @GetMapping("/cache/stats")
+    public List<CacheRegionStats> getCacheStats() {
+        return cacheService.getCacheStats();
+    }
+}
@@ -0,0 +1,62 @@
+package com.Cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * The hit and miss counters of one second level cache region since the application started, and its size.
+ */
+public class CacheRegionStats {
+
+    private final String region;
+
+    private final long hits;
+
+    private final long misses;
+
+    private final long evictions;
+
+    private final long size;
+
+    //Constructor
+    public CacheRegionStats(String region, CacheStats statistics, long size) {
+        this.region = region;
+        this.hits = statistics.hitCount();
+        this.misses = statistics.missCount();
+        this.evictions = statistics.evictionCount();
+        this.size = size;
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return hits over lookups, 0 before the first lookup
+     */
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,45 @@
+package com.Cache;
+
+import org.springframework.stereotype.Service;
+
+import javax.cache.CacheManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * A Cache service responsible for reading the counters of the second level cache regions. Each region records its
+ * own, so they are read without spring.jpa.properties.hibernate.generate_statistics, which adds counters to every
+ * session and is off in production.
+ *
+ */
+@Service
+public class CacheService {
+
+    private final CacheManager secondLevelCacheManager;
+
+    //Constructor
+    public CacheService(CacheManager secondLevelCacheManager) {
+        this.secondLevelCacheManager = secondLevelCacheManager;
+    }
+
+    /**
+     * Gets the counters of every second level cache region
+     *
+     * @return A list of region statistics sorted by region name
+     */
+    public List<CacheRegionStats> getCacheStats() {
+        List<String> regions = new ArrayList<>();
+        secondLevelCacheManager.getCacheNames().forEach(regions::add);
+        regions.sort(null);
+
+        List<CacheRegionStats> stats = new ArrayList<>(regions.size());
+        for (String region : regions) {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache =
+                    SecondLevelCacheConfig.caffeineCache(secondLevelCacheManager, region);
+            stats.add(new CacheRegionStats(region, cache.stats(), cache.estimatedSize()));
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,88 @@
+package com.Cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Builds the Caffeine regions backing the hibernate second level cache from {@link SecondLevelCacheProperties} and
+ * hands them to hibernate. Hibernate is set to fail on a region that is not configured here, so an entity can not be
+ * cached without bounds by accident.
+ * <p>
+ * Every region counts its own hits and misses, whether or not hibernate gathers statistics, so they are read in
+ * production too, by {@link CacheService} and as the cache_gets metrics of /actuator/prometheus.
+ *
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    /**
+     * Creates a cache manager holding one bounded region per configured entity
+     *
+     * @param properties the region settings
+     * @return a cache manager, closed with the application context
+     */
+    @Bean
+    public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+        // one manager per application context, so contexts sharing a JVM (tests) never see each other's rows
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:second-level-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (Map.Entry<String, SecondLevelCacheProperties.Region> region : properties.getRegions().entrySet()) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.getValue().getMaximumSize()));
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getValue().getTimeToLive().toNanos()));
+            configuration.setStoreByValue(false); // hibernate already caches a disassembled copy
+            configuration.setNativeStatisticsEnabled(true); // a few counters per region, unlike hibernate's statistics
+            cacheManager.createCache(region.getKey(), configuration);
+        }
+        return cacheManager;
+    }
+
+    /**
+     * Points hibernate's jcache region factory at {@link #secondLevelCacheManager}
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    /**
+     * Exports the counters of every region of {@link #secondLevelCacheManager}, tagged with the region's name
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager secondLevelCacheManager) {
+        return registry -> {
+            for (String region : secondLevelCacheManager.getCacheNames()) {
+                CaffeineCacheMetrics.monitor(registry, caffeineCache(secondLevelCacheManager, region), region,
+                        "cacheManager", "secondLevelCacheManager");
+            }
+        };
+    }
+
+    /**
+     * @param cacheManager A cache manager built by {@link #secondLevelCacheManager}
+     * @param region       The name of a region
+     * @return The Caffeine cache behind the region, which records its statistics
+     */
+    @SuppressWarnings("unchecked")
+    static com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeineCache(CacheManager cacheManager, String region) {
+        return cacheManager.getCache(region).unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+    }
+}
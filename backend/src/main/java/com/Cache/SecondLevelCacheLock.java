@@ -0,0 +1,60 @@
+package com.Cache;
+
+import org.hibernate.Session;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.Supplier;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Locks the second level cache entry of a row written behind hibernate's back, by a jdbc update or delete, the way
+ * hibernate locks it for its own writes. While the write runs the entry is read from the database and nothing is put
+ * into it, and once it is unlocked a row loaded by a session that started before the write can not be put back over
+ * it, so a concurrent reader can not leave the old row cached until the region's time to live.
+ *
+ */
+@Component
+public class SecondLevelCacheLock {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    //Constructor
+    public SecondLevelCacheLock(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Runs a write to an entity's row with its cache entry locked, the write has to be committed when it returns
+     *
+     * @param entity The class of a cached entity
+     * @param id     The id of the row written
+     * @param write  Writes and commits the row
+     * @return What the write returned
+     */
+    public <T> T write(Class<?> entity, Object id, Supplier<T> write) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = sessionFactory.getMetamodel().entityPersister(entity);
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        if (cache == null) {
+            return write.get(); // not cached
+        }
+        // only lends the cache a session, it never opens a connection
+        try (Session session = sessionFactory.openSession()) {
+            SharedSessionContractImplementor lockingSession = (SharedSessionContractImplementor) session;
+            Object key = cache.generateCacheKey(id, persister, sessionFactory, null);
+            SoftLock lock = cache.lockItem(lockingSession, key, null); // no version, any row loaded before the unlock is refused
+            try {
+                return write.get();
+            } finally {
+                cache.unlockItem(lockingSession, key, lock);
+            }
+        }
+    }
+}
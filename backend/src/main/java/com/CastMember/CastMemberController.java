@@ -1,8 +1,12 @@
 package com.CastMember;
 
+import com.Http.IfMatch;
+import com.Suggest.NameIndex;
+import com.Suggest.NameSuggestion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -31,14 +35,33 @@ public class CastMemberController {
      * Gets all castMembers in json format at
      * http://localhost:8080/api/{version}/castMember/
      *
+     * @param fields The fields to send, such as firstName,lastName, omitted for all of them
      * @return Json List of all castMembers in the db
      */
     @GetMapping("/castMember")
-    public List<CastMemberModel> getAllCastMembers() {
+    public List<?> getAllCastMembers(@RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return castMemberService.getAllCastMemberFields(fields); // only the columns of the given fields are read
+        }
         return castMemberService.getAllCastMembers(); // returns a list of castMembers
     }
 
 
+    /***
+     * Suggests castMembers by the start of their name in json format at
+     * http://localhost:8080/api/{version}/castMember/suggest/?q=&limit=
+     *
+     * @param q     The start of a first name, a last name, or a full name in either order
+     * @param limit The most castMembers to suggest, 10 by default and at most 100
+     * @return Json List of the id, first name and last name of the castMembers in name order
+     */
+    @GetMapping("/castMember/suggest")
+    public List<NameSuggestion> suggestCastMembers(@RequestParam("q") String q,
+                                                   @RequestParam(value = "limit", defaultValue = "" + NameIndex.DEFAULT_LIMIT) int limit) {
+        return castMemberService.suggestCastMembers(q, limit);
+    }
+
+
     /***
      * Gets all castMembers in json format for a certain movie
      * http://localhost:8080/api/{version}/movie/castMember/?mid=
@@ -46,7 +69,7 @@ public class CastMemberController {
      * @return Json List of all castMembers in the db
      */
     @GetMapping("/movie/castMember")
-    public List<CastMemberModel> getAllMovieCastMembers(@RequestParam("mid") Long mid) {
+    public List<CastMemberView> getAllMovieCastMembers(@RequestParam("mid") Long mid) {
         return castMemberService.getAllMovieCastMembers(mid); // returns a list of castMembers
     }
 
@@ -78,16 +101,57 @@ public class CastMemberController {
     }
 
 
+    /**
+     * Links an existing castMember to an existing movie on
+     * http://localhost:8080/api/{version}/movie/{mid}/castMember/{cmid}/
+     *
+     * @param mid  A given mid path variable
+     * @param cmid A given cmid path variable
+     * @return Http response 204 no content, also if they were already linked, otherwise 404 not found rnf exception
+     */
+    @PutMapping("/movie/{mid}/castMember/{cmid}")
+    public ResponseEntity<Void> linkMovieCastMember(@PathVariable Long mid, @PathVariable Long cmid) {
+        castMemberService.linkMovieCastMember(mid, cmid);
+        return ResponseEntity.noContent().build();
+    }
+
+
+    /**
+     * Unlinks a castMember from a movie on
+     * http://localhost:8080/api/{version}/movie/{mid}/castMember/{cmid}/
+     *
+     * @param mid  A given mid path variable
+     * @param cmid A given cmid path variable
+     * @return Http response 204 no content, also if they were not linked, otherwise 404 not found rnf exception
+     */
+    @DeleteMapping("/movie/{mid}/castMember/{cmid}")
+    public ResponseEntity<Void> unlinkMovieCastMember(@PathVariable Long mid, @PathVariable Long cmid) {
+        castMemberService.unlinkMovieCastMember(mid, cmid);
+        return ResponseEntity.noContent().build();
+    }
+
+
     /**
      * Gets a castMember by cmid on
      * http://localhost:8080/api/{version}/castMember/{cmid}/
      *
      * @param cmid A given cmid path variable
-     * @return Http response 200 with castMember response body if ok, otherwise 404 not found rnf exception
+     * @param fields The fields to send, omitted for all of them. A part of the cast member is sent without an ETag.
+     * @param request The request, for its If-None-Match header
+     * @return Http response 200 with castMember response body and its ETag if ok, 304 not modified if the client's copy is
+     * current, otherwise 404 not found rnf exception, or 400 bad request for a field that can not be selected
      */
     @GetMapping("/castMember/{cmid}")
-    public ResponseEntity<CastMemberModel> getCastMemberById(@PathVariable Long cmid) {
-        CastMemberModel castMember = castMemberService.getCastMemberById(cmid);
+    public ResponseEntity<?> getCastMemberById(@PathVariable Long cmid, @RequestParam(value = "fields", required = false) String fields,
+                                               WebRequest request) {
+        if (fields != null) {
+            return ResponseEntity.ok(castMemberService.getCastMemberFieldsById(cmid, fields)); // only the columns of the given fields are read
+        }
+        CastMemberView castMember = castMemberService.getCastMemberById(cmid);
+        // sets the ETag, or the 304 status when it matches If-None-Match
+        if (request.checkNotModified(String.valueOf(castMember.getVersion()))) {
+            return null; // nothing to serialize
+        }
         return ResponseEntity.ok(castMember);
     }
 
@@ -98,12 +162,36 @@ public class CastMemberController {
      *
      * @param cmid          A given cmid path variable
      * @param castMemberDetails CastMembers details to update to in form on json request body
-     * @return Http response 200 with castMember response body if ok, otherwise 404 not found rnf exception
+     * @param ifMatch           The ETag the client last read, to only update if nobody else has since
+     * @return Http response 200 with castMember response body and its new ETag if ok, 412 precondition failed if the
+     * castMember has changed, otherwise 404 not found rnf exception
      */
     @PutMapping("/castMember/{cmid}")
-    public ResponseEntity<CastMemberModel> updateCastMember(@PathVariable Long cmid, @RequestBody CastMemberModel castMemberDetails) {
-        CastMemberModel updatedCastMember = castMemberService.updateCastMember(cmid, castMemberDetails);
-        return ResponseEntity.ok(updatedCastMember);
+    public ResponseEntity<CastMemberModel> updateCastMember(@PathVariable Long cmid, @RequestBody CastMemberModel castMemberDetails,
+                                                            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        CastMemberModel updatedCastMember = castMemberService.updateCastMember(cmid, castMemberDetails, IfMatch.version(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(updatedCastMember.getVersion())).body(updatedCastMember);
+    }
+
+
+    /**
+     * Patches only the given fields of a castMember on
+     * http://localhost:8080/api/{version}/castMember/{cmid}/
+     *
+     * @param cmid    A given cmid path variable
+     * @param changes Only the fields to change in form of json request body
+     * @param ifMatch The ETag the client last read, to only patch if nobody else has since
+     * @return Http response 204 no content, with the new ETag if If-Match was given, 412 precondition failed if the
+     * castMember has changed, 400 bad request for a field that can not be patched, otherwise 404 not found rnf exception
+     */
+    @PatchMapping("/castMember/{cmid}")
+    public ResponseEntity<Void> patchCastMember(@PathVariable Long cmid, @RequestBody Map<String, Object> changes,
+                                                @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Long version = castMemberService.patchCastMember(cmid, changes, IfMatch.version(ifMatch));
+        if (version == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
     }
 
 
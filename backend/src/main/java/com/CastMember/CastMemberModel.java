@@ -2,10 +2,13 @@ package com.CastMember;
 
 import com.Movie.MovieModel;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * @author Connor Hunter        connh321@gmail.com
@@ -14,6 +17,8 @@ import java.util.List;
  */
 @Entity
 @Table(name = "cast_member")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cast-member") // see second-level-cache.regions
 public class CastMemberModel {
 
     //non-parameterized constructor
@@ -29,13 +34,19 @@ public class CastMemberModel {
     //N:M with Movie
     @JsonIgnore
     @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, mappedBy = "castMemberModels")
-    private List<MovieModel> movieModels = new ArrayList<>();
+    private Set<MovieModel> movieModels = new HashSet<>();
 
     @Id //pk
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cast_member_seq")
+    @SequenceGenerator(name = "cast_member_seq", sequenceName = "cast_member_seq", allocationSize = 50) // pooled, one nextval per 50 inserts
     @Column(name = "cmid")
     private Long cmid;
 
+    @Version //optimistic lock, also sent as the ETag of the resource
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY) // served for If-Match, never read from a request
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0") // existing rows start at 0
+    private Long version;
+
 
     @Column(name = "first_name", nullable = false)
     private String firstName;
@@ -51,6 +62,10 @@ public class CastMemberModel {
         return cmid;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getFirstName() {
         return firstName;
     }
@@ -67,8 +82,24 @@ public class CastMemberModel {
         this.lastName = lastName;
     }
 
-    public List<MovieModel> getMovieModels() {
+    public Set<MovieModel> getMovieModels() {
         return movieModels;
     }
 
+    //equal by cmid, see MovieModel.equals()
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CastMemberModel)) {
+            return false;
+        }
+        return cmid != null && cmid.equals(((CastMemberModel) o).getCmid());
+    }
+
+    @Override
+    public int hashCode() {
+        return CastMemberModel.class.hashCode();
+    }
 }
@@ -1,13 +1,25 @@
 package com.CastMember;
 
+import com.Projection.ProjectionRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /***
  * @author Connor Hunter        connh321@gmail.com
  *
  * Where SQL Queries are written and generated by JpaRepository for accessing CastMember information.
  */
 @Repository
-public interface CastMemberRepository extends JpaRepository<CastMemberModel, Long> {
+public interface CastMemberRepository extends JpaRepository<CastMemberModel, Long>, ProjectionRepository {
+
+    /**
+     * Gets the columns of every castMember, in cmid order, without loading any castMember
+     *
+     * @return A list of castMembers
+     */
+    @Query("select new com.CastMember.CastMemberView(c.cmid, c.version, c.firstName, c.lastName) from CastMemberModel c order by c.cmid")
+    List<CastMemberView> findAllViews();
 }
@@ -1,12 +1,33 @@
 package com.CastMember;
 
+import com.Cache.SecondLevelCacheLock;
+import com.Exception.PreconditionFailedException;
 import com.Exception.ResourceNotFoundException;
+import com.Http.IfMatch;
 import com.Movie.MovieModel;
 import com.Movie.MovieService;
+import com.Movie.PeopleSavedEvent;
+import com.Patch.PartialUpdate;
+import com.Projection.FieldProjection;
+import com.Suggest.NameIndex;
+import com.Suggest.NameSuggestion;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /***
  * @author Connor Hunter        connh321@gmail.com
@@ -17,35 +38,109 @@ import java.util.List;
  */
 @Service
 public class CastMemberService {
+    // the fields a fieldset can select, every column a cast member is serialized with
+    private static final FieldProjection FIELDS = new FieldProjection("cmid")
+            .field("firstName")
+            .field("lastName");
+
+    // the columns a PATCH can change, the same ones updateCastMember copies
+    private static final PartialUpdate PATCH = new PartialUpdate("cast_member", "cmid")
+            .column("firstName", "first_name", String.class, false)
+            .column("lastName", "last_name", String.class, false);
+
+    // a castMember is shared by movies, deleting it only unlinks them
+    private static final String DELETE_MOVIE_LINKS = "delete from movie_cast_member where cmid = ?";
+
+    private static final String DELETE = "delete from cast_member where cmid = ?";
+
+    // a no-op when the link is already there, so a repeated PUT does not fail on the primary key
+    private static final String LINK_MOVIE = "insert into movie_cast_member (mid, cmid) select cast(? as bigint), cast(? as bigint) "
+            + "where not exists (select 1 from movie_cast_member where mid = ? and cmid = ?)";
+
+    private static final String UNLINK_MOVIE = "delete from movie_cast_member where mid = ? and cmid = ?";
+
+    private static final String SELECT_NAMES = "select cmid, first_name, last_name from cast_member";
+
+    private static final String SELECT_NAME = SELECT_NAMES + " where cmid = ?";
+
     @Autowired // Injected Singleton
     private final CastMemberRepository castMemberRepository;
 
     @Autowired // Injected Singleton
     private MovieService movieService;
 
+    @Autowired // Injected Singleton
+    private ObjectMapper objectMapper;
+
+    @Autowired // Injected Singleton
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired // Injected Singleton
+    private SecondLevelCacheLock secondLevelCacheLock;
+
+    @Autowired // Injected Singleton
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired // Injected Singleton
+    private ApplicationEventPublisher eventPublisher;
+
+    // castMembers by name prefix, kept up to date by every committed write below so suggestions never query
+    private final NameIndex nameIndex = new NameIndex();
+
     //Constructor
     public CastMemberService(CastMemberRepository castMemberRepository) {
         this.castMemberRepository = castMemberRepository;
     }
 
+    /**
+     * Reads the name of every cast member into the name index, before any request is served
+     */
+    @PostConstruct
+    public void buildNameIndex() {
+        nameIndex.load(jdbcTemplate, SELECT_NAMES);
+    }
+
     /**
      * Gets all castMembers from the database
      *
-     * @return A list of all castMembers
+     * @return A list of all castMembers in cmid order
      */
-    public List<CastMemberModel> getAllCastMembers() {
-        return castMemberRepository.findAll(); // returns a list of castMembers
+    public List<CastMemberView> getAllCastMembers() {
+        return castMemberRepository.findAllViews(); // returns a list of castMembers
     }
 
 
     /**
-     * Gets all castMembers from the database for a certain movie
+     * Gets the given fields of all cast members, only their columns are selected
      *
-     * @return A list of all castMembers
+     * @param fields A comma separated list of fields
+     * @return The fields of every cast member in cmid order, or a Bad Request Exception for a field that can not be selected
      */
-    public List<CastMemberModel> getAllMovieCastMembers(Long mid) {
-        MovieModel currentMovie = movieService.getMovieById(mid);
-        return currentMovie.getCastMemberModels(); // returns a list of castMembers
+    public List<Map<String, Object>> getAllCastMemberFields(String fields) {
+        return castMemberRepository.findAllFields(CastMemberModel.class, FIELDS.parse(fields));
+    }
+
+
+    /**
+     * Gets all castMembers from the database for a certain movie, with one query
+     *
+     * @param mid A given mid
+     * @return A list of the movie's castMembers in cmid order, or an RNF Exception
+     */
+    public List<CastMemberView> getAllMovieCastMembers(Long mid) {
+        return movieService.getMovieCastMembers(mid); // returns a list of castMembers
+    }
+
+
+    /**
+     * Suggests the castMembers whose first or last name starts with a prefix, from the name index without a query
+     *
+     * @param prefix The start of a first name, a last name, or a full name in either order
+     * @param limit  The most castMembers to suggest
+     * @return At most limit castMembers in name order, or a Bad Request Exception for a limit out of bounds
+     */
+    public List<NameSuggestion> suggestCastMembers(String prefix, int limit) {
+        return nameIndex.suggest(prefix, NameIndex.checkLimit(limit));
     }
 
 
@@ -56,7 +151,7 @@ public class CastMemberService {
      * @return a newly saved CastMember
      */
     public CastMemberModel createCastMember(CastMemberModel castMember) {
-        return castMemberRepository.save(castMember);
+        return index(castMemberRepository.save(castMember));
     }
 
 
@@ -67,24 +162,73 @@ public class CastMemberService {
      * @param mid A given mid
      * @return A response body in json format
      */
+    @Transactional // the movie's castMembers are loaded and changed in the persistence context that saves them
     public CastMemberModel createMovieCastMember(Long mid, CastMemberModel castMember) {
         //add castMember to movies castMembers
-        MovieModel currentMovie = movieService.getMovieById(mid);
+        MovieModel currentMovie = movieService.getManagedMovieById(mid);
         castMember.getMovieModels().add(currentMovie);
         currentMovie.getCastMemberModels().add(castMember);
         //Cascade.All saves the details
-        return castMemberRepository.save(castMember);
+        return index(castMemberRepository.save(castMember));
+    }
+
+
+    /**
+     * Links an existing castMember to an existing movie by writing only the join row. Neither side's collections are
+     * loaded, so it costs the same no matter how many castMembers the movie has.
+     *
+     * @param mid  A given mid
+     * @param cmid A given cmid
+     */
+    public void linkMovieCastMember(Long mid, Long cmid) {
+        checkExists(mid, cmid);
+        try {
+            jdbcTemplate.update(LINK_MOVIE, mid, cmid, mid, cmid);
+        } catch (DuplicateKeyException e) {
+            // the same link was written at the same time, it is there either way
+        } catch (DataIntegrityViolationException e) {
+            // the movie or cast member was deleted since the check, tell which
+            checkExists(mid, cmid);
+            throw e;
+        }
     }
 
 
     /**
-     * Gets a castMember by cmid and returns it
+     * Unlinks a castMember from a movie by deleting only the join row, neither side's collections are loaded
+     *
+     * @param mid  A given mid
+     * @param cmid A given cmid
+     */
+    public void unlinkMovieCastMember(Long mid, Long cmid) {
+        if (jdbcTemplate.update(UNLINK_MOVIE, mid, cmid) == 0) {
+            checkExists(mid, cmid); // not linked is fine, an unknown id is not
+        }
+    }
+
+
+    /**
+     * Gets a castMember by cmid and returns it. Read through the second level cache, so a cached castMember
+     * costs no query.
      *
      * @param cmid A given cmid
      * @return A castMember, or an RNF Exception
      */
-    public CastMemberModel getCastMemberById(Long cmid) {
-        return castMemberRepository.findById(cmid)
+    public CastMemberView getCastMemberById(Long cmid) {
+        return castMemberRepository.findById(cmid).map(CastMemberView::of)
+                .orElseThrow(() -> new ResourceNotFoundException("CastMember With the cmid: " + cmid + " does not exist!"));
+    }
+
+
+    /**
+     * Gets the given fields of a cast member by cmid, only their columns are selected
+     *
+     * @param cmid   A given cmid
+     * @param fields A comma separated list of fields
+     * @return The cast member's fields, an RNF Exception, or a Bad Request Exception for a field that can not be selected
+     */
+    public Map<String, Object> getCastMemberFieldsById(Long cmid, String fields) {
+        return castMemberRepository.findFieldsById(CastMemberModel.class, FIELDS.parse(fields), cmid)
                 .orElseThrow(() -> new ResourceNotFoundException("CastMember With the cmid: " + cmid + " does not exist!"));
     }
 
@@ -94,29 +238,112 @@ public class CastMemberService {
      *
      * @param cmid    A long cmid
      * @param castMemberDetails A castMember details
-     * @return A castMember, or an RNF exception
+     * @param expectedVersion The version from the If-Match header, null to update whatever the version
+     * @return A castMember, an RNF exception, or a Precondition Failed exception if it has changed
      */
-    public CastMemberModel updateCastMember(Long cmid, CastMemberModel castMemberDetails) {
+    public CastMemberModel updateCastMember(Long cmid, CastMemberModel castMemberDetails, Long expectedVersion) {
         CastMemberModel castMember = castMemberRepository.findById(cmid)
                 .orElseThrow(() -> new ResourceNotFoundException("CastMember With the cmid: " + cmid + " does not exist!"));
+        IfMatch.check(expectedVersion, castMember.getVersion(), "CastMember With the cmid: " + cmid);
 
         castMember.setFirstName(castMemberDetails.getFirstName());
         castMember.setLastName(castMemberDetails.getLastName());
 
 
-        return castMemberRepository.save(castMember);
+        try {
+            return index(castMemberRepository.save(castMember));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // written by someone else between the read and this write
+            throw new PreconditionFailedException("CastMember With the cmid: " + cmid + " has changed since version: " + castMember.getVersion() + "!");
+        }
+    }
+
+
+    /**
+     * Patches the given fields of a castMember with one update statement, without loading the castMember
+     *
+     * @param cmid             A long cmid
+     * @param changes         The fields to change and their new values
+     * @param expectedVersion The version from the If-Match header, null to patch whatever the version
+     * @return The new version if the expected version was given, otherwise null, or an RNF exception, a Precondition
+     * Failed exception if it has changed, or a Bad Request exception for a field that can not be patched
+     */
+    public Long patchCastMember(Long cmid, Map<String, Object> changes, Long expectedVersion) {
+        int updated = secondLevelCacheLock.write(CastMemberModel.class, cmid, // written behind hibernate's back
+                () -> PATCH.execute(jdbcTemplate, objectMapper, cmid, changes, expectedVersion));
+        if (updated == 0) {
+            // nothing updated, only look the castMember up to tell a missing one from a changed one
+            if (expectedVersion == null || !castMemberRepository.existsById(cmid)) {
+                throw new ResourceNotFoundException("CastMember With the cmid: " + cmid + " does not exist!");
+            }
+            throw new PreconditionFailedException("CastMember With the cmid: " + cmid + " has changed since version: " + expectedVersion + "!");
+        }
+        if (changes.containsKey("firstName") || changes.containsKey("lastName")) {
+            nameIndex.load(jdbcTemplate, SELECT_NAME, cmid); // only one name may have changed, read both back
+        }
+        return expectedVersion == null ? null : expectedVersion + 1;
     }
 
 
     /**
-     * Deletes a castMember given a cmid
+     * Deletes a castMember given a cmid, with one statement for its movie links and one for the castMember. Nothing is loaded and
+     * no cascade is walked, so it costs the same no matter how many movies it is in.
      *
      * @param cmid A long cmid
      */
     public void deleteCastMember(Long cmid) {
-        CastMemberModel castMember = castMemberRepository.findById(cmid)
-                .orElseThrow(() -> new ResourceNotFoundException("CastMember With the cmid: " + cmid + " does not exist!"));
-        castMemberRepository.delete(castMember);
+        // deleted behind hibernate's back, committed before the cache entry is unlocked
+        Integer deleted = secondLevelCacheLock.write(CastMemberModel.class, cmid, () -> transactionTemplate.execute(status -> {
+            jdbcTemplate.update(DELETE_MOVIE_LINKS, cmid);
+            return jdbcTemplate.update(DELETE, cmid);
+        }));
+        if (deleted == null || deleted == 0) {
+            throw new ResourceNotFoundException("CastMember With the cmid: " + cmid + " does not exist!");
+        }
+        nameIndex.remove(cmid);
+    }
+
+
+    /**
+     * Indexes the castMembers saved, once the transaction saving them has committed, or at once without one
+     *
+     * @param event A PeopleSavedEvent
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPeopleSaved(PeopleSavedEvent event) {
+        List<NameSuggestion> people = new ArrayList<>();
+        for (CastMemberModel castMember : event.getCastMembers()) {
+            people.add(new NameSuggestion(castMember.getCmid(), castMember.getFirstName(), castMember.getLastName()));
+        }
+        nameIndex.putAll(people);
+    }
+
+
+    /**
+     * Indexes the name a cast member was saved with, after the commit if it is saved in a transaction
+     *
+     * @param castMember A saved cast member
+     * @return The same cast member
+     */
+    private CastMemberModel index(CastMemberModel castMember) {
+        eventPublisher.publishEvent(new PeopleSavedEvent(Collections.emptyList(), Collections.singletonList(castMember)));
+        return castMember;
+    }
+
+
+    /**
+     * Checks a movie and a castMember exist by id, without loading either
+     *
+     * @param mid  A given mid
+     * @param cmid A given cmid
+     */
+    private void checkExists(Long mid, Long cmid) {
+        if (!movieService.existsMovieById(mid)) {
+            throw new ResourceNotFoundException("Movie With the mid: " + mid + " does not exist!");
+        }
+        if (!castMemberRepository.existsById(cmid)) {
+            throw new ResourceNotFoundException("CastMember With the cmid: " + cmid + " does not exist!");
+        }
     }
 
 }
@@ -0,0 +1,56 @@
+package com.CastMember;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * The columns of a cast member as they are read, selected by a query or copied from the second level cache, so
+ * serializing it never touches the cast member's movies.
+ */
+public class CastMemberView {
+
+    private final Long cmid;
+
+    private final Long version;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    //Constructor, the arguments of a select new query
+    public CastMemberView(Long cmid, Long version, String firstName, String lastName) {
+        this.cmid = cmid;
+        this.version = version;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    /**
+     * Copies the columns of a loaded cast member
+     *
+     * @param castMember A given cast member
+     * @return A new view of the cast member
+     */
+    public static CastMemberView of(CastMemberModel castMember) {
+        return new CastMemberView(castMember.getCmid(), castMember.getVersion(), castMember.getFirstName(), castMember.getLastName());
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public Long getCmid() {
+        return cmid;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+}
@@ -1,8 +1,12 @@
 package com.Director;
 
+import com.Http.IfMatch;
+import com.Suggest.NameIndex;
+import com.Suggest.NameSuggestion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -31,14 +35,33 @@ public class DirectorController {
      * Gets all directors in json format at
      * http://localhost:8080/api/{version}/director/
      *
+     * @param fields The fields to send, such as firstName,lastName, omitted for all of them
      * @return Json List of all directors in the db
      */
     @GetMapping("/director")
-    public List<DirectorModel> getAllDirectors() {
+    public List<?> getAllDirectors(@RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return directorService.getAllDirectorFields(fields); // only the columns of the given fields are read
+        }
         return directorService.getAllDirectors(); // returns a list of directors
     }
 
     
+    /***
+     * Suggests directors by the start of their name in json format at
+     * http://localhost:8080/api/{version}/director/suggest/?q=&limit=
+     *
+     * @param q     The start of a first name, a last name, or a full name in either order
+     * @param limit The most directors to suggest, 10 by default and at most 100
+     * @return Json List of the id, first name and last name of the directors in name order
+     */
+    @GetMapping("/director/suggest")
+    public List<NameSuggestion> suggestDirectors(@RequestParam("q") String q,
+                                                 @RequestParam(value = "limit", defaultValue = "" + NameIndex.DEFAULT_LIMIT) int limit) {
+        return directorService.suggestDirectors(q, limit);
+    }
+
+
     /***
      * Gets all directors in json format for a certain movie
      * http://localhost:8080/api/{version}/movie/director/?mid=
@@ -46,7 +69,7 @@ public class DirectorController {
      * @return Json List of all directors in the db
      */
     @GetMapping("/movie/director")
-    public List<DirectorModel> getAllMovieDirectors(@RequestParam("mid") Long mid) {
+    public List<DirectorView> getAllMovieDirectors(@RequestParam("mid") Long mid) {
         return directorService.getAllMovieDirectors(mid); // returns a list of directors
     }
 
@@ -79,16 +102,57 @@ public class DirectorController {
     }
 
 
+    /**
+     * Links an existing director to an existing movie on
+     * http://localhost:8080/api/{version}/movie/{mid}/director/{did}/
+     *
+     * @param mid  A given mid path variable
+     * @param did A given did path variable
+     * @return Http response 204 no content, also if they were already linked, otherwise 404 not found rnf exception
+     */
+    @PutMapping("/movie/{mid}/director/{did}")
+    public ResponseEntity<Void> linkMovieDirector(@PathVariable Long mid, @PathVariable Long did) {
+        directorService.linkMovieDirector(mid, did);
+        return ResponseEntity.noContent().build();
+    }
+
+
+    /**
+     * Unlinks a director from a movie on
+     * http://localhost:8080/api/{version}/movie/{mid}/director/{did}/
+     *
+     * @param mid  A given mid path variable
+     * @param did A given did path variable
+     * @return Http response 204 no content, also if they were not linked, otherwise 404 not found rnf exception
+     */
+    @DeleteMapping("/movie/{mid}/director/{did}")
+    public ResponseEntity<Void> unlinkMovieDirector(@PathVariable Long mid, @PathVariable Long did) {
+        directorService.unlinkMovieDirector(mid, did);
+        return ResponseEntity.noContent().build();
+    }
+
+
     /**
      * Gets a director by did on
      * http://localhost:8080/api/{version}/director/{did}/
      *
      * @param did A given did path variable
-     * @return Http response 200 with director response body if ok, otherwise 404 not found rnf exception
+     * @param fields The fields to send, omitted for all of them. A part of the director is sent without an ETag.
+     * @param request The request, for its If-None-Match header
+     * @return Http response 200 with director response body and its ETag if ok, 304 not modified if the client's copy is
+     * current, otherwise 404 not found rnf exception, or 400 bad request for a field that can not be selected
      */
     @GetMapping("/director/{did}")
-    public ResponseEntity<DirectorModel> getDirectorById(@PathVariable Long did) {
-        DirectorModel director = directorService.getDirectorById(did);
+    public ResponseEntity<?> getDirectorById(@PathVariable Long did, @RequestParam(value = "fields", required = false) String fields,
+                                             WebRequest request) {
+        if (fields != null) {
+            return ResponseEntity.ok(directorService.getDirectorFieldsById(did, fields)); // only the columns of the given fields are read
+        }
+        DirectorView director = directorService.getDirectorById(did);
+        // sets the ETag, or the 304 status when it matches If-None-Match
+        if (request.checkNotModified(String.valueOf(director.getVersion()))) {
+            return null; // nothing to serialize
+        }
         return ResponseEntity.ok(director);
     }
 
@@ -99,12 +163,36 @@ public class DirectorController {
      *
      * @param did          A given did path variable
      * @param directorDetails Directors details to update to in form on json request body
-     * @return Http response 200 with director response body if ok, otherwise 404 not found rnf exception
+     * @param ifMatch         The ETag the client last read, to only update if nobody else has since
+     * @return Http response 200 with director response body and its new ETag if ok, 412 precondition failed if the
+     * director has changed, otherwise 404 not found rnf exception
      */
     @PutMapping("/director/{did}")
-    public ResponseEntity<DirectorModel> updateDirector(@PathVariable Long did, @RequestBody DirectorModel directorDetails) {
-        DirectorModel updatedDirector = directorService.updateDirector(did, directorDetails);
-        return ResponseEntity.ok(updatedDirector);
+    public ResponseEntity<DirectorModel> updateDirector(@PathVariable Long did, @RequestBody DirectorModel directorDetails,
+                                                        @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        DirectorModel updatedDirector = directorService.updateDirector(did, directorDetails, IfMatch.version(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(updatedDirector.getVersion())).body(updatedDirector);
+    }
+
+
+    /**
+     * Patches only the given fields of a director on
+     * http://localhost:8080/api/{version}/director/{did}/
+     *
+     * @param did     A given did path variable
+     * @param changes Only the fields to change in form of json request body
+     * @param ifMatch The ETag the client last read, to only patch if nobody else has since
+     * @return Http response 204 no content, with the new ETag if If-Match was given, 412 precondition failed if the
+     * director has changed, 400 bad request for a field that can not be patched, otherwise 404 not found rnf exception
+     */
+    @PatchMapping("/director/{did}")
+    public ResponseEntity<Void> patchDirector(@PathVariable Long did, @RequestBody Map<String, Object> changes,
+                                              @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Long version = directorService.patchDirector(did, changes, IfMatch.version(ifMatch));
+        if (version == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
     }
 
 
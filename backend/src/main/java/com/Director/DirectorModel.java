@@ -2,10 +2,13 @@ package com.Director;
 
 import com.Movie.MovieModel;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * @author Connor Hunter        connh321@gmail.com
@@ -14,6 +17,8 @@ import java.util.List;
  */
 @Entity
 @Table(name = "director")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "director") // see second-level-cache.regions
 public class DirectorModel {
 
     //non-parameterized constructor
@@ -29,13 +34,19 @@ public class DirectorModel {
     //N:M with Movie
     @JsonIgnore
     @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, mappedBy = "directorModels")
-    private final List<MovieModel> movieModels = new ArrayList<>();
+    private final Set<MovieModel> movieModels = new HashSet<>();
 
     @Id //pk
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "director_seq")
+    @SequenceGenerator(name = "director_seq", sequenceName = "director_seq", allocationSize = 50) // pooled, one nextval per 50 inserts
     @Column(name = "did")
     private Long did;
 
+    @Version //optimistic lock, also sent as the ETag of the resource
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY) // served for If-Match, never read from a request
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0") // existing rows start at 0
+    private Long version;
+
     @Column(name = "first_name", nullable = false)
     private String firstName;
 
@@ -50,6 +61,10 @@ public class DirectorModel {
         return did;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getFirstName() {
         return firstName;
     }
@@ -66,8 +81,24 @@ public class DirectorModel {
         this.lastName = lastName;
     }
 
-    public List<MovieModel> getMovieModels() {
+    public Set<MovieModel> getMovieModels() {
         return movieModels;
     }
 
+    //equal by did, see MovieModel.equals()
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DirectorModel)) {
+            return false;
+        }
+        return did != null && did.equals(((DirectorModel) o).getDid());
+    }
+
+    @Override
+    public int hashCode() {
+        return DirectorModel.class.hashCode();
+    }
 }
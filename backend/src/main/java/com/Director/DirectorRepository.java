@@ -1,13 +1,25 @@
 package com.Director;
 
+import com.Projection.ProjectionRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /***
  * @author Connor Hunter        connh321@gmail.com
  *
  * Where SQL Queries are written and generated by JpaRepository for accessing Director information.
  */
 @Repository
-public interface DirectorRepository extends JpaRepository<DirectorModel, Long> {
+public interface DirectorRepository extends JpaRepository<DirectorModel, Long>, ProjectionRepository {
+
+    /**
+     * Gets the columns of every director, in did order, without loading any director
+     *
+     * @return A list of directors
+     */
+    @Query("select new com.Director.DirectorView(d.did, d.version, d.firstName, d.lastName) from DirectorModel d order by d.did")
+    List<DirectorView> findAllViews();
 }
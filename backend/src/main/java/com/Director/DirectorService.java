@@ -1,12 +1,33 @@
 package com.Director;
 
+import com.Cache.SecondLevelCacheLock;
+import com.Exception.PreconditionFailedException;
 import com.Exception.ResourceNotFoundException;
+import com.Http.IfMatch;
 import com.Movie.MovieModel;
 import com.Movie.MovieService;
+import com.Movie.PeopleSavedEvent;
+import com.Patch.PartialUpdate;
+import com.Projection.FieldProjection;
+import com.Suggest.NameIndex;
+import com.Suggest.NameSuggestion;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /***
  * @author Connor Hunter        connh321@gmail.com
@@ -18,35 +39,109 @@ import java.util.List;
 @Service
 public class DirectorService {
 
+    // the fields a fieldset can select, every column a director is serialized with
+    private static final FieldProjection FIELDS = new FieldProjection("did")
+            .field("firstName")
+            .field("lastName");
+
+    // the columns a PATCH can change, the same ones updateDirector copies
+    private static final PartialUpdate PATCH = new PartialUpdate("director", "did")
+            .column("firstName", "first_name", String.class, false)
+            .column("lastName", "last_name", String.class, false);
+
+    // a director is shared by movies, deleting it only unlinks them
+    private static final String DELETE_MOVIE_LINKS = "delete from movie_director where did = ?";
+
+    private static final String DELETE = "delete from director where did = ?";
+
+    // a no-op when the link is already there, so a repeated PUT does not fail on the primary key
+    private static final String LINK_MOVIE = "insert into movie_director (mid, did) select cast(? as bigint), cast(? as bigint) "
+            + "where not exists (select 1 from movie_director where mid = ? and did = ?)";
+
+    private static final String UNLINK_MOVIE = "delete from movie_director where mid = ? and did = ?";
+
+    private static final String SELECT_NAMES = "select did, first_name, last_name from director";
+
+    private static final String SELECT_NAME = SELECT_NAMES + " where did = ?";
+
     @Autowired // Injected Singleton
     private final DirectorRepository directorRepository;
 
     @Autowired // Injected Singleton
     private MovieService movieService;
 
+    @Autowired // Injected Singleton
+    private ObjectMapper objectMapper;
+
+    @Autowired // Injected Singleton
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired // Injected Singleton
+    private SecondLevelCacheLock secondLevelCacheLock;
+
+    @Autowired // Injected Singleton
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired // Injected Singleton
+    private ApplicationEventPublisher eventPublisher;
+
+    // directors by name prefix, kept up to date by every committed write below so suggestions never query
+    private final NameIndex nameIndex = new NameIndex();
+
     //Constructor
     public DirectorService(DirectorRepository directorRepository) {
         this.directorRepository = directorRepository;
     }
 
+    /**
+     * Reads the name of every director into the name index, before any request is served
+     */
+    @PostConstruct
+    public void buildNameIndex() {
+        nameIndex.load(jdbcTemplate, SELECT_NAMES);
+    }
+
     /**
      * Gets all directors from the database
      *
-     * @return A list of all directors
+     * @return A list of all directors in did order
      */
-    public List<DirectorModel> getAllDirectors() {
-        return directorRepository.findAll(); // returns a list of directors
+    public List<DirectorView> getAllDirectors() {
+        return directorRepository.findAllViews(); // returns a list of directors
     }
 
 
     /**
-     * Gets all directors from the database for a certain movie
+     * Gets the given fields of all directors, only their columns are selected
      *
-     * @return A list of all directors
+     * @param fields A comma separated list of fields
+     * @return The fields of every director in did order, or a Bad Request Exception for a field that can not be selected
      */
-    public List<DirectorModel> getAllMovieDirectors(Long mid) {
-        MovieModel currentMovie = movieService.getMovieById(mid);
-        return currentMovie.getDirectorModels(); // returns a list of directors
+    public List<Map<String, Object>> getAllDirectorFields(String fields) {
+        return directorRepository.findAllFields(DirectorModel.class, FIELDS.parse(fields));
+    }
+
+
+    /**
+     * Gets all directors from the database for a certain movie, with one query
+     *
+     * @param mid A given mid
+     * @return A list of the movie's directors in did order, or an RNF Exception
+     */
+    public List<DirectorView> getAllMovieDirectors(Long mid) {
+        return movieService.getMovieDirectors(mid); // returns a list of directors
+    }
+
+
+    /**
+     * Suggests the directors whose first or last name starts with a prefix, from the name index without a query
+     *
+     * @param prefix The start of a first name, a last name, or a full name in either order
+     * @param limit  The most directors to suggest
+     * @return At most limit directors in name order, or a Bad Request Exception for a limit out of bounds
+     */
+    public List<NameSuggestion> suggestDirectors(String prefix, int limit) {
+        return nameIndex.suggest(prefix, NameIndex.checkLimit(limit));
     }
 
 
@@ -57,7 +152,7 @@ public class DirectorService {
      * @return a newly saved Director
      */
     public DirectorModel createDirector(DirectorModel director) {
-        return directorRepository.save(director);
+        return index(directorRepository.save(director));
     }
 
     /**
@@ -67,24 +162,73 @@ public class DirectorService {
      * @param mid A given mid
      * @return A response body in json format
      */
+    @Transactional // the movie's directors are loaded and changed in the persistence context that saves them
     public DirectorModel createMovieDirector(Long mid, DirectorModel director) {
         //add director to movies directors
-        MovieModel currentMovie = movieService.getMovieById(mid);
+        MovieModel currentMovie = movieService.getManagedMovieById(mid);
         director.getMovieModels().add(currentMovie);
         currentMovie.getDirectorModels().add(director);
         //Cascade.All saves the details
-        return directorRepository.save(director);
+        return index(directorRepository.save(director));
+    }
+
+
+    /**
+     * Links an existing director to an existing movie by writing only the join row. Neither side's collections are
+     * loaded, so it costs the same no matter how many directors the movie has.
+     *
+     * @param mid  A given mid
+     * @param did A given did
+     */
+    public void linkMovieDirector(Long mid, Long did) {
+        checkExists(mid, did);
+        try {
+            jdbcTemplate.update(LINK_MOVIE, mid, did, mid, did);
+        } catch (DuplicateKeyException e) {
+            // the same link was written at the same time, it is there either way
+        } catch (DataIntegrityViolationException e) {
+            // the movie or director was deleted since the check, tell which
+            checkExists(mid, did);
+            throw e;
+        }
     }
 
 
     /**
-     * Gets a director by did and returns it
+     * Unlinks a director from a movie by deleting only the join row, neither side's collections are loaded
+     *
+     * @param mid  A given mid
+     * @param did A given did
+     */
+    public void unlinkMovieDirector(Long mid, Long did) {
+        if (jdbcTemplate.update(UNLINK_MOVIE, mid, did) == 0) {
+            checkExists(mid, did); // not linked is fine, an unknown id is not
+        }
+    }
+
+
+    /**
+     * Gets a director by did and returns it. Read through the second level cache, so a cached director
+     * costs no query.
      *
      * @param did A given did
      * @return A director, or an RNF Exception
      */
-    public DirectorModel getDirectorById(Long did) {
-        return directorRepository.findById(did)
+    public DirectorView getDirectorById(Long did) {
+        return directorRepository.findById(did).map(DirectorView::of)
+                .orElseThrow(() -> new ResourceNotFoundException("Director With the did: " + did + " does not exist!"));
+    }
+
+
+    /**
+     * Gets the given fields of a director by did, only their columns are selected
+     *
+     * @param did    A given did
+     * @param fields A comma separated list of fields
+     * @return The director's fields, an RNF Exception, or a Bad Request Exception for a field that can not be selected
+     */
+    public Map<String, Object> getDirectorFieldsById(Long did, String fields) {
+        return directorRepository.findFieldsById(DirectorModel.class, FIELDS.parse(fields), did)
                 .orElseThrow(() -> new ResourceNotFoundException("Director With the did: " + did + " does not exist!"));
     }
 
@@ -94,29 +238,112 @@ public class DirectorService {
      *
      * @param did    A long did
      * @param directorDetails A director details
-     * @return A director, or an RNF exception
+     * @param expectedVersion The version from the If-Match header, null to update whatever the version
+     * @return A director, an RNF exception, or a Precondition Failed exception if it has changed
      */
-    public DirectorModel updateDirector(Long did, DirectorModel directorDetails) {
+    public DirectorModel updateDirector(Long did, DirectorModel directorDetails, Long expectedVersion) {
         DirectorModel director = directorRepository.findById(did)
                 .orElseThrow(() -> new ResourceNotFoundException("Director With the did: " + did + " does not exist!"));
+        IfMatch.check(expectedVersion, director.getVersion(), "Director With the did: " + did);
 
         director.setFirstName(directorDetails.getFirstName());
         director.setLastName(directorDetails.getLastName());
 
 
-        return directorRepository.save(director);
+        try {
+            return index(directorRepository.save(director));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // written by someone else between the read and this write
+            throw new PreconditionFailedException("Director With the did: " + did + " has changed since version: " + director.getVersion() + "!");
+        }
+    }
+
+
+    /**
+     * Patches the given fields of a director with one update statement, without loading the director
+     *
+     * @param did             A long did
+     * @param changes         The fields to change and their new values
+     * @param expectedVersion The version from the If-Match header, null to patch whatever the version
+     * @return The new version if the expected version was given, otherwise null, or an RNF exception, a Precondition
+     * Failed exception if it has changed, or a Bad Request exception for a field that can not be patched
+     */
+    public Long patchDirector(Long did, Map<String, Object> changes, Long expectedVersion) {
+        int updated = secondLevelCacheLock.write(DirectorModel.class, did, // written behind hibernate's back
+                () -> PATCH.execute(jdbcTemplate, objectMapper, did, changes, expectedVersion));
+        if (updated == 0) {
+            // nothing updated, only look the director up to tell a missing one from a changed one
+            if (expectedVersion == null || !directorRepository.existsById(did)) {
+                throw new ResourceNotFoundException("Director With the did: " + did + " does not exist!");
+            }
+            throw new PreconditionFailedException("Director With the did: " + did + " has changed since version: " + expectedVersion + "!");
+        }
+        if (changes.containsKey("firstName") || changes.containsKey("lastName")) {
+            nameIndex.load(jdbcTemplate, SELECT_NAME, did); // only one name may have changed, read both back
+        }
+        return expectedVersion == null ? null : expectedVersion + 1;
     }
 
 
     /**
-     * Deletes a director given a did
+     * Deletes a director given a did, with one statement for its movie links and one for the director. Nothing is loaded and
+     * no cascade is walked, so it costs the same no matter how many movies it is in.
      *
      * @param did A long did
      */
     public void deleteDirector(Long did) {
-        DirectorModel director = directorRepository.findById(did)
-                .orElseThrow(() -> new ResourceNotFoundException("Director With the did: " + did + " does not exist!"));
-        directorRepository.delete(director);
+        // deleted behind hibernate's back, committed before the cache entry is unlocked
+        Integer deleted = secondLevelCacheLock.write(DirectorModel.class, did, () -> transactionTemplate.execute(status -> {
+            jdbcTemplate.update(DELETE_MOVIE_LINKS, did);
+            return jdbcTemplate.update(DELETE, did);
+        }));
+        if (deleted == null || deleted == 0) {
+            throw new ResourceNotFoundException("Director With the did: " + did + " does not exist!");
+        }
+        nameIndex.remove(did);
+    }
+
+
+    /**
+     * Indexes the directors saved, once the transaction saving them has committed, or at once without one
+     *
+     * @param event A PeopleSavedEvent
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPeopleSaved(PeopleSavedEvent event) {
+        List<NameSuggestion> people = new ArrayList<>();
+        for (DirectorModel director : event.getDirectors()) {
+            people.add(new NameSuggestion(director.getDid(), director.getFirstName(), director.getLastName()));
+        }
+        nameIndex.putAll(people);
+    }
+
+
+    /**
+     * Indexes the name a director was saved with, after the commit if it is saved in a transaction
+     *
+     * @param director A saved director
+     * @return The same director
+     */
+    private DirectorModel index(DirectorModel director) {
+        eventPublisher.publishEvent(new PeopleSavedEvent(Collections.singletonList(director), Collections.emptyList()));
+        return director;
+    }
+
+
+    /**
+     * Checks a movie and a director exist by id, without loading either
+     *
+     * @param mid  A given mid
+     * @param did A given did
+     */
+    private void checkExists(Long mid, Long did) {
+        if (!movieService.existsMovieById(mid)) {
+            throw new ResourceNotFoundException("Movie With the mid: " + mid + " does not exist!");
+        }
+        if (!directorRepository.existsById(did)) {
+            throw new ResourceNotFoundException("Director With the did: " + did + " does not exist!");
+        }
     }
 
 }
@@ -0,0 +1,56 @@
+package com.Director;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * The columns of a director as they are read, selected by a query or copied from the second level cache, so
+ * serializing it never touches the director's movies.
+ */
+public class DirectorView {
+
+    private final Long did;
+
+    private final Long version;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    //Constructor, the arguments of a select new query
+    public DirectorView(Long did, Long version, String firstName, String lastName) {
+        this.did = did;
+        this.version = version;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    /**
+     * Copies the columns of a loaded director
+     *
+     * @param director A given director
+     * @return A new view of the director
+     */
+    public static DirectorView of(DirectorModel director) {
+        return new DirectorView(director.getDid(), director.getVersion(), director.getFirstName(), director.getLastName());
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public Long getDid() {
+        return did;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+}
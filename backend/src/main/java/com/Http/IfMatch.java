@@ -0,0 +1,51 @@
+package com.Http;
+
+import com.Exception.PreconditionFailedException;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Reads the If-Match header of a write. The ETag of a single resource is its quoted version, so a client that sends
+ * back the ETag it last read only writes if nobody else has written since.
+ */
+public final class IfMatch {
+
+    //not instantiable
+    private IfMatch() {
+    }
+
+    /**
+     * Gets the version a client expects a resource to be at
+     *
+     * @param ifMatch The If-Match header, may be null
+     * @return The expected version, null if there is no header or it is *, or a Precondition Failed Exception if it
+     * is not a single strong ETag of ours, which can never match
+     */
+    public static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.length() < 3 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match: " + ifMatch + " does not match!");
+        }
+        try {
+            return Long.valueOf(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match: " + ifMatch + " does not match!");
+        }
+    }
+
+    /**
+     * Checks a resource is still at the version a client expects
+     *
+     * @param expected The version from {@link #version(String)}, null to skip the check
+     * @param actual   The resource's current version
+     * @param resource Names the resource in the error, e.g. "Movie With the mid: 1"
+     */
+    public static void check(Long expected, Long actual, String resource) {
+        if (expected != null && !expected.equals(actual)) {
+            throw new PreconditionFailedException(resource + " has changed since version: " + expected + "!");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.Import;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Moves rows from a reader thread to a writer in batches through a bounded queue. When the writer falls behind the
+ * queue fills up and the reader blocks, so no more than queueCapacity batches are ever held in memory at once.
+ *
+ * @param <T> The type of row
+ */
+public class BatchPipeline<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchPipeline.class);
+
+    // marks the end of the rows, compared by identity
+    private final List<T> endOfRows = Collections.emptyList();
+
+    private final String name;
+
+    private final int batchSize;
+
+    private final int queueCapacity;
+
+    private final long progressIntervalNanos;
+
+    //Constructor
+    public BatchPipeline(String name, int batchSize, int queueCapacity, long progressIntervalMillis) {
+        this.name = name;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.progressIntervalNanos = TimeUnit.MILLISECONDS.toNanos(progressIntervalMillis);
+    }
+
+    /**
+     * Reads rows on a separate thread and hands them to a writer on the calling thread, one batch at a time
+     *
+     * @param rows   The rows, read lazily
+     * @param writer Writes a batch of rows
+     * @return The number of rows written
+     */
+    public long run(Iterator<T> rows, Consumer<List<T>> writer) {
+        BlockingQueue<List<T>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService reader = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, name + "-reader"));
+        Future<?> reading = reader.submit(() -> {
+            List<T> batch = new ArrayList<>(batchSize);
+            while (rows.hasNext()) {
+                batch.add(rows.next());
+                if (batch.size() == batchSize) {
+                    queue.put(batch); // blocks while the writer is behind
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                queue.put(batch);
+            }
+            queue.put(endOfRows);
+            return null;
+        });
+
+        long start = System.nanoTime();
+        long lastReport = start;
+        long written = 0;
+        try {
+            while (true) {
+                List<T> batch = queue.poll(1, TimeUnit.SECONDS);
+                if (batch == endOfRows) {
+                    break;
+                }
+                if (batch == null) {
+                    if (reading.isDone()) {
+                        reading.get(); // the reader failed before the end of the rows
+                    }
+                    continue;
+                }
+                writer.accept(batch);
+                written += batch.size();
+                long now = System.nanoTime();
+                if (now - lastReport >= progressIntervalNanos) {
+                    LOG.info("Imported {} {} ({} rows/s)", written, name, rowsPerSecond(written, now - start));
+                    lastReport = now;
+                }
+            }
+            reading.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import of " + name + " was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not read " + name + ": " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            reader.shutdownNow(); // unblocks the reader if the writer failed
+        }
+        LOG.info("Imported {} {} in {} ms ({} rows/s)", written, name,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), rowsPerSecond(written, System.nanoTime() - start));
+        return written;
+    }
+
+    static long rowsPerSecond(long rows, long nanos) {
+        return nanos == 0 ? rows : rows * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+}
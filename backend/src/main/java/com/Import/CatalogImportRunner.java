@@ -0,0 +1,34 @@
+package com.Import;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Imports a catalog dump on startup when started with --catalog.import.dir= pointing to a directory holding
+ * titles.tsv, people.tsv and credits.tsv.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.import.dir")
+public class CatalogImportRunner implements ApplicationRunner {
+
+    @Autowired // Injected Singleton
+    private CatalogImportService catalogImportService;
+
+    @Value("${catalog.import.dir}")
+    private String importDir;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path dir = Paths.get(importDir);
+        catalogImportService.importCatalog(dir.resolve("titles.tsv"), dir.resolve("people.tsv"), dir.resolve("credits.tsv"));
+    }
+}
@@ -0,0 +1,441 @@
+package com.Import;
+
+import com.CastMember.CastMemberModel;
+import com.Director.DirectorModel;
+import com.Movie.MovieModel;
+import com.Movie.PeopleSavedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Seeds the database from tab separated dumps of titles, people and credits. Files are read a line at a time and
+ * written in batches, so a dump of any size can be imported without holding it in memory. Each file starts with a
+ * header line and uses \N for an empty value.
+ * <pre>
+ * titles.tsv   titleId  title  length  genre  releaseDate (yyyy-MM-dd or yyyy)
+ * people.tsv   personId  firstName  lastName
+ * credits.tsv  titleId  personId  role (director or cast)
+ * </pre>
+ * People are matched by name, so a name that appears under several person ids, or that is already in the database,
+ * becomes a single director or cast member.
+ * <p>
+ * The title and person ids of the dump, and the people matched by name, are kept in staging tables rather than in
+ * memory, and each batch of credits looks up only the keys it holds, so memory stays bounded by the batch size however
+ * many titles and people a dump has. The people are emptied before and after an import, so only one import can run at
+ * a time. The title ids are kept along with the movie each was saved as, so a title repeated in a dump, or imported
+ * again by a later run, is saved once and its credits link to the movie saved the first time.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogImportService.class);
+
+    // rows written per transaction
+    static final int BATCH_SIZE = 1000;
+
+    // batches parsed ahead of the writer before the reader has to wait
+    static final int QUEUE_CAPACITY = 8;
+
+    static final long PROGRESS_INTERVAL_MILLIS = 5000;
+
+    private static final String NULL = "\\N";
+
+    // adds a join row only if the movie and person are not linked yet, so credits can repeat and imports can re-run
+    private static final String LINK_DIRECTOR = "insert into movie_director (mid, did) select ?, ? "
+            + "where not exists (select 1 from movie_director where mid = ? and did = ?)";
+
+    private static final String LINK_CAST_MEMBER = "insert into movie_cast_member (mid, cmid) select ?, ? "
+            + "where not exists (select 1 from movie_cast_member where mid = ? and cmid = ?)";
+
+    // the staging tables, keyed by the ids of the dump and by the normalized name of a person
+    private static final String[] CREATE_STAGING_TABLES = {
+            "create table if not exists import_title (title_id varchar(255) primary key, mid bigint not null)",
+            "create table if not exists import_person (person_id varchar(255) primary key, "
+                    + "name_key varchar(1024) not null, first_name varchar(255) not null, last_name varchar(255) not null)",
+            "create table if not exists import_director (name_key varchar(1024) primary key, did bigint not null)",
+            "create table if not exists import_cast_member (name_key varchar(1024) primary key, cmid bigint not null)"
+    };
+
+    private static final String[] CLEAR_STAGING_TABLES = {
+            "delete from import_person",
+            "delete from import_director",
+            "delete from import_cast_member"
+    };
+
+    // forgets the titles whose movie has been deleted since, so importing them again saves them again
+    private static final String PRUNE_TITLES = "delete from import_title "
+            + "where not exists (select 1 from movie where movie.mid = import_title.mid)";
+
+    // the first row of a repeated id wins
+    private static final String STAGE_TITLE = "insert into import_title (title_id, mid) select ?, ? "
+            + "where not exists (select 1 from import_title where title_id = ?)";
+
+    private static final String STAGE_PERSON = "insert into import_person (person_id, name_key, first_name, last_name) "
+            + "select ?, ?, ?, ? where not exists (select 1 from import_person where person_id = ?)";
+
+    private static final String STAGE_DIRECTOR = "insert into import_director (name_key, did) select ?, ? "
+            + "where not exists (select 1 from import_director where name_key = ?)";
+
+    private static final String STAGE_CAST_MEMBER = "insert into import_cast_member (name_key, cmid) select ?, ? "
+            + "where not exists (select 1 from import_cast_member where name_key = ?)";
+
+    private static final String COUNT_PEOPLE = "select count(distinct name_key) from import_person";
+
+    private static final String SELECT_MIDS = "select title_id, mid from import_title where title_id in (%s)";
+
+    private static final String SELECT_PEOPLE = "select person_id, first_name, last_name from import_person where person_id in (%s)";
+
+    private static final String SELECT_DIDS = "select name_key, did from import_director where name_key in (%s)";
+
+    private static final String SELECT_CMIDS = "select name_key, cmid from import_cast_member where name_key in (%s)";
+
+    // a page of the people already in the database, read by keyset
+    private static final String SELECT_DIRECTOR_NAMES = "select did, first_name, last_name from director where did > ? order by did limit ?";
+
+    private static final String SELECT_CAST_MEMBER_NAMES = "select cmid, first_name, last_name from cast_member where cmid > ? order by cmid limit ?";
+
+    @Autowired // Injected Singleton
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired // Injected Singleton
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired // Injected Singleton
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+
+    /**
+     * Imports titles, then people, then the credits linking them
+     *
+     * @param titles  A titles file
+     * @param people  A people file
+     * @param credits A credits file
+     * @return A report of what was imported
+     * @throws IOException if a file can not be read
+     */
+    public ImportReport importCatalog(Path titles, Path people, Path credits) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+
+        for (String create : CREATE_STAGING_TABLES) {
+            jdbcTemplate.execute(create);
+        }
+        clearStagingTables(); // left over by an import that did not finish
+        jdbcTemplate.update(PRUNE_TITLES);
+        try {
+            pipe("titles", titles, 5, report, batch -> writeTitles(batch, report));
+
+            pipe("people", people, 3, report, this::stagePeople);
+            report.setPeople(jdbcTemplate.queryForObject(COUNT_PEOPLE, Long.class));
+
+            stageExistingPeople(SELECT_DIRECTOR_NAMES, STAGE_DIRECTOR);
+            stageExistingPeople(SELECT_CAST_MEMBER_NAMES, STAGE_CAST_MEMBER);
+            pipe("credits", credits, 3, report, batch -> writeCredits(batch, report));
+        } finally {
+            clearStagingTables();
+        }
+
+        report.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        LOG.info("Catalog import finished: {}", report);
+        return report;
+    }
+
+
+    /**
+     * Streams the rows of a file through a batch pipeline, rows without the expected number of columns are skipped
+     *
+     * @param name    The name of the rows for progress logs
+     * @param file    A tab separated file with a header line
+     * @param columns The number of columns of a row
+     * @param report  The report to count skipped rows on
+     * @param writer  Writes a batch of rows
+     * @return The number of rows written
+     * @throws IOException if the file can not be read
+     */
+    private long pipe(String name, Path file, int columns, ImportReport report, Consumer<List<String[]>> writer) throws IOException {
+        AtomicLong malformed = new AtomicLong(); // counted on the reader thread
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            Iterator<String[]> rows = lines.skip(1) // header
+                    .filter(line -> !line.isEmpty())
+                    .map(line -> line.split("\t", -1))
+                    .filter(row -> {
+                        if (row.length != columns) {
+                            malformed.incrementAndGet();
+                            return false;
+                        }
+                        return true;
+                    })
+                    .iterator();
+            long written = new BatchPipeline<String[]>(name, BATCH_SIZE, QUEUE_CAPACITY, PROGRESS_INTERVAL_MILLIS).run(rows, writer);
+            report.addSkippedRows(malformed.get());
+            return written;
+        }
+    }
+
+
+    /**
+     * Saves a batch of titles as movies, the inserts are sent as jdbc batches, and stages the mid of each title id. A
+     * title id already staged, by an earlier batch or import, or earlier in the batch, is not saved again.
+     *
+     * @param batch  Title rows
+     * @param report The report to count the titles saved on
+     */
+    private void writeTitles(List<String[]> batch, ImportReport report) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> titleIds = new HashSet<>();
+            for (String[] row : batch) {
+                titleIds.add(row[0]);
+            }
+            Set<String> saved = idsByKey(SELECT_MIDS, titleIds).keySet();
+            Map<String, MovieModel> movies = new HashMap<>();
+            for (String[] row : batch) {
+                String title = value(row[1]);
+                if (title == null) {
+                    report.addSkippedRows(1);
+                    continue;
+                }
+                if (saved.contains(row[0]) || movies.containsKey(row[0])) {
+                    continue; // saved as a movie already
+                }
+                MovieModel movie = new MovieModel(title, value(row[2]), value(row[3]), releaseDate(value(row[4])));
+                entityManager.persist(movie); // mid is taken from the pooled sequence
+                movies.put(row[0], movie);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            List<Object[]> staged = new ArrayList<>(movies.size());
+            movies.forEach((titleId, movie) -> staged.add(new Object[]{titleId, movie.getMid(), titleId}));
+            jdbcTemplate.batchUpdate(STAGE_TITLE, staged);
+            report.addTitles(movies.size());
+        });
+    }
+
+
+    /**
+     * Stages a batch of people with the name key they are matched by
+     *
+     * @param batch Person rows
+     */
+    private void stagePeople(List<String[]> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> staged = new ArrayList<>(batch.size());
+            for (String[] row : batch) {
+                PersonName name = new PersonName(NULL.equals(row[1]) ? "" : row[1], NULL.equals(row[2]) ? "" : row[2]);
+                staged.add(new Object[]{row[0], name.key, name.firstName, name.lastName, row[0]});
+            }
+            jdbcTemplate.batchUpdate(STAGE_PERSON, staged);
+        });
+    }
+
+
+    /**
+     * Stages the ids of the people already in the database by name key, a page at a time
+     *
+     * @param select Selects a page of id, first name and last name after an id
+     * @param stage  Stages a name key and id
+     */
+    private void stageExistingPeople(String select, String stage) {
+        long after = 0;
+        while (true) {
+            List<Object[]> staged = new ArrayList<>(BATCH_SIZE);
+            long[] last = {after};
+            jdbcTemplate.query(select, rs -> {
+                String key = PersonName.key(rs.getString(2), rs.getString(3));
+                staged.add(new Object[]{key, rs.getLong(1), key});
+                last[0] = rs.getLong(1);
+            }, after, BATCH_SIZE);
+            if (staged.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(stage, staged));
+            after = last[0];
+        }
+    }
+
+
+    /**
+     * Saves a batch of credits, creating the directors and cast members not seen yet and adding the join rows. Only
+     * the title ids, person ids and names of the batch are looked up in the staging tables.
+     */
+    private void writeCredits(List<String[]> batch, ImportReport report) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> titleIds = new HashSet<>();
+            Set<String> personIds = new HashSet<>();
+            for (String[] row : batch) {
+                titleIds.add(row[0]);
+                personIds.add(row[1]);
+            }
+            Map<String, Long> midsByTitleId = idsByKey(SELECT_MIDS, titleIds);
+            Map<String, PersonName> namesByPersonId = new HashMap<>();
+            jdbcTemplate.query(String.format(SELECT_PEOPLE, placeholders(personIds.size())),
+                    rs -> {
+                        namesByPersonId.put(rs.getString(1), new PersonName(rs.getString(2), rs.getString(3)));
+                    }, personIds.toArray());
+            Set<String> keys = new HashSet<>();
+            namesByPersonId.values().forEach(name -> keys.add(name.key));
+            Map<String, Long> didsByName = idsByKey(SELECT_DIDS, keys);
+            Map<String, Long> cmidsByName = idsByKey(SELECT_CMIDS, keys);
+
+            Map<String, DirectorModel> newDirectors = new HashMap<>();
+            Map<String, CastMemberModel> newCastMembers = new HashMap<>();
+            List<Object[]> directorLinks = new ArrayList<>();
+            List<Object[]> castMemberLinks = new ArrayList<>();
+            long skipped = 0;
+
+            for (String[] row : batch) {
+                Long mid = midsByTitleId.get(row[0]);
+                PersonName name = namesByPersonId.get(row[1]);
+                if (mid == null || name == null) {
+                    skipped++;
+                } else if ("director".equalsIgnoreCase(row[2])) {
+                    Long did = didsByName.get(name.key);
+                    if (did == null) {
+                        DirectorModel director = newDirectors.computeIfAbsent(name.key, key -> {
+                            DirectorModel created = new DirectorModel(name.firstName, name.lastName);
+                            entityManager.persist(created); // did is taken from the pooled sequence
+                            return created;
+                        });
+                        did = director.getDid();
+                    }
+                    directorLinks.add(new Object[]{mid, did, mid, did});
+                } else if ("cast".equalsIgnoreCase(row[2])) {
+                    Long cmid = cmidsByName.get(name.key);
+                    if (cmid == null) {
+                        CastMemberModel castMember = newCastMembers.computeIfAbsent(name.key, key -> {
+                            CastMemberModel created = new CastMemberModel(name.firstName, name.lastName);
+                            entityManager.persist(created); // cmid is taken from the pooled sequence
+                            return created;
+                        });
+                        cmid = castMember.getCmid();
+                    }
+                    castMemberLinks.add(new Object[]{mid, cmid, mid, cmid});
+                } else {
+                    skipped++;
+                }
+            }
+
+            entityManager.flush(); // people before the join rows referencing them
+            entityManager.clear();
+            jdbcTemplate.batchUpdate(LINK_DIRECTOR, directorLinks);
+            jdbcTemplate.batchUpdate(LINK_CAST_MEMBER, castMemberLinks);
+
+            // staged for the batches that follow, rolled back along with the people if the batch fails
+            List<Object[]> stagedDirectors = new ArrayList<>(newDirectors.size());
+            newDirectors.forEach((key, director) -> stagedDirectors.add(new Object[]{key, director.getDid(), key}));
+            jdbcTemplate.batchUpdate(STAGE_DIRECTOR, stagedDirectors);
+            List<Object[]> stagedCastMembers = new ArrayList<>(newCastMembers.size());
+            newCastMembers.forEach((key, castMember) -> stagedCastMembers.add(new Object[]{key, castMember.getCmid(), key}));
+            jdbcTemplate.batchUpdate(STAGE_CAST_MEMBER, stagedCastMembers);
+
+            if (!newDirectors.isEmpty() || !newCastMembers.isEmpty()) {
+                eventPublisher.publishEvent(new PeopleSavedEvent(new ArrayList<>(newDirectors.values()),
+                        new ArrayList<>(newCastMembers.values())));
+            }
+            report.addDirectorsCreated(newDirectors.size());
+            report.addCastMembersCreated(newCastMembers.size());
+            report.addDirectorCredits(directorLinks.size());
+            report.addCastMemberCredits(castMemberLinks.size());
+            report.addSkippedRows(skipped);
+        });
+    }
+
+
+    /**
+     * Looks up the staged ids of some keys
+     *
+     * @param select Selects key and id for an in list of keys
+     * @param keys   The keys of a batch
+     * @return Ids by key, for the keys that are staged
+     */
+    private Map<String, Long> idsByKey(String select, Set<String> keys) {
+        Map<String, Long> idsByKey = new HashMap<>();
+        if (!keys.isEmpty()) {
+            jdbcTemplate.query(String.format(select, placeholders(keys.size())),
+                    rs -> {
+                        idsByKey.put(rs.getString(1), rs.getLong(2));
+                    }, keys.toArray());
+        }
+        return idsByKey;
+    }
+
+
+    private void clearStagingTables() {
+        for (String clear : CLEAR_STAGING_TABLES) {
+            jdbcTemplate.update(clear);
+        }
+    }
+
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+
+    private static String value(String column) {
+        return NULL.equals(column) || column.isEmpty() ? null : column;
+    }
+
+
+    private static Date releaseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            LocalDate date = value.length() == 4 ? LocalDate.of(Integer.parseInt(value), 1, 1) : LocalDate.parse(value);
+            return java.sql.Date.valueOf(date);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * A person's name, along with the normalized key people are matched by
+     */
+    static final class PersonName {
+
+        private final String firstName;
+
+        private final String lastName;
+
+        private final String key;
+
+        PersonName(String firstName, String lastName) {
+            this.firstName = firstName.trim();
+            this.lastName = lastName.trim();
+            this.key = key(firstName, lastName);
+        }
+
+        static String key(String firstName, String lastName) {
+            return normalize(firstName) + '\t' + normalize(lastName);
+        }
+
+        private static String normalize(String name) {
+            return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.Import;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Counts of what a catalog import read and wrote, and how fast it went.
+ */
+public class ImportReport {
+
+    private long titles;
+
+    private long people;
+
+    private long directorsCreated;
+
+    private long castMembersCreated;
+
+    private long directorCredits;
+
+    private long castMemberCredits;
+
+    private long skippedRows;
+
+    private long elapsedMillis;
+
+    ///
+    ///GETTERS AND SETTERS
+    ///
+
+    public long getTitles() {
+        return titles;
+    }
+
+    public void addTitles(long count) {
+        this.titles += count;
+    }
+
+    public long getPeople() {
+        return people;
+    }
+
+    public void setPeople(long people) {
+        this.people = people;
+    }
+
+    public long getDirectorsCreated() {
+        return directorsCreated;
+    }
+
+    public void addDirectorsCreated(long count) {
+        this.directorsCreated += count;
+    }
+
+    public long getCastMembersCreated() {
+        return castMembersCreated;
+    }
+
+    public void addCastMembersCreated(long count) {
+        this.castMembersCreated += count;
+    }
+
+    public long getDirectorCredits() {
+        return directorCredits;
+    }
+
+    public void addDirectorCredits(long count) {
+        this.directorCredits += count;
+    }
+
+    public long getCastMemberCredits() {
+        return castMemberCredits;
+    }
+
+    public void addCastMemberCredits(long count) {
+        this.castMemberCredits += count;
+    }
+
+    public long getSkippedRows() {
+        return skippedRows;
+    }
+
+    public void addSkippedRows(long count) {
+        this.skippedRows += count;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return Rows read from all files per second
+     */
+    public long getRowsPerSecond() {
+        long rows = titles + people + directorCredits + castMemberCredits + skippedRows;
+        return elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "titles=" + titles + ", people=" + people + ", directorsCreated=" + directorsCreated
+                + ", castMembersCreated=" + castMembersCreated + ", directorCredits=" + directorCredits
+                + ", castMemberCredits=" + castMemberCredits + ", skippedRows=" + skippedRows
+                + ", elapsedMillis=" + elapsedMillis + ", rowsPerSecond=" + getRowsPerSecond();
+    }
+}
@@ -0,0 +1,49 @@
+package com.Movie;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * The outcome of one movie of a bulk create, either the mid it was saved with or the reason it was not saved.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MovieBulkResult {
+
+    private final int index;
+
+    private final Long mid;
+
+    private final String error;
+
+    //Constructor
+    private MovieBulkResult(int index, Long mid, String error) {
+        this.index = index;
+        this.mid = mid;
+        this.error = error;
+    }
+
+    public static MovieBulkResult created(int index, Long mid) {
+        return new MovieBulkResult(index, mid, null);
+    }
+
+    public static MovieBulkResult failed(int index, String error) {
+        return new MovieBulkResult(index, null, error);
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getMid() {
+        return mid;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
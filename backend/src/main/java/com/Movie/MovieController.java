@@ -1,9 +1,17 @@
 package com.Movie;
 
+import com.Http.IfMatch;
+import com.Pagination.CursorPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,25 +36,81 @@ public class MovieController {
     }
 
     /***
-     * Gets all movies in json format at
-     * http://localhost:8080/api/{version}/movie/
+     * Gets a page of movies in json format, optionally filtered, at
+     * http://localhost:8080/api/{version}/movie/?limit=&cursor=&genre=&releasedFrom=&releasedTo=&titlePrefix=
      *
-     * @return Json List of all movies in the db
+     * @param cursor       The next cursor of the previous page, omitted for the first page
+     * @param limit        The page size, 50 by default and at most 500
+     * @param genre        Only movies of this genre, omitted for any
+     * @param releasedFrom Only movies released on or after this yyyy-MM-dd date, omitted for any
+     * @param releasedTo   Only movies released on or before this yyyy-MM-dd date, omitted for any
+     * @param titlePrefix  Only movies whose title starts with this, omitted for any
+     * @param fields       The fields to send, such as mid,title, omitted for all of them
+     * @return Json page of movies with the cursor of the next page, next is null on the last page
      */
     @GetMapping("/movie")
-    public List<MovieModel> getAllMovies() {
-        return movieService.getAllMovies(); // returns a list of movies
+    public CursorPage<?> getAllMovies(@RequestParam(value = "cursor", required = false) String cursor,
+                                      @RequestParam(value = "limit", defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit,
+                                      @RequestParam(value = "genre", required = false) String genre,
+                                      @RequestParam(value = "releasedFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date releasedFrom,
+                                      @RequestParam(value = "releasedTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date releasedTo,
+                                      @RequestParam(value = "titlePrefix", required = false) String titlePrefix,
+                                      @RequestParam(value = "fields", required = false) String fields) {
+        MovieFilter filter = new MovieFilter(genre, releasedFrom, releasedTo, titlePrefix);
+        if (fields != null) {
+            return movieService.getAllMovieFields(filter, fields, cursor, limit); // only the columns of the given fields are read
+        }
+        return movieService.getAllMovies(filter, cursor, limit); // returns a page of movies
     }
 
     /***
-     * Gets all movies in json format for a certain user
-     * http://localhost:8080/api/{version}/users/movie/?username=
+     * Searches movie titles in json format, best match first, at
+     * http://localhost:8080/api/{version}/movie/search/?q=&cursor=&limit=
+     *
+     * @param q      The words to search for, a title matches when it has a word starting with each of them
+     * @param cursor The next cursor of the previous page, omitted for the first page
+     * @param limit  The page size, 50 by default and at most 500
+     * @return Json page of movies with the cursor of the next page, next is null on the last page
+     */
+    @GetMapping("/movie/search")
+    public CursorPage<MovieView> searchMovies(@RequestParam("q") String q,
+                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                              @RequestParam(value = "limit", defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return movieService.searchMovies(q, cursor, limit); // returns a page of movies
+    }
+
+    /***
+     * Exports every movie as newline delimited json, one movie per line, at
+     * http://localhost:8080/api/{version}/movie/export/
+     * The movies are written to the response while they are read from the db, so the whole catalog is never held in
+     * memory.
+     *
+     * @param response The http response to write the movies to
+     * @throws IOException if the response can not be written to
+     */
+    @GetMapping(value = "/movie/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportMovies(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        movieService.exportMovies(response.getOutputStream());
+    }
+
+    /***
+     * Gets a page of movies in json format for a certain user, ordered by title or release date, at
+     * http://localhost:8080/api/{version}/users/movie/?username=&sort=&cursor=&limit=
      *
-     * @return Json List of all movies in the db
+     * @param username A given username
+     * @param sort     title by default, or releaseDate with the movies without one last
+     * @param cursor   The next cursor of the previous page, omitted for the first page
+     * @param limit    The page size, 50 by default and at most 500
+     * @return Json page of the user's movies with the cursor of the next page, next is null on the last page
      */
     @GetMapping("/users/movie")
-    public List<MovieModel> getAllUserMovies(@RequestParam("username") String username) {
-        return movieService.getAllUserMovies(username); // returns a list of movies
+    public CursorPage<MovieView> getAllUserMovies(@RequestParam("username") String username,
+                                                  @RequestParam(value = "sort", defaultValue = MovieService.USER_MOVIES_BY_TITLE) String sort,
+                                                  @RequestParam(value = "cursor", required = false) String cursor,
+                                                  @RequestParam(value = "limit", defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return movieService.getAllUserMovies(username, sort, cursor, limit); // returns a page of movies
     }
 
 
@@ -62,6 +126,19 @@ public class MovieController {
         return movieService.createMovie(movie);
     }
 
+    /**
+     * Creates many movies at once, given a request body containing a list of movies on
+     * http://localhost:8080/api/{version}/movie/bulk/
+     * Directors, cast members and studios given with an id are linked to the movie, ones without an id are created.
+     *
+     * @param movies a list of movies in json format
+     * @return A list holding the mid or the error of every movie, in the order they were given
+     */
+    @PostMapping("/movie/bulk")
+    public List<MovieBulkResult> createMovies(@RequestBody List<MovieModel> movies) {
+        return movieService.createMovies(movies);
+    }
+
     /**
      * Creates a movie for a certain user,
      * given a request body containing a movie and a username
@@ -82,27 +159,76 @@ public class MovieController {
      * http://localhost:8080/api/{version}/movie/{mid}/
      *
      * @param mid A given mid path variable
-     * @return Http response 200 with movie response body if ok, otherwise 404 not found rnf exception
+     * @param fields The fields to send, omitted for all of them. A part of the movie is sent without an ETag.
+     * @param request The request, for its If-None-Match header
+     * @return Http response 200 with movie response body and its ETag if ok, 304 not modified if the client's copy is
+     * current, otherwise 404 not found rnf exception, or 400 bad request for a field that can not be selected
      */
     @GetMapping("/movie/{mid}")
-    public ResponseEntity<MovieModel> getMovieById(@PathVariable Long mid) {
-        MovieModel movie = movieService.getMovieById(mid);
+    public ResponseEntity<?> getMovieById(@PathVariable Long mid, @RequestParam(value = "fields", required = false) String fields,
+                                          WebRequest request) {
+        if (fields != null) {
+            return ResponseEntity.ok(movieService.getMovieFieldsById(mid, fields));
+        }
+        MovieView movie = movieService.getMovieById(mid);
+        // sets the ETag, or the 304 status when it matches If-None-Match
+        if (request.checkNotModified(String.valueOf(movie.getVersion()))) {
+            return null; // nothing to serialize
+        }
         return ResponseEntity.ok(movie);
     }
 
 
+    /**
+     * Gets a movie by mid along with its directors, cast members and studios on
+     * http://localhost:8080/api/{version}/movie/{mid}/detail/
+     *
+     * @param mid A given mid path variable
+     * @return Http response 200 with movie detail response body if ok, otherwise 404 not found rnf exception
+     */
+    @GetMapping("/movie/{mid}/detail")
+    public ResponseEntity<MovieDetail> getMovieDetail(@PathVariable Long mid) {
+        MovieDetail movieDetail = movieService.getMovieDetail(mid);
+        return ResponseEntity.ok(movieDetail);
+    }
+
+
     /**
      * Updates a movie by a given mid and a given request body to update to on
      * http://localhost:8080/api/{version}/movie/{mid}/
      *
      * @param mid          A given mid path variable
      * @param movieDetails Movies details to update to in form on json request body
-     * @return Http response 200 with movie response body if ok, otherwise 404 not found rnf exception
+     * @param ifMatch      The ETag the client last read, to only update if nobody else has since
+     * @return Http response 200 with movie response body and its new ETag if ok, 412 precondition failed if the
+     * movie has changed, otherwise 404 not found rnf exception
      */
     @PutMapping("/movie/{mid}")
-    public ResponseEntity<MovieModel> updateMovie(@PathVariable Long mid, @RequestBody MovieModel movieDetails) {
-        MovieModel updatedMovie = movieService.updateMovie(mid, movieDetails);
-        return ResponseEntity.ok(updatedMovie);
+    public ResponseEntity<MovieModel> updateMovie(@PathVariable Long mid, @RequestBody MovieModel movieDetails,
+                                                  @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        MovieModel updatedMovie = movieService.updateMovie(mid, movieDetails, IfMatch.version(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(updatedMovie.getVersion())).body(updatedMovie);
+    }
+
+
+    /**
+     * Patches only the given fields of a movie on
+     * http://localhost:8080/api/{version}/movie/{mid}/
+     *
+     * @param mid     A given mid path variable
+     * @param changes Only the fields to change in form of json request body
+     * @param ifMatch The ETag the client last read, to only patch if nobody else has since
+     * @return Http response 204 no content, with the new ETag if If-Match was given, 412 precondition failed if the
+     * movie has changed, 400 bad request for a field that can not be patched, otherwise 404 not found rnf exception
+     */
+    @PatchMapping("/movie/{mid}")
+    public ResponseEntity<Void> patchMovie(@PathVariable Long mid, @RequestBody Map<String, Object> changes,
+                                           @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Long version = movieService.patchMovie(mid, changes, IfMatch.version(ifMatch));
+        if (version == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
     }
 
 
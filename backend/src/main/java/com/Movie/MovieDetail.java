@@ -0,0 +1,80 @@
+package com.Movie;
+
+import com.CastMember.CastMemberView;
+import com.Director.DirectorView;
+import com.Studio.StudioView;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * A movie along with its directors, cast members and studios, everything a movie page needs in one response.
+ */
+public class MovieDetail {
+
+    private final Long mid;
+
+    private final String title;
+
+    private final String length;
+
+    private final String genre;
+
+    private final Date releaseDate;
+
+    private final List<DirectorView> directors;
+
+    private final List<CastMemberView> castMembers;
+
+    private final List<StudioView> studios;
+
+    //Constructor
+    public MovieDetail(MovieView movie, List<DirectorView> directors, List<CastMemberView> castMembers, List<StudioView> studios) {
+        this.mid = movie.getMid();
+        this.title = movie.getTitle();
+        this.length = movie.getLength();
+        this.genre = movie.getGenre();
+        this.releaseDate = movie.getReleaseDate();
+        this.directors = directors;
+        this.castMembers = castMembers;
+        this.studios = studios;
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public Long getMid() {
+        return mid;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getLength() {
+        return length;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public Date getReleaseDate() {
+        return releaseDate;
+    }
+
+    public List<DirectorView> getDirectors() {
+        return directors;
+    }
+
+    public List<CastMemberView> getCastMembers() {
+        return castMembers;
+    }
+
+    public List<StudioView> getStudios() {
+        return studios;
+    }
+}
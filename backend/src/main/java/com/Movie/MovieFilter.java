@@ -0,0 +1,64 @@
+package com.Movie;
+
+import com.Exception.BadRequestException;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * The optional filters of a movie list, a filter left null matches every movie.
+ */
+public class MovieFilter {
+
+    public static final MovieFilter NONE = new MovieFilter(null, null, null, null);
+
+    private final String genre;
+
+    private final Date releasedFrom;
+
+    private final Date releasedTo;
+
+    private final String titlePrefix;
+
+    //Constructor
+    public MovieFilter(String genre, Date releasedFrom, Date releasedTo, String titlePrefix) {
+        if (releasedFrom != null && releasedTo != null && releasedFrom.after(releasedTo)) {
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd"); // the format the dates were given in
+            throw new BadRequestException("Released from: " + format.format(releasedFrom)
+                    + " is after released to: " + format.format(releasedTo) + "!");
+        }
+        this.genre = genre;
+        this.releasedFrom = releasedFrom;
+        this.releasedTo = releasedTo;
+        this.titlePrefix = titlePrefix == null || titlePrefix.isEmpty() ? null : titlePrefix;
+    }
+
+    /**
+     * @return true if no filter is set
+     */
+    public boolean isEmpty() {
+        return genre == null && releasedFrom == null && releasedTo == null && titlePrefix == null;
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public Date getReleasedFrom() {
+        return releasedFrom;
+    }
+
+    public Date getReleasedTo() {
+        return releasedTo;
+    }
+
+    public String getTitlePrefix() {
+        return titlePrefix;
+    }
+}
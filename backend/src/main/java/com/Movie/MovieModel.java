@@ -5,6 +5,9 @@ import com.CastMember.CastMemberModel;
 import com.Director.DirectorModel;
 import com.Studio.StudioModel;
 import com.User.UserModel;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 import java.util.*;
@@ -15,9 +18,28 @@ import java.util.*;
  * A model for a movie in the movie table
  */
 @Entity
-@Table(name = "movie")
+@Table(name = "movie", indexes = {
+        // a user's movies in the orders /users/movie pages through them, mid breaks ties between equal keys
+        @Index(name = "movie_fk_user_title_idx", columnList = "fk_user, title, mid"),
+        @Index(name = "movie_fk_user_release_date_idx", columnList = "fk_user, release_date, mid"),
+        // the filters of /movie, a genre's movies are read in the mid order the list is paged by
+        @Index(name = "movie_genre_idx", columnList = "genre, mid"),
+        @Index(name = "movie_release_date_idx", columnList = "release_date")
+        // the title prefix filter reads movie_title_prefix_idx, created with text_pattern_ops by MovieSearchIndex
+})
+@SqlResultSetMapping(name = MovieModel.VIEW_MAPPING, classes = @ConstructorResult(targetClass = MovieView.class, columns = {
+        @ColumnResult(name = "mid", type = Long.class),
+        @ColumnResult(name = "version", type = Long.class),
+        @ColumnResult(name = "title", type = String.class),
+        @ColumnResult(name = "length", type = String.class),
+        @ColumnResult(name = "genre", type = String.class),
+        @ColumnResult(name = "release_date", type = java.sql.Date.class) // the same date class the entity reads
+}))
 public class MovieModel {
 
+    // maps the rows of a native query selecting the columns of a movie to a MovieView
+    public static final String VIEW_MAPPING = "MovieView";
+
     //non-parameterized constructor
     public MovieModel() {
     }
@@ -31,42 +53,55 @@ public class MovieModel {
     }
 
     //N:M with Director
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY) // read through the movie detail endpoint
+    @OptimisticLock(excluded = true) // linking does not change the movie, so it does not bump its version
     @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinTable(
             name = "movie_director",
             joinColumns = {@JoinColumn(name = "mid")},
             inverseJoinColumns = {@JoinColumn(name = "did")}
     )
-    private List<DirectorModel> directorModels = new ArrayList<>();
+    private Set<DirectorModel> directorModels = new HashSet<>();
 
     //N:M with CastMember
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY) // read through the movie detail endpoint
+    @OptimisticLock(excluded = true) // linking does not change the movie, so it does not bump its version
     @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinTable(
             name = "movie_cast_member",
             joinColumns = {@JoinColumn(name = "mid")},
             inverseJoinColumns = {@JoinColumn(name = "cmid")}
     )
-    private List<CastMemberModel> castMemberModels = new ArrayList<>();
+    private Set<CastMemberModel> castMemberModels = new HashSet<>();
 
     //N:M with Studio
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY) // read through the movie detail endpoint
+    @OptimisticLock(excluded = true) // linking does not change the movie, so it does not bump its version
     @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinTable(
             name = "movie_studio",
             joinColumns = {@JoinColumn(name = "mid")},
             inverseJoinColumns = {@JoinColumn(name = "sid")}
     )
-    private List<StudioModel> studioModels = new ArrayList<>();
+    private Set<StudioModel> studioModels = new HashSet<>();
 
     //M:1 with User
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY) // a lazy reference, a movie is read without its user
     @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "fk_user")
     private UserModel user;
 
     @Id //pk
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movie_seq")
+    @SequenceGenerator(name = "movie_seq", sequenceName = "movie_seq", allocationSize = 50) // pooled, one nextval per 50 inserts
     @Column(name = "mid")
     private Long mid;
 
+    @Version //optimistic lock, also sent as the ETag of the resource
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY) // served for If-Match, never read from a request
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0") // existing rows start at 0
+    private Long version;
+
     @Column(name = "title", nullable = false)
     private String title;
 
@@ -88,6 +123,18 @@ public class MovieModel {
         return mid;
     }
 
+    public void setMid(Long mid) {
+        this.mid = mid;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
 
     public String getTitle() {
         return title;
@@ -121,15 +168,15 @@ public class MovieModel {
         this.releaseDate = releaseDate;
     }
 
-    public List<DirectorModel> getDirectorModels() {
+    public Set<DirectorModel> getDirectorModels() {
         return directorModels;
     }
 
-    public List<CastMemberModel> getCastMemberModels() {
+    public Set<CastMemberModel> getCastMemberModels() {
         return castMemberModels;
     }
 
-    public List<StudioModel> getStudioModels() {
+    public Set<StudioModel> getStudioModels() {
         return studioModels;
     }
 
@@ -140,4 +187,22 @@ public class MovieModel {
     public void setUser(UserModel user) {
         this.user = user;
     }
-}
\ No newline at end of file
+
+    // identity is the mid once persisted, the hash code is constant so a movie keeps its bucket in a hash set when
+    // its mid is generated on save
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MovieModel)) {
+            return false;
+        }
+        return mid != null && mid.equals(((MovieModel) o).getMid());
+    }
+
+    @Override
+    public int hashCode() {
+        return MovieModel.class.hashCode();
+    }
+}
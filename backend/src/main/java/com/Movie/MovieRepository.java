@@ -1,13 +1,161 @@
 package com.Movie;
 
+import com.CastMember.CastMemberView;
+import com.Director.DirectorView;
+import com.Projection.ProjectionRepository;
+import com.Studio.StudioView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 /***
  * @author Connor Hunter        connh321@gmail.com
  *
  * Where SQL Queries are written and generated by JpaRepository for accessing Movie information.
  */
 @Repository
-public interface MovieRepository extends JpaRepository<MovieModel, Long> {
+public interface MovieRepository extends JpaRepository<MovieModel, Long>, MovieRepositoryCustom, ProjectionRepository {
+
+    // the read model of the queries below, only the columns are selected so no movie is loaded
+    String SELECT_VIEW = "select new com.Movie.MovieView(m.mid, m.version, m.title, m.length, m.genre, m.releaseDate) "
+            + "from MovieModel m ";
+
+    /**
+     * Gets a page of movies after a given mid, in mid order. Reads only the requested rows of the primary key index
+     * no matter how large the table is.
+     *
+     * @param mid      The last mid of the previous page
+     * @param pageable The page size, always page 0
+     * @return A list of movies
+     */
+    @Query(SELECT_VIEW + "where m.mid > :mid order by m.mid")
+    List<MovieView> findByMidGreaterThanOrderByMidAsc(@Param("mid") Long mid, Pageable pageable);
+
+    /**
+     * Gets the columns of a movie by mid
+     *
+     * @param mid A given mid
+     * @return A movie, or empty if it does not exist
+     */
+    @Query(SELECT_VIEW + "where m.mid = :mid")
+    Optional<MovieView> findViewByMid(@Param("mid") Long mid);
+
+    /**
+     * Streams every movie in mid order. Rows are read from the database in chunks of the fetch size as the stream is
+     * consumed, so it must be consumed inside a transaction and closed afterwards.
+     *
+     * @return A stream of all movies
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + MovieService.EXPORT_CHUNK_SIZE),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("select m from MovieModel m order by m.mid")
+    Stream<MovieModel> streamAllByOrderByMid();
+
+    /**
+     * Gets the directors of a movie, in did order
+     *
+     * @param mid A given mid
+     * @return A list of directors, empty if the movie has none or does not exist
+     */
+    @Query("select new com.Director.DirectorView(d.did, d.version, d.firstName, d.lastName) "
+            + "from MovieModel m join m.directorModels d where m.mid = :mid order by d.did")
+    List<DirectorView> findDirectorViewsByMid(@Param("mid") Long mid);
+
+    /**
+     * Gets the cast members of a movie, in cmid order
+     *
+     * @param mid A given mid
+     * @return A list of cast members, empty if the movie has none or does not exist
+     */
+    @Query("select new com.CastMember.CastMemberView(c.cmid, c.version, c.firstName, c.lastName) "
+            + "from MovieModel m join m.castMemberModels c where m.mid = :mid order by c.cmid")
+    List<CastMemberView> findCastMemberViewsByMid(@Param("mid") Long mid);
+
+    /**
+     * Gets the studios of a movie, in sid order
+     *
+     * @param mid A given mid
+     * @return A list of studios, empty if the movie has none or does not exist
+     */
+    @Query("select new com.Studio.StudioView(s.sid, s.version, s.name) "
+            + "from MovieModel m join m.studioModels s where m.mid = :mid order by s.sid")
+    List<StudioView> findStudioViewsByMid(@Param("mid") Long mid);
+
+    /**
+     * Gets the first page of a user's movies in title order, read from the (fk_user, title, mid) index
+     *
+     * @param username A given username
+     * @param pageable The page size, always page 0
+     * @return A list of movies
+     */
+    @Query(SELECT_VIEW + "where m.user.username = :username order by m.title, m.mid")
+    List<MovieView> findByUserOrderByTitle(@Param("username") String username, Pageable pageable);
+
+    /**
+     * Gets a page of a user's movies in title order after a given title and mid. The index is read from the given
+     * title onwards, so the pages before it are not read again.
+     *
+     * @param username A given username
+     * @param title    The last title of the previous page
+     * @param mid      The last mid of the previous page
+     * @param pageable The page size, always page 0
+     * @return A list of movies
+     */
+    @Query(SELECT_VIEW + "where m.user.username = :username and m.title >= :title "
+            + "and (m.title > :title or m.mid > :mid) order by m.title, m.mid")
+    List<MovieView> findByUserOrderByTitleAfter(@Param("username") String username, @Param("title") String title,
+                                                @Param("mid") Long mid, Pageable pageable);
+
+    /**
+     * Gets the first page of a user's movies that have a release date in release date order, read from the
+     * (fk_user, release_date, mid) index
+     *
+     * @param username A given username
+     * @param pageable The page size, always page 0
+     * @return A list of movies
+     */
+    @Query(SELECT_VIEW + "where m.user.username = :username and m.releaseDate is not null "
+            + "order by m.releaseDate, m.mid")
+    List<MovieView> findByUserOrderByReleaseDate(@Param("username") String username, Pageable pageable);
+
+    /**
+     * Gets a page of a user's movies that have a release date in release date order after a given release date and
+     * mid
+     *
+     * @param username    A given username
+     * @param releaseDate The last release date of the previous page
+     * @param mid         The last mid of the previous page
+     * @param pageable    The page size, always page 0
+     * @return A list of movies
+     */
+    @Query(SELECT_VIEW + "where m.user.username = :username and m.releaseDate >= :releaseDate "
+            + "and (m.releaseDate > :releaseDate or m.mid > :mid) order by m.releaseDate, m.mid")
+    List<MovieView> findByUserOrderByReleaseDateAfter(@Param("username") String username,
+                                                      @Param("releaseDate") Date releaseDate,
+                                                      @Param("mid") Long mid, Pageable pageable);
+
+    /**
+     * Gets a page of a user's movies without a release date in mid order after a given mid, they come after the ones
+     * with a release date
+     *
+     * @param username A given username
+     * @param mid      The last mid of the previous page
+     * @param pageable The page size, always page 0
+     * @return A list of movies
+     */
+    @Query(SELECT_VIEW + "where m.user.username = :username and m.releaseDate is null and m.mid > :mid "
+            + "order by m.mid")
+    List<MovieView> findByUserWithoutReleaseDateAfter(@Param("username") String username, @Param("mid") Long mid,
+                                                      Pageable pageable);
 }
@@ -0,0 +1,46 @@
+package com.Movie;
+
+import java.util.List;
+import java.util.Map;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Movie queries built at runtime, added to the {@link MovieRepository}.
+ */
+public interface MovieRepositoryCustom {
+
+    /**
+     * Gets a page of the movies matching a filter after a given mid, in mid order. Only the set filters become
+     * predicates, so each one can be answered from its index.
+     *
+     * @param filter A given filter
+     * @param mid    The last mid of the previous page
+     * @param limit  The page size
+     * @return A list of movies
+     */
+    List<MovieView> findByFilterAndMidGreaterThan(MovieFilter filter, Long mid, int limit);
+
+    /**
+     * Gets the given fields of a page of the movies matching a filter after a given mid, in mid order. The same query
+     * as {@link #findByFilterAndMidGreaterThan(MovieFilter, Long, int)} selecting only those columns.
+     *
+     * @param filter A given filter
+     * @param fields The fields parsed by {@link com.Projection.FieldProjection#parse(String)}
+     * @param mid    The last mid of the previous page
+     * @param limit  The page size
+     * @return The fields of a list of movies
+     */
+    List<Map<String, Object>> findFieldsByFilterAndMidGreaterThan(MovieFilter filter, List<String> fields, Long mid, int limit);
+
+    /**
+     * Gets a page of the movies whose title has a word starting with each of the given words, best match first.
+     * Searched through the title's text index where the database has one.
+     *
+     * @param words  Lower case words made of letters and digits only
+     * @param offset The number of matches before the page
+     * @param limit  The page size
+     * @return A list of movies
+     */
+    List<MovieView> searchByTitle(List<String> words, int offset, int limit);
+}
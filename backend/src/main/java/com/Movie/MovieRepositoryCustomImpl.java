@@ -0,0 +1,150 @@
+package com.Movie;
+
+import com.Projection.FieldProjection;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Builds the movie queries of {@link MovieRepositoryCustom}, filters with the criteria api and title search with
+ * native queries for the database.
+ */
+public class MovieRepositoryCustomImpl implements MovieRepositoryCustom {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    // the columns of a MovieView, see MovieModel.VIEW_MAPPING
+    private static final String SELECT_VIEW = "select m.mid, m.version, m.title, m.length, m.genre, m.release_date from movie m ";
+
+    // ranked by how much of the title matched, ts_rank normalization 1 favours shorter titles
+    private static final String SEARCH = SELECT_VIEW + "where m.title_tsv @@ to_tsquery('simple', :query) "
+            + "order by ts_rank(m.title_tsv, to_tsquery('simple', :query), 1) desc, m.mid";
+
+    // without a text index the shortest titles with every word come first
+    private static final String SEARCH_WITHOUT_INDEX = SELECT_VIEW + "where %s order by length(m.title), m.mid";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<MovieView> findByFilterAndMidGreaterThan(MovieFilter filter, Long mid, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MovieView> query = builder.createQuery(MovieView.class);
+        Root<MovieModel> movie = query.from(MovieModel.class);
+        query.select(builder.construct(MovieView.class, movie.get("mid"), movie.get("version"), movie.get("title"),
+                movie.get("length"), movie.get("genre"), movie.get("releaseDate")));
+        return filter(query, movie, filter, mid, limit).getResultList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByFilterAndMidGreaterThan(MovieFilter filter, List<String> fields, Long mid, int limit) {
+        CriteriaQuery<Tuple> query = entityManager.getCriteriaBuilder().createTupleQuery();
+        Root<MovieModel> movie = query.from(MovieModel.class);
+        query.multiselect(FieldProjection.select(movie, fields));
+        return filter(query, movie, filter, mid, limit).getResultList().stream()
+                .map(FieldProjection::toMap)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<MovieView> searchByTitle(List<String> words, int offset, int limit) {
+        Query query;
+        if (MovieSearchIndex.isSupported(entityManager.getEntityManagerFactory())) {
+            // every word has to match the start of a word of the title
+            query = entityManager.createNativeQuery(SEARCH, MovieModel.VIEW_MAPPING)
+                    .setParameter("query", words.stream().map(word -> word + ":*").collect(Collectors.joining(" & ")));
+        } else {
+            // the title starts with the word, or has it after a space
+            String predicates = IntStream.range(0, words.size())
+                    .mapToObj(i -> "(lower(m.title) like :word" + i + " or lower(m.title) like :spaceWord" + i + ")")
+                    .collect(Collectors.joining(" and "));
+            query = entityManager.createNativeQuery(String.format(SEARCH_WITHOUT_INDEX, predicates), MovieModel.VIEW_MAPPING);
+            for (int i = 0; i < words.size(); i++) {
+                query.setParameter("word" + i, words.get(i) + "%"); // words hold no wildcards
+                query.setParameter("spaceWord" + i, "% " + words.get(i) + "%");
+            }
+        }
+        return query.setFirstResult(offset).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Adds the predicates of a filter and the mid of the previous page to a query, in mid order
+     *
+     * @param query  A query selecting from movies
+     * @param movie  The query's movie root
+     * @param filter A given filter
+     * @param mid    The last mid of the previous page
+     * @param limit  The page size
+     * @return The query with its parameters bound
+     */
+    private <T> TypedQuery<T> filter(CriteriaQuery<T> query, Root<MovieModel> movie, MovieFilter filter, Long mid, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+
+        // values are bound as parameters so the database can reuse the plan of each combination of filters
+        ParameterExpression<Long> midParameter = builder.parameter(Long.class);
+        ParameterExpression<String> genreParameter = builder.parameter(String.class);
+        ParameterExpression<Date> releasedFromParameter = builder.parameter(Date.class);
+        ParameterExpression<Date> releasedToParameter = builder.parameter(Date.class);
+        ParameterExpression<String> titleParameter = builder.parameter(String.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(builder.greaterThan(movie.get("mid"), midParameter));
+        if (filter.getGenre() != null) {
+            predicates.add(builder.equal(movie.get("genre"), genreParameter));
+        }
+        if (filter.getReleasedFrom() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(movie.get("releaseDate"), releasedFromParameter));
+        }
+        if (filter.getReleasedTo() != null) {
+            predicates.add(builder.lessThanOrEqualTo(movie.get("releaseDate"), releasedToParameter));
+        }
+        if (filter.getTitlePrefix() != null) {
+            predicates.add(builder.like(movie.get("title"), titleParameter, LIKE_ESCAPE));
+        }
+        query.where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.asc(movie.get("mid")));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query).setMaxResults(limit);
+        typedQuery.setParameter(midParameter, mid);
+        if (filter.getGenre() != null) {
+            typedQuery.setParameter(genreParameter, filter.getGenre());
+        }
+        if (filter.getReleasedFrom() != null) {
+            typedQuery.setParameter(releasedFromParameter, filter.getReleasedFrom());
+        }
+        if (filter.getReleasedTo() != null) {
+            typedQuery.setParameter(releasedToParameter, filter.getReleasedTo());
+        }
+        if (filter.getTitlePrefix() != null) {
+            typedQuery.setParameter(titleParameter, escapeLike(filter.getTitlePrefix()) + "%");
+        }
+        return typedQuery;
+    }
+
+    /**
+     * Escapes the wildcards of a like pattern, so a title prefix only matches itself
+     *
+     * @param value A given value
+     * @return The value with its wildcards escaped
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
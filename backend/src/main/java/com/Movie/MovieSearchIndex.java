@@ -0,0 +1,69 @@
+package com.Movie;
+
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * The text indexes of movie titles. On Postgres the movie table gets a tsvector column generated from the title
+ * and a GIN index on it, so every insert and update of a title keeps it current whichever way it is written. Other
+ * databases have no text index and title search falls back to like predicates.
+ * <p>
+ * The title prefix filter of /movie is a like 'prefix%', which Postgres only answers from a btree index built with
+ * text_pattern_ops unless the database uses the C collation, so that index is created here rather than declared on
+ * the entity, where Hibernate would build a plain one.
+ */
+@Component
+public class MovieSearchIndex {
+
+    // 'simple' lower cases words without stemming them, so a search matches the words of a title as typed
+    static final String ADD_COLUMN = "alter table movie add column if not exists title_tsv tsvector "
+            + "generated always as (to_tsvector('simple', coalesce(title, ''))) stored";
+
+    static final String CREATE_INDEX = "create index if not exists movie_title_tsv_idx on movie using gin (title_tsv)";
+
+    // the plain index the entity used to declare, like predicates can not use it
+    static final String DROP_PLAIN_PREFIX_INDEX = "drop index if exists movie_title_idx";
+
+    static final String CREATE_PREFIX_INDEX = "create index if not exists movie_title_prefix_idx on movie (title text_pattern_ops)";
+
+    @Autowired // Injected Singleton
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired // Injected Singleton, the movie table is created with it
+    private EntityManagerFactory entityManagerFactory;
+
+    //Constructor
+    public MovieSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the generated column and the title indexes on Postgres, each is left alone if it already exists
+     */
+    @PostConstruct
+    public void create() {
+        if (isSupported(entityManagerFactory)) {
+            jdbcTemplate.execute(ADD_COLUMN);
+            jdbcTemplate.execute(CREATE_INDEX);
+            jdbcTemplate.execute(DROP_PLAIN_PREFIX_INDEX);
+            jdbcTemplate.execute(CREATE_PREFIX_INDEX);
+        }
+    }
+
+    /**
+     * @param entityManagerFactory The entity manager factory of the database
+     * @return true if titles are searched through the text index, false if through like predicates
+     */
+    static boolean isSupported(EntityManagerFactory entityManagerFactory) {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                instanceof PostgreSQL81Dialect;
+    }
+}
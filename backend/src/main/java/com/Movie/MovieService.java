@@ -1,12 +1,48 @@
 package com.Movie;
 
+import com.CastMember.CastMemberModel;
+import com.CastMember.CastMemberView;
+import com.Director.DirectorModel;
+import com.Director.DirectorView;
+import com.Exception.BadRequestException;
+import com.Exception.PreconditionFailedException;
 import com.Exception.ResourceNotFoundException;
+import com.Http.IfMatch;
+import com.Pagination.Cursor;
+import com.Pagination.CursorPage;
+import com.Patch.PartialUpdate;
+import com.Projection.FieldProjection;
+import com.Studio.StudioModel;
+import com.Studio.StudioView;
 import com.User.UserModel;
 import com.User.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /***
  * @author Connor Hunter        connh321@gmail.com
@@ -17,36 +53,225 @@ import java.util.List;
  */
 @Service
 public class MovieService {
+
+    // rows read from the database and written out before the persistence context is cleared
+    static final int EXPORT_CHUNK_SIZE = 500;
+
+    // movies saved per transaction by a bulk create
+    static final int BULK_CHUNK_SIZE = 1000;
+
+    // the orders a user's movies can be paged through
+    static final String USER_MOVIES_BY_TITLE = "title";
+
+    static final String USER_MOVIES_BY_RELEASE_DATE = "releaseDate";
+
+    // anything but letters and digits separates the words of a search
+    static final Pattern SEARCH_WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // words of a search past this are ignored
+    static final int SEARCH_MAX_WORDS = 8;
+
+    // movies held by the getMovieById cache
+    static final int CACHE_MAXIMUM_SIZE = 10_000;
+
+    // a cached movie read after this long is reloaded in the background while the old copy is still served
+    static final Duration CACHE_REFRESH_AFTER = Duration.ofSeconds(30);
+
+    // a cached movie not reloaded for this long is dropped
+    static final Duration CACHE_TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    // the fields a fieldset can select, every column a movie is serialized with but its user
+    private static final FieldProjection FIELDS = new FieldProjection("mid")
+            .field("title")
+            .field("length")
+            .field("genre")
+            .field("releaseDate");
+
+    // the columns a PATCH can change, the same ones updateMovie copies
+    private static final PartialUpdate PATCH = new PartialUpdate("movie", "mid")
+            .column("title", "title", String.class, false)
+            .column("length", "length", String.class, true)
+            .column("genre", "genre", String.class, true)
+            .column("releaseDate", "release_date", Date.class, true);
+
+    // directors, cast members and studios are shared with other movies, deleting a movie only unlinks them
+    private static final String[] DELETE_LINKS = {
+            "delete from movie_director where mid = ?",
+            "delete from movie_cast_member where mid = ?",
+            "delete from movie_studio where mid = ?"
+    };
+
+    private static final String DELETE = "delete from movie where mid = ?";
+
     @Autowired // Injected Singleton
     private final MovieRepository movieRepository;
 
     @Autowired // Injected Singleton
     private UserService userService;
 
+    @Autowired // Injected Singleton
+    private ObjectMapper objectMapper;
+
+    @Autowired // Injected Singleton
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired // Injected Singleton
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired // Injected Singleton
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // the columns of movies by mid, a miss is loaded once no matter how many callers ask for it at the same time
+    private final LoadingCache<Long, MovieView> movieCache;
+
     //Constructor
     public MovieService(MovieRepository movieRepository) {
         this.movieRepository = movieRepository;
+        this.movieCache = Caffeine.newBuilder()
+                .maximumSize(CACHE_MAXIMUM_SIZE)
+                .refreshAfterWrite(CACHE_REFRESH_AFTER)
+                .expireAfterWrite(CACHE_TIME_TO_LIVE)
+                .build(mid -> movieRepository.findViewByMid(mid).orElse(null));
+    }
+
+
+    /**
+     * Gets a page of the movies matching a filter from the database, ordered by mid
+     *
+     * @param filter The filters to match, {@link MovieFilter#NONE} for every movie
+     * @param cursor The next cursor of the previous page, or null for the first page
+     * @param limit  The page size
+     * @return A page of movies, or a Bad Request Exception for a bad cursor or limit
+     */
+    public CursorPage<MovieView> getAllMovies(MovieFilter filter, String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+        Long after = cursor == null ? Long.MIN_VALUE : Cursor.decodeLong(cursor);
+        // read one extra row to know if there is a next page
+        List<MovieView> movies = filter.isEmpty()
+                ? movieRepository.findByMidGreaterThanOrderByMidAsc(after, PageRequest.of(0, limit + 1))
+                : movieRepository.findByFilterAndMidGreaterThan(filter, after, limit + 1);
+        return CursorPage.of(movies, limit, movie -> Cursor.encode(String.valueOf(movie.getMid())));
+    }
+
+
+    /**
+     * Gets the given fields of a page of movies, optionally filtered, after the movie a cursor points at. The same
+     * page as {@link #getAllMovies} with only the columns of the given fields read.
+     *
+     * @param filter A given filter, {@link MovieFilter#NONE} for every movie
+     * @param fields A comma separated list of fields
+     * @param cursor The next cursor of the previous page, or null for the first page
+     * @param limit  The page size
+     * @return A page of the fields of movies, or a Bad Request Exception for a bad cursor, limit or field
+     */
+    public CursorPage<Map<String, Object>> getAllMovieFields(MovieFilter filter, String fields, String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+        List<String> selected = FIELDS.parse(fields);
+        Long after = cursor == null ? Long.MIN_VALUE : Cursor.decodeLong(cursor);
+        // read one extra row to know if there is a next page
+        List<Map<String, Object>> movies = movieRepository.findFieldsByFilterAndMidGreaterThan(filter, selected, after, limit + 1);
+        return CursorPage.of(movies, limit, movie -> Cursor.encode(String.valueOf(movie.get("mid"))));
     }
 
 
     /**
-     * Gets all movies from the database
+     * Searches movie titles for the words of a query, best match first. A title matches when it has a word starting
+     * with each word of the query, case and punctuation are ignored.
      *
-     * @return A list of all movies
+     * @param query  A given search query
+     * @param cursor The next cursor of the previous page, or null for the first page
+     * @param limit  The page size
+     * @return A page of movies, or a Bad Request Exception for a query without words, a bad cursor or limit
      */
-    public List<MovieModel> getAllMovies() {
-        return movieRepository.findAll(); // returns a list of movies
+    public CursorPage<MovieView> searchMovies(String query, String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+        List<String> words = Arrays.stream(SEARCH_WORD_SEPARATOR.split(query.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .limit(SEARCH_MAX_WORDS)
+                .collect(Collectors.toList());
+        if (words.isEmpty()) {
+            throw new BadRequestException("Query: " + query + " has no words to search for!");
+        }
+        // ranked results have no key to continue after, so the cursor holds the offset of the next page
+        long offset = cursor == null ? 0 : Cursor.decodeLong(cursor);
+        if (offset < 0 || offset > Integer.MAX_VALUE) {
+            throw new BadRequestException("Cursor: " + cursor + " is not valid!");
+        }
+        // read one extra row to know if there is a next page
+        List<MovieView> movies = movieRepository.searchByTitle(words, (int) offset, limit + 1);
+        return CursorPage.of(movies, limit, movie -> Cursor.encode(String.valueOf(offset + limit)));
     }
 
 
     /**
-     * Gets all movies from the database for a certain user
+     * Writes every movie in the database to a given output stream as newline delimited json, one movie per line.
+     * Movies are streamed from the database and the persistence context is cleared every chunk, so memory use does not
+     * grow with the size of the table.
      *
-     * @return A list of all movies
+     * @param out A given output stream
+     * @throws IOException if the output stream can not be written to
      */
-    public List<MovieModel> getAllUserMovies(String username) {
-        UserModel currentUser = userService.getUserById(username);
-        return currentUser.getMovieModels(); // returns a list of movies
+    @Transactional(readOnly = true)
+    public void exportMovies(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        try (Stream<MovieModel> movies = movieRepository.streamAllByOrderByMid()) {
+            int written = 0;
+            for (MovieModel movie : (Iterable<MovieModel>) movies::iterator) {
+                generator.writeStartObject();
+                generator.writeNumberField("mid", movie.getMid());
+                generator.writeStringField("title", movie.getTitle());
+                generator.writeStringField("length", movie.getLength());
+                generator.writeStringField("genre", movie.getGenre());
+                generator.writeFieldName("releaseDate");
+                generator.writeObject(movie.getReleaseDate()); // same date format as the rest of the api
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                if (++written % EXPORT_CHUNK_SIZE == 0) {
+                    generator.flush();
+                    entityManager.clear(); // let go of the movies already written
+                }
+            }
+        }
+        generator.flush();
+    }
+
+
+    /**
+     * Gets a page of a user's movies from the database, ordered by title or by release date with the movies without
+     * one last. Only the user's page of the matching (fk_user, sort key, mid) index is read, the user and the rest of
+     * their movies are not loaded.
+     *
+     * @param username A given username
+     * @param sort     title or releaseDate
+     * @param cursor   The next cursor of the previous page, or null for the first page
+     * @param limit    The page size
+     * @return A page of movies, a Bad Request Exception for a bad sort, cursor or limit, or an RNF Exception
+     */
+    public CursorPage<MovieView> getAllUserMovies(String username, String sort, String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+        List<MovieView> movies;
+        Function<MovieView, String> cursorOf;
+        // read one extra row to know if there is a next page
+        if (USER_MOVIES_BY_TITLE.equals(sort)) {
+            movies = getUserMoviesByTitle(username, cursor, limit + 1);
+            cursorOf = movie -> Cursor.encode(movie.getTitle(), String.valueOf(movie.getMid()));
+        } else if (USER_MOVIES_BY_RELEASE_DATE.equals(sort)) {
+            movies = getUserMoviesByReleaseDate(username, cursor, limit + 1);
+            cursorOf = movie -> Cursor.encode(movie.getReleaseDate() == null ? "" : String.valueOf(movie.getReleaseDate().getTime()),
+                    String.valueOf(movie.getMid()));
+        } else {
+            throw new BadRequestException("Sort: " + sort + " is not valid!");
+        }
+        // an empty first page is the only time it matters whether the user exists
+        if (movies.isEmpty() && cursor == null && !userService.existsUserById(username)) {
+            throw new ResourceNotFoundException("User With the username: " + username + " does not exist!");
+        }
+        return CursorPage.of(movies, limit, cursorOf);
     }
 
 
@@ -57,68 +282,491 @@ public class MovieService {
      * @return a newly saved Movie
      */
     public MovieModel createMovie(MovieModel movie) {
-        return movieRepository.save(movie);
+        MovieModel savedMovie = movieRepository.save(movie);
+        // a new movie's people are all new too, persist does not take saved ones
+        publishPeopleSaved(new ArrayList<>(movie.getDirectorModels()), new ArrayList<>(movie.getCastMemberModels()));
+        return savedMovie;
+    }
+
+
+    /**
+     * Saves many movies, {@link #BULK_CHUNK_SIZE} movies per transaction so the inserts are sent in jdbc batches.
+     * Directors, cast members, studios and users given with an id are linked by reference, ones without an id are
+     * created along with the movie. A movie that can not be saved does not stop the others from being saved.
+     *
+     * @param movies A list of movies
+     * @return The mid or error of every movie, in the order they were given
+     */
+    public List<MovieBulkResult> createMovies(List<MovieModel> movies) {
+        List<MovieBulkResult> results = new ArrayList<>(movies.size());
+        for (int from = 0; from < movies.size(); from += BULK_CHUNK_SIZE) {
+            List<MovieModel> chunk = movies.subList(from, Math.min(from + BULK_CHUNK_SIZE, movies.size()));
+            results.addAll(createMovieChunk(from, chunk));
+        }
+        return results;
+    }
+
+
+    /**
+     * Saves one chunk of a bulk create in a single transaction
+     *
+     * @param offset The index of the first movie of the chunk
+     * @param chunk  A list of movies
+     * @return The mid or error of every movie of the chunk
+     */
+    private List<MovieBulkResult> createMovieChunk(int offset, List<MovieModel> chunk) {
+        String[] errors = new String[chunk.size()];
+        List<DirectorModel> newDirectors = new ArrayList<>();
+        List<CastMemberModel> newCastMembers = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // one query per referenced type for the whole chunk, instead of one per reference
+                Set<Long> dids = findExistingIds(DirectorModel.class, "did",
+                        referencedIds(chunk, MovieModel::getDirectorModels, DirectorModel::getDid));
+                Set<Long> cmids = findExistingIds(CastMemberModel.class, "cmid",
+                        referencedIds(chunk, MovieModel::getCastMemberModels, CastMemberModel::getCmid));
+                Set<Long> sids = findExistingIds(StudioModel.class, "sid",
+                        referencedIds(chunk, MovieModel::getStudioModels, StudioModel::getSid));
+                Set<String> usernames = findExistingIds(UserModel.class, "username", chunk.stream()
+                        .filter(movie -> movie.getUser() != null)
+                        .map(movie -> movie.getUser().getUsername())
+                        .collect(Collectors.toSet()));
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    MovieModel movie = chunk.get(i);
+                    List<DirectorModel> unsavedDirectors = unsaved(movie.getDirectorModels(), DirectorModel::getDid);
+                    List<CastMemberModel> unsavedCastMembers = unsaved(movie.getCastMemberModels(), CastMemberModel::getCmid);
+                    errors[i] = movie.getTitle() == null ? "Movie title is required!" : null;
+                    if (errors[i] == null) {
+                        errors[i] = linkReferences(movie.getDirectorModels(), DirectorModel.class, DirectorModel::getDid, dids, "Director With the did: ");
+                    }
+                    if (errors[i] == null) {
+                        errors[i] = linkReferences(movie.getCastMemberModels(), CastMemberModel.class, CastMemberModel::getCmid, cmids, "CastMember With the cmid: ");
+                    }
+                    if (errors[i] == null) {
+                        errors[i] = linkReferences(movie.getStudioModels(), StudioModel.class, StudioModel::getSid, sids, "Studio With the sid: ");
+                    }
+                    if (errors[i] == null && movie.getUser() != null) {
+                        String username = movie.getUser().getUsername();
+                        if (usernames.contains(username)) {
+                            movie.setUser(entityManager.getReference(UserModel.class, username));
+                        } else {
+                            errors[i] = "User With the username: " + username + " does not exist!";
+                        }
+                    }
+                    if (errors[i] == null) {
+                        entityManager.persist(movie); // mid is taken from the pooled sequence, the insert is batched
+                        newDirectors.addAll(unsavedDirectors);
+                        newCastMembers.addAll(unsavedCastMembers);
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            publishPeopleSaved(newDirectors, newCastMembers); // only once the chunk is committed
+        } catch (RuntimeException e) {
+            String error = "Could not save movie: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (int i = 0; i < errors.length; i++) {
+                errors[i] = errors[i] == null ? error : errors[i];
+            }
+        }
+
+        List<MovieBulkResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            results.add(errors[i] == null
+                    ? MovieBulkResult.created(offset + i, chunk.get(i).getMid())
+                    : MovieBulkResult.failed(offset + i, errors[i]));
+        }
+        return results;
+    }
+
+
+    /**
+     * Collects the ids of the given kind of model referenced by a list of movies
+     *
+     * @param movies A list of movies
+     * @param models Gets a movie's models
+     * @param idOf   Gets a model's id
+     * @return The ids of the models that have one
+     */
+    private <T> Set<Long> referencedIds(List<MovieModel> movies, Function<MovieModel, Set<T>> models, Function<T, Long> idOf) {
+        return movies.stream()
+                .flatMap(movie -> models.apply(movie).stream())
+                .map(idOf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+
+    /**
+     * Collects the models of a movie without an id, the ones a save creates
+     *
+     * @param models A movie's models
+     * @param idOf   Gets a model's id
+     * @return The models without an id
+     */
+    private <T> List<T> unsaved(Set<T> models, Function<T, Long> idOf) {
+        return models.stream()
+                .filter(model -> idOf.apply(model) == null)
+                .collect(Collectors.toList());
+    }
+
+
+    /**
+     * Tells the director and cast member services about the people a save created, so they index their names once it commits
+     *
+     * @param directors   The directors created
+     * @param castMembers The cast members created
+     */
+    private void publishPeopleSaved(List<DirectorModel> directors, List<CastMemberModel> castMembers) {
+        if (!directors.isEmpty() || !castMembers.isEmpty()) {
+            eventPublisher.publishEvent(new PeopleSavedEvent(directors, castMembers));
+        }
+    }
+
+
+    /**
+     * Finds which of the given ids exist in the database
+     *
+     * @param type        An entity type
+     * @param idAttribute The name of the entity's id attribute
+     * @param ids         A set of ids
+     * @return The ids that exist
+     */
+    @SuppressWarnings("unchecked")
+    private <ID> Set<ID> findExistingIds(Class<?> type, String idAttribute, Set<ID> ids) {
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        List<?> existing = entityManager.createQuery("select e." + idAttribute + " from " + type.getSimpleName()
+                        + " e where e." + idAttribute + " in :ids")
+                .setParameter("ids", ids)
+                .getResultList();
+        Set<ID> result = new HashSet<>();
+        for (Object id : existing) {
+            result.add((ID) id);
+        }
+        return result;
     }
 
 
     /**
-     * Creates a movie for a certain user,
+     * Replaces the models of a movie that were given with an id by references to the saved models
+     *
+     * @param models   A movie's models
+     * @param type     The model type
+     * @param idOf     Gets a model's id
+     * @param existing The ids that exist in the database
+     * @param name     The start of the error message for a missing model
+     * @return An error if a referenced model does not exist, otherwise null
+     */
+    private <T> String linkReferences(Set<T> models, Class<T> type, Function<T, Long> idOf, Set<Long> existing, String name) {
+        List<T> linked = new ArrayList<>(models.size());
+        for (T model : models) {
+            Long id = idOf.apply(model);
+            if (id == null) {
+                linked.add(model); // new, saved with the movie
+            } else if (existing.contains(id)) {
+                linked.add(entityManager.getReference(type, id));
+            } else {
+                return name + id + " does not exist!";
+            }
+        }
+        models.clear();
+        models.addAll(linked);
+        return null;
+    }
+
+
+    /**
+     * Creates a movie for a certain user. Only the movie's fk_user is set, from a reference to the user, so neither
+     * the user nor their movies are loaded and it costs the same no matter how many movies the user has.
      *
      * @param movie    a movie in json format
      * @param username A given username
      * @return A response body in json format
      */
+    @Transactional // the user reference has to be managed by the same persistence context as the movie
     public MovieModel createUserMovie(String username, MovieModel movie) {
-        //add movie to users movies
-        UserModel currentUser = userService.getUserById(username);
-        movie.setUser(currentUser);
-        currentUser.getMovieModels().add(movie);
-        //Cascade.All saves the details
-        return movieRepository.save(movie);
+        movie.setUser(userService.getUserReference(username));
+        MovieModel savedMovie = movieRepository.save(movie);
+        // a new movie's people are all new too, persist does not take saved ones
+        publishPeopleSaved(new ArrayList<>(movie.getDirectorModels()), new ArrayList<>(movie.getCastMemberModels()));
+        return savedMovie;
+    }
+
+
+    /**
+     * Gets a movie by mid and returns it. Movies are read through a cache, concurrent misses for the same mid wait on
+     * a single database load and a hot movie is refreshed in the background instead of making a caller wait.
+     * Only the movie's columns are read, without its user or collections, use {@link #getManagedMovieById} to change it.
+     *
+     * @param mid A given mid
+     * @return A movie, or an RNF Exception
+     */
+    public MovieView getMovieById(Long mid) {
+        MovieView movie = movieCache.get(mid);
+        if (movie == null) {
+            throw new ResourceNotFoundException("Movie With the mid: " + mid + " does not exist!");
+        }
+        return movie; // can not be changed, so every caller shares the cached one
+    }
+
+
+    /**
+     * Gets the given fields of a movie by mid. They are taken from the cached movie {@link #getMovieById} reads, which
+     * costs less than selecting the columns again.
+     *
+     * @param mid    A given mid
+     * @param fields A comma separated list of fields
+     * @return The movie's fields, an RNF Exception, or a Bad Request Exception for a field that can not be selected
+     */
+    public Map<String, Object> getMovieFieldsById(Long mid, String fields) {
+        List<String> selected = FIELDS.parse(fields);
+        Map<String, Object> movie = objectMapper.convertValue(getMovieById(mid), new TypeReference<Map<String, Object>>() {
+        });
+        Map<String, Object> movieFields = new LinkedHashMap<>();
+        for (String field : selected) {
+            movieFields.put(field, movie.get(field));
+        }
+        return movieFields;
     }
 
 
     /**
-     * Gets a movie by mid and returns it
+     * Gets a movie by mid straight from the database, so it is managed when called in a transaction and its lazy
+     * collections can be read or changed
      *
      * @param mid A given mid
      * @return A movie, or an RNF Exception
      */
-    public MovieModel getMovieById(Long mid) {
+    public MovieModel getManagedMovieById(Long mid) {
         return movieRepository.findById(mid)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie With the mid: " + mid + " does not exist!"));
     }
 
 
+    /**
+     * Checks a movie exists without loading it or its collections
+     *
+     * @param mid A given mid
+     * @return true if the movie exists
+     */
+    public boolean existsMovieById(Long mid) {
+        return movieRepository.existsById(mid);
+    }
+
+
+    /**
+     * Gets a movie by mid with its directors, cast members and studios. The movie comes from the {@link #getMovieById}
+     * cache and each collection is selected with its own join query, so the whole aggregate costs at most four
+     * statements no matter how large the cast is, without the row explosion of joining all three collections at once.
+     *
+     * @param mid A given mid
+     * @return A movie detail, or an RNF Exception
+     */
+    public MovieDetail getMovieDetail(Long mid) {
+        MovieView movie = getMovieById(mid);
+        return new MovieDetail(movie, movieRepository.findDirectorViewsByMid(mid),
+                movieRepository.findCastMemberViewsByMid(mid), movieRepository.findStudioViewsByMid(mid));
+    }
+
+
+    /**
+     * Gets the directors of a movie with one query, neither the movie nor its directors are loaded
+     *
+     * @param mid A given mid
+     * @return A list of directors in did order, or an RNF Exception
+     */
+    public List<DirectorView> getMovieDirectors(Long mid) {
+        return requireMovie(mid, movieRepository.findDirectorViewsByMid(mid));
+    }
+
+
+    /**
+     * Gets the cast members of a movie with one query, neither the movie nor its cast members are loaded
+     *
+     * @param mid A given mid
+     * @return A list of cast members in cmid order, or an RNF Exception
+     */
+    public List<CastMemberView> getMovieCastMembers(Long mid) {
+        return requireMovie(mid, movieRepository.findCastMemberViewsByMid(mid));
+    }
+
+
+    /**
+     * Gets the studios of a movie with one query, neither the movie nor its studios are loaded
+     *
+     * @param mid A given mid
+     * @return A list of studios in sid order, or an RNF Exception
+     */
+    public List<StudioView> getMovieStudios(Long mid) {
+        return requireMovie(mid, movieRepository.findStudioViewsByMid(mid));
+    }
+
+
+    /**
+     * Tells a movie without any of something from a movie that does not exist, only looked up when nothing was found
+     *
+     * @param mid   A given mid
+     * @param found What was found for the movie
+     * @return What was found, or an RNF Exception
+     */
+    private <T> List<T> requireMovie(Long mid, List<T> found) {
+        if (found.isEmpty() && !movieRepository.existsById(mid)) {
+            throw new ResourceNotFoundException("Movie With the mid: " + mid + " does not exist!");
+        }
+        return found;
+    }
+
+
     /**
      * Updates a given movie by mid given some new details
      *
      * @param mid          A long mid
      * @param movieDetails A movie details
-     * @return A movie, or an RNF exception
+     * @param expectedVersion The version from the If-Match header, null to update whatever the version
+     * @return A movie, an RNF exception, or a Precondition Failed exception if it has changed
      */
-    public MovieModel updateMovie(Long mid, MovieModel movieDetails) {
+    public MovieModel updateMovie(Long mid, MovieModel movieDetails, Long expectedVersion) {
         MovieModel movie = movieRepository.findById(mid)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie With the mid: " + mid + " does not exist!"));
+        IfMatch.check(expectedVersion, movie.getVersion(), "Movie With the mid: " + mid);
 
         movie.setGenre(movieDetails.getGenre());
         movie.setLength(movieDetails.getLength());
         movie.setTitle(movieDetails.getTitle());
         movie.setReleaseDate(movieDetails.getReleaseDate());
 
-        return movieRepository.save(movie);
+        try {
+            return invalidating(mid, () -> movieRepository.save(movie));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // written by someone else between the read and this write
+            throw new PreconditionFailedException("Movie With the mid: " + mid + " has changed since version: " + movie.getVersion() + "!");
+        }
+    }
+
+
+    /**
+     * Patches the given fields of a movie with one update statement, without loading the movie
+     *
+     * @param mid             A long mid
+     * @param changes         The fields to change and their new values
+     * @param expectedVersion The version from the If-Match header, null to patch whatever the version
+     * @return The new version if the expected version was given, otherwise null, or an RNF exception, a Precondition
+     * Failed exception if it has changed, or a Bad Request exception for a field that can not be patched
+     */
+    public Long patchMovie(Long mid, Map<String, Object> changes, Long expectedVersion) {
+        int updated = invalidating(mid, () -> PATCH.execute(jdbcTemplate, objectMapper, mid, changes, expectedVersion));
+        if (updated == 0) {
+            // nothing updated, only look the movie up to tell a missing one from a changed one
+            if (expectedVersion == null || !movieRepository.existsById(mid)) {
+                throw new ResourceNotFoundException("Movie With the mid: " + mid + " does not exist!");
+            }
+            throw new PreconditionFailedException("Movie With the mid: " + mid + " has changed since version: " + expectedVersion + "!");
+        }
+        return expectedVersion == null ? null : expectedVersion + 1;
     }
 
 
     /**
-     * Deletes a movie given a mid
+     * Deletes a movie given a mid, with one statement per join table and one for the movie. Nothing is loaded and no
+     * cascade is walked, so it costs the same no matter how many directors, cast members or studios it has.
      *
      * @param mid A long mid
      */
     public void deleteMovie(Long mid) {
-        MovieModel movie = movieRepository.findById(mid)
-                .orElseThrow(() -> new ResourceNotFoundException("Movie With the mid: " + mid + " does not exist!"));
-        movieRepository.delete(movie);
+        Integer deleted = invalidating(mid, () -> transactionTemplate.execute(status -> {
+            for (String deleteLinks : DELETE_LINKS) {
+                jdbcTemplate.update(deleteLinks, mid);
+            }
+            return jdbcTemplate.update(DELETE, mid);
+        }));
+        if (deleted == null || deleted == 0) {
+            throw new ResourceNotFoundException("Movie With the mid: " + mid + " does not exist!");
+        }
+    }
+
+
+    /**
+     * Writes a movie's row with it dropped from the getMovieById cache before the write and again after the commit, so
+     * neither a load from before the write nor one racing the commit is left cached
+     *
+     * @param mid   A long mid
+     * @param write Writes and commits the movie's row
+     * @return What the write returned
+     */
+    private <T> T invalidating(Long mid, Supplier<T> write) {
+        movieCache.invalidate(mid);
+        try {
+            return write.get();
+        } finally {
+            movieCache.invalidate(mid); // a load or refresh still running is discarded along with the entry
+        }
+    }
+
+
+    /**
+     * Gets a page of a user's movies in title order
+     *
+     * @param username A given username
+     * @param cursor   A cursor holding the last title and mid of the previous page, or null for the first page
+     * @param size     The number of movies to read
+     * @return A list of movies
+     */
+    private List<MovieView> getUserMoviesByTitle(String username, String cursor, int size) {
+        if (cursor == null) {
+            return movieRepository.findByUserOrderByTitle(username, PageRequest.of(0, size));
+        }
+        String[] after = Cursor.decode(cursor, 2);
+        return movieRepository.findByUserOrderByTitleAfter(username, after[0], Cursor.parseLong(cursor, after[1]),
+                PageRequest.of(0, size));
+    }
+
+
+    /**
+     * Gets a page of a user's movies in release date order, the ones with a release date are read first and the ones
+     * without one follow in mid order, so the order is the same on every database
+     *
+     * @param username A given username
+     * @param cursor   A cursor holding the last release date, empty if it had none, and mid of the previous page, or
+     *                 null for the first page
+     * @param size     The number of movies to read
+     * @return A list of movies
+     */
+    private List<MovieView> getUserMoviesByReleaseDate(String username, String cursor, int size) {
+        String[] after = cursor == null ? null : Cursor.decode(cursor, 2);
+        List<MovieView> movies = new ArrayList<>();
+        Long afterMid = Long.MIN_VALUE;
+        if (after == null) {
+            movies.addAll(movieRepository.findByUserOrderByReleaseDate(username, PageRequest.of(0, size)));
+        } else if (!after[0].isEmpty()) {
+            Date releaseDate = new Date(Cursor.parseLong(cursor, after[0]));
+            movies.addAll(movieRepository.findByUserOrderByReleaseDateAfter(username, releaseDate,
+                    Cursor.parseLong(cursor, after[1]), PageRequest.of(0, size)));
+        } else {
+            afterMid = Cursor.parseLong(cursor, after[1]); // already past the ones with a release date
+        }
+        if (movies.size() < size) {
+            movies.addAll(movieRepository.findByUserWithoutReleaseDateAfter(username, afterMid,
+                    PageRequest.of(0, size - movies.size())));
+        }
+        return movies;
+    }
+
+
+    /**
+     * Drops the movies a user delete took with it from the getMovieById cache
+     *
+     * @param event A MoviesDeletedEvent
+     */
+    @EventListener
+    public void onMoviesDeleted(MoviesDeletedEvent event) {
+        if (event.isEveryMovie()) {
+            movieCache.invalidateAll();
+        } else {
+            movieCache.invalidateAll(event.getMids());
+        }
     }
 
 }
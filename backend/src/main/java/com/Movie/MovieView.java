@@ -0,0 +1,62 @@
+package com.Movie;
+
+import java.util.Date;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * The columns of a movie as they are read, selected by a query instead of loading the entity, so serializing it never
+ * touches the movie's user or collections. It can not be changed, so one copy can be shared by every reader.
+ */
+public class MovieView {
+
+    private final Long mid;
+
+    private final Long version;
+
+    private final String title;
+
+    private final String length;
+
+    private final String genre;
+
+    private final Date releaseDate;
+
+    //Constructor, the arguments of a select new query
+    public MovieView(Long mid, Long version, String title, String length, String genre, Date releaseDate) {
+        this.mid = mid;
+        this.version = version;
+        this.title = title;
+        this.length = length;
+        this.genre = genre;
+        this.releaseDate = releaseDate == null ? null : (Date) releaseDate.clone(); // keeps the date's own class
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public Long getMid() {
+        return mid;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getLength() {
+        return length;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public Date getReleaseDate() {
+        return releaseDate == null ? null : (Date) releaseDate.clone();
+    }
+}
@@ -0,0 +1,41 @@
+package com.Movie;
+
+import java.util.List;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Published once movies have been deleted without going through the {@link MovieService}, so it can drop them from
+ * its cache. Too many movies to list are published as every movie.
+ *
+ */
+public class MoviesDeletedEvent {
+
+    // null for every movie
+    private final List<Long> mids;
+
+    //Constructor
+    public MoviesDeletedEvent(List<Long> mids) {
+        this.mids = mids;
+    }
+
+    /**
+     * Creates an event for more movies than are worth listing
+     *
+     * @return An event dropping every movie
+     */
+    public static MoviesDeletedEvent everyMovie() {
+        return new MoviesDeletedEvent(null);
+    }
+
+    ///
+    ///GETTERS AND SETTERS
+    ///
+    public List<Long> getMids() {
+        return mids;
+    }
+
+    public boolean isEveryMovie() {
+        return mids == null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.Movie;
+
+import com.CastMember.CastMemberModel;
+import com.Director.DirectorModel;
+
+import java.util.List;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Published once directors or cast members have been saved, by their own services, along with movies or by an import,
+ * so their names are indexed. The indexes listen after the commit, so a rolled back save is never suggested.
+ *
+ */
+public class PeopleSavedEvent {
+
+    private final List<DirectorModel> directors;
+
+    private final List<CastMemberModel> castMembers;
+
+    //Constructor
+    public PeopleSavedEvent(List<DirectorModel> directors, List<CastMemberModel> castMembers) {
+        this.directors = directors;
+        this.castMembers = castMembers;
+    }
+
+    ///
+    ///GETTERS AND SETTERS
+    ///
+    public List<DirectorModel> getDirectors() {
+        return directors;
+    }
+
+    public List<CastMemberModel> getCastMembers() {
+        return castMembers;
+    }
+}
@@ -0,0 +1,78 @@
+package com.Pagination;
+
+import com.Exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Encodes and decodes the opaque cursors handed out by keyset paginated endpoints. A cursor holds the sort key values
+ * of the last row of a page, so the next page can be read with a "where key > last key" predicate instead of an offset.
+ */
+public final class Cursor {
+
+    private static final String SEPARATOR = "\u001F";
+
+    //not instantiable
+    private Cursor() {
+    }
+
+    /**
+     * Encodes the given key values into an opaque url safe cursor
+     *
+     * @param values the sort key values of the last row of a page
+     * @return An opaque cursor
+     */
+    public static String encode(String... values) {
+        String joined = String.join(SEPARATOR, values);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor created by {@link #encode(String...)}
+     *
+     * @param cursor        A given cursor
+     * @param expectedParts The number of key values the cursor must hold
+     * @return The key values, or a Bad Request Exception if the cursor is malformed
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = joined.split(Pattern.quote(SEPARATOR), -1);
+            if (values.length != expectedParts) {
+                throw new BadRequestException("Cursor: " + cursor + " is not valid!");
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor: " + cursor + " is not valid!");
+        }
+    }
+
+    /**
+     * Decodes a cursor holding a single numeric key
+     *
+     * @param cursor A given cursor
+     * @return The key, or a Bad Request Exception if the cursor is malformed
+     */
+    public static Long decodeLong(String cursor) {
+        return parseLong(cursor, decode(cursor, 1)[0]);
+    }
+
+    /**
+     * Parses a numeric key value of a decoded cursor
+     *
+     * @param cursor The cursor the value was decoded from
+     * @param value  A key value
+     * @return The key, or a Bad Request Exception if it is not a number
+     */
+    public static Long parseLong(String cursor, String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Cursor: " + cursor + " is not valid!");
+        }
+    }
+}
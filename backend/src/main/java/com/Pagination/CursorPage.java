@@ -0,0 +1,73 @@
+package com.Pagination;
+
+import com.Exception.BadRequestException;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * A single page of a keyset paginated list, along with the cursor to request the page after it.
+ *
+ * @param <T> The type of item on the page
+ */
+public class CursorPage<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+
+    public static final int MAX_LIMIT = 500;
+
+    private final List<T> items;
+
+    private final String next;
+
+    //Constructor
+    public CursorPage(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of one more than the page size, the extra row only tells us that
+     * another page exists and is not returned.
+     *
+     * @param fetched  Rows read from the repository, at most limit + 1
+     * @param limit    The requested page size
+     * @param cursorOf Creates the cursor pointing after a given row
+     * @param <T>      The type of item on the page
+     * @return A page of at most limit items
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int limit, Function<T, String> cursorOf) {
+        if (fetched.size() <= limit) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, limit);
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    /**
+     * Checks a requested page size is within bounds
+     *
+     * @param limit A requested page size
+     * @return The limit, or a Bad Request Exception
+     */
+    public static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit: " + limit + " must be between 1 and " + MAX_LIMIT + "!");
+        }
+        return limit;
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
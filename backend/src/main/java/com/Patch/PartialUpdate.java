@@ -0,0 +1,118 @@
+package com.Patch;
+
+import com.Exception.BadRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * A PATCH of one table row, run as a single "update ... where id = ?" without loading the entity. Only the columns
+ * declared here can be patched, each json field is converted to its column's type the same way a request body would
+ * be, and the version is bumped like a JPA update would.
+ */
+public final class PartialUpdate {
+
+    private final String table;
+
+    private final String idColumn;
+
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    //Constructor
+    public PartialUpdate(String table, String idColumn) {
+        this.table = table;
+        this.idColumn = idColumn;
+    }
+
+    /**
+     * Declares a column that can be patched
+     *
+     * @param field    The json field name
+     * @param column   The column name
+     * @param type     The java type the field is read as, a java.util.Date is written as a sql date
+     * @param nullable If the field can be patched to null
+     * @return This partial update
+     */
+    public PartialUpdate column(String field, String column, Class<?> type, boolean nullable) {
+        columns.put(field, new Column(column, type, nullable));
+        return this;
+    }
+
+    /**
+     * Updates the given fields of a row
+     *
+     * @param jdbcTemplate    Runs the update
+     * @param objectMapper    Converts the json values
+     * @param id              The row's id
+     * @param changes         The json fields to change and their new values
+     * @param expectedVersion Only update the row at this version, null to update whatever the version
+     * @return The number of rows updated, 0 if there is no row with the id (and version), or a Bad Request Exception
+     * for a field that can not be patched
+     */
+    public int execute(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, Object id, Map<String, Object> changes,
+                       Long expectedVersion) {
+        if (changes == null || changes.isEmpty()) {
+            throw new BadRequestException("Nothing to patch!");
+        }
+        StringBuilder sql = new StringBuilder("update ").append(table).append(" set ");
+        List<Object> args = new ArrayList<>(changes.size() + 2);
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            Column column = columns.get(change.getKey());
+            if (column == null) {
+                throw new BadRequestException("Field: " + change.getKey() + " can not be patched!");
+            }
+            sql.append(column.name).append(" = ?, ");
+            args.add(column.convert(change.getKey(), change.getValue(), objectMapper));
+        }
+        sql.append("version = version + 1 where ").append(idColumn).append(" = ?");
+        args.add(id);
+        if (expectedVersion != null) {
+            sql.append(" and version = ?");
+            args.add(expectedVersion);
+        }
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    /**
+     * A column that can be patched
+     */
+    private static final class Column {
+
+        private final String name;
+
+        private final Class<?> type;
+
+        private final boolean nullable;
+
+        //Constructor
+        private Column(String name, Class<?> type, boolean nullable) {
+            this.name = name;
+            this.type = type;
+            this.nullable = nullable;
+        }
+
+        private Object convert(String field, Object value, ObjectMapper objectMapper) {
+            if (value == null) {
+                if (!nullable) {
+                    throw new BadRequestException("Field: " + field + " can not be null!");
+                }
+                return null;
+            }
+            try {
+                Object converted = objectMapper.convertValue(value, type);
+                if (converted instanceof java.util.Date) {
+                    return new java.sql.Date(((java.util.Date) converted).getTime()); // a date column, as hibernate writes it
+                }
+                return converted;
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Field: " + field + " is not valid!");
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.Projection;
+
+import com.Exception.BadRequestException;
+
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * The fields of an entity a client can ask for with a fields parameter, such as ?fields=title,genre. Only the asked
+ * for columns are selected, so a list needing two fields does not read or send the rest. Only the fields declared
+ * here can be selected, the id is always selected first.
+ */
+public final class FieldProjection {
+
+    private final String idField;
+
+    private final Set<String> fields = new LinkedHashSet<>();
+
+    //Constructor
+    public FieldProjection(String idField) {
+        this.idField = idField;
+        this.fields.add(idField);
+    }
+
+    /**
+     * Declares a field that can be selected
+     *
+     * @param field The json field name, the same as the entity attribute
+     * @return This field projection
+     */
+    public FieldProjection field(String field) {
+        fields.add(field);
+        return this;
+    }
+
+    /**
+     * Parses a comma separated fields parameter
+     *
+     * @param fields A fields parameter, an empty one selects only the id
+     * @return The id followed by the given fields without repeats, or a Bad Request Exception for a field that can not
+     * be selected
+     */
+    public List<String> parse(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add(idField);
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!this.fields.contains(name)) {
+                throw new BadRequestException("Field: " + name + " can not be selected!");
+            }
+            selected.add(name);
+        }
+        return new ArrayList<>(selected);
+    }
+
+    /**
+     * Selects the given fields of an entity, each aliased by its name
+     *
+     * @param entity The entity's root in a query
+     * @param fields The fields parsed by {@link #parse(String)}
+     * @return The selections for a tuple query
+     */
+    public static List<Selection<?>> select(Path<?> entity, List<String> fields) {
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(entity.get(field).alias(field));
+        }
+        return selections;
+    }
+
+    /**
+     * Turns a row of a tuple query into its json fields
+     *
+     * @param tuple A row selected by {@link #select(Path, List)}
+     * @return The values by field name, in the selected order
+     */
+    public static Map<String, Object> toMap(Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+            row.put(element.getAlias(), tuple.get(element));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,33 @@
+package com.Projection;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Queries selecting only some fields of an entity, added to the repositories of the entities with a
+ * {@link FieldProjection}.
+ */
+public interface ProjectionRepository {
+
+    /**
+     * Gets the given fields of every entity of a type, in id order
+     *
+     * @param type   An entity type
+     * @param fields The fields parsed by {@link FieldProjection#parse(String)}, the id first
+     * @return The fields of every entity
+     */
+    List<Map<String, Object>> findAllFields(Class<?> type, List<String> fields);
+
+    /**
+     * Gets the given fields of an entity by id
+     *
+     * @param type   An entity type
+     * @param fields The fields parsed by {@link FieldProjection#parse(String)}, the id first
+     * @param id     A given id
+     * @return The entity's fields, or empty if it does not exist
+     */
+    Optional<Map<String, Object>> findFieldsById(Class<?> type, List<String> fields, Object id);
+}
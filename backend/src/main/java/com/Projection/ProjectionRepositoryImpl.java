@@ -0,0 +1,51 @@
+package com.Projection;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Builds the tuple queries of {@link ProjectionRepository} with the criteria api, the id is the first field.
+ */
+public class ProjectionRepositoryImpl implements ProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAllFields(Class<?> type, List<String> fields) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<?> entity = query.from(type);
+        query.multiselect(FieldProjection.select(entity, fields))
+                .orderBy(builder.asc(entity.get(fields.get(0))));
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(FieldProjection::toMap)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<Map<String, Object>> findFieldsById(Class<?> type, List<String> fields, Object id) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<?> entity = query.from(type);
+        // bound as a parameter, a literal id would make a different statement for every id
+        ParameterExpression<Object> idParameter = (ParameterExpression<Object>) builder.parameter(id.getClass());
+        query.multiselect(FieldProjection.select(entity, fields))
+                .where(builder.equal(entity.get(fields.get(0)), idParameter));
+        return entityManager.createQuery(query).setParameter(idParameter, id).getResultList().stream()
+                .findFirst()
+                .map(FieldProjection::toMap);
+    }
+}
@@ -0,0 +1,68 @@
+package com.SlowQuery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * One statement that ran over the slow query threshold, with what it was run with and by which service. Its plan is
+ * filled in later, when one is captured.
+ */
+public class SlowQuery {
+
+    private final Date executedAt;
+
+    private final double durationMillis;
+
+    private final String sql;
+
+    private final List<String> parameters;
+
+    private final String caller;
+
+    private volatile String plan;
+
+    //Constructor
+    public SlowQuery(Date executedAt, double durationMillis, String sql, List<String> parameters, String caller) {
+        this.executedAt = (Date) executedAt.clone();
+        this.durationMillis = durationMillis;
+        this.sql = sql;
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+        this.caller = caller;
+    }
+
+    ///
+    ///GETTERS AND SETTERS
+    ///
+
+    public Date getExecutedAt() {
+        return (Date) executedAt.clone();
+    }
+
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    public String getCaller() {
+        return caller;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+}
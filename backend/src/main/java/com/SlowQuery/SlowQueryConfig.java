@@ -0,0 +1,40 @@
+package com.SlowQuery;
+
+import com.Statement.RecordingDataSourceConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Listens to every statement the application runs for the slow ones, when slow-query.enabled is set.
+ *
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "slow-query", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(SlowQueryProperties.class)
+@Import(RecordingDataSourceConfig.class)
+public class SlowQueryConfig {
+
+    /**
+     * Creates the slow query log, handed the data source lazily as the data source is wrapped with it
+     */
+    @Bean
+    public SlowQueryLog slowQueryLog(SlowQueryProperties properties, ObjectProvider<DataSource> dataSource) {
+        return new SlowQueryLog(properties, dataSource);
+    }
+
+    /**
+     * Creates the slowqueries actuator endpoint, only reachable once its exposure is configured
+     */
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SlowQueryLog slowQueryLog) {
+        return new SlowQueryEndpoint(slowQueryLog);
+    }
+}
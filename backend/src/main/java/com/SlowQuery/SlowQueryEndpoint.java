@@ -0,0 +1,45 @@
+package com.SlowQuery;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * An actuator endpoint exposing the latest statements that ran over the slow query threshold, at /actuator/slowqueries
+ * once it is listed in management.endpoints.web.exposure.include. It is only listed in the dev profile.
+ *
+ */
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    //Constructor
+    public SlowQueryEndpoint(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /***
+     * Gets the latest slow queries, with their caller and plan, in json format at
+     * http://localhost:8080/actuator/slowqueries
+     *
+     * @return Json List of slow queries, the latest first
+     */
+    @ReadOperation
+    public List<SlowQuery> getSlowQueries() {
+        return slowQueryLog.getSlowQueries();
+    }
+
+    /***
+     * Forgets every slow query kept at
+     * http://localhost:8080/actuator/slowqueries
+     */
+    @DeleteOperation
+    public void clearSlowQueries() {
+        slowQueryLog.clear();
+    }
+}
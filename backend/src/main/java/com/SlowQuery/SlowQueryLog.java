@@ -0,0 +1,269 @@
+package com.SlowQuery;
+
+import com.Statement.StatementListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Logs every statement slower than the threshold with the service method that ran it, and keeps the latest in a
+ * bounded ring buffer for the slowqueries actuator endpoint. The values a statement was run with are only shown when
+ * slow-query.log-parameters is set, and never the value of a password column. On Postgres it can also capture the
+ * plan of a slow select, on a thread of its own so the request that was slow is not made slower.
+ */
+public class SlowQueryLog implements StatementListener, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    // a longer parameter, e.g. a json document, is cut to this many characters
+    private static final int MAX_PARAMETER_LENGTH = 100;
+
+    // shown in place of a value that is never logged
+    static final String REDACTED = "[redacted]";
+
+    private static final Pattern PASSWORD = Pattern.compile("password", Pattern.CASE_INSENSITIVE);
+
+    // the columns and values of an insert, matched up by position
+    private static final Pattern INSERT = Pattern.compile("insert\\s+into\\s+\\S+\\s*\\(([^)]*)\\)\\s*values\\s*\\(([^)]*)\\)",
+            Pattern.CASE_INSENSITIVE);
+
+    // a column compared with or set to a parameter, e.g. "password=?" or "u.email like ?"
+    private static final Pattern COMPARED = Pattern.compile("([\\w.\"]+)\\s*(?:=|<>|!=|<=|>=|<|>|\\blike\\b)\\s*\\?\\z",
+            Pattern.CASE_INSENSITIVE);
+
+    // whether a class is a service, by name, looked up once per class
+    private static final Map<String, Boolean> SERVICES = new ConcurrentHashMap<>();
+
+    private final SlowQueryProperties properties;
+
+    private final ObjectProvider<DataSource> dataSource;
+
+    private final Executor explainer;
+
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+
+    //Constructor
+    public SlowQueryLog(SlowQueryProperties properties, ObjectProvider<DataSource> dataSource) {
+        // one plan at a time, and the plans of a burst of slow queries beyond the first few are not captured
+        this(properties, dataSource, new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(10), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy()));
+    }
+
+    //Constructor
+    SlowQueryLog(SlowQueryProperties properties, ObjectProvider<DataSource> dataSource, Executor explainer) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.explainer = explainer;
+    }
+
+    @Override
+    public long getThresholdNanos() {
+        return properties.getThreshold().toNanos();
+    }
+
+    @Override
+    public boolean isCapturingParameters() {
+        // a plan is captured by running the select again with its values
+        return properties.isLogParameters() || properties.isExplain();
+    }
+
+    @Override
+    public void executed(String sql, List<Object> parameters, long nanos) {
+        if (nanos < getThresholdNanos() || sql == null || isExplain(sql)) {
+            return;
+        }
+        List<String> shownParameters = properties.isLogParameters() ? show(sql, parameters) : Collections.emptyList();
+        SlowQuery slowQuery = new SlowQuery(new Date(), nanos / 1_000_000.0, sql, shownParameters, caller());
+        LOG.warn(String.format(Locale.ROOT, "slow query took %.1f ms in %s: %s parameters=%s",
+                slowQuery.getDurationMillis(), slowQuery.getCaller(), sql, shownParameters));
+
+        synchronized (slowQueries) {
+            if (slowQueries.size() >= properties.getCapacity()) {
+                slowQueries.removeFirst();
+            }
+            slowQueries.addLast(slowQuery);
+        }
+
+        if (properties.isExplain() && isSelect(sql)) {
+            List<Object> values = new ArrayList<>(parameters);
+            explainer.execute(() -> explain(slowQuery, values));
+        }
+    }
+
+    /**
+     * Gets the slow queries kept
+     *
+     * @return The slow queries, the latest first
+     */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            List<SlowQuery> latestFirst = new ArrayList<>(slowQueries.size());
+            slowQueries.descendingIterator().forEachRemaining(latestFirst::add);
+            return latestFirst;
+        }
+    }
+
+    /**
+     * Forgets every slow query kept, e.g. after a fix is deployed
+     */
+    public void clear() {
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (explainer instanceof ExecutorService) {
+            ((ExecutorService) explainer).shutdownNow();
+        }
+    }
+
+    // runs the select again under EXPLAIN ANALYZE, read only and rolled back
+    private void explain(SlowQuery slowQuery, List<Object> parameters) {
+        try (Connection connection = dataSource.getObject().getConnection()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return; // the plan format is Postgres' own
+            }
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + slowQuery.getSql())) {
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                slowQuery.setPlan(plan.toString());
+            } finally {
+                connection.rollback();
+                connection.setReadOnly(false);
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOG.warn("Could not explain slow query: {}", slowQuery.getSql(), e);
+        }
+    }
+
+    private static boolean isSelect(String sql) {
+        String start = sql.trim().toLowerCase(Locale.ROOT);
+        return start.startsWith("select") || start.startsWith("with");
+    }
+
+    private static boolean isExplain(String sql) {
+        return sql.trim().toLowerCase(Locale.ROOT).startsWith("explain");
+    }
+
+    /**
+     * Shows the values of a statement, cut short, with the value of every password column redacted. A value whose
+     * column can not be told is redacted too when the statement mentions a password.
+     *
+     * @param sql        A statement
+     * @param parameters The values bound to its parameters in order
+     * @return The values to log
+     */
+    static List<String> show(String sql, List<Object> parameters) {
+        String[] columns = PASSWORD.matcher(sql).find() ? columnsOf(sql, parameters.size()) : null;
+        List<String> shown = new ArrayList<>(parameters.size());
+        for (int i = 0; i < parameters.size(); i++) {
+            if (columns != null && (columns[i] == null || PASSWORD.matcher(columns[i]).find())) {
+                shown.add(REDACTED);
+                continue;
+            }
+            String value = String.valueOf(parameters.get(i));
+            shown.add(value.length() > MAX_PARAMETER_LENGTH ? value.substring(0, MAX_PARAMETER_LENGTH) + "..." : value);
+        }
+        return shown;
+    }
+
+    // the column each parameter is bound to, null where it can not be told, e.g. in an in list
+    private static String[] columnsOf(String sql, int count) {
+        String[] columns = new String[count];
+        Matcher insert = INSERT.matcher(sql);
+        if (insert.find()) {
+            String[] names = insert.group(1).split(",");
+            String[] values = insert.group(2).split(",");
+            int parameter = countParameters(sql.substring(0, insert.start(2)));
+            for (int i = 0; i < values.length && i < names.length; i++) {
+                if (values[i].trim().equals("?")) {
+                    if (parameter < count) {
+                        columns[parameter] = names[i].trim();
+                    }
+                    parameter++;
+                }
+            }
+            return columns;
+        }
+        int parameter = 0;
+        for (int i = 0; i < sql.length() && parameter < count; i++) {
+            if (sql.charAt(i) == '?') {
+                Matcher compared = COMPARED.matcher(sql.substring(0, i + 1));
+                columns[parameter++] = compared.find() ? compared.group(1) : null;
+            }
+        }
+        return columns;
+    }
+
+    private static int countParameters(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // the innermost service method on the stack, e.g. MovieService.getMovieDetail
+    private static String caller() {
+        for (StackTraceElement frame : new Throwable().getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith("com.") && !className.contains("$$") && SERVICES.computeIfAbsent(className, SlowQueryLog::isService)) {
+                return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+            }
+        }
+        return "unknown";
+    }
+
+    private static boolean isService(String className) {
+        try {
+            return Class.forName(className, false, SlowQueryLog.class.getClassLoader()).isAnnotationPresent(Service.class);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.SlowQuery;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * What counts as a slow query and how many are kept, bound from slow-query.*.
+ */
+@ConfigurationProperties(prefix = "slow-query")
+public class SlowQueryProperties {
+
+    private boolean enabled = false;
+
+    // a statement taking longer is logged and kept
+    private Duration threshold = Duration.ofMillis(500);
+
+    // the most slow queries kept, the oldest is dropped for a new one
+    private int capacity = 100;
+
+    // shows the values a slow statement was run with, they may be personal data, a password's is never shown
+    private boolean logParameters = false;
+
+    // runs EXPLAIN (ANALYZE, BUFFERS) for a slow select on Postgres
+    private boolean explain = false;
+
+    ///
+    ///GETTERS AND SETTERS
+    ///
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public boolean isLogParameters() {
+        return logParameters;
+    }
+
+    public void setLogParameters(boolean logParameters) {
+        this.logParameters = logParameters;
+    }
+
+    public boolean isExplain() {
+        return explain;
+    }
+
+    public void setExplain(boolean explain) {
+        this.explain = explain;
+    }
+}
@@ -0,0 +1,141 @@
+package com.Statement;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Passes every statement prepared on its connections to the {@link StatementRecorder}, whether hibernate or a
+ * JdbcTemplate prepared it, along with the time each execution takes. A prepared statement is recorded once, however
+ * many rows it batches, and a plain statement each time it executes or batches some SQL. Given a
+ * {@link StatementListener}, every execution is also timed, and the ones over its threshold are passed on with their
+ * bound parameters if it wants them. The pool's own connections are wrapped on the way out and unwrap as usual. A
+ * statement prepared with no listener on a thread that is not being recorded is handed out as it is.
+ */
+public class RecordingDataSource extends DelegatingDataSource {
+
+    // null when only the recordings are kept
+    private final StatementListener listener;
+
+    //Constructor
+    public RecordingDataSource(DataSource targetDataSource) {
+        this(targetDataSource, null);
+    }
+
+    //Constructor
+    public RecordingDataSource(DataSource targetDataSource, StatementListener listener) {
+        super(targetDataSource);
+        this.listener = listener;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return recording(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return recording(super.getConnection(username, password));
+    }
+
+    private Connection recording(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(RecordingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    String sql = null;
+                    if ((name.equals("prepareStatement") || name.equals("prepareCall")) && args[0] instanceof String) {
+                        sql = (String) args[0];
+                        StatementRecorder.record(sql);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (!(result instanceof Statement) || (listener == null && !StatementRecorder.isRecording())) {
+                        return result; // nothing to record or time
+                    }
+                    // a Statement, PreparedStatement or CallableStatement, proxied as what was asked for
+                    return recording((Statement) result, method.getReturnType(), sql);
+                });
+    }
+
+    private Statement recording(Statement statement, Class<?> type, String preparedSql) {
+        // only kept when there is a listener that wants them
+        Parameters parameters = listener != null && listener.isCapturingParameters() && preparedSql != null ? new Parameters() : null;
+        String[] sql = {preparedSql};
+        return (Statement) Proxy.newProxyInstance(RecordingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    // execute(sql), executeQuery(sql), executeUpdate(sql, ...), executeLargeUpdate(sql, ...) and addBatch(sql)
+                    if ((name.startsWith("execute") || name.equals("addBatch")) && args != null && args[0] instanceof String) {
+                        sql[0] = (String) args[0];
+                        StatementRecorder.record(sql[0]);
+                    }
+                    if (parameters != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        parameters.set((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                    } else if (parameters != null && name.equals("clearParameters")) {
+                        parameters.clear();
+                    }
+                    if (!name.startsWith("execute") || (listener == null && !StatementRecorder.isRecording())) {
+                        return invoke(statement, method, args);
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        long nanos = System.nanoTime() - start;
+                        StatementRecorder.executed(nanos);
+                        if (listener != null && nanos >= listener.getThresholdNanos()) { // only a slow one is copied
+                            listener.executed(sql[0], parameters == null ? Collections.emptyList() : parameters.toList(), nanos);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * The values bound to a prepared statement, by their one based index
+     */
+    private static final class Parameters {
+
+        private Object[] values = new Object[8];
+
+        private int count;
+
+        private void set(int index, Object value) {
+            if (index < 1) {
+                return; // the driver rejects it
+            }
+            if (index > values.length) {
+                values = Arrays.copyOf(values, Math.max(index, values.length * 2));
+            }
+            values[index - 1] = value;
+            count = Math.max(count, index);
+        }
+
+        private void clear() {
+            Arrays.fill(values, 0, count, null);
+            count = 0;
+        }
+
+        private List<Object> toList() {
+            return new ArrayList<>(Arrays.asList(values).subList(0, count));
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException(); // the driver's own SQLException
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.Statement;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Wraps the data source in a {@link RecordingDataSource} when anything records statements, the statement recorder,
+ * the Server-Timing header or the slow query log. Nothing is wrapped otherwise.
+ *
+ */
+@Configuration
+@ConditionalOnExpression("${statement-recorder.enabled:false} or ${server-timing.enabled:false} or ${slow-query.enabled:false}")
+public class RecordingDataSourceConfig {
+
+    /**
+     * Wraps the data source, static so it is registered before the data source is made
+     *
+     * @param listener Told of every statement, if there is one
+     */
+    @Bean
+    public static BeanPostProcessor recordingDataSourcePostProcessor(ObjectProvider<StatementListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof RecordingDataSource)) {
+                    return new RecordingDataSource((DataSource) bean, listener.getIfAvailable());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.Statement;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Records the statements of each request and warns when one of them ran more often than the threshold, which is
+ * almost always a lazy association or a query loaded once per row of a list. The recording is left on the request
+ * for tests to count.
+ */
+public class RepeatedStatementFilter extends OncePerRequestFilter {
+
+    public static final String RECORDING_ATTRIBUTE = RepeatedStatementFilter.class.getName() + ".RECORDING";
+
+    private static final Logger LOG = LoggerFactory.getLogger(RepeatedStatementFilter.class);
+
+    private final StatementRecorderProperties properties;
+
+    //Constructor
+    public RepeatedStatementFilter(StatementRecorderProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementRecording recording = StatementRecorder.start();
+        request.setAttribute(RECORDING_ATTRIBUTE, recording);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            recording.close();
+        }
+
+        Map<String, Integer> repeated = recording.getStatementsRepeatedMoreThan(properties.getRepeatedStatementThreshold());
+        for (Map.Entry<String, Integer> statement : repeated.entrySet()) {
+            LOG.warn("{} {} ran {} similar statements of {} in total: {}", request.getMethod(), request.getRequestURI(),
+                    statement.getValue(), recording.getCount(), statement.getKey());
+        }
+        if (!repeated.isEmpty() && properties.isFailOnRepeatedStatements()) {
+            throw new IllegalStateException(request.getMethod() + " " + request.getRequestURI()
+                    + " ran a statement more than " + properties.getRepeatedStatementThreshold() + " times: "
+                    + repeated.keySet());
+        }
+    }
+}
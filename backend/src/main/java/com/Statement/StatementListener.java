@@ -0,0 +1,33 @@
+package com.Statement;
+
+import java.util.List;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Told of the statements a {@link RecordingDataSource} executes, on the thread that executed it. Only the statements
+ * that took at least the listener's threshold are passed on, and their parameters only when it asks for them, so the
+ * statements it does not care about cost a clock read.
+ */
+public interface StatementListener {
+
+    /**
+     * @return How long a statement must take to be passed on, in nanoseconds
+     */
+    long getThresholdNanos();
+
+    /**
+     * @return Whether the values bound to a prepared statement are wanted, nothing is kept for them otherwise
+     */
+    boolean isCapturingParameters();
+
+    /**
+     * Called once a statement at least the threshold long has executed, or failed to
+     *
+     * @param sql        The statement
+     * @param parameters The values bound to the statement's parameters in order, empty for a plain statement or when
+     *                   they are not captured
+     * @param nanos      How long the execution took
+     */
+    void executed(String sql, List<Object> parameters, long nanos);
+}
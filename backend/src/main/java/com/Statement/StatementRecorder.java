@@ -0,0 +1,74 @@
+package com.Statement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Hands each statement prepared through a {@link RecordingDataSource}, and the time it took to execute, to the
+ * recordings open on the preparing thread.
+ * Recordings nest, so a test can record around the requests it makes while each request is recorded on its own.
+ * Statements prepared on another thread, e.g. by a background import, are not part of the caller's recording.
+ */
+public final class StatementRecorder {
+
+    private static final ThreadLocal<List<StatementRecording>> RECORDINGS = new ThreadLocal<>();
+
+    //not instantiable
+    private StatementRecorder() {
+    }
+
+    /**
+     * Starts recording the statements of the calling thread
+     *
+     * @return A new recording, to be closed on the same thread
+     */
+    public static StatementRecording start() {
+        List<StatementRecording> recordings = RECORDINGS.get();
+        if (recordings == null) {
+            recordings = new ArrayList<>();
+            RECORDINGS.set(recordings);
+        }
+        StatementRecording recording = new StatementRecording();
+        recordings.add(recording);
+        return recording;
+    }
+
+    static void stop(StatementRecording recording) {
+        List<StatementRecording> recordings = RECORDINGS.get();
+        if (recordings != null) {
+            recordings.remove(recording);
+            if (recordings.isEmpty()) {
+                RECORDINGS.remove(); // pooled threads keep nothing between requests
+            }
+        }
+    }
+
+    /**
+     * Checks whether the calling thread is being recorded, so there is nothing to time when it is not
+     *
+     * @return true if a recording is open on the calling thread
+     */
+    public static boolean isRecording() {
+        return RECORDINGS.get() != null;
+    }
+
+    static void record(String sql) {
+        List<StatementRecording> recordings = RECORDINGS.get();
+        if (recordings != null) {
+            for (StatementRecording recording : recordings) {
+                recording.record(sql);
+            }
+        }
+    }
+
+    static void executed(long nanos) {
+        List<StatementRecording> recordings = RECORDINGS.get();
+        if (recordings != null) {
+            for (StatementRecording recording : recordings) {
+                recording.executed(nanos);
+            }
+        }
+    }
+}
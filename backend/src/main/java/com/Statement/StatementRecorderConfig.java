@@ -0,0 +1,33 @@
+package com.Statement;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Records the statements sent to the database and reports the requests repeating one, when statement-recorder.enabled
+ * is set, as it is in the dev profile and in tests. Nothing is wrapped otherwise, so production pays nothing for it.
+ *
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "statement-recorder", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(StatementRecorderProperties.class)
+@Import(RecordingDataSourceConfig.class)
+public class StatementRecorderConfig {
+
+    /**
+     * Records every api request with a {@link RepeatedStatementFilter}
+     */
+    @Bean
+    public FilterRegistrationBean<RepeatedStatementFilter> repeatedStatementFilter(StatementRecorderProperties properties) {
+        FilterRegistrationBean<RepeatedStatementFilter> registration =
+                new FilterRegistrationBean<>(new RepeatedStatementFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
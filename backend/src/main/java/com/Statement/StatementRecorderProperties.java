@@ -0,0 +1,49 @@
+package com.Statement;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Whether statements are recorded per request and when a request's statements look like a query run once per row,
+ * bound from statement-recorder.*. Meant for development and tests, it is off unless enabled.
+ */
+@ConfigurationProperties(prefix = "statement-recorder")
+public class StatementRecorderProperties {
+
+    private boolean enabled = false;
+
+    // the most times one request may run the same statement before it is reported
+    private int repeatedStatementThreshold = 10;
+
+    // fails the request instead of only logging it, for tests
+    private boolean failOnRepeatedStatements = false;
+
+    ///
+    ///GETTERS AND SETTERS
+    ///
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRepeatedStatementThreshold() {
+        return repeatedStatementThreshold;
+    }
+
+    public void setRepeatedStatementThreshold(int repeatedStatementThreshold) {
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    public boolean isFailOnRepeatedStatements() {
+        return failOnRepeatedStatements;
+    }
+
+    public void setFailOnRepeatedStatements(boolean failOnRepeatedStatements) {
+        this.failOnRepeatedStatements = failOnRepeatedStatements;
+    }
+}
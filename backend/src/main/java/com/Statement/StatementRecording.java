@@ -0,0 +1,151 @@
+package com.Statement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * The SQL statements sent to the database on one thread while it is open, in the order they were prepared, and the
+ * time spent executing them. A batch is one statement, however many rows it sends. Closing it stops the recording,
+ * what was recorded can still be read.
+ */
+public class StatementRecording implements AutoCloseable {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final List<String> statements = new ArrayList<>();
+
+    private long executionNanos;
+
+    //Constructor, started by StatementRecorder.start()
+    StatementRecording() {
+    }
+
+    /**
+     * Reduces a statement to its shape, so the same query with other values or another number of in list parameters
+     * counts as the same statement
+     *
+     * @param sql A given statement
+     * @return The statement in lower case with literals and parameter lists replaced by a single ?
+     */
+    public static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = PARAMETER_LIST.matcher(normalized).replaceAll("(?)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+
+    void record(String sql) {
+        statements.add(sql);
+    }
+
+    void executed(long nanos) {
+        executionNanos += nanos;
+    }
+
+    /**
+     * Forgets every statement recorded so far, e.g. the ones that set up a test
+     */
+    public void clear() {
+        statements.clear();
+        executionNanos = 0;
+    }
+
+    /**
+     * Counts the statements of a kind
+     *
+     * @param keyword The statement's first keyword, e.g. "select"
+     * @return The number of recorded statements starting with the keyword
+     */
+    public int count(String keyword) {
+        String prefix = keyword.toLowerCase(Locale.ROOT);
+        int count = 0;
+        for (String statement : statements) {
+            if (normalize(statement).startsWith(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts how many times each statement ran, by its {@link #normalize(String) shape}
+     *
+     * @return Each statement shape and how many times it ran, in the order each first ran
+     */
+    public Map<String, Integer> getSimilarStatementCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String statement : statements) {
+            counts.merge(normalize(statement), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the statements that ran more often than a threshold, the mark of a query run once per row of another
+     *
+     * @param threshold The most times a statement may run
+     * @return Each statement shape that ran more often and how many times it ran
+     */
+    public Map<String, Integer> getStatementsRepeatedMoreThan(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> count : getSimilarStatementCounts().entrySet()) {
+            if (count.getValue() > threshold) {
+                repeated.put(count.getKey(), count.getValue());
+            }
+        }
+        return repeated;
+    }
+
+    /**
+     * Stops recording, see {@link StatementRecorder#start()}
+     */
+    @Override
+    public void close() {
+        StatementRecorder.stop(this);
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(new ArrayList<>(statements));
+    }
+
+    public long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    public int getCount() {
+        return statements.size();
+    }
+
+    public int getSelectCount() {
+        return count("select");
+    }
+
+    public int getInsertCount() {
+        return count("insert");
+    }
+
+    public int getUpdateCount() {
+        return count("update");
+    }
+
+    public int getDeleteCount() {
+        return count("delete");
+    }
+}
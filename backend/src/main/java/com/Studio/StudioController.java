@@ -1,8 +1,10 @@
 package com.Studio;
 
+import com.Http.IfMatch;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -31,10 +33,14 @@ public class StudioController {
      * Gets all studios in json format at
      * http://localhost:8080/api/{version}/studio/
      *
+     * @param fields The fields to send, such as name, omitted for all of them
      * @return Json List of all studios in the db
      */
     @GetMapping("/studio")
-    public List<StudioModel> getAllStudios() {
+    public List<?> getAllStudios(@RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return studioService.getAllStudioFields(fields); // only the columns of the given fields are read
+        }
         return studioService.getAllStudios(); // returns a list of studios
     }
 
@@ -46,7 +52,7 @@ public class StudioController {
      * @return Json List of all studios in the db
      */
     @GetMapping("/studio/movie")
-    public List<StudioModel> getAllMovieStudios(@RequestParam("mid") Long mid) {
+    public List<StudioView> getAllMovieStudios(@RequestParam("mid") Long mid) {
         return studioService.getAllMovieStudios(mid); // returns a list of studios
     }
 
@@ -79,16 +85,57 @@ public class StudioController {
     }
 
 
+    /**
+     * Links an existing studio to an existing movie on
+     * http://localhost:8080/api/{version}/movie/{mid}/studio/{sid}/
+     *
+     * @param mid  A given mid path variable
+     * @param sid A given sid path variable
+     * @return Http response 204 no content, also if they were already linked, otherwise 404 not found rnf exception
+     */
+    @PutMapping("/movie/{mid}/studio/{sid}")
+    public ResponseEntity<Void> linkMovieStudio(@PathVariable Long mid, @PathVariable Long sid) {
+        studioService.linkMovieStudio(mid, sid);
+        return ResponseEntity.noContent().build();
+    }
+
+
+    /**
+     * Unlinks a studio from a movie on
+     * http://localhost:8080/api/{version}/movie/{mid}/studio/{sid}/
+     *
+     * @param mid  A given mid path variable
+     * @param sid A given sid path variable
+     * @return Http response 204 no content, also if they were not linked, otherwise 404 not found rnf exception
+     */
+    @DeleteMapping("/movie/{mid}/studio/{sid}")
+    public ResponseEntity<Void> unlinkMovieStudio(@PathVariable Long mid, @PathVariable Long sid) {
+        studioService.unlinkMovieStudio(mid, sid);
+        return ResponseEntity.noContent().build();
+    }
+
+
     /**
      * Gets a studio by sid on
      * http://localhost:8080/api/{version}/studio/{sid}/
      *
      * @param sid A given sid path variable
-     * @return Http response 200 with studio response body if ok, otherwise 404 not found rnf exception
+     * @param fields The fields to send, omitted for all of them. A part of the studio is sent without an ETag.
+     * @param request The request, for its If-None-Match header
+     * @return Http response 200 with studio response body and its ETag if ok, 304 not modified if the client's copy is
+     * current, otherwise 404 not found rnf exception, or 400 bad request for a field that can not be selected
      */
     @GetMapping("/studio/{sid}")
-    public ResponseEntity<StudioModel> getStudioById(@PathVariable Long sid) {
-        StudioModel studio = studioService.getStudioById(sid);
+    public ResponseEntity<?> getStudioById(@PathVariable Long sid, @RequestParam(value = "fields", required = false) String fields,
+                                           WebRequest request) {
+        if (fields != null) {
+            return ResponseEntity.ok(studioService.getStudioFieldsById(sid, fields)); // only the columns of the given fields are read
+        }
+        StudioView studio = studioService.getStudioById(sid);
+        // sets the ETag, or the 304 status when it matches If-None-Match
+        if (request.checkNotModified(String.valueOf(studio.getVersion()))) {
+            return null; // nothing to serialize
+        }
         return ResponseEntity.ok(studio);
     }
 
@@ -99,12 +146,36 @@ public class StudioController {
      *
      * @param sid           A given sid path variable
      * @param studioDetails Studios details to update to in form on json request body
-     * @return Http response 200 with studio response body if ok, otherwise 404 not found rnf exception
+     * @param ifMatch       The ETag the client last read, to only update if nobody else has since
+     * @return Http response 200 with studio response body and its new ETag if ok, 412 precondition failed if the
+     * studio has changed, otherwise 404 not found rnf exception
      */
     @PutMapping("/studio/{sid}")
-    public ResponseEntity<StudioModel> updateStudio(@PathVariable Long sid, @RequestBody StudioModel studioDetails) {
-        StudioModel updatedStudio = studioService.updateStudio(sid, studioDetails);
-        return ResponseEntity.ok(updatedStudio);
+    public ResponseEntity<StudioModel> updateStudio(@PathVariable Long sid, @RequestBody StudioModel studioDetails,
+                                                    @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        StudioModel updatedStudio = studioService.updateStudio(sid, studioDetails, IfMatch.version(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(updatedStudio.getVersion())).body(updatedStudio);
+    }
+
+
+    /**
+     * Patches only the given fields of a studio on
+     * http://localhost:8080/api/{version}/studio/{sid}/
+     *
+     * @param sid     A given sid path variable
+     * @param changes Only the fields to change in form of json request body
+     * @param ifMatch The ETag the client last read, to only patch if nobody else has since
+     * @return Http response 204 no content, with the new ETag if If-Match was given, 412 precondition failed if the
+     * studio has changed, 400 bad request for a field that can not be patched, otherwise 404 not found rnf exception
+     */
+    @PatchMapping("/studio/{sid}")
+    public ResponseEntity<Void> patchStudio(@PathVariable Long sid, @RequestBody Map<String, Object> changes,
+                                            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Long version = studioService.patchStudio(sid, changes, IfMatch.version(ifMatch));
+        if (version == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
     }
 
 
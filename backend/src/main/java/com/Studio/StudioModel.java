@@ -2,10 +2,13 @@ package com.Studio;
 
 import com.Movie.MovieModel;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * @author Connor Hunter        connh321@gmail.com
@@ -14,6 +17,8 @@ import java.util.List;
  */
 @Entity
 @Table(name = "studio")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "studio") // see second-level-cache.regions
 public class StudioModel {
 
     //non-parameterized constructor
@@ -28,13 +33,19 @@ public class StudioModel {
     //N:M with Studio
     @JsonIgnore
     @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, mappedBy = "studioModels")
-    private final List<MovieModel> movieModels = new ArrayList<>();
+    private final Set<MovieModel> movieModels = new HashSet<>();
 
     @Id //pk
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "studio_seq")
+    @SequenceGenerator(name = "studio_seq", sequenceName = "studio_seq", allocationSize = 50) // pooled, one nextval per 50 inserts
     @Column(name = "sid")
     private Long sid;
 
+    @Version //optimistic lock, also sent as the ETag of the resource
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY) // served for If-Match, never read from a request
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0") // existing rows start at 0
+    private Long version;
+
     @Column(name = "name", nullable = false)
     private String name;
 
@@ -46,6 +57,10 @@ public class StudioModel {
         return sid;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getName() {
         return name;
     }
@@ -54,8 +69,24 @@ public class StudioModel {
         this.name = name;
     }
 
-    public List<MovieModel> getMovieModels() {
+    public Set<MovieModel> getMovieModels() {
         return movieModels;
     }
 
+    //equal by sid, see MovieModel.equals()
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StudioModel)) {
+            return false;
+        }
+        return sid != null && sid.equals(((StudioModel) o).getSid());
+    }
+
+    @Override
+    public int hashCode() {
+        return StudioModel.class.hashCode();
+    }
 }
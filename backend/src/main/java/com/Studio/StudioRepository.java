@@ -1,14 +1,25 @@
 package com.Studio;
 
+import com.Projection.ProjectionRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /***
  * @author Connor Hunter        connh321@gmail.com
  *
  * Where SQL Queries are written and generated by JpaRepository for accessing Studio information.
  */
 @Repository
-public interface StudioRepository extends JpaRepository<StudioModel, Long> {
+public interface StudioRepository extends JpaRepository<StudioModel, Long>, ProjectionRepository {
 
+    /**
+     * Gets the columns of every studio, in sid order, without loading any studio
+     *
+     * @return A list of studios
+     */
+    @Query("select new com.Studio.StudioView(s.sid, s.version, s.name) from StudioModel s order by s.sid")
+    List<StudioView> findAllViews();
 }
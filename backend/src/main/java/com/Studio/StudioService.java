@@ -1,12 +1,25 @@
 package com.Studio;
 
+import com.Cache.SecondLevelCacheLock;
+import com.Exception.PreconditionFailedException;
 import com.Exception.ResourceNotFoundException;
+import com.Http.IfMatch;
 import com.Movie.MovieModel;
 import com.Movie.MovieService;
+import com.Patch.PartialUpdate;
+import com.Projection.FieldProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Map;
 
 /***
  * @author Connor Hunter        connh321@gmail.com
@@ -18,12 +31,43 @@ import java.util.List;
 @Service
 public class StudioService {
 
+    // the fields a fieldset can select, every column a studio is serialized with
+    private static final FieldProjection FIELDS = new FieldProjection("sid")
+            .field("name");
+
+    // the columns a PATCH can change, the same ones updateStudio copies
+    private static final PartialUpdate PATCH = new PartialUpdate("studio", "sid")
+            .column("name", "name", String.class, false);
+
+    // a studio is shared by movies, deleting it only unlinks them
+    private static final String DELETE_MOVIE_LINKS = "delete from movie_studio where sid = ?";
+
+    private static final String DELETE = "delete from studio where sid = ?";
+
+    // a no-op when the link is already there, so a repeated PUT does not fail on the primary key
+    private static final String LINK_MOVIE = "insert into movie_studio (mid, sid) select cast(? as bigint), cast(? as bigint) "
+            + "where not exists (select 1 from movie_studio where mid = ? and sid = ?)";
+
+    private static final String UNLINK_MOVIE = "delete from movie_studio where mid = ? and sid = ?";
+
     @Autowired // Injected Singleton
     private final StudioRepository studioRepository;
 
     @Autowired // Injected Singleton
     private MovieService movieService;
 
+    @Autowired // Injected Singleton
+    private ObjectMapper objectMapper;
+
+    @Autowired // Injected Singleton
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired // Injected Singleton
+    private SecondLevelCacheLock secondLevelCacheLock;
+
+    @Autowired // Injected Singleton
+    private TransactionTemplate transactionTemplate;
+
     //Constructor
     public StudioService(StudioRepository studioRepository) {
         this.studioRepository = studioRepository;
@@ -32,21 +76,32 @@ public class StudioService {
     /**
      * Gets all studios from the database
      *
-     * @return A list of all studios
+     * @return A list of all studios in sid order
      */
-    public List<StudioModel> getAllStudios() {
-        return studioRepository.findAll(); // returns a list of studios
+    public List<StudioView> getAllStudios() {
+        return studioRepository.findAllViews(); // returns a list of studios
     }
 
 
     /**
-     * Gets all studios from the database for a certain movie
+     * Gets the given fields of all studios, only their columns are selected
      *
-     * @return A list of all studios
+     * @param fields A comma separated list of fields
+     * @return The fields of every studio in sid order, or a Bad Request Exception for a field that can not be selected
      */
-    public List<StudioModel> getAllMovieStudios(Long mid) {
-        MovieModel currentMovie = movieService.getMovieById(mid);
-        return currentMovie.getStudioModels(); // returns a list of studios
+    public List<Map<String, Object>> getAllStudioFields(String fields) {
+        return studioRepository.findAllFields(StudioModel.class, FIELDS.parse(fields));
+    }
+
+
+    /**
+     * Gets all studios from the database for a certain movie, with one query
+     *
+     * @param mid A given mid
+     * @return A list of the movie's studios in sid order, or an RNF Exception
+     */
+    public List<StudioView> getAllMovieStudios(Long mid) {
+        return movieService.getMovieStudios(mid); // returns a list of studios
     }
 
 
@@ -67,9 +122,10 @@ public class StudioService {
      * @param mid A given mid
      * @return A response body in json format
      */
+    @Transactional // the movie's studios are loaded and changed in the persistence context that saves them
     public StudioModel createMovieStudio(Long mid, StudioModel studio) {
         //add studio to movies studios
-        MovieModel currentMovie = movieService.getMovieById(mid);
+        MovieModel currentMovie = movieService.getManagedMovieById(mid);
         studio.getMovieModels().add(currentMovie);
         currentMovie.getStudioModels().add(studio);
         //Cascade.All saves the details
@@ -78,13 +134,61 @@ public class StudioService {
 
 
     /**
-     * Gets a studio by sid and returns it
+     * Links an existing studio to an existing movie by writing only the join row. Neither side's collections are
+     * loaded, so it costs the same no matter how many studios the movie has.
+     *
+     * @param mid  A given mid
+     * @param sid A given sid
+     */
+    public void linkMovieStudio(Long mid, Long sid) {
+        checkExists(mid, sid);
+        try {
+            jdbcTemplate.update(LINK_MOVIE, mid, sid, mid, sid);
+        } catch (DuplicateKeyException e) {
+            // the same link was written at the same time, it is there either way
+        } catch (DataIntegrityViolationException e) {
+            // the movie or studio was deleted since the check, tell which
+            checkExists(mid, sid);
+            throw e;
+        }
+    }
+
+
+    /**
+     * Unlinks a studio from a movie by deleting only the join row, neither side's collections are loaded
+     *
+     * @param mid  A given mid
+     * @param sid A given sid
+     */
+    public void unlinkMovieStudio(Long mid, Long sid) {
+        if (jdbcTemplate.update(UNLINK_MOVIE, mid, sid) == 0) {
+            checkExists(mid, sid); // not linked is fine, an unknown id is not
+        }
+    }
+
+
+    /**
+     * Gets a studio by sid and returns it. Read through the second level cache, so a cached studio
+     * costs no query.
      *
      * @param sid A given sid
      * @return A studio, or an RNF Exception
      */
-    public StudioModel getStudioById(Long sid) {
-        return studioRepository.findById(sid)
+    public StudioView getStudioById(Long sid) {
+        return studioRepository.findById(sid).map(StudioView::of)
+                .orElseThrow(() -> new ResourceNotFoundException("Studio With the sid: " + sid + " does not exist!"));
+    }
+
+
+    /**
+     * Gets the given fields of a studio by sid, only their columns are selected
+     *
+     * @param sid    A given sid
+     * @param fields A comma separated list of fields
+     * @return The studio's fields, an RNF Exception, or a Bad Request Exception for a field that can not be selected
+     */
+    public Map<String, Object> getStudioFieldsById(Long sid, String fields) {
+        return studioRepository.findFieldsById(StudioModel.class, FIELDS.parse(fields), sid)
                 .orElseThrow(() -> new ResourceNotFoundException("Studio With the sid: " + sid + " does not exist!"));
     }
 
@@ -94,27 +198,79 @@ public class StudioService {
      *
      * @param sid    A long sid
      * @param studioDetails A studio details
-     * @return A studio, or an RNF exception
+     * @param expectedVersion The version from the If-Match header, null to update whatever the version
+     * @return A studio, an RNF exception, or a Precondition Failed exception if it has changed
      */
-    public StudioModel updateStudio(Long sid, StudioModel studioDetails) {
+    public StudioModel updateStudio(Long sid, StudioModel studioDetails, Long expectedVersion) {
         StudioModel studio = studioRepository.findById(sid)
                 .orElseThrow(() -> new ResourceNotFoundException("Studio With the sid: " + sid + " does not exist!"));
+        IfMatch.check(expectedVersion, studio.getVersion(), "Studio With the sid: " + sid);
 
         studio.setName(studioDetails.getName());
 
-        return studioRepository.save(studio);
+        try {
+            return studioRepository.save(studio);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // written by someone else between the read and this write
+            throw new PreconditionFailedException("Studio With the sid: " + sid + " has changed since version: " + studio.getVersion() + "!");
+        }
     }
 
 
     /**
-     * Deletes a studio given a sid
+     * Patches the given fields of a studio with one update statement, without loading the studio
+     *
+     * @param sid             A long sid
+     * @param changes         The fields to change and their new values
+     * @param expectedVersion The version from the If-Match header, null to patch whatever the version
+     * @return The new version if the expected version was given, otherwise null, or an RNF exception, a Precondition
+     * Failed exception if it has changed, or a Bad Request exception for a field that can not be patched
+     */
+    public Long patchStudio(Long sid, Map<String, Object> changes, Long expectedVersion) {
+        int updated = secondLevelCacheLock.write(StudioModel.class, sid, // written behind hibernate's back
+                () -> PATCH.execute(jdbcTemplate, objectMapper, sid, changes, expectedVersion));
+        if (updated == 0) {
+            // nothing updated, only look the studio up to tell a missing one from a changed one
+            if (expectedVersion == null || !studioRepository.existsById(sid)) {
+                throw new ResourceNotFoundException("Studio With the sid: " + sid + " does not exist!");
+            }
+            throw new PreconditionFailedException("Studio With the sid: " + sid + " has changed since version: " + expectedVersion + "!");
+        }
+        return expectedVersion == null ? null : expectedVersion + 1;
+    }
+
+
+    /**
+     * Deletes a studio given a sid, with one statement for its movie links and one for the studio. Nothing is loaded and
+     * no cascade is walked, so it costs the same no matter how many movies it is in.
      *
      * @param sid A long sid
      */
     public void deleteStudio(Long sid) {
-        StudioModel studio = studioRepository.findById(sid)
-                .orElseThrow(() -> new ResourceNotFoundException("Studio With the sid: " + sid + " does not exist!"));
-        studioRepository.delete(studio);
+        // deleted behind hibernate's back, committed before the cache entry is unlocked
+        Integer deleted = secondLevelCacheLock.write(StudioModel.class, sid, () -> transactionTemplate.execute(status -> {
+            jdbcTemplate.update(DELETE_MOVIE_LINKS, sid);
+            return jdbcTemplate.update(DELETE, sid);
+        }));
+        if (deleted == null || deleted == 0) {
+            throw new ResourceNotFoundException("Studio With the sid: " + sid + " does not exist!");
+        }
+    }
+
+
+    /**
+     * Checks a movie and a studio exist by id, without loading either
+     *
+     * @param mid  A given mid
+     * @param sid A given sid
+     */
+    private void checkExists(Long mid, Long sid) {
+        if (!movieService.existsMovieById(mid)) {
+            throw new ResourceNotFoundException("Movie With the mid: " + mid + " does not exist!");
+        }
+        if (!studioRepository.existsById(sid)) {
+            throw new ResourceNotFoundException("Studio With the sid: " + sid + " does not exist!");
+        }
     }
 
 }
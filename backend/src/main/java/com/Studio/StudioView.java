@@ -0,0 +1,49 @@
+package com.Studio;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * The columns of a studio as they are read, selected by a query or copied from the second level cache, so serializing
+ * it never touches the studio's movies.
+ */
+public class StudioView {
+
+    private final Long sid;
+
+    private final Long version;
+
+    private final String name;
+
+    //Constructor, the arguments of a select new query
+    public StudioView(Long sid, Long version, String name) {
+        this.sid = sid;
+        this.version = version;
+        this.name = name;
+    }
+
+    /**
+     * Copies the columns of a loaded studio
+     *
+     * @param studio A given studio
+     * @return A new view of the studio
+     */
+    public static StudioView of(StudioModel studio) {
+        return new StudioView(studio.getSid(), studio.getVersion(), studio.getName());
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public Long getSid() {
+        return sid;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,285 @@
+package com.Suggest;
+
+import com.Exception.BadRequestException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * An in memory prefix index of people's names, so names can be suggested while they are typed without a query. A
+ * person is indexed as "first last" and as "last first", lower cased, without accents and with anything but letters
+ * and digits turned into single spaces, so "jo", "john sm" and "smi" all find John Smith.
+ * <p>
+ * The index is a few sorted arrays, the normalized names with the id each belongs to, and the ids with the person to
+ * suggest, so a person costs their two normalized names and a few array slots. A prefix is found by binary
+ * search. Writes are serialized and build new arrays, a batch of people at a time, while reads keep using the arrays
+ * they started with and are never blocked.
+ */
+public class NameIndex {
+
+    public static final int DEFAULT_LIMIT = 10;
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Indexes the people read by a query, replacing the names they were indexed under before
+     *
+     * @param jdbcTemplate A jdbc template
+     * @param sql          Selects id, first name and last name
+     * @param args         The query's parameters
+     */
+    public void load(JdbcTemplate jdbcTemplate, String sql, Object... args) {
+        List<NameSuggestion> people = new ArrayList<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> people.add(new NameSuggestion(rs.getLong(1), rs.getString(2), rs.getString(3))), args);
+        putAll(people);
+    }
+
+    /**
+     * Indexes a person, replacing the name they were indexed under before
+     *
+     * @param id        A person's id
+     * @param firstName A first name
+     * @param lastName  A last name
+     */
+    public void put(Long id, String firstName, String lastName) {
+        putAll(Collections.singletonList(new NameSuggestion(id, firstName, lastName)));
+    }
+
+    /**
+     * Indexes some people at once, replacing the names they were indexed under before, the index is rebuilt once
+     *
+     * @param people Some people, the last one wins for an id given twice
+     */
+    public synchronized void putAll(Collection<NameSuggestion> people) {
+        if (people.isEmpty()) {
+            return;
+        }
+        Map<Long, NameSuggestion> byId = new LinkedHashMap<>();
+        for (NameSuggestion person : people) {
+            byId.put(person.getId(), person);
+        }
+        List<NameSuggestion> added = new ArrayList<>(byId.values());
+        added.sort(Comparator.comparing(NameSuggestion::getId));
+        long[] replaced = new long[added.size()];
+        for (int i = 0; i < replaced.length; i++) {
+            replaced[i] = added.get(i).getId();
+        }
+        snapshot = snapshot.update(replaced, added);
+    }
+
+    /**
+     * Removes a person from the index, nothing happens if they are not in it
+     *
+     * @param id A person's id
+     */
+    public synchronized void remove(Long id) {
+        if (snapshot.indexOf(id) >= 0) {
+            snapshot = snapshot.update(new long[]{id}, Collections.emptyList());
+        }
+    }
+
+    /**
+     * Suggests the people with a name starting with a prefix, in name order
+     *
+     * @param prefix The start of a name, in any case and with or without accents
+     * @param limit  The most people to suggest
+     * @return At most limit people, none if the prefix has no letters or digits
+     */
+    public List<NameSuggestion> suggest(String prefix, int limit) {
+        List<NameSuggestion> suggestions = new ArrayList<>(Math.min(limit, MAX_LIMIT));
+        String from = normalize(prefix);
+        if (from.isEmpty()) {
+            return suggestions;
+        }
+        Snapshot current = snapshot; // the same arrays for the whole read
+        Set<Long> seen = new HashSet<>(); // a person whose first and last name both match is found twice
+        for (int i = current.firstKeyFrom(from); i < current.keys.length && current.keys[i].startsWith(from); i++) {
+            if (seen.add(current.keyIds[i])) {
+                suggestions.add(current.suggestion(current.keyIds[i]));
+                if (suggestions.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * @return The number of people in the index
+     */
+    public int size() {
+        return snapshot.ids.length;
+    }
+
+    /**
+     * Checks a requested number of suggestions is within bounds
+     *
+     * @param limit A requested number of suggestions
+     * @return The limit, or a Bad Request Exception
+     */
+    public static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit: " + limit + " must be between 1 and " + MAX_LIMIT + "!");
+        }
+        return limit;
+    }
+
+    /**
+     * Normalizes a name for the index, lower cased, without accents and with anything but letters and digits turned
+     * into single spaces
+     *
+     * @param name A name, or null
+     * @return The normalized name
+     */
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String unaccented = ACCENTS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATOR.matcher(unaccented).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+
+
+    /**
+     * The arrays of the index at one point in time, never changed once built
+     */
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(new String[0], new long[0], new long[0], new NameSuggestion[0]);
+
+        // both normalized names of every person, in name then id order, and the id each belongs to
+        private final String[] keys;
+
+        private final long[] keyIds;
+
+        // every person's id in id order, and the person to suggest
+        private final long[] ids;
+
+        private final NameSuggestion[] people;
+
+        private Snapshot(String[] keys, long[] keyIds, long[] ids, NameSuggestion[] people) {
+            this.keys = keys;
+            this.keyIds = keyIds;
+            this.ids = ids;
+            this.people = people;
+        }
+
+        /**
+         * Builds the next snapshot, without the replaced people and with the added ones, merging the sorted arrays
+         *
+         * @param replaced The ids to drop, sorted
+         * @param added    The people to add, sorted by id and with ids among the replaced
+         * @return A new snapshot
+         */
+        private Snapshot update(long[] replaced, List<NameSuggestion> added) {
+            long[] newIds = new long[ids.length + added.size()];
+            NameSuggestion[] newPeople = new NameSuggestion[newIds.length];
+            int size = 0;
+            int a = 0;
+            for (int i = 0; i < ids.length; i++) {
+                for (; a < added.size() && added.get(a).getId() < ids[i]; a++, size++) {
+                    newIds[size] = added.get(a).getId();
+                    newPeople[size] = added.get(a);
+                }
+                if (Arrays.binarySearch(replaced, ids[i]) < 0) {
+                    newIds[size] = ids[i];
+                    newPeople[size++] = people[i];
+                }
+            }
+            for (; a < added.size(); a++, size++) {
+                newIds[size] = added.get(a).getId();
+                newPeople[size] = added.get(a);
+            }
+
+            String[] addedKeys = new String[added.size() * 2];
+            long[] addedKeyIds = new long[addedKeys.length];
+            Integer[] order = new Integer[addedKeys.length];
+            for (int p = 0; p < added.size(); p++) {
+                String first = normalize(added.get(p).getFirstName());
+                String last = normalize(added.get(p).getLastName());
+                addedKeys[2 * p] = (first + " " + last).trim();
+                addedKeys[2 * p + 1] = (last + " " + first).trim();
+                addedKeyIds[2 * p] = addedKeyIds[2 * p + 1] = added.get(p).getId();
+                order[2 * p] = 2 * p;
+                order[2 * p + 1] = 2 * p + 1;
+            }
+            Arrays.sort(order, (x, y) -> compare(addedKeys[x], addedKeyIds[x], addedKeys[y], addedKeyIds[y]));
+
+            String[] newKeys = new String[keys.length + addedKeys.length];
+            long[] newKeyIds = new long[newKeys.length];
+            int keySize = 0;
+            int k = 0;
+            for (int i = 0; i < keys.length; i++) {
+                for (; k < order.length && compare(addedKeys[order[k]], addedKeyIds[order[k]], keys[i], keyIds[i]) < 0; k++, keySize++) {
+                    newKeys[keySize] = addedKeys[order[k]];
+                    newKeyIds[keySize] = addedKeyIds[order[k]];
+                }
+                if (Arrays.binarySearch(replaced, keyIds[i]) < 0) {
+                    newKeys[keySize] = keys[i];
+                    newKeyIds[keySize++] = keyIds[i];
+                }
+            }
+            for (; k < order.length; k++, keySize++) {
+                newKeys[keySize] = addedKeys[order[k]];
+                newKeyIds[keySize] = addedKeyIds[order[k]];
+            }
+
+            return new Snapshot(Arrays.copyOf(newKeys, keySize), Arrays.copyOf(newKeyIds, keySize),
+                    Arrays.copyOf(newIds, size), Arrays.copyOf(newPeople, size));
+        }
+
+        /**
+         * Finds where the names starting with a prefix begin
+         *
+         * @param prefix A normalized prefix
+         * @return The index of the first name not before the prefix
+         */
+        private int firstKeyFrom(String prefix) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int indexOf(long id) {
+            return Arrays.binarySearch(ids, id);
+        }
+
+        private NameSuggestion suggestion(long id) {
+            return people[indexOf(id)];
+        }
+
+        private static int compare(String key, long id, String otherKey, long otherId) {
+            int byKey = key.compareTo(otherKey);
+            return byKey != 0 ? byKey : Long.compare(id, otherId);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.Suggest;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * A person suggested for a name prefix, with the id and name they were indexed under.
+ */
+public class NameSuggestion {
+
+    private final Long id;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    //Constructor
+    public NameSuggestion(Long id, String firstName, String lastName) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+}
@@ -0,0 +1,122 @@
+package com.Timing;
+
+import com.Statement.StatementRecorder;
+import com.Statement.StatementRecording;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Where the time of one sampled request went: in service methods, executing SQL and serializing the response. It is
+ * bound to the request's thread from {@link #start()} to {@link #stop()}, so the code being timed finds it with
+ * {@link #current()} and does nothing when the request is not sampled.
+ */
+public class RequestTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+
+    private final StatementRecording statements;
+
+    // service methods call each other, only the outermost call is timed
+    private int serviceDepth;
+
+    private long serviceStartNanos;
+
+    private long serviceNanos;
+
+    private long serializationNanos;
+
+    //Constructor
+    private RequestTiming(StatementRecording statements) {
+        this.statements = statements;
+    }
+
+    /**
+     * Starts timing a request on the calling thread
+     *
+     * @return The new timing, to be stopped on the same thread
+     */
+    public static RequestTiming start() {
+        RequestTiming timing = new RequestTiming(StatementRecorder.start());
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * Gets the timing of the calling thread's request
+     *
+     * @return The timing, or null if the request is not sampled
+     */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops timing, what was timed can still be read
+     */
+    public void stop() {
+        CURRENT.remove();
+        statements.close();
+    }
+
+    void enterService() {
+        if (serviceDepth++ == 0) {
+            serviceStartNanos = System.nanoTime();
+        }
+    }
+
+    void exitService() {
+        if (--serviceDepth == 0) {
+            serviceNanos += System.nanoTime() - serviceStartNanos;
+        }
+    }
+
+    void serialized(long nanos) {
+        serializationNanos += nanos;
+    }
+
+    /**
+     * Describes the request so far as a Server-Timing header, in milliseconds
+     *
+     * @return e.g. service;dur=4.2, db;dur=1.3;desc="2 statements", serialization;dur=0.4, total;dur=5.0
+     */
+    public String toHeader() {
+        return String.format(Locale.ROOT, "service;dur=%.1f, db;dur=%.1f;desc=\"%d statements\", serialization;dur=%.1f, total;dur=%.1f",
+                millis(serviceNanos), millis(statements.getExecutionNanos()), statements.getCount(),
+                millis(serializationNanos), millis(getTotalNanos()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public long getTotalNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public long getServiceNanos() {
+        return serviceNanos;
+    }
+
+    public long getDbNanos() {
+        return statements.getExecutionNanos();
+    }
+
+    public int getStatementCount() {
+        return statements.getCount();
+    }
+
+    public long getSerializationNanos() {
+        return serializationNanos;
+    }
+}
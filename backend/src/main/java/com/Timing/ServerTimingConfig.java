@@ -0,0 +1,72 @@
+package com.Timing;
+
+import com.Statement.RecordingDataSourceConfig;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Role;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/***
+ * @author Connor Hunter        connh321@gmail.com
+ *
+ * Times a sample of requests when server-timing.enabled is set: the filter that starts and reports the timing, the
+ * advice timing every service and the json converter timing serialization. SQL is timed by the recording data source.
+ *
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "server-timing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ServerTimingProperties.class)
+@Import(RecordingDataSourceConfig.class)
+public class ServerTimingConfig {
+
+    /**
+     * Times every api request with a {@link ServerTimingFilter}
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(ServerTimingProperties properties) {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    /**
+     * Advises every {@link Service} with a {@link ServiceTimingInterceptor}, applied by the same proxies as the
+     * transactions, so no aspect weaver is needed
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor serviceTimingAdvisor() {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Service.class, true), new ServiceTimingInterceptor());
+    }
+
+    /**
+     * Swaps the json converter for a {@link TimingJackson2HttpMessageConverter} sharing its object mapper
+     */
+    @Bean
+    public WebMvcConfigurer timingMessageConverterConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                for (int i = 0; i < converters.size(); i++) {
+                    if (converters.get(i).getClass() == MappingJackson2HttpMessageConverter.class) {
+                        MappingJackson2HttpMessageConverter converter = (MappingJackson2HttpMessageConverter) converters.get(i);
+                        converters.set(i, new TimingJackson2HttpMessageConverter(converter.getObjectMapper()));
+                    }
+                }
+            }
+        };
+    }
+}
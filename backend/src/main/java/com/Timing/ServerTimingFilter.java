@@ -0,0 +1,64 @@
+package com.Timing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Times a sample of requests with a {@link RequestTiming}, reports it in a Server-Timing header and logs it as one
+ * line of key=value pairs by route, e.g. to find which endpoint spends its time in the db.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    private final ServerTimingProperties properties;
+
+    //Constructor
+    public ServerTimingFilter(ServerTimingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestTiming timing = RequestTiming.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            timing.stop();
+        }
+
+        // a json body already sent it, see TimingJackson2HttpMessageConverter
+        if (!response.isCommitted() && !response.containsHeader(RequestTiming.HEADER)) {
+            response.setHeader(RequestTiming.HEADER, timing.toHeader());
+        }
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        LOG.info(String.format(Locale.ROOT,
+                "method=%s route=%s status=%d total_ms=%.1f service_ms=%.1f db_ms=%.1f statements=%d serialization_ms=%.1f",
+                request.getMethod(), route != null ? route : request.getRequestURI(), response.getStatus(),
+                millis(timing.getTotalNanos()), millis(timing.getServiceNanos()), millis(timing.getDbNanos()),
+                timing.getStatementCount(), millis(timing.getSerializationNanos())));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
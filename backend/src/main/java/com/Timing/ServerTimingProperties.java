@@ -0,0 +1,38 @@
+package com.Timing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Whether requests are timed and how many of them, bound from server-timing.*. Only sampled requests are timed, the
+ * rest pass through with a single random draw.
+ */
+@ConfigurationProperties(prefix = "server-timing")
+public class ServerTimingProperties {
+
+    private boolean enabled = false;
+
+    // the share of requests timed, from 0 for none to 1 for every request
+    private double sampleRate = 0.01;
+
+    ///
+    ///GETTERS AND SETTERS
+    ///
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+}
@@ -0,0 +1,26 @@
+package com.Timing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Adds the time of each call into a service to the {@link RequestTiming} of a sampled request.
+ */
+public class ServiceTimingInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            return invocation.proceed();
+        }
+        timing.enterService();
+        try {
+            return invocation.proceed();
+        } finally {
+            timing.exitService();
+        }
+    }
+}
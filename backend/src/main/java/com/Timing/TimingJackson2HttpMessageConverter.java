@@ -0,0 +1,51 @@
+package com.Timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Writes json like the converter it replaces, but times the serialization of a sampled request. A sampled body is
+ * serialized into memory first, so its time is known before the first byte is sent and goes in the Server-Timing
+ * header. Bodies of requests that are not sampled are streamed as usual.
+ */
+public class TimingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    //Constructor
+    public TimingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        long start = System.nanoTime();
+        super.writeInternal(object, type, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return outputMessage.getHeaders();
+            }
+        });
+        timing.serialized(System.nanoTime() - start);
+        outputMessage.getHeaders().set(RequestTiming.HEADER, timing.toHeader()); // sent with the first byte of the body
+        body.writeTo(outputMessage.getBody());
+    }
+}
@@ -1,8 +1,10 @@
 package com.User;
 
+import com.Http.IfMatch;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -31,10 +33,14 @@ public class UserController {
      * Gets all users in json format at
      * http://localhost:8080/api/{version}/users/
      *
+     * @param fields The fields to send, such as firstName,lastName, omitted for all of them
      * @return Json List of all users in the db
      */
     @GetMapping("/users")
-    public List<UserModel> getAllUsers() {
+    public List<?> getAllUsers(@RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return userService.getAllUserFields(fields); // only the columns of the given fields are read
+        }
         return userService.getAllUsers(); // returns a list of users
     }
 
@@ -57,11 +63,22 @@ public class UserController {
      * http://localhost:8080/api/{version}/users/{username}/
      *
      * @param username A given username path variable
-     * @return Http response 200 with user response body if ok, otherwise 404 not found rnf exception
+     * @param fields The fields to send, omitted for all of them. A part of the user is sent without an ETag.
+     * @param request The request, for its If-None-Match header
+     * @return Http response 200 with user response body and its ETag if ok, 304 not modified if the client's copy is
+     * current, otherwise 404 not found rnf exception, or 400 bad request for a field that can not be selected
      */
     @GetMapping("/users/{username}")
-    public ResponseEntity<UserModel> getUserById(@PathVariable String username) {
-        UserModel user = userService.getUserById(username);
+    public ResponseEntity<?> getUserById(@PathVariable String username, @RequestParam(value = "fields", required = false) String fields,
+                                         WebRequest request) {
+        if (fields != null) {
+            return ResponseEntity.ok(userService.getUserFieldsById(username, fields)); // only the columns of the given fields are read
+        }
+        // sets the ETag, or the 304 status when it matches If-None-Match, before the user is loaded
+        if (request.checkNotModified(String.valueOf(userService.getUserVersion(username)))) {
+            return null; // nothing to load or serialize
+        }
+        UserView user = userService.getUserById(username);
         return ResponseEntity.ok(user);
     }
 
@@ -72,12 +89,36 @@ public class UserController {
      *
      * @param username    A given username path variable
      * @param userDetails Users details to update to in form on json request body
-     * @return Http response 200 with user response body if ok, otherwise 404 not found rnf exception
+     * @param ifMatch     The ETag the client last read, to only update if nobody else has since
+     * @return Http response 200 with user response body and its new ETag if ok, 412 precondition failed if the
+     * user has changed, otherwise 404 not found rnf exception
      */
     @PutMapping("/users/{username}")
-    public ResponseEntity<UserModel> updateUser(@PathVariable String username, @RequestBody UserModel userDetails) {
-        UserModel updatedUser = userService.updateUser(username, userDetails);
-        return ResponseEntity.ok(updatedUser);
+    public ResponseEntity<UserModel> updateUser(@PathVariable String username, @RequestBody UserModel userDetails,
+                                                @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        UserModel updatedUser = userService.updateUser(username, userDetails, IfMatch.version(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(updatedUser.getVersion())).body(updatedUser);
+    }
+
+
+    /**
+     * Patches only the given fields of a user on
+     * http://localhost:8080/api/{version}/users/{username}/
+     *
+     * @param username A given username path variable
+     * @param changes  Only the fields to change in form of json request body
+     * @param ifMatch  The ETag the client last read, to only patch if nobody else has since
+     * @return Http response 204 no content, with the new ETag if If-Match was given, 412 precondition failed if the
+     * user has changed, 400 bad request for a field that can not be patched, otherwise 404 not found rnf exception
+     */
+    @PatchMapping("/users/{username}")
+    public ResponseEntity<Void> patchUser(@PathVariable String username, @RequestBody Map<String, Object> changes,
+                                          @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Long version = userService.patchUser(username, changes, IfMatch.version(ifMatch));
+        if (version == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
     }
 
 
@@ -40,6 +40,11 @@ public class UserModel {
     @Column(name = "username")
     private String username;
 
+    @Version //optimistic lock, also sent as the ETag of the resource
+    @JsonIgnore
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0") // existing rows start at 0
+    private Long version;
+
     @Column(name = "first_name", nullable = false)
     private String firstName;
 
@@ -72,6 +77,10 @@ public class UserModel {
         this.username = username;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getFirstName() {
         return firstName;
     }
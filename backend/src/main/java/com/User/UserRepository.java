@@ -1,14 +1,50 @@
 package com.User;
 
+import com.Projection.ProjectionRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 /***
  * @author Connor Hunter        connh321@gmail.com
  *
  * Where SQL Queries are written and generated by JpaRepository for accessing User information.
  */
 @Repository
-public interface UserRepository extends JpaRepository<UserModel, String> {
+public interface UserRepository extends JpaRepository<UserModel, String>, ProjectionRepository {
+
+    // the read model of the queries below, every column but the password
+    String SELECT_VIEW = "select new com.User.UserView(u.username, u.firstName, u.lastName, u.email, u.creationDate, "
+            + "u.lastAccessDate) from UserModel u ";
+
+    /**
+     * Gets the columns of every user, in username order, without loading any user
+     *
+     * @return A list of users
+     */
+    @Query(SELECT_VIEW + "order by u.username")
+    List<UserView> findAllViews();
+
+    /**
+     * Gets the columns of a user by username
+     *
+     * @param username A given username
+     * @return A user, or empty if the user does not exist
+     */
+    @Query(SELECT_VIEW + "where u.username = :username")
+    Optional<UserView> findViewByUsername(@Param("username") String username);
+
+    /**
+     * Gets only the version of a user, to answer a conditional GET without loading the user
+     *
+     * @param username A given username
+     * @return The user's version, if the user exists
+     */
+    @Query("select u.version from UserModel u where u.username = :username")
+    Optional<Long> findVersionByUsername(@Param("username") String username);
 
 }
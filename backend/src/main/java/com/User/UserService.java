@@ -1,10 +1,24 @@
 package com.User;
 
+import com.Exception.ConflictException;
+import com.Exception.PreconditionFailedException;
 import com.Exception.ResourceNotFoundException;
+import com.Http.IfMatch;
+import com.Movie.MoviesDeletedEvent;
+import com.Patch.PartialUpdate;
+import com.Projection.FieldProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /***
  * @author Connor Hunter        connh321@gmail.com
@@ -16,9 +30,50 @@ import java.util.List;
 @Service
 public class UserService {
 
+    // the fields a fieldset can select, the password is never selected
+    private static final FieldProjection FIELDS = new FieldProjection("username")
+            .field("firstName")
+            .field("lastName")
+            .field("email")
+            .field("creationDate")
+            .field("lastAccessDate");
+
+    // the columns a PATCH can change, the same ones updateUser copies
+    private static final PartialUpdate PATCH = new PartialUpdate("users", "username")
+            .column("password", "password", String.class, false)
+            .column("email", "email", String.class, true);
+
+    // past this many movies a user delete drops every movie from the movie cache rather than listing them
+    static final int MAX_MOVIES_INVALIDATED = 1000;
+
+    // reads at most one more than MAX_MOVIES_INVALIDATED, enough to tell a user with too many movies to list
+    private static final String SELECT_MOVIES = "select mid from movie where fk_user = ? limit ?";
+
+    // a user's movies go with the user, the directors, cast members and studios they link to are shared and stay
+    private static final String[] DELETE_MOVIES = {
+            "delete from movie_director where mid in (select mid from movie where fk_user = ?)",
+            "delete from movie_cast_member where mid in (select mid from movie where fk_user = ?)",
+            "delete from movie_studio where mid in (select mid from movie where fk_user = ?)",
+            "delete from movie where fk_user = ?"
+    };
+
+    private static final String DELETE = "delete from users where username = ?";
+
     @Autowired // Injected Singleton
     private final UserRepository userRepository;
 
+    @Autowired // Injected Singleton
+    private ObjectMapper objectMapper;
+
+    @Autowired // Injected Singleton
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired // Injected Singleton
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired // Injected Singleton
+    private ApplicationEventPublisher eventPublisher;
+
     //Constructor
     public UserService(UserRepository userRepository) {
         this.userRepository = userRepository;
@@ -27,10 +82,21 @@ public class UserService {
     /**
      * Gets all users from the database
      *
-     * @return A list of all users
+     * @return A list of all users in username order, without their passwords
      */
-    public List<UserModel> getAllUsers() {
-        return userRepository.findAll(); // returns a list of users
+    public List<UserView> getAllUsers() {
+        return userRepository.findAllViews(); // returns a list of users
+    }
+
+
+    /**
+     * Gets the given fields of all users, only their columns are selected
+     *
+     * @param fields A comma separated list of fields
+     * @return The fields of every user in username order, or a Bad Request Exception for a field that can not be selected
+     */
+    public List<Map<String, Object>> getAllUserFields(String fields) {
+        return userRepository.findAllFields(UserModel.class, FIELDS.parse(fields));
     }
 
 
@@ -38,10 +104,18 @@ public class UserService {
      * Saves a new user into the repository
      *
      * @param user A given user
-     * @return a newly saved User
+     * @return a newly saved User, or a Conflict Exception if the username is taken
      */
     public UserModel createUser(UserModel user) {
-        return userRepository.save(user);
+        // a new user is always inserted, as its version is null, so an existing username would fail on the primary key
+        if (user.getUsername() != null && userRepository.existsById(user.getUsername())) {
+            throw new ConflictException("User With the username: " + user.getUsername() + " already exists!");
+        }
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) { // created by another request since the check
+            throw new ConflictException("User With the username: " + user.getUsername() + " already exists!");
+        }
     }
 
 
@@ -49,10 +123,60 @@ public class UserService {
      * Gets a user by username and returns it
      *
      * @param username A given username
-     * @return A user, or an RNF Exception
+     * @return A user without the password, or an RNF Exception
+     */
+    public UserView getUserById(String username) {
+        return userRepository.findViewByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User With the username: " + username + " does not exist!"));
+    }
+
+
+    /**
+     * Gets the given fields of a user by username, only their columns are selected
+     *
+     * @param username A given username
+     * @param fields   A comma separated list of fields
+     * @return The user's fields, an RNF Exception, or a Bad Request Exception for a field that can not be selected
+     */
+    public Map<String, Object> getUserFieldsById(String username, String fields) {
+        return userRepository.findFieldsById(UserModel.class, FIELDS.parse(fields), username)
+                .orElseThrow(() -> new ResourceNotFoundException("User With the username: " + username + " does not exist!"));
+    }
+
+
+    /**
+     * Checks a user exists without loading the user
+     *
+     * @param username A given username
+     * @return true if the user exists
      */
-    public UserModel getUserById(String username) {
-        return userRepository.findById(username)
+    public boolean existsUserById(String username) {
+        return userRepository.existsById(username);
+    }
+
+
+    /**
+     * Gets a reference to a user by username, without loading the user, to set as the user of something else
+     *
+     * @param username A given username
+     * @return A user that is only loaded when read, or an RNF Exception
+     */
+    public UserModel getUserReference(String username) {
+        if (!existsUserById(username)) {
+            throw new ResourceNotFoundException("User With the username: " + username + " does not exist!");
+        }
+        return userRepository.getById(username);
+    }
+
+
+    /**
+     * Gets the version of a user by username, without loading the user
+     *
+     * @param username A given username
+     * @return The user's version, or an RNF Exception
+     */
+    public Long getUserVersion(String username) {
+        return userRepository.findVersionByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User With the username: " + username + " does not exist!"));
     }
 
@@ -62,27 +186,72 @@ public class UserService {
      *
      * @param username    A string username
      * @param userDetails A user details
-     * @return A user, or an RNF exception
+     * @param expectedVersion The version from the If-Match header, null to update whatever the version
+     * @return A user, an RNF exception, or a Precondition Failed exception if it has changed
      */
-    public UserModel updateUser(String username, UserModel userDetails) {
+    public UserModel updateUser(String username, UserModel userDetails, Long expectedVersion) {
         UserModel user = userRepository.findById(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User With the username: " + username + " does not exist!"));
+        IfMatch.check(expectedVersion, user.getVersion(), "User With the username: " + username);
 
         user.setPassword(userDetails.getPassword());
         user.setEmail(userDetails.getEmail());
 
-        return userRepository.save(user);
+        try {
+            return userRepository.save(user);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // written by someone else between the read and this write
+            throw new PreconditionFailedException("User With the username: " + username + " has changed since version: " + user.getVersion() + "!");
+        }
+    }
+
+
+    /**
+     * Patches the given fields of a user with one update statement, without loading the user
+     *
+     * @param username             A string username
+     * @param changes         The fields to change and their new values
+     * @param expectedVersion The version from the If-Match header, null to patch whatever the version
+     * @return The new version if the expected version was given, otherwise null, or an RNF exception, a Precondition
+     * Failed exception if it has changed, or a Bad Request exception for a field that can not be patched
+     */
+    public Long patchUser(String username, Map<String, Object> changes, Long expectedVersion) {
+        int updated = PATCH.execute(jdbcTemplate, objectMapper, username, changes, expectedVersion);
+        if (updated == 0) {
+            // nothing updated, only look the user up to tell a missing one from a changed one
+            if (expectedVersion == null || !userRepository.existsById(username)) {
+                throw new ResourceNotFoundException("User With the username: " + username + " does not exist!");
+            }
+            throw new PreconditionFailedException("User With the username: " + username + " has changed since version: " + expectedVersion + "!");
+        }
+        return expectedVersion == null ? null : expectedVersion + 1;
     }
 
 
     /**
-     * Deletes a user given a username
+     * Deletes a user and their movies given a username, with a fixed number of statements. Nothing is loaded and no
+     * cascade is walked, so it costs the same no matter how many movies the user has. At most
+     * MAX_MOVIES_INVALIDATED mids are read to drop from the movie cache, a user with more drops all of it.
      *
      * @param username A string username
      */
     public void deleteUser(String username) {
-        UserModel user = userRepository.findById(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User With the username: " + username + " does not exist!"));
-        userRepository.delete(user);
+        List<Long> mids = new ArrayList<>();
+        Integer deleted = transactionTemplate.execute(status -> {
+            mids.addAll(jdbcTemplate.queryForList(SELECT_MOVIES, Long.class, username, MAX_MOVIES_INVALIDATED + 1));
+            for (String deleteMovies : DELETE_MOVIES) {
+                jdbcTemplate.update(deleteMovies, username);
+            }
+            return jdbcTemplate.update(DELETE, username);
+        });
+        if (deleted == null || deleted == 0) {
+            throw new ResourceNotFoundException("User With the username: " + username + " does not exist!");
+        }
+        // MovieService depends on us, so it listens
+        if (mids.size() > MAX_MOVIES_INVALIDATED) {
+            eventPublisher.publishEvent(MoviesDeletedEvent.everyMovie());
+        } else if (!mids.isEmpty()) {
+            eventPublisher.publishEvent(new MoviesDeletedEvent(mids));
+        }
     }
 }
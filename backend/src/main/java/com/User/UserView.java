@@ -0,0 +1,62 @@
+package com.User;
+
+import java.util.Date;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * The columns of a user as they are read, selected by a query instead of loading the entity, so serializing it never
+ * touches the user's movies. The password is not one of them, it is never sent.
+ */
+public class UserView {
+
+    private final String username;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    private final String email;
+
+    private final Date creationDate;
+
+    private final Date lastAccessDate;
+
+    //Constructor, the arguments of a select new query
+    public UserView(String username, String firstName, String lastName, String email, Date creationDate, Date lastAccessDate) {
+        this.username = username;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.creationDate = creationDate;
+        this.lastAccessDate = lastAccessDate;
+    }
+
+    ///
+    ///GETTERS
+    ///
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Date getCreationDate() {
+        return creationDate;
+    }
+
+    public Date getLastAccessDate() {
+        return lastAccessDate;
+    }
+}
@@ -0,0 +1,82 @@
+package com.Cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link CacheService} to test business logic.
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheServiceUnitTest {
+
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache<Object, Object> directorRegion;
+    @Mock
+    private Cache<Object, Object> studioRegion;
+
+    @Test
+        //CacheService.getCacheStats()
+    void itShouldGetTheStatsOfEveryRegion() {
+        //given
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> director = Caffeine.newBuilder().recordStats().build();
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> studio = Caffeine.newBuilder().recordStats().build();
+        director.put(1L, "director");
+        director.getIfPresent(1L);
+        director.getIfPresent(1L);
+        director.getIfPresent(1L);
+        director.getIfPresent(2L);
+        CacheService underTest = new CacheService(cacheManager);
+
+        //when
+        when(cacheManager.getCacheNames()).thenReturn(Arrays.asList("studio", "director"));
+        when(cacheManager.getCache("director")).thenReturn(directorRegion);
+        when(cacheManager.getCache("studio")).thenReturn(studioRegion);
+        when(directorRegion.unwrap(com.github.benmanes.caffeine.cache.Cache.class)).thenReturn(director);
+        when(studioRegion.unwrap(com.github.benmanes.caffeine.cache.Cache.class)).thenReturn(studio);
+        List<CacheRegionStats> stats = underTest.getCacheStats();
+
+        //then
+        assertThat(stats).extracting(CacheRegionStats::getRegion).containsExactly("director", "studio");
+        assertThat(stats.get(0).getHitRatio()).isEqualTo(0.75);
+        assertThat(stats.get(0).getSize()).isEqualTo(1);
+        assertThat(stats.get(1).getHitRatio()).isZero();
+    }
+
+    @Test
+        //CacheService.getCacheStats()
+    void itShouldCountTheHitsOfARegionWithoutHibernateStatistics() {
+        //given
+        SecondLevelCacheProperties properties = new SecondLevelCacheProperties();
+        properties.getRegions().put("director", new SecondLevelCacheProperties.Region());
+        CacheManager secondLevelCacheManager = new SecondLevelCacheConfig().secondLevelCacheManager(properties);
+        Cache<Object, Object> region = secondLevelCacheManager.getCache("director");
+        CacheService underTest = new CacheService(secondLevelCacheManager);
+
+        //when
+        region.put(1L, "director");
+        region.get(1L);
+        region.get(2L);
+        List<CacheRegionStats> stats = underTest.getCacheStats();
+
+        //then
+        assertThat(stats).extracting(CacheRegionStats::getRegion).containsExactly("director");
+        assertThat(stats.get(0).getHits()).isEqualTo(1);
+        assertThat(stats.get(0).getMisses()).isEqualTo(1);
+        secondLevelCacheManager.close();
+    }
+}
@@ -0,0 +1,80 @@
+package com.Cache;
+
+import com.Director.DirectorModel;
+import com.Director.DirectorRepository;
+import com.User.UserModel;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link SecondLevelCacheLock} against the h2 database, to test a row loaded while a jdbc write runs is
+ * not put back into the second level cache.
+ */
+@SpringBootTest
+class SecondLevelCacheLockUnitTest {
+
+    @Autowired
+    private SecondLevelCacheLock underTest;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+        //SecondLevelCacheLock.write()
+    void itShouldNotCacheARowLoadedWhileItIsWritten() {
+        //given
+        Long did = directorRepository.save(new DirectorModel("George", "Lucas")).getDid();
+        entityManagerFactory.getCache().evict(DirectorModel.class, did); // the next load puts the row
+        List<String> readWhileWritten = new ArrayList<>();
+
+        //when
+        underTest.write(DirectorModel.class, did, () -> {
+            readWhileWritten.add(find(did).getFirstName()); // loads the old row from the database
+            return jdbcTemplate.update("update director set first_name = ?, version = version + 1 where did = ?", "Georgie", did);
+        });
+
+        //then
+        // the old row was not put into the locked entry, so it is not read after the write
+        assertThat(readWhileWritten).containsExactly("George");
+        assertThat(find(did).getFirstName()).isEqualTo("Georgie");
+    }
+
+    @Test
+        //SecondLevelCacheLock.write()
+    void itShouldWriteAnEntityThatIsNotCached() {
+        //given
+
+        //when
+        Integer updated = underTest.write(UserModel.class, "NoSuchUserName",
+                () -> jdbcTemplate.update("update users set email = ? where username = ?", "Test@gmail.com", "NoSuchUserName"));
+
+        //then
+        assertThat(updated).isZero();
+    }
+
+    private DirectorModel find(Long did) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.find(DirectorModel.class, did);
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -3,15 +3,24 @@ package com.CastMember;
 import com.CastMember.CastMemberController;
 import com.CastMember.CastMemberModel;
 import com.CastMember.CastMemberService;
+import com.Suggest.NameSuggestion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.*;
 
 /**
  * @author Connor Hunter        connh321@gmail.com
@@ -36,12 +45,25 @@ public class CastMemberControllerUnitTest {
         //given
 
         //when
-        underTest.getAllCastMembers();
+        underTest.getAllCastMembers(null);
 
         //then
         verify(castMemberService).getAllCastMembers();
     }
 
+    @Test
+        //CastMemberController.suggestCastMembers()
+    void itShouldSuggestCastMembers() {
+        //given
+        List<NameSuggestion> suggestions = Collections.singletonList(new NameSuggestion(1L, "TestFirstName", "TestLastName"));
+
+        //when
+        when(castMemberService.suggestCastMembers("test", 10)).thenReturn(suggestions);
+
+        //then
+        assertThat(underTest.suggestCastMembers("test", 10)).isEqualTo(suggestions);
+    }
+
     @Test
         //CastMemberController.createCastMember()
     void itShouldCreateACastMember() {
@@ -65,20 +87,18 @@ public class CastMemberControllerUnitTest {
         //CastMemberController.getCastMemberById()
     void itShouldGetACastMemberById() {
         //given
-        CastMemberModel castMemberModel = new CastMemberModel(
-                "TestFirstName",
-                "TestLastName"
-        );
+        CastMemberView castMemberView = new CastMemberView(1L, 0L, "TestFirstName", "TestLastName");
 
         //when
-        underTest.getCastMemberById(castMemberModel.getCmid());
+        when(castMemberService.getCastMemberById(any())).thenReturn(castMemberView);
+        underTest.getCastMemberById(castMemberView.getCmid(), null, new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
 
         //then
         ArgumentCaptor<Long> cmidArgumentCaptor = ArgumentCaptor.forClass(Long.class);
         // verify findById was invoked w/ cmid, and capture the cmid
         verify(castMemberService).getCastMemberById(cmidArgumentCaptor.capture());
         Long capturedCmid = cmidArgumentCaptor.getValue();
-        assertThat(castMemberModel.getCmid()).isEqualTo(capturedCmid);
+        assertThat(castMemberView.getCmid()).isEqualTo(capturedCmid);
     }
 
 
@@ -97,14 +117,15 @@ public class CastMemberControllerUnitTest {
         );
 
         //when
-        underTest.updateCastMember(castMemberModel.getCmid(), newCastMemberModel);
+        when(castMemberService.updateCastMember(any(), any(), any())).thenReturn(newCastMemberModel);
+        underTest.updateCastMember(castMemberModel.getCmid(), newCastMemberModel, null);
 
         //then
 
         ArgumentCaptor<Long> cmidArgumentCaptor = ArgumentCaptor.forClass(Long.class);
         ArgumentCaptor<CastMemberModel> newCastMemberArgumentCaptor = ArgumentCaptor.forClass(CastMemberModel.class);
         // verify updateCastMember was called with current CastMember cmid and new CastMember details
-        verify(castMemberService).updateCastMember(cmidArgumentCaptor.capture(), newCastMemberArgumentCaptor.capture());
+        verify(castMemberService).updateCastMember(cmidArgumentCaptor.capture(), newCastMemberArgumentCaptor.capture(), isNull());
         CastMemberModel capturedNewCastMember = newCastMemberArgumentCaptor.getValue();
         Long capturedCurrentCmid = cmidArgumentCaptor.getValue();
         assertThat(newCastMemberModel).isEqualTo(capturedNewCastMember); //assert new castMember was passed in
@@ -112,6 +133,50 @@ public class CastMemberControllerUnitTest {
     }
 
 
+    @Test
+        //CastMemberController.patchCastMember()
+    void itShouldPatchACastMember() {
+        //given
+        Map<String, Object> changes = Collections.singletonMap("someField", "newValue");
+
+        //when
+        when(castMemberService.patchCastMember(1L, changes, 3L)).thenReturn(4L);
+        ResponseEntity<Void> response = underTest.patchCastMember(1L, changes, "\"3\"");
+
+        //then
+        assertThat(response.getStatusCodeValue()).isEqualTo(204);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+    }
+
+
+    @Test
+        //CastMemberController.linkMovieCastMember()
+    void itShouldLinkACastMemberToAMovie() {
+        //given
+
+        //when
+        ResponseEntity<Void> response = underTest.linkMovieCastMember(1L, 2L);
+
+        //then
+        verify(castMemberService).linkMovieCastMember(1L, 2L);
+        assertThat(response.getStatusCodeValue()).isEqualTo(204);
+    }
+
+
+    @Test
+        //CastMemberController.unlinkMovieCastMember()
+    void itShouldUnlinkACastMemberFromAMovie() {
+        //given
+
+        //when
+        ResponseEntity<Void> response = underTest.unlinkMovieCastMember(1L, 2L);
+
+        //then
+        verify(castMemberService).unlinkMovieCastMember(1L, 2L);
+        assertThat(response.getStatusCodeValue()).isEqualTo(204);
+    }
+
+
     @Test
         //CastMemberController.deleteCastMember()
     void itShouldDeleteACastMember() {
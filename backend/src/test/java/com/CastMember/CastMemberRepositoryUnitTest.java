@@ -1,7 +1,22 @@
 package com.CastMember;
 
-import com.CastMember.CastMemberRepository;
+import com.Cache.SecondLevelCacheConfig;
+import com.Movie.MovieModel;
+import com.Statement.StatementRecorderConfig;
+import com.Statement.StatementRecorderExtension;
+import com.Statement.StatementRecording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.Statement.StatementRecordingAssert.assertThatStatements;
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * @author Connor Hunter        connh321@gmail.com
@@ -9,5 +24,33 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
  * Unit Tests for {@link CastMemberRepository} to test custom SQL Queries, not the pre-defined and tested given CRUD methods.
  */
 @DataJpaTest
+@Import({SecondLevelCacheConfig.class, StatementRecorderConfig.class})
+@ExtendWith(StatementRecorderExtension.class)
 public class CastMemberRepositoryUnitTest {
+
+    @Autowired
+    private CastMemberRepository underTest;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+        //CastMemberRepository.findAllViews()
+    void itShouldGetEveryCastMemberInOneStatementWhateverTheirMovies(StatementRecording statements) {
+        //given
+        MovieModel movie = new MovieModel("TestTitle", "TestLength", "TestGenre", new Date());
+        for (int i = 0; i < 3; i++) {
+            movie.getCastMemberModels().add(new CastMemberModel("TestFirstName" + i, "TestLastName"));
+        }
+        entityManager.persistAndFlush(movie);
+        entityManager.clear();
+        statements.clear();
+
+        //when
+        List<CastMemberView> castMembers = underTest.findAllViews();
+
+        //then
+        assertThat(castMembers).extracting(CastMemberView::getFirstName).containsExactly("TestFirstName0", "TestFirstName1", "TestFirstName2");
+        assertThatStatements(statements).hasSelectCount(1).hasCount(1);
+    }
 }
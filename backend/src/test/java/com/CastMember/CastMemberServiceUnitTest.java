@@ -1,19 +1,42 @@
 package com.CastMember;
 
+import com.Cache.SecondLevelCacheLock;
 import com.CastMember.CastMemberModel;
 import com.CastMember.CastMemberRepository;
 import com.CastMember.CastMemberService;
+import com.Exception.BadRequestException;
+import com.Exception.PreconditionFailedException;
 import com.Exception.ResourceNotFoundException;
+import com.Movie.MovieService;
+import com.Movie.PeopleSavedEvent;
+import com.Suggest.NameIndex;
+import com.Suggest.NameSuggestion;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
@@ -27,11 +50,22 @@ class CastMemberServiceUnitTest {
 
     @Mock
     private CastMemberRepository castMemberRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private MovieService movieService;
+    @Mock
+    private SecondLevelCacheLock secondLevelCacheLock;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     private CastMemberService underTest;
 
     @BeforeEach
     void setUp() {
         this.underTest = new CastMemberService(castMemberRepository);
+        ReflectionTestUtils.setField(underTest, "eventPublisher", eventPublisher);
     }
 
     @Test
@@ -42,7 +76,7 @@ class CastMemberServiceUnitTest {
         //when
 
         //then
-        verify(castMemberRepository).findAll();
+        verify(castMemberRepository).findAllViews();
     }
 
     @Test
@@ -54,10 +88,18 @@ class CastMemberServiceUnitTest {
                 "TestLastName"
         );
 
+        ReflectionTestUtils.setField(castMemberModel, "cmid", 1L);
+
         //when
+        when(castMemberRepository.save(castMemberModel)).thenReturn(castMemberModel);
         underTest.createCastMember(castMemberModel);
 
         //then
+        // indexed once the save commits, not before
+        assertThat(underTest.suggestCastMembers("testfirst", 10)).isEmpty();
+        ArgumentCaptor<PeopleSavedEvent> eventArgumentCaptor = ArgumentCaptor.forClass(PeopleSavedEvent.class);
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        assertThat(eventArgumentCaptor.getValue().getCastMembers()).containsExactly(castMemberModel);
         ArgumentCaptor<CastMemberModel> castMemberArgumentCaptor = ArgumentCaptor.forClass(CastMemberModel.class);
         verify(castMemberRepository).save(castMemberArgumentCaptor.capture()); // verify castMember was saved, and capture that castMember
         CastMemberModel capturedCastMember = castMemberArgumentCaptor.getValue();
@@ -116,9 +158,12 @@ class CastMemberServiceUnitTest {
                 "newFirstName",
                 "newLastName"
         );
+        ReflectionTestUtils.setField(castMemberModel, "cmid", 1L);
+        ReflectionTestUtils.setField(newCastMemberModel, "cmid", 1L);
         //when
         when(castMemberRepository.findById(any())).thenReturn(Optional.of(castMemberModel));
-        underTest.updateCastMember(newCastMemberModel.getCmid(), newCastMemberModel);
+        when(castMemberRepository.save(castMemberModel)).thenReturn(castMemberModel);
+        underTest.updateCastMember(newCastMemberModel.getCmid(), newCastMemberModel, null);
 
         //then
         assertThat(castMemberModel.getFirstName()).isEqualTo(newCastMemberModel.getFirstName());
@@ -148,30 +193,225 @@ class CastMemberServiceUnitTest {
         //then
         assertThatThrownBy(
                 () ->
-                        underTest.updateCastMember(cmid, new CastMemberModel()))
+                        underTest.updateCastMember(cmid, new CastMemberModel(), null))
                 .hasMessageContaining("CastMember With the cmid: " + cmid + " does not exist!"
                 );
     }
 
+    @Test
+        //CastMemberService.updateCastMember()
+    void itShouldNotUpdateACastMemberThatHasChanged() {
+        /** throws {@link PreconditionFailedException}*/
+        //given
+        CastMemberModel castMemberModel = new CastMemberModel("TestFirstName", "TestLastName");
+
+        //when
+        when(castMemberRepository.findById(any())).thenReturn(Optional.of(castMemberModel));
+
+        //then
+        // the client read version 3, the stored castMember is at another version
+        assertThatThrownBy(
+                () ->
+                        underTest.updateCastMember(1L, castMemberModel, 3L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("CastMember With the cmid: 1 has changed since version: 3!");
+        verify(castMemberRepository, never()).save(any());
+    }
+
+    @Test
+        //CastMemberService.updateCastMember()
+    void itShouldNotUpdateACastMemberChangedWhileUpdating() {
+        /** throws {@link PreconditionFailedException}*/
+        //given
+        CastMemberModel castMemberModel = new CastMemberModel("TestFirstName", "TestLastName");
+
+        //when
+        when(castMemberRepository.findById(any())).thenReturn(Optional.of(castMemberModel));
+        when(castMemberRepository.save(castMemberModel)).thenThrow(new ObjectOptimisticLockingFailureException(CastMemberModel.class, 1L));
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.updateCastMember(1L, castMemberModel, null))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+        //CastMemberService.patchCastMember()
+    void itShouldPatchACastMember() {
+        //given
+        usePatch();
+        Map<String, Object> changes = Collections.singletonMap("firstName", "newFirstName");
+
+        //when
+        when(jdbcTemplate.update("update cast_member set first_name = ?, version = version + 1 where cmid = ? and version = ?", "newFirstName", 1L, 3L))
+                .thenReturn(1);
+        Long version = underTest.patchCastMember(1L, changes, 3L);
+
+        //then
+        // one update, the castMember is never loaded
+        verify(castMemberRepository, never()).findById(any());
+        verify(secondLevelCacheLock).write(eq(CastMemberModel.class), eq(1L), any()); // locked while written behind hibernate's back
+        verify(jdbcTemplate).query(eq("select cmid, first_name, last_name from cast_member where cmid = ?"), any(RowCallbackHandler.class), eq(1L)); // names read back into the index
+        assertThat(version).isEqualTo(4L);
+    }
+
+    @Test
+        //CastMemberService.patchCastMember()
+    void itShouldNotPatchACastMember() {
+        /** throws {@link ResourceNotFoundException}*/
+        //given
+        usePatch();
+        Map<String, Object> changes = Collections.singletonMap("firstName", "newFirstName");
+
+        //when
+        when(jdbcTemplate.update("update cast_member set first_name = ?, version = version + 1 where cmid = ?", "newFirstName", 1L)).thenReturn(0);
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.patchCastMember(1L, changes, null))
+                .hasMessageContaining("CastMember With the cmid: 1 does not exist!"
+                );
+    }
+
+    @Test
+        //CastMemberService.linkMovieCastMember()
+    void itShouldLinkACastMemberToAMovie() {
+        //given
+        useLinks();
+        when(movieService.existsMovieById(1L)).thenReturn(true);
+        when(castMemberRepository.existsById(2L)).thenReturn(true);
+
+        //when
+        underTest.linkMovieCastMember(1L, 2L);
+
+        //then
+        // only the join row is written, neither side is loaded
+        verify(jdbcTemplate).update(
+                "insert into movie_cast_member (mid, cmid) select cast(? as bigint), cast(? as bigint) "
+                        + "where not exists (select 1 from movie_cast_member where mid = ? and cmid = ?)", 1L, 2L, 1L, 2L);
+        verifyNoMoreInteractions(movieService, castMemberRepository, jdbcTemplate);
+    }
+
+    @Test
+        //CastMemberService.linkMovieCastMember()
+    void itShouldLinkACastMemberThatWasLinkedAtTheSameTime() {
+        //given
+        useLinks();
+        when(movieService.existsMovieById(1L)).thenReturn(true);
+        when(castMemberRepository.existsById(2L)).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), eq(1L), eq(2L), eq(1L), eq(2L))).thenThrow(new DuplicateKeyException("duplicate"));
+
+        //when
+        underTest.linkMovieCastMember(1L, 2L);
+
+        //then
+        verify(jdbcTemplate).update(anyString(), eq(1L), eq(2L), eq(1L), eq(2L));
+    }
+
+    @Test
+        //CastMemberService.linkMovieCastMember()
+    void itShouldNotLinkACastMemberDeletedSinceItWasChecked() {
+        /** throws {@link ResourceNotFoundException}*/
+        //given
+        useLinks();
+        when(movieService.existsMovieById(1L)).thenReturn(true);
+        when(castMemberRepository.existsById(2L)).thenReturn(true, false); // deleted between the check and the insert
+
+        //when
+        when(jdbcTemplate.update(anyString(), eq(1L), eq(2L), eq(1L), eq(2L)))
+                .thenThrow(new DataIntegrityViolationException("foreign key"));
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.linkMovieCastMember(1L, 2L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("CastMember With the cmid: 2 does not exist!");
+    }
+
+    @Test
+        //CastMemberService.linkMovieCastMember()
+    void itShouldNotLinkACastMemberToAMovie() {
+        /** throws {@link ResourceNotFoundException}*/
+        //exception thrown iff movie does not exist
+
+        //given
+        useLinks();
+
+        //when
+
+        // I link to a movie that doesn't exist
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.linkMovieCastMember(1L, 2L))
+                .hasMessageContaining("Movie With the mid: 1 does not exist!"
+                );
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+        //CastMemberService.unlinkMovieCastMember()
+    void itShouldUnlinkACastMemberFromAMovie() {
+        //given
+        useLinks();
+        when(jdbcTemplate.update("delete from movie_cast_member where mid = ? and cmid = ?", 1L, 2L)).thenReturn(1);
+
+        //when
+        underTest.unlinkMovieCastMember(1L, 2L);
+
+        //then
+        verifyNoInteractions(movieService, castMemberRepository);
+    }
+
+    @Test
+        //CastMemberService.unlinkMovieCastMember()
+    void itShouldNotUnlinkACastMemberFromAMovie() {
+        /** throws {@link ResourceNotFoundException}*/
+        //exception thrown iff castMember does not exist
+
+        //given
+        useLinks();
+        when(movieService.existsMovieById(1L)).thenReturn(true);
+
+        //when
+
+        // I unlink a castMember that doesn't exist
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.unlinkMovieCastMember(1L, 2L))
+                .hasMessageContaining("CastMember With the cmid: 2 does not exist!"
+                );
+    }
+
     @Test
         //CastMemberService.deleteCastMember()
     void itShouldDeleteACastMember() {
         //given
-        CastMemberModel castMemberModel = new CastMemberModel(
-                "TestFirstName",
-                "TestLastName"
-        );
+        useDelete();
+        when(jdbcTemplate.update("delete from movie_cast_member where cmid = ?", 1L)).thenReturn(2);
+        when(jdbcTemplate.update("delete from cast_member where cmid = ?", 1L)).thenReturn(1);
+        CastMemberModel castMemberModel = new CastMemberModel("TestFirstName", "TestLastName");
+        ReflectionTestUtils.setField(castMemberModel, "cmid", 1L);
+        underTest.onPeopleSaved(new PeopleSavedEvent(Collections.emptyList(), Collections.singletonList(castMemberModel)));
 
         //when
-        when(castMemberRepository.findById(any())).thenReturn(Optional.of(castMemberModel));
-        underTest.deleteCastMember(castMemberModel.getCmid());
+        underTest.deleteCastMember(1L);
 
         //then
-        ArgumentCaptor<CastMemberModel> castMemberArgumentCaptor = ArgumentCaptor.forClass(CastMemberModel.class);
-        // verify delete was invoked w/ castMember
-        verify(castMemberRepository).delete(castMemberArgumentCaptor.capture());
-        CastMemberModel capturedCastMember = castMemberArgumentCaptor.getValue();
-        assertThat(castMemberModel).isEqualTo(capturedCastMember);
+        // unlinked from its movies, then deleted, without loading it
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update("delete from movie_cast_member where cmid = ?", 1L);
+        inOrder.verify(jdbcTemplate).update("delete from cast_member where cmid = ?", 1L);
+        verifyNoMoreInteractions(jdbcTemplate);
+        verifyNoInteractions(castMemberRepository);
+        verify(secondLevelCacheLock).write(eq(CastMemberModel.class), eq(1L), any()); // locked while written behind hibernate's back
+        assertThat(underTest.suggestCastMembers("TestFirstName", 10)).isEmpty();
     }
 
     @Test
@@ -182,10 +422,11 @@ class CastMemberServiceUnitTest {
 
         //given
         Long cmid = 1L;
+        useDelete();
 
         //when
 
-        // I get a castMember that doesn't exist
+        // I delete a castMember that doesn't exist
 
         //then
         assertThatThrownBy(
@@ -194,4 +435,76 @@ class CastMemberServiceUnitTest {
                 .hasMessageContaining("CastMember With the cmid: " + cmid + " does not exist!"
                 );
     }
-}
\ No newline at end of file
+
+    @Test
+        //CastMemberService.suggestCastMembers()
+    void itShouldSuggestCastMembersIndexedAtStartup() {
+        //given
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+
+        //when
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(1)).thenReturn(1L);
+            when(rs.getString(2)).thenReturn("John");
+            when(rs.getString(3)).thenReturn("Smith");
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(eq("select cmid, first_name, last_name from cast_member"), any(RowCallbackHandler.class), new Object[0]); // no parameters
+        underTest.buildNameIndex();
+        List<NameSuggestion> suggestions = underTest.suggestCastMembers("smi", 10);
+
+        //then
+        assertThat(suggestions).extracting(NameSuggestion::getId).containsExactly(1L);
+        assertThat(suggestions.get(0).getFirstName()).isEqualTo("John");
+        verifyNoInteractions(castMemberRepository);
+    }
+
+    @Test
+        //CastMemberService.onPeopleSaved()
+    void itShouldSuggestCastMembersCreatedWithMovies() {
+        //given
+        CastMemberModel castMemberModel = new CastMemberModel("TestFirstName", "TestLastName");
+        ReflectionTestUtils.setField(castMemberModel, "cmid", 1L);
+
+        //when
+        underTest.onPeopleSaved(new PeopleSavedEvent(Collections.emptyList(), Collections.singletonList(castMemberModel)));
+
+        //then
+        assertThat(underTest.suggestCastMembers("TestLast", 10)).extracting(NameSuggestion::getId).containsExactly(1L);
+    }
+
+    @Test
+        //CastMemberService.suggestCastMembers()
+    void itShouldNotSuggestTooManyCastMembers() {
+        /** throws {@link BadRequestException}*/
+        //given
+
+        //when
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.suggestCastMembers("TestFirstName", NameIndex.MAX_LIMIT + 1))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private void usePatch() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(underTest, "secondLevelCacheLock", secondLevelCacheLock);
+        when(secondLevelCacheLock.write(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(2, Supplier.class).get());
+    }
+
+    private void useDelete() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(underTest, "secondLevelCacheLock", secondLevelCacheLock);
+        when(secondLevelCacheLock.write(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(2, Supplier.class).get());
+    }
+
+    private void useLinks() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "movieService", movieService);
+    }
+}
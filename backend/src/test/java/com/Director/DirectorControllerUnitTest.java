@@ -3,17 +3,28 @@ package com.Director;
 import com.Director.DirectorController;
 import com.Director.DirectorModel;
 import com.Director.DirectorService;
+import com.Suggest.NameSuggestion;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.*;
 
 /**
  * @author Connor Hunter        connh321@gmail.com
@@ -38,12 +49,46 @@ public class DirectorControllerUnitTest {
         //given
 
         //when
-        underTest.getAllDirectors();
+        underTest.getAllDirectors(null);
 
         //then
         verify(directorService).getAllDirectors();
     }
 
+    @Test
+        //DirectorView, DirectorModel
+    void itShouldSendTheVersionWithEveryDirector() throws Exception {
+        //given
+        ObjectMapper objectMapper = new ObjectMapper();
+        DirectorView directorView = new DirectorView(1L, 3L, "TestFirstName", "TestLastName");
+        DirectorModel directorModel = new DirectorModel("TestFirstName", "TestLastName");
+        ReflectionTestUtils.setField(directorModel, "version", 3L);
+
+        //when
+        JsonNode listed = objectMapper.readTree(objectMapper.writeValueAsString(Collections.singletonList(directorView)));
+        JsonNode saved = objectMapper.readTree(objectMapper.writeValueAsString(directorModel));
+        DirectorModel posted = objectMapper.readValue("{\"firstName\":\"TestFirstName\",\"version\":7}", DirectorModel.class);
+
+        //then
+        // a list and a save both carry the version to send back as If-Match
+        assertThat(listed.get(0).get("version").asLong()).isEqualTo(3L);
+        assertThat(saved.get("version").asLong()).isEqualTo(3L);
+        assertThat(posted.getVersion()).isNull(); // only ever set by the database
+    }
+
+    @Test
+        //DirectorController.suggestDirectors()
+    void itShouldSuggestDirectors() {
+        //given
+        List<NameSuggestion> suggestions = Collections.singletonList(new NameSuggestion(1L, "TestFirstName", "TestLastName"));
+
+        //when
+        when(directorService.suggestDirectors("test", 10)).thenReturn(suggestions);
+
+        //then
+        assertThat(underTest.suggestDirectors("test", 10)).isEqualTo(suggestions);
+    }
+
     @Test
         //DirectorController.createDirector()
     void itShouldCreateADirector() {
@@ -67,20 +112,18 @@ public class DirectorControllerUnitTest {
         //DirectorController.getDirectorById()
     void itShouldGetADirectorById() {
         //given
-        DirectorModel directorModel = new DirectorModel(
-                "TestFirstName",
-                "TestLastName"
-        );
+        DirectorView directorView = new DirectorView(1L, 0L, "TestFirstName", "TestLastName");
 
         //when
-        underTest.getDirectorById(directorModel.getDid());
+        when(directorService.getDirectorById(any())).thenReturn(directorView);
+        underTest.getDirectorById(directorView.getDid(), null, new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
 
         //then
         ArgumentCaptor<Long> didArgumentCaptor = ArgumentCaptor.forClass(Long.class);
         // verify findById was invoked w/ did, and capture the did
         verify(directorService).getDirectorById(didArgumentCaptor.capture());
         Long capturedDid = didArgumentCaptor.getValue();
-        assertThat(directorModel.getDid()).isEqualTo(capturedDid);
+        assertThat(directorView.getDid()).isEqualTo(capturedDid);
     }
 
 
@@ -99,14 +142,15 @@ public class DirectorControllerUnitTest {
         );
 
         //when
-        underTest.updateDirector(directorModel.getDid(), newDirectorModel);
+        when(directorService.updateDirector(any(), any(), any())).thenReturn(newDirectorModel);
+        underTest.updateDirector(directorModel.getDid(), newDirectorModel, null);
 
         //then
 
         ArgumentCaptor<Long> didArgumentCaptor = ArgumentCaptor.forClass(Long.class);
         ArgumentCaptor<DirectorModel> newDirectorArgumentCaptor = ArgumentCaptor.forClass(DirectorModel.class);
         // verify updateDirector was called with current Director did and new Director details
-        verify(directorService).updateDirector(didArgumentCaptor.capture(), newDirectorArgumentCaptor.capture());
+        verify(directorService).updateDirector(didArgumentCaptor.capture(), newDirectorArgumentCaptor.capture(), isNull());
         DirectorModel capturedNewDirector = newDirectorArgumentCaptor.getValue();
         Long capturedCurrentDid = didArgumentCaptor.getValue();
         assertThat(newDirectorModel).isEqualTo(capturedNewDirector); //assert new director was passed in
@@ -114,6 +158,50 @@ public class DirectorControllerUnitTest {
     }
 
 
+    @Test
+        //DirectorController.patchDirector()
+    void itShouldPatchADirector() {
+        //given
+        Map<String, Object> changes = Collections.singletonMap("someField", "newValue");
+
+        //when
+        when(directorService.patchDirector(1L, changes, 3L)).thenReturn(4L);
+        ResponseEntity<Void> response = underTest.patchDirector(1L, changes, "\"3\"");
+
+        //then
+        assertThat(response.getStatusCodeValue()).isEqualTo(204);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+    }
+
+
+    @Test
+        //DirectorController.linkMovieDirector()
+    void itShouldLinkADirectorToAMovie() {
+        //given
+
+        //when
+        ResponseEntity<Void> response = underTest.linkMovieDirector(1L, 2L);
+
+        //then
+        verify(directorService).linkMovieDirector(1L, 2L);
+        assertThat(response.getStatusCodeValue()).isEqualTo(204);
+    }
+
+
+    @Test
+        //DirectorController.unlinkMovieDirector()
+    void itShouldUnlinkADirectorFromAMovie() {
+        //given
+
+        //when
+        ResponseEntity<Void> response = underTest.unlinkMovieDirector(1L, 2L);
+
+        //then
+        verify(directorService).unlinkMovieDirector(1L, 2L);
+        assertThat(response.getStatusCodeValue()).isEqualTo(204);
+    }
+
+
     @Test
         //DirectorController.deleteDirector()
     void itShouldDeleteADirector() {
@@ -1,7 +1,30 @@
 package com.Director;
 
-import com.Director.DirectorRepository;
+import com.Cache.SecondLevelCacheConfig;
+import com.Statement.StatementRecorderConfig;
+import com.Statement.StatementRecorderExtension;
+import com.Statement.StatementRecording;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.Statement.StatementRecordingAssert.assertThatStatements;
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * @author Connor Hunter        connh321@gmail.com
@@ -9,5 +32,100 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
  * Unit Tests for {@link DirectorRepository} to test custom SQL Queries, not the pre-defined and tested given CRUD methods.
  */
 @DataJpaTest
+@Import({SecondLevelCacheConfig.class, StatementRecorderConfig.class})
+@ExtendWith(StatementRecorderExtension.class)
 public class DirectorRepositoryUnitTest {
+
+    @Autowired
+    private DirectorRepository underTest;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+        //DirectorRepository.findAllFields(), findFieldsById()
+    void itShouldSelectOnlyTheGivenFieldsOfDirectors() {
+        //given
+        Long first = entityManager.persist(new DirectorModel("TestFirstName1", "TestLastName1")).getDid();
+        Long second = entityManager.persistAndFlush(new DirectorModel("TestFirstName2", "TestLastName2")).getDid();
+        entityManager.clear();
+        statistics.clear();
+
+        //when
+        List<Map<String, Object>> directors = underTest.findAllFields(DirectorModel.class, Arrays.asList("did", "lastName"));
+        Optional<Map<String, Object>> director = underTest.findFieldsById(DirectorModel.class, Arrays.asList("did", "firstName"), second);
+
+        //then
+        // rows of the selected columns, no director is loaded
+        assertThat(directors).extracting(row -> row.get("did")).containsSubsequence(first, second);
+        assertThat(directors.get(directors.size() - 1)).containsOnlyKeys("did", "lastName").containsEntry("lastName", "TestLastName2");
+        assertThat(director.get()).containsOnlyKeys("did", "firstName").containsEntry("firstName", "TestFirstName2");
+        assertThat(underTest.findFieldsById(DirectorModel.class, Arrays.asList("did"), -1L)).isEmpty();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // each call commits, like two requests would
+        //DirectorRepository.findById()
+    void itShouldGetARepeatedDirectorFromTheSecondLevelCache(StatementRecording statements) {
+        //given
+        Long did = underTest.save(new DirectorModel("TestFirstName", "TestLastName")).getDid();
+        underTest.findById(did);
+        statistics.clear();
+        statements.clear();
+
+        //when
+        DirectorModel director = underTest.findById(did).orElseThrow(IllegalStateException::new);
+
+        //then
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics("director");
+        assertThat(director.getFirstName()).isEqualTo("TestFirstName");
+        assertThat(region.getHitCount()).isEqualTo(1);
+        assertThatStatements(statements).hasNoStatements();
+        underTest.deleteById(did);
+    }
+
+    @Test
+        //DirectorRepository.save()
+    void itShouldNotGetAStaleDirectorAfterAnUpdate() {
+        //given
+        Long did = entityManager.persistAndFlush(new DirectorModel("TestFirstName", "TestLastName")).getDid();
+        entityManager.clear();
+        DirectorModel director = underTest.findById(did).orElseThrow(IllegalStateException::new);
+
+        //when
+        director.setFirstName("NewFirstName");
+        underTest.saveAndFlush(director);
+        entityManager.clear();
+
+        //then
+        assertThat(underTest.findById(did).orElseThrow(IllegalStateException::new).getFirstName())
+                .isEqualTo("NewFirstName");
+    }
+
+    @Test
+        //DirectorRepository.delete()
+    void itShouldNotGetADirectorFromTheSecondLevelCacheAfterADelete() {
+        //given
+        Long did = entityManager.persistAndFlush(new DirectorModel("TestFirstName", "TestLastName")).getDid();
+        entityManager.clear();
+        underTest.delete(underTest.findById(did).orElseThrow(IllegalStateException::new));
+        entityManager.flush();
+        entityManager.clear();
+
+        //when
+
+        //then
+        assertThat(underTest.findById(did)).isEmpty();
+    }
 }
@@ -1,20 +1,44 @@
 package com.Director;
 
-import com.Exception.ResourceNotFoundException;
+import com.Cache.SecondLevelCacheLock;
 import com.Director.DirectorModel;
 import com.Director.DirectorRepository;
 import com.Director.DirectorService;
+import com.Director.DirectorView;
+import com.Exception.BadRequestException;
+import com.Exception.PreconditionFailedException;
+import com.Exception.ResourceNotFoundException;
+import com.Movie.MovieService;
+import com.Movie.PeopleSavedEvent;
+import com.Suggest.NameIndex;
+import com.Suggest.NameSuggestion;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
-import java.util.Date;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
@@ -28,11 +52,22 @@ class DirectorServiceUnitTest {
 
     @Mock
     private DirectorRepository directorRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private MovieService movieService;
+    @Mock
+    private SecondLevelCacheLock secondLevelCacheLock;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     private DirectorService underTest;
 
     @BeforeEach
     void setUp() {
         this.underTest = new DirectorService(directorRepository);
+        ReflectionTestUtils.setField(underTest, "eventPublisher", eventPublisher);
     }
 
     @Test
@@ -43,7 +78,22 @@ class DirectorServiceUnitTest {
         //when
 
         //then
-        verify(directorRepository).findAll();
+        verify(directorRepository).findAllViews();
+    }
+
+    @Test
+        //DirectorService.getAllMovieDirectors()
+    void itShouldGetAllMovieDirectorsWithoutLoadingTheMovie() {
+        //given
+        ReflectionTestUtils.setField(underTest, "movieService", movieService);
+        List<DirectorView> directors = Collections.singletonList(new DirectorView(1L, 0L, "TestFirstName", "TestLastName"));
+
+        //when
+        when(movieService.getMovieDirectors(1L)).thenReturn(directors);
+
+        //then
+        assertThat(underTest.getAllMovieDirectors(1L)).isEqualTo(directors);
+        verify(movieService, never()).getManagedMovieById(any());
     }
 
     @Test
@@ -55,10 +105,18 @@ class DirectorServiceUnitTest {
                 "TestLastName"
         );
 
+        ReflectionTestUtils.setField(directorModel, "did", 1L);
+
         //when
+        when(directorRepository.save(directorModel)).thenReturn(directorModel);
         underTest.createDirector(directorModel);
 
         //then
+        // indexed once the save commits, not before
+        assertThat(underTest.suggestDirectors("testfirst", 10)).isEmpty();
+        ArgumentCaptor<PeopleSavedEvent> eventArgumentCaptor = ArgumentCaptor.forClass(PeopleSavedEvent.class);
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        assertThat(eventArgumentCaptor.getValue().getDirectors()).containsExactly(directorModel);
         ArgumentCaptor<DirectorModel> directorArgumentCaptor = ArgumentCaptor.forClass(DirectorModel.class);
         verify(directorRepository).save(directorArgumentCaptor.capture()); // verify director was saved, and capture that director
         DirectorModel capturedDirector = directorArgumentCaptor.getValue();
@@ -86,6 +144,35 @@ class DirectorServiceUnitTest {
         assertThat(directorModel.getDid()).isEqualTo(capturedDid);
     }
 
+    @Test
+        //DirectorService.getAllDirectorFields()
+    void itShouldGetTheGivenFieldsOfAllDirectors() {
+        //given
+
+        //when
+        underTest.getAllDirectorFields("lastName");
+
+        //then
+        // the did is always selected, first
+        verify(directorRepository).findAllFields(DirectorModel.class, Arrays.asList("did", "lastName"));
+    }
+
+    @Test
+        //DirectorService.getDirectorFieldsById()
+    void itShouldNotGetTheFieldsOfADirectorById() {
+        /** throws {@link ResourceNotFoundException}*/
+        //given
+
+        //when
+        when(directorRepository.findFieldsById(DirectorModel.class, Arrays.asList("did", "firstName"), 1L)).thenReturn(Optional.empty());
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.getDirectorFieldsById(1L, "firstName"))
+                .hasMessageContaining("Director With the did: 1 does not exist!");
+    }
+
     @Test
         //DirectorService.getDirectorById()
     void itShouldNotGetADirectorById() {
@@ -117,9 +204,12 @@ class DirectorServiceUnitTest {
                 "newFirstName",
                 "newLastName"
         );
+        ReflectionTestUtils.setField(directorModel, "did", 1L);
+        ReflectionTestUtils.setField(newDirectorModel, "did", 1L);
         //when
         when(directorRepository.findById(any())).thenReturn(Optional.of(directorModel));
-        underTest.updateDirector(newDirectorModel.getDid(), newDirectorModel);
+        when(directorRepository.save(directorModel)).thenReturn(directorModel);
+        underTest.updateDirector(newDirectorModel.getDid(), newDirectorModel, null);
 
         //then
         assertThat(directorModel.getFirstName()).isEqualTo(newDirectorModel.getFirstName());
@@ -149,30 +239,225 @@ class DirectorServiceUnitTest {
         //then
         assertThatThrownBy(
                 () ->
-                        underTest.updateDirector(did, new DirectorModel()))
+                        underTest.updateDirector(did, new DirectorModel(), null))
                 .hasMessageContaining("Director With the did: " + did + " does not exist!"
                 );
     }
 
+    @Test
+        //DirectorService.updateDirector()
+    void itShouldNotUpdateADirectorThatHasChanged() {
+        /** throws {@link PreconditionFailedException}*/
+        //given
+        DirectorModel directorModel = new DirectorModel("TestFirstName", "TestLastName");
+
+        //when
+        when(directorRepository.findById(any())).thenReturn(Optional.of(directorModel));
+
+        //then
+        // the client read version 3, the stored director is at another version
+        assertThatThrownBy(
+                () ->
+                        underTest.updateDirector(1L, directorModel, 3L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("Director With the did: 1 has changed since version: 3!");
+        verify(directorRepository, never()).save(any());
+    }
+
+    @Test
+        //DirectorService.updateDirector()
+    void itShouldNotUpdateADirectorChangedWhileUpdating() {
+        /** throws {@link PreconditionFailedException}*/
+        //given
+        DirectorModel directorModel = new DirectorModel("TestFirstName", "TestLastName");
+
+        //when
+        when(directorRepository.findById(any())).thenReturn(Optional.of(directorModel));
+        when(directorRepository.save(directorModel)).thenThrow(new ObjectOptimisticLockingFailureException(DirectorModel.class, 1L));
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.updateDirector(1L, directorModel, null))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+        //DirectorService.patchDirector()
+    void itShouldPatchADirector() {
+        //given
+        usePatch();
+        Map<String, Object> changes = Collections.singletonMap("firstName", "newFirstName");
+
+        //when
+        when(jdbcTemplate.update("update director set first_name = ?, version = version + 1 where did = ? and version = ?", "newFirstName", 1L, 3L))
+                .thenReturn(1);
+        Long version = underTest.patchDirector(1L, changes, 3L);
+
+        //then
+        // one update, the director is never loaded
+        verify(directorRepository, never()).findById(any());
+        verify(secondLevelCacheLock).write(eq(DirectorModel.class), eq(1L), any()); // locked while written behind hibernate's back
+        verify(jdbcTemplate).query(eq("select did, first_name, last_name from director where did = ?"), any(RowCallbackHandler.class), eq(1L)); // names read back into the index
+        assertThat(version).isEqualTo(4L);
+    }
+
+    @Test
+        //DirectorService.patchDirector()
+    void itShouldNotPatchADirector() {
+        /** throws {@link ResourceNotFoundException}*/
+        //given
+        usePatch();
+        Map<String, Object> changes = Collections.singletonMap("firstName", "newFirstName");
+
+        //when
+        when(jdbcTemplate.update("update director set first_name = ?, version = version + 1 where did = ?", "newFirstName", 1L)).thenReturn(0);
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.patchDirector(1L, changes, null))
+                .hasMessageContaining("Director With the did: 1 does not exist!"
+                );
+    }
+
+    @Test
+        //DirectorService.linkMovieDirector()
+    void itShouldLinkADirectorToAMovie() {
+        //given
+        useLinks();
+        when(movieService.existsMovieById(1L)).thenReturn(true);
+        when(directorRepository.existsById(2L)).thenReturn(true);
+
+        //when
+        underTest.linkMovieDirector(1L, 2L);
+
+        //then
+        // only the join row is written, neither side is loaded
+        verify(jdbcTemplate).update(
+                "insert into movie_director (mid, did) select cast(? as bigint), cast(? as bigint) "
+                        + "where not exists (select 1 from movie_director where mid = ? and did = ?)", 1L, 2L, 1L, 2L);
+        verifyNoMoreInteractions(movieService, directorRepository, jdbcTemplate);
+    }
+
+    @Test
+        //DirectorService.linkMovieDirector()
+    void itShouldLinkADirectorThatWasLinkedAtTheSameTime() {
+        //given
+        useLinks();
+        when(movieService.existsMovieById(1L)).thenReturn(true);
+        when(directorRepository.existsById(2L)).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), eq(1L), eq(2L), eq(1L), eq(2L))).thenThrow(new DuplicateKeyException("duplicate"));
+
+        //when
+        underTest.linkMovieDirector(1L, 2L);
+
+        //then
+        verify(jdbcTemplate).update(anyString(), eq(1L), eq(2L), eq(1L), eq(2L));
+    }
+
+    @Test
+        //DirectorService.linkMovieDirector()
+    void itShouldNotLinkADirectorDeletedSinceItWasChecked() {
+        /** throws {@link ResourceNotFoundException}*/
+        //given
+        useLinks();
+        when(movieService.existsMovieById(1L)).thenReturn(true);
+        when(directorRepository.existsById(2L)).thenReturn(true, false); // deleted between the check and the insert
+
+        //when
+        when(jdbcTemplate.update(anyString(), eq(1L), eq(2L), eq(1L), eq(2L)))
+                .thenThrow(new DataIntegrityViolationException("foreign key"));
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.linkMovieDirector(1L, 2L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Director With the did: 2 does not exist!");
+    }
+
+    @Test
+        //DirectorService.linkMovieDirector()
+    void itShouldNotLinkADirectorToAMovie() {
+        /** throws {@link ResourceNotFoundException}*/
+        //exception thrown iff movie does not exist
+
+        //given
+        useLinks();
+
+        //when
+
+        // I link to a movie that doesn't exist
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.linkMovieDirector(1L, 2L))
+                .hasMessageContaining("Movie With the mid: 1 does not exist!"
+                );
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+        //DirectorService.unlinkMovieDirector()
+    void itShouldUnlinkADirectorFromAMovie() {
+        //given
+        useLinks();
+        when(jdbcTemplate.update("delete from movie_director where mid = ? and did = ?", 1L, 2L)).thenReturn(1);
+
+        //when
+        underTest.unlinkMovieDirector(1L, 2L);
+
+        //then
+        verifyNoInteractions(movieService, directorRepository);
+    }
+
+    @Test
+        //DirectorService.unlinkMovieDirector()
+    void itShouldNotUnlinkADirectorFromAMovie() {
+        /** throws {@link ResourceNotFoundException}*/
+        //exception thrown iff director does not exist
+
+        //given
+        useLinks();
+        when(movieService.existsMovieById(1L)).thenReturn(true);
+
+        //when
+
+        // I unlink a director that doesn't exist
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.unlinkMovieDirector(1L, 2L))
+                .hasMessageContaining("Director With the did: 2 does not exist!"
+                );
+    }
+
     @Test
         //DirectorService.deleteDirector()
     void itShouldDeleteADirector() {
         //given
-        DirectorModel directorModel = new DirectorModel(
-                "TestFirstName",
-                "TestLastName"
-        );
+        useDelete();
+        when(jdbcTemplate.update("delete from movie_director where did = ?", 1L)).thenReturn(2);
+        when(jdbcTemplate.update("delete from director where did = ?", 1L)).thenReturn(1);
+        DirectorModel directorModel = new DirectorModel("TestFirstName", "TestLastName");
+        ReflectionTestUtils.setField(directorModel, "did", 1L);
+        underTest.onPeopleSaved(new PeopleSavedEvent(Collections.singletonList(directorModel), Collections.emptyList()));
 
         //when
-        when(directorRepository.findById(any())).thenReturn(Optional.of(directorModel));
-        underTest.deleteDirector(directorModel.getDid());
+        underTest.deleteDirector(1L);
 
         //then
-        ArgumentCaptor<DirectorModel> directorArgumentCaptor = ArgumentCaptor.forClass(DirectorModel.class);
-        // verify delete was invoked w/ director
-        verify(directorRepository).delete(directorArgumentCaptor.capture());
-        DirectorModel capturedDirector = directorArgumentCaptor.getValue();
-        assertThat(directorModel).isEqualTo(capturedDirector);
+        // unlinked from its movies, then deleted, without loading it
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update("delete from movie_director where did = ?", 1L);
+        inOrder.verify(jdbcTemplate).update("delete from director where did = ?", 1L);
+        verifyNoMoreInteractions(jdbcTemplate);
+        verifyNoInteractions(directorRepository);
+        verify(secondLevelCacheLock).write(eq(DirectorModel.class), eq(1L), any()); // locked while written behind hibernate's back
+        assertThat(underTest.suggestDirectors("TestFirstName", 10)).isEmpty();
     }
 
     @Test
@@ -183,10 +468,11 @@ class DirectorServiceUnitTest {
 
         //given
         Long did = 1L;
+        useDelete();
 
         //when
 
-        // I get a director that doesn't exist
+        // I delete a director that doesn't exist
 
         //then
         assertThatThrownBy(
@@ -195,4 +481,76 @@ class DirectorServiceUnitTest {
                 .hasMessageContaining("Director With the did: " + did + " does not exist!"
                 );
     }
-}
\ No newline at end of file
+
+    @Test
+        //DirectorService.suggestDirectors()
+    void itShouldSuggestDirectorsIndexedAtStartup() {
+        //given
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+
+        //when
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(1)).thenReturn(1L);
+            when(rs.getString(2)).thenReturn("John");
+            when(rs.getString(3)).thenReturn("Smith");
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(eq("select did, first_name, last_name from director"), any(RowCallbackHandler.class), new Object[0]); // no parameters
+        underTest.buildNameIndex();
+        List<NameSuggestion> suggestions = underTest.suggestDirectors("smi", 10);
+
+        //then
+        assertThat(suggestions).extracting(NameSuggestion::getId).containsExactly(1L);
+        assertThat(suggestions.get(0).getFirstName()).isEqualTo("John");
+        verifyNoInteractions(directorRepository);
+    }
+
+    @Test
+        //DirectorService.onPeopleSaved()
+    void itShouldSuggestDirectorsCreatedWithMovies() {
+        //given
+        DirectorModel directorModel = new DirectorModel("TestFirstName", "TestLastName");
+        ReflectionTestUtils.setField(directorModel, "did", 1L);
+
+        //when
+        underTest.onPeopleSaved(new PeopleSavedEvent(Collections.singletonList(directorModel), Collections.emptyList()));
+
+        //then
+        assertThat(underTest.suggestDirectors("TestLast", 10)).extracting(NameSuggestion::getId).containsExactly(1L);
+    }
+
+    @Test
+        //DirectorService.suggestDirectors()
+    void itShouldNotSuggestTooManyDirectors() {
+        /** throws {@link BadRequestException}*/
+        //given
+
+        //when
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.suggestDirectors("TestFirstName", NameIndex.MAX_LIMIT + 1))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private void usePatch() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(underTest, "secondLevelCacheLock", secondLevelCacheLock);
+        when(secondLevelCacheLock.write(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(2, Supplier.class).get());
+    }
+
+    private void useDelete() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(underTest, "secondLevelCacheLock", secondLevelCacheLock);
+        when(secondLevelCacheLock.write(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(2, Supplier.class).get());
+    }
+
+    private void useLinks() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "movieService", movieService);
+    }
+}
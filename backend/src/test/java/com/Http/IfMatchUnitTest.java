@@ -0,0 +1,69 @@
+package com.Http;
+
+import com.Exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link IfMatch} to test reading and checking If-Match headers.
+ */
+class IfMatchUnitTest {
+
+    @Test
+        //IfMatch.version()
+    void itShouldGetTheVersionOfAnETag() {
+        //given
+        String ifMatch = "\"3\"";
+
+        //when
+        Long version = IfMatch.version(ifMatch);
+
+        //then
+        assertThat(version).isEqualTo(3L);
+    }
+
+    @Test
+        //IfMatch.version()
+    void itShouldNotExpectAVersionWithoutAnETag() {
+        //given
+
+        //when
+
+        //then
+        assertThat(IfMatch.version(null)).isNull();
+        assertThat(IfMatch.version("*")).isNull();
+    }
+
+    @Test
+        //IfMatch.version()
+    void itShouldNotMatchAWeakOrForeignETag() {
+        /** throws {@link PreconditionFailedException}*/
+        //given
+
+        //when
+
+        //then
+        assertThatThrownBy(() -> IfMatch.version("W/\"3\"")).isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> IfMatch.version("\"abc\"")).isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> IfMatch.version("3")).isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+        //IfMatch.check()
+    void itShouldOnlyFailACheckOfAnotherVersion() {
+        /** throws {@link PreconditionFailedException}*/
+        //given
+
+        //when
+        IfMatch.check(null, 3L, "Movie With the mid: 1");
+        IfMatch.check(3L, 3L, "Movie With the mid: 1");
+
+        //then
+        assertThatThrownBy(() -> IfMatch.check(2L, 3L, "Movie With the mid: 1"))
+                .hasMessageContaining("Movie With the mid: 1 has changed since version: 2!");
+    }
+}
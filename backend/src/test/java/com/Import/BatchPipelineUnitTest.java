@@ -0,0 +1,85 @@
+package com.Import;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link BatchPipeline} to test rows arrive in order and in batches, and that the reader is held back
+ * by a slow writer.
+ */
+class BatchPipelineUnitTest {
+
+    @Test
+        //BatchPipeline.run()
+    void itShouldWriteAllRowsInOrderedBatches() {
+        //given
+        List<Integer> rows = IntStream.range(0, 25).boxed().collect(Collectors.toList());
+        List<List<Integer>> batches = new ArrayList<>();
+
+        //when
+        long written = new BatchPipeline<Integer>("rows", 10, 2, 1000).run(rows.iterator(), batches::add);
+
+        //then
+        assertThat(written).isEqualTo(25);
+        assertThat(batches).extracting(List::size).containsExactly(10, 10, 5);
+        assertThat(batches.stream().flatMap(List::stream)).containsExactlyElementsOf(rows);
+    }
+
+    @Test
+        //BatchPipeline.run()
+    void itShouldNotReadFarAheadOfTheWriter() {
+        //given
+        AtomicInteger read = new AtomicInteger();
+        Iterator<Integer> rows = IntStream.range(0, 1000).boxed().peek(i -> read.incrementAndGet()).iterator();
+        List<Integer> readWhileWriting = new ArrayList<>();
+
+        //when
+        new BatchPipeline<Integer>("rows", 10, 2, 1000).run(rows, batch -> {
+            sleep(5);
+            readWhileWriting.add(read.get());
+        });
+
+        //then
+        // besides the batches written so far, at most the queued batches and the one being filled are read ahead
+        for (int i = 0; i < readWhileWriting.size(); i++) {
+            assertThat(readWhileWriting.get(i)).isLessThanOrEqualTo(10 * (i + 1) + 10 * 3);
+        }
+    }
+
+    @Test
+        //BatchPipeline.run()
+    void itShouldFailWhenTheRowsCanNotBeRead() {
+        /** throws {@link IllegalStateException}*/
+        //given
+        Iterator<Integer> rows = IntStream.range(0, 100).boxed().peek(i -> {
+            if (i == 50) {
+                throw new IllegalArgumentException("Bad row " + i);
+            }
+        }).iterator();
+
+        //when
+
+        //then
+        assertThatThrownBy(() -> new BatchPipeline<Integer>("rows", 10, 2, 1000).run(rows, batch -> {
+        })).hasMessageContaining("Bad row 50");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.Import;
+
+import com.CastMember.CastMemberRepository;
+import com.CastMember.CastMemberService;
+import com.Director.DirectorModel;
+import com.Director.DirectorRepository;
+import com.Movie.MovieRepository;
+import com.Suggest.NameSuggestion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link CatalogImportService} to test a small dump is imported into the h2 database with people
+ * matched by name.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class CatalogImportServiceUnitTest {
+
+    @Autowired
+    private CatalogImportService underTest;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private CastMemberRepository castMemberRepository;
+
+    @Autowired
+    private CastMemberService castMemberService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path dir;
+
+    @Test
+        //CatalogImportService.importCatalog()
+    void itShouldImportACatalogAndMatchPeopleByName() throws IOException {
+        //given
+        long movies = movieRepository.count();
+        long directors = directorRepository.count();
+        long castMembers = castMemberRepository.count();
+        long castMemberLinks = countRows("movie_cast_member");
+        long directorLinks = countRows("movie_director");
+        directorRepository.save(new DirectorModel("Existing", "Director"));
+        Path titles = write("titles.tsv",
+                "titleId\ttitle\tlength\tgenre\treleaseDate",
+                "t1\tFirst Title\t120\tDrama\t1994-09-23",
+                "t2\tSecond Title\t\\N\tComedy\t1999",
+                "t3\tmissing columns");
+        Path people = write("people.tsv",
+                "personId\tfirstName\tlastName",
+                "p1\tExisting\tDirector",
+                "p2\tSome\tActor",
+                "p3\t some \tACTOR",
+                "p4\tOther\tActor");
+        Path credits = write("credits.tsv",
+                "titleId\tpersonId\trole",
+                "t1\tp1\tdirector",
+                "t1\tp2\tcast",
+                "t1\tp3\tcast",
+                "t2\tp3\tcast",
+                "t2\tp4\tcast",
+                "t2\tp4\tproducer",
+                "t9\tp4\tcast");
+
+        //when
+        ImportReport report = underTest.importCatalog(titles, people, credits);
+
+        //then
+        assertThat(report.getTitles()).isEqualTo(2);
+        assertThat(report.getPeople()).isEqualTo(3); // p2 and p3 are the same person
+        assertThat(report.getDirectorsCreated()).isZero(); // matched to the existing director
+        assertThat(report.getCastMembersCreated()).isEqualTo(2);
+        assertThat(report.getDirectorCredits()).isEqualTo(1);
+        assertThat(report.getCastMemberCredits()).isEqualTo(4);
+        assertThat(report.getSkippedRows()).isEqualTo(3); // t3, the producer and the unknown title
+        assertThat(movieRepository.count()).isEqualTo(movies + 2);
+        assertThat(directorRepository.count()).isEqualTo(directors + 1);
+        assertThat(castMemberRepository.count()).isEqualTo(castMembers + 2);
+        // t1 links p2 and p3 once, as they are the same cast member
+        assertThat(countRows("movie_cast_member")).isEqualTo(castMemberLinks + 3);
+        assertThat(countRows("movie_director")).isEqualTo(directorLinks + 1);
+        // the cast members created are suggested without a restart
+        assertThat(castMemberService.suggestCastMembers("other act", 10))
+                .extracting(NameSuggestion::getLastName).containsExactly("Actor");
+        // only the title ids of the dump are kept once it is imported
+        assertThat(jdbcTemplate.queryForList("select title_id from import_title where title_id in ('t1', 't2', 't3')", String.class))
+                .containsExactlyInAnyOrder("t1", "t2");
+        assertThat(countRows("import_person") + countRows("import_director") + countRows("import_cast_member")).isZero();
+    }
+
+    @Test
+        //CatalogImportService.importCatalog()
+    void itShouldSaveARepeatedTitleOnce() throws IOException {
+        //given
+        long movies = movieRepository.count();
+        long castMemberLinks = countRows("movie_cast_member");
+        List<String> titleRows = new ArrayList<>();
+        titleRows.add("titleId\ttitle\tlength\tgenre\treleaseDate");
+        titleRows.add("r0\tRepeated Title\t90\tDrama\t2001");
+        titleRows.add("r0\tRepeated Title\t90\tDrama\t2001"); // in the same batch
+        for (int i = 1; i <= CatalogImportService.BATCH_SIZE; i++) {
+            titleRows.add("r" + i + "\tFiller Title\t90\tDrama\t2001");
+        }
+        titleRows.add("r0\tRepeated Title\t90\tDrama\t2001"); // in the next batch
+        Path titles = write("titles.tsv", titleRows.toArray(new String[0]));
+        Path people = write("people.tsv",
+                "personId\tfirstName\tlastName",
+                "rp1\tRepeated\tActor");
+        Path credits = write("credits.tsv",
+                "titleId\tpersonId\trole",
+                "r0\trp1\tcast");
+
+        //when
+        ImportReport first = underTest.importCatalog(titles, people, credits);
+        ImportReport rerun = underTest.importCatalog(titles, people, credits);
+
+        //then
+        assertThat(first.getTitles()).isEqualTo(CatalogImportService.BATCH_SIZE + 1);
+        assertThat(rerun.getTitles()).isZero();
+        assertThat(movieRepository.count()).isEqualTo(movies + CatalogImportService.BATCH_SIZE + 1);
+        assertThat(countRows("movie where title = 'Repeated Title'")).isEqualTo(1);
+        // the re-run links the credit to the movie saved the first time
+        assertThat(first.getCastMemberCredits()).isEqualTo(1);
+        assertThat(rerun.getCastMemberCredits()).isEqualTo(1);
+        assertThat(countRows("movie_cast_member")).isEqualTo(castMemberLinks + 1);
+    }
+
+    private long countRows(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        return Files.write(dir.resolve(name), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+}
@@ -1,16 +1,29 @@
 package com.Movie;
 
+import com.Exception.BadRequestException;
+import com.Pagination.CursorPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
-import static org.mockito.Mockito.verify;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.mockito.Mockito.*;
 
 /**
  * @author Connor Hunter        connh321@gmail.com
@@ -35,10 +48,90 @@ public class MovieControllerUnitTest {
         //given
 
         //when
-        underTest.getAllMovies();
+        underTest.getAllMovies(null, 50, null, null, null, null, null);
 
         //then
-        verify(movieService).getAllMovies();
+        ArgumentCaptor<MovieFilter> filterArgumentCaptor = ArgumentCaptor.forClass(MovieFilter.class);
+        verify(movieService).getAllMovies(filterArgumentCaptor.capture(), isNull(), eq(50));
+        assertThat(filterArgumentCaptor.getValue().isEmpty()).isTrue();
+    }
+
+    @Test
+        //MovieController.getAllMovies()
+    void itShouldGetFilteredMovies() {
+        //given
+        Date releasedFrom = new Date(0);
+        Date releasedTo = new Date();
+
+        //when
+        underTest.getAllMovies(null, 50, "TestGenre", releasedFrom, releasedTo, "Test", null);
+
+        //then
+        ArgumentCaptor<MovieFilter> filterArgumentCaptor = ArgumentCaptor.forClass(MovieFilter.class);
+        // verify every filter was passed on to the service
+        verify(movieService).getAllMovies(filterArgumentCaptor.capture(), isNull(), eq(50));
+        MovieFilter capturedFilter = filterArgumentCaptor.getValue();
+        assertThat(capturedFilter.getGenre()).isEqualTo("TestGenre");
+        assertThat(capturedFilter.getReleasedFrom()).isEqualTo(releasedFrom);
+        assertThat(capturedFilter.getReleasedTo()).isEqualTo(releasedTo);
+        assertThat(capturedFilter.getTitlePrefix()).isEqualTo("Test");
+    }
+
+    @Test
+        //MovieController.getAllMovies()
+    void itShouldNotGetMoviesReleasedFromAfterReleasedTo() {
+        /** throws {@link BadRequestException}*/
+        //given
+        Date releasedFrom = new Date();
+        Date releasedTo = new Date(0);
+
+        //when
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.getAllMovies(null, 50, null, releasedFrom, releasedTo, null, null))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(movieService);
+    }
+
+    @Test
+        //MovieController.getAllUserMovies()
+    void itShouldGetAllUserMovies() {
+        //given
+
+        //when
+        underTest.getAllUserMovies("TestUserName", "releaseDate", null, 50);
+
+        //then
+        verify(movieService).getAllUserMovies("TestUserName", "releaseDate", null, 50);
+    }
+
+    @Test
+        //MovieController.searchMovies()
+    void itShouldSearchMovies() {
+        //given
+
+        //when
+        underTest.searchMovies("Star Wars", null, 50);
+
+        //then
+        verify(movieService).searchMovies("Star Wars", null, 50);
+    }
+
+    @Test
+        //MovieController.exportMovies()
+    void itShouldExportAllMovies() throws IOException {
+        //given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        underTest.exportMovies(response);
+
+        //then
+        // verify the movies are written straight to the response
+        verify(movieService).exportMovies(response.getOutputStream());
+        assertThat(response.getContentType()).startsWith(MediaType.APPLICATION_NDJSON_VALUE);
     }
 
     @Test
@@ -62,26 +155,105 @@ public class MovieControllerUnitTest {
         assertThat(capturedMovie).isEqualTo(movieModel);
     }
 
+    @Test
+        //MovieController.createMovies()
+    void itShouldCreateMoviesInBulk() {
+        //given
+        List<MovieModel> movies = Arrays.asList(
+                new MovieModel("TestTitle1", "TestLength", "TestGenre", new Date()),
+                new MovieModel("TestTitle2", "TestLength", "TestGenre", new Date())
+        );
+
+        //when
+        underTest.createMovies(movies);
+
+        //then
+        // verify the whole list is passed to the service in one call
+        verify(movieService).createMovies(movies);
+    }
+
+    @Test
+        //MovieController.getAllMovies()
+    void itShouldGetTheGivenFieldsOfAPageOfMovies() {
+        //given
+        CursorPage<Map<String, Object>> page = new CursorPage<>(Collections.emptyList(), null);
+
+        //when
+        when(movieService.getAllMovieFields(any(MovieFilter.class), eq("title"), isNull(), eq(50))).thenReturn(page);
+
+        //then
+        assertThat(underTest.getAllMovies(null, 50, null, null, null, null, "title")).isEqualTo(page);
+        verify(movieService, never()).getAllMovies(any(), any(), anyInt());
+    }
+
+    @Test
+        //MovieController.getMovieById()
+    void itShouldGetTheGivenFieldsOfAMovieWithoutAnETag() {
+        //given
+        Map<String, Object> fields = Collections.singletonMap("mid", 1L);
+
+        //when
+        when(movieService.getMovieFieldsById(1L, "title")).thenReturn(fields);
+        ResponseEntity<?> entity = underTest.getMovieById(1L, "title", new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
+
+        //then
+        assertThat(entity.getBody()).isEqualTo(fields);
+        assertThat(entity.getHeaders().getETag()).isNull();
+    }
+
     @Test
         //MovieController.getMovieById()
     void itShouldGetAMovieById() {
         //given
-        MovieModel movieModel = new MovieModel(
-                "TestTitle",
-                "TestLength",
-                "TestGenre",
-                new Date()
-        );
+        MovieView movieView = new MovieView(1L, 0L, "TestTitle", "TestLength", "TestGenre", new Date());
 
         //when
-        underTest.getMovieById(movieModel.getMid());
+        when(movieService.getMovieById(any())).thenReturn(movieView);
+        underTest.getMovieById(movieView.getMid(), null, new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
 
         //then
         ArgumentCaptor<Long> midArgumentCaptor = ArgumentCaptor.forClass(Long.class);
         // verify findById was invoked w/ mid, and capture the mid
         verify(movieService).getMovieById(midArgumentCaptor.capture());
         Long capturedMid = midArgumentCaptor.getValue();
-        assertThat(movieModel.getMid()).isEqualTo(capturedMid);
+        assertThat(movieView.getMid()).isEqualTo(capturedMid);
+    }
+
+
+    @Test
+        //MovieController.getMovieById()
+    void itShouldNotSendAMovieThatIsNotModified() {
+        //given
+        MovieView movieView = new MovieView(1L, 3L, "TestTitle", "TestLength", "TestGenre", new Date());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/movie/1");
+        request.addHeader("If-None-Match", "\"3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        when(movieService.getMovieById(1L)).thenReturn(movieView);
+        ResponseEntity<?> entity = underTest.getMovieById(1L, null, new ServletWebRequest(request, response));
+
+        //then
+        assertThat(entity).isNull();
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader("ETag")).isEqualTo("\"3\"");
+    }
+
+
+    @Test
+        //MovieController.getMovieDetail()
+    void itShouldGetAMovieDetailById() {
+        //given
+        Long mid = 1L;
+
+        //when
+        underTest.getMovieDetail(mid);
+
+        //then
+        ArgumentCaptor<Long> midArgumentCaptor = ArgumentCaptor.forClass(Long.class);
+        // verify getMovieDetail was invoked w/ mid, and capture the mid
+        verify(movieService).getMovieDetail(midArgumentCaptor.capture());
+        assertThat(midArgumentCaptor.getValue()).isEqualTo(mid);
     }
 
 
@@ -104,14 +276,15 @@ public class MovieControllerUnitTest {
         );
 
         //when
-        underTest.updateMovie(movieModel.getMid(), newMovieModel);
+        when(movieService.updateMovie(any(), any(), any())).thenReturn(newMovieModel);
+        underTest.updateMovie(movieModel.getMid(), newMovieModel, null);
 
         //then
 
         ArgumentCaptor<Long> midArgumentCaptor = ArgumentCaptor.forClass(Long.class);
         ArgumentCaptor<MovieModel> newMovieArgumentCaptor = ArgumentCaptor.forClass(MovieModel.class);
         // verify updateMovie was called with current Movie mid and new Movie details
-        verify(movieService).updateMovie(midArgumentCaptor.capture(), newMovieArgumentCaptor.capture());
+        verify(movieService).updateMovie(midArgumentCaptor.capture(), newMovieArgumentCaptor.capture(), isNull());
         MovieModel capturedNewMovie = newMovieArgumentCaptor.getValue();
         Long capturedCurrentMid = midArgumentCaptor.getValue();
         assertThat(newMovieModel).isEqualTo(capturedNewMovie); //assert new movie was passed in
@@ -119,6 +292,22 @@ public class MovieControllerUnitTest {
     }
 
 
+    @Test
+        //MovieController.patchMovie()
+    void itShouldPatchAMovie() {
+        //given
+        Map<String, Object> changes = Collections.singletonMap("someField", "newValue");
+
+        //when
+        when(movieService.patchMovie(1L, changes, 3L)).thenReturn(4L);
+        ResponseEntity<Void> response = underTest.patchMovie(1L, changes, "\"3\"");
+
+        //then
+        assertThat(response.getStatusCodeValue()).isEqualTo(204);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+    }
+
+
     @Test
         //MovieController.deleteMovie()
     void itShouldDeleteAMovie() {
@@ -0,0 +1,79 @@
+package com.Movie;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Date;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Benchmark comparing bulk movie inserts with one statement per round trip, the way every insert ran while ids came
+ * from identity columns, against the batched inserts pooled sequence ids allow. Only runs when asked for with
+ * <pre>
+ * mvn test -Dtest=MovieInsertBenchmark -Dbenchmark=true [-Dbenchmark.rows=100000]
+ * </pre>
+ * against the test h2 database, or a real database by also passing -Dspring.datasource.url= and its credentials.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MovieInsertBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+
+    private static final int ROWS_PER_TRANSACTION = 1_000;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void itShouldInsertMoviesFasterInBatches() {
+        //given
+        insertMovies(ROWS_PER_TRANSACTION, null); // warm up
+
+        //when
+        long unbatchedNanos = insertMovies(ROWS, 1);
+        long batchedNanos = insertMovies(ROWS, null);
+
+        //then
+        System.out.printf("Inserted %d movies: one per round trip %d ms (%.0f rows/s), batched %d ms (%.0f rows/s)%n",
+                ROWS,
+                unbatchedNanos / 1_000_000, ROWS / (unbatchedNanos / 1e9),
+                batchedNanos / 1_000_000, ROWS / (batchedNanos / 1e9));
+        assertThat(batchedNanos).isLessThan(unbatchedNanos);
+    }
+
+    /**
+     * Inserts movies in transactions of {@link #ROWS_PER_TRANSACTION} rows
+     *
+     * @param rows          The number of movies to insert
+     * @param jdbcBatchSize The jdbc batch size to use, or null for the configured hibernate.jdbc.batch_size
+     * @return The elapsed nano seconds
+     */
+    private long insertMovies(int rows, Integer jdbcBatchSize) {
+        long start = System.nanoTime();
+        for (int inserted = 0; inserted < rows; inserted += ROWS_PER_TRANSACTION) {
+            int chunk = Math.min(ROWS_PER_TRANSACTION, rows - inserted);
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+                for (int i = 0; i < chunk; i++) {
+                    entityManager.persist(new MovieModel("BenchmarkTitle" + i, "120", "BenchmarkGenre", new Date()));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return System.nanoTime() - start;
+    }
+}
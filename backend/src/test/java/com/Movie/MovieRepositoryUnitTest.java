@@ -1,6 +1,37 @@
 package com.Movie;
 
+import com.Cache.SecondLevelCacheConfig;
+import com.CastMember.CastMemberModel;
+import com.CastMember.CastMemberView;
+import com.Director.DirectorModel;
+import com.Director.DirectorView;
+import com.Statement.StatementRecorderConfig;
+import com.Statement.StatementRecorderExtension;
+import com.Statement.StatementRecording;
+import com.Studio.StudioModel;
+import com.Studio.StudioView;
+import com.User.UserModel;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.Statement.StatementRecordingAssert.assertThatStatements;
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * @author Connor Hunter        connh321@gmail.com
@@ -8,5 +39,289 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
  * Unit Tests for {@link MovieRepository} to test custom SQL Queries, not the pre-defined and tested given CRUD methods.
  */
 @DataJpaTest
+@Import({SecondLevelCacheConfig.class, StatementRecorderConfig.class})
+@ExtendWith(StatementRecorderExtension.class)
 public class MovieRepositoryUnitTest {
+
+    @Autowired
+    private MovieRepository underTest;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+        //MovieRepository.findByMidGreaterThanOrderByMidAsc()
+    void itShouldGetAPageOfMoviesAfterAMid() {
+        //given
+        MovieModel first = underTest.save(new MovieModel("TestTitle1", "TestLength", "TestGenre", new Date()));
+        MovieModel second = underTest.save(new MovieModel("TestTitle2", "TestLength", "TestGenre", new Date()));
+        MovieModel third = underTest.save(new MovieModel("TestTitle3", "TestLength", "TestGenre", new Date()));
+
+        //when
+        List<MovieView> firstPage = underTest.findByMidGreaterThanOrderByMidAsc(Long.MIN_VALUE, PageRequest.of(0, 2));
+        List<MovieView> secondPage = underTest.findByMidGreaterThanOrderByMidAsc(second.getMid(), PageRequest.of(0, 2));
+
+        //then
+        assertThat(firstPage).extracting(MovieView::getMid).containsExactly(first.getMid(), second.getMid());
+        assertThat(secondPage).extracting(MovieView::getMid).containsExactly(third.getMid());
+    }
+
+    @Test
+        //MovieRepository.streamAllByOrderByMid()
+    void itShouldStreamAllMoviesInMidOrder() {
+        //given
+        MovieModel first = underTest.save(new MovieModel("TestTitle1", "TestLength", "TestGenre", new Date()));
+        MovieModel second = underTest.save(new MovieModel("TestTitle2", "TestLength", "TestGenre", new Date()));
+
+        //when
+        List<MovieModel> movies;
+        try (Stream<MovieModel> stream = underTest.streamAllByOrderByMid()) {
+            movies = stream.collect(Collectors.toList());
+        }
+
+        //then
+        assertThat(movies).containsExactly(first, second);
+    }
+
+    @Test
+        //MovieRepository.findViewByMid()
+    void itShouldGetTheColumnsOfAMovieWithoutLoadingIt(StatementRecording statements) {
+        //given
+        MovieModel movie = new MovieModel("TestTitle", "TestLength", "TestGenre", new Date(0));
+        movie.setUser(persistUser("TestUserName"));
+        Long mid = entityManager.persistAndFlush(movie).getMid();
+        entityManager.clear();
+        statistics.clear();
+        statements.clear();
+
+        //when
+        MovieView view = underTest.findViewByMid(mid).get();
+
+        //then
+        assertThat(view.getTitle()).isEqualTo("TestTitle");
+        assertThat(view.getVersion()).isZero();
+        assertThat(view.getReleaseDate()).isInstanceOf(java.sql.Date.class); // serialized like a loaded movie's
+        assertThatStatements(statements).hasSelectCount(1).hasCount(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(underTest.findViewByMid(mid + 1)).isEmpty();
+    }
+
+    @Test
+        //MovieRepository.findDirectorViewsByMid(), findCastMemberViewsByMid(), findStudioViewsByMid()
+    void itShouldSelectAMovieDetailInThreeStatements(StatementRecording statements) {
+        //given
+        MovieModel movie = new MovieModel("TestTitle", "TestLength", "TestGenre", new Date());
+        for (int i = 0; i < 5; i++) {
+            movie.getDirectorModels().add(new DirectorModel("TestFirstName" + i, "TestLastName"));
+            movie.getCastMemberModels().add(new CastMemberModel("TestFirstName" + i, "TestLastName"));
+            movie.getStudioModels().add(new StudioModel("TestName" + i));
+        }
+        Long mid = entityManager.persistAndFlush(movie).getMid();
+        entityManager.clear();
+        statistics.clear();
+        statements.clear();
+
+        //when
+        List<DirectorView> directors = underTest.findDirectorViewsByMid(mid);
+        List<CastMemberView> castMembers = underTest.findCastMemberViewsByMid(mid);
+        List<StudioView> studios = underTest.findStudioViewsByMid(mid);
+
+        //then
+        assertThatStatements(statements).hasSelectCount(3).hasCount(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(directors).extracting(DirectorView::getFirstName)
+                .containsExactly("TestFirstName0", "TestFirstName1", "TestFirstName2", "TestFirstName3", "TestFirstName4");
+        assertThat(castMembers).hasSize(5);
+        assertThat(studios).hasSize(5);
+    }
+
+    @Test
+        //MovieModel.castMemberModels
+    void itShouldInsertOneJoinRowWhenACastMemberIsAdded(StatementRecording statements) {
+        //given
+        Long mid = persistMovieWithCast(100);
+        Long cmid = entityManager.persistAndFlush(new CastMemberModel("NewFirstName", "NewLastName")).getCmid();
+        entityManager.clear();
+        MovieModel movie = entityManager.find(MovieModel.class, mid);
+        Hibernate.initialize(movie.getCastMemberModels());
+        CastMemberModel castMember = entityManager.find(CastMemberModel.class, cmid);
+        statistics.clear();
+        statements.clear();
+
+        //when
+        movie.getCastMemberModels().add(castMember);
+        entityManager.flush();
+
+        //then
+        // one insert into movie_cast_member, the other 100 join rows are left alone
+        assertThatStatements(statements).hasInsertCount(1).hasCount(1);
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(statistics.getCollectionRemoveCount()).isZero();
+    }
+
+    @Test
+        //MovieModel.castMemberModels
+    void itShouldDeleteOneJoinRowWhenACastMemberIsRemoved(StatementRecording statements) {
+        //given
+        Long mid = persistMovieWithCast(100);
+        entityManager.clear();
+        MovieModel movie = entityManager.find(MovieModel.class, mid);
+        CastMemberModel castMember = movie.getCastMemberModels().iterator().next();
+        statistics.clear();
+        statements.clear();
+
+        //when
+        movie.getCastMemberModels().remove(castMember);
+        entityManager.flush();
+
+        //then
+        // one delete from movie_cast_member, the other 99 join rows are left alone
+        assertThatStatements(statements).hasDeleteCount(1).hasCount(1);
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(statistics.getCollectionRemoveCount()).isZero();
+    }
+
+    @Test
+        //MovieRepository.findByFilterAndMidGreaterThan()
+    void itShouldGetAPageOfMoviesMatchingEveryFilter() {
+        //given
+        Date released = new Date(86_400_000L * 365);
+        MovieModel first = underTest.save(new MovieModel("TestTitle1", "TestLength", "Drama", released));
+        MovieModel second = underTest.save(new MovieModel("TestTitle2", "TestLength", "Drama", released));
+        underTest.save(new MovieModel("TestTitle3", "TestLength", "Comedy", released));
+        underTest.save(new MovieModel("TestTitle4", "TestLength", "Drama", new Date(0)));
+        underTest.save(new MovieModel("OtherTitle", "TestLength", "Drama", released));
+        MovieFilter filter = new MovieFilter("Drama", released, released, "TestTitle");
+
+        //when
+        List<MovieView> firstPage = underTest.findByFilterAndMidGreaterThan(filter, Long.MIN_VALUE, 1);
+        List<MovieView> secondPage = underTest.findByFilterAndMidGreaterThan(filter, first.getMid(), 2);
+
+        //then
+        assertThat(firstPage).extracting(MovieView::getMid).containsExactly(first.getMid());
+        assertThat(secondPage).extracting(MovieView::getMid).containsExactly(second.getMid());
+    }
+
+    @Test
+        //MovieRepository.findFieldsByFilterAndMidGreaterThan()
+    void itShouldGetTheGivenFieldsOfAPageOfFilteredMovies() {
+        //given
+        MovieModel first = underTest.save(new MovieModel("TestTitle1", "TestLength", "Drama", new Date()));
+        underTest.save(new MovieModel("TestTitle2", "TestLength", "Comedy", new Date()));
+        MovieModel third = underTest.save(new MovieModel("TestTitle3", "TestLength", "Drama", new Date()));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        MovieFilter filter = new MovieFilter("Drama", null, null, null);
+
+        //when
+        List<Map<String, Object>> firstPage = underTest.findFieldsByFilterAndMidGreaterThan(filter, Arrays.asList("mid", "title"), Long.MIN_VALUE, 1);
+        List<Map<String, Object>> secondPage = underTest.findFieldsByFilterAndMidGreaterThan(filter, Arrays.asList("mid", "title"), first.getMid(), 2);
+
+        //then
+        assertThat(firstPage).hasSize(1);
+        assertThat(firstPage.get(0)).containsOnlyKeys("mid", "title").containsEntry("title", "TestTitle1");
+        assertThat(secondPage).extracting(movie -> movie.get("mid")).containsExactly(third.getMid());
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+        //MovieRepository.findByFilterAndMidGreaterThan()
+    void itShouldMatchATitlePrefixLiterally() {
+        //given
+        MovieModel percent = underTest.save(new MovieModel("100% Pure", "TestLength", "TestGenre", new Date()));
+        underTest.save(new MovieModel("1000 Ways", "TestLength", "TestGenre", new Date()));
+        MovieFilter filter = new MovieFilter(null, null, null, "100%");
+
+        //when
+        List<MovieView> movies = underTest.findByFilterAndMidGreaterThan(filter, Long.MIN_VALUE, 10);
+
+        //then
+        assertThat(movies).extracting(MovieView::getMid).containsExactly(percent.getMid());
+    }
+
+    @Test
+        //MovieRepository.searchByTitle()
+    void itShouldSearchTitlesForTheStartOfEveryWordShortestFirst() {
+        //given
+        MovieModel longer = underTest.save(new MovieModel("Star Wars: The Empire Strikes Back", "TestLength", "TestGenre", new Date()));
+        MovieModel shorter = underTest.save(new MovieModel("STAR WARS", "TestLength", "TestGenre", new Date()));
+        underTest.save(new MovieModel("Star Trek", "TestLength", "TestGenre", new Date()));
+        underTest.save(new MovieModel("Lodestar Wars", "TestLength", "TestGenre", new Date()));
+
+        //when
+        List<MovieView> firstPage = underTest.searchByTitle(Arrays.asList("star", "wars"), 0, 1);
+        List<MovieView> secondPage = underTest.searchByTitle(Arrays.asList("star", "wars"), 1, 2);
+
+        //then
+        assertThat(firstPage).extracting(MovieView::getMid).containsExactly(shorter.getMid());
+        assertThat(secondPage).extracting(MovieView::getMid).containsExactly(longer.getMid());
+    }
+
+    @Test
+        //MovieRepository.findByUserOrderByTitle(), findByUserOrderByTitleAfter()
+    void itShouldGetAPageOfAUsersMoviesByTitle() {
+        //given
+        UserModel user = persistUser("TestUserName");
+        MovieModel b = persistUserMovie(user, "B", new Date());
+        MovieModel firstA = persistUserMovie(user, "A", new Date());
+        MovieModel secondA = persistUserMovie(user, "A", new Date());
+        persistUserMovie(persistUser("TestOtherUserName"), "A", new Date());
+
+        //when
+        List<MovieView> firstPage = underTest.findByUserOrderByTitle("TestUserName", PageRequest.of(0, 2));
+        List<MovieView> secondPage = underTest.findByUserOrderByTitleAfter("TestUserName", "A", firstA.getMid(), PageRequest.of(0, 2));
+
+        //then
+        assertThat(firstPage).extracting(MovieView::getMid).containsExactly(firstA.getMid(), secondA.getMid());
+        assertThat(secondPage).extracting(MovieView::getMid).containsExactly(secondA.getMid(), b.getMid());
+    }
+
+    @Test
+        //MovieRepository.findByUserOrderByReleaseDate(), findByUserOrderByReleaseDateAfter(), findByUserWithoutReleaseDateAfter()
+    void itShouldGetAPageOfAUsersMoviesByReleaseDate() {
+        //given
+        UserModel user = persistUser("TestUserName");
+        MovieModel undated = persistUserMovie(user, "A", null);
+        MovieModel later = persistUserMovie(user, "B", new Date(86_400_000L * 365));
+        MovieModel earlier = persistUserMovie(user, "C", new Date(0));
+
+        //when
+        List<MovieView> dated = underTest.findByUserOrderByReleaseDate("TestUserName", PageRequest.of(0, 3));
+        List<MovieView> datedAfter = underTest.findByUserOrderByReleaseDateAfter("TestUserName", earlier.getReleaseDate(),
+                earlier.getMid(), PageRequest.of(0, 3));
+        List<MovieView> undatedAfter = underTest.findByUserWithoutReleaseDateAfter("TestUserName", Long.MIN_VALUE, PageRequest.of(0, 3));
+
+        //then
+        assertThat(dated).extracting(MovieView::getMid).containsExactly(earlier.getMid(), later.getMid());
+        assertThat(datedAfter).extracting(MovieView::getMid).containsExactly(later.getMid());
+        assertThat(undatedAfter).extracting(MovieView::getMid).containsExactly(undated.getMid());
+    }
+
+    private UserModel persistUser(String username) {
+        return entityManager.persist(new UserModel(username, "TestFirstName", "TestLastName", "TestPassword",
+                "Test@gmail.com", new Date(), new Date()));
+    }
+
+    private MovieModel persistUserMovie(UserModel user, String title, Date releaseDate) {
+        MovieModel movie = new MovieModel(title, "TestLength", "TestGenre", releaseDate);
+        movie.setUser(user);
+        return entityManager.persistAndFlush(movie);
+    }
+
+    private Long persistMovieWithCast(int castSize) {
+        MovieModel movie = new MovieModel("TestTitle", "TestLength", "TestGenre", new Date());
+        for (int i = 0; i < castSize; i++) {
+            movie.getCastMemberModels().add(new CastMemberModel("TestFirstName" + i, "TestLastName"));
+        }
+        return entityManager.persistAndFlush(movie).getMid();
+    }
 }
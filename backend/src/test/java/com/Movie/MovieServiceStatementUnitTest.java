@@ -0,0 +1,89 @@
+package com.Movie;
+
+import com.Cache.SecondLevelCacheConfig;
+import com.Statement.StatementRecorder;
+import com.Statement.StatementRecorderConfig;
+import com.Statement.StatementRecording;
+import com.User.UserModel;
+import com.User.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.Date;
+
+import static com.Statement.StatementRecordingAssert.assertThatStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link MovieService} against the database, to count the statements a call runs.
+ */
+@DataJpaTest
+@Import({SecondLevelCacheConfig.class, StatementRecorderConfig.class, JacksonAutoConfiguration.class, MovieService.class, UserService.class})
+public class MovieServiceStatementUnitTest {
+
+    @Autowired
+    private MovieService underTest;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+        //MovieService.createUserMovie()
+    void itShouldCreateAUserMovieInTheSameStatementsWhateverTheLibrarySize() {
+        //given
+        persistUserWithMovies("TestSmallLibrary", 0);
+        persistUserWithMovies("TestLargeLibrary", 30);
+        // takes the first block of movie ids from the sequence, so neither measured insert asks for another
+        createUserMovie("TestSmallLibrary");
+        statistics.clear();
+
+        //when
+        StatementRecording smallLibrary = createUserMovie("TestSmallLibrary");
+        StatementRecording largeLibrary = createUserMovie("TestLargeLibrary");
+
+        //then
+        // one to check the user exists, one to insert the movie
+        assertThatStatements(smallLibrary).hasSelectCount(1).hasInsertCount(1).hasCount(2);
+        assertThatStatements(largeLibrary).hasSelectCount(1).hasInsertCount(1).hasCount(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    private StatementRecording createUserMovie(String username) {
+        try (StatementRecording recording = StatementRecorder.start()) {
+            underTest.createUserMovie(username, new MovieModel("TestTitle", "TestLength", "TestGenre", new Date()));
+            entityManager.flush();
+            entityManager.clear();
+            return recording;
+        }
+    }
+
+    private void persistUserWithMovies(String username, int librarySize) {
+        UserModel user = entityManager.persist(new UserModel(username, "TestFirstName", "TestLastName",
+                "TestPassword", "Test@gmail.com", new Date(), new Date()));
+        for (int i = 0; i < librarySize; i++) {
+            MovieModel movie = new MovieModel("TestTitle" + i, "TestLength", "TestGenre", new Date());
+            movie.setUser(user);
+            entityManager.persist(movie);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -1,17 +1,54 @@
 package com.Movie;
 
+import com.CastMember.CastMemberModel;
+import com.CastMember.CastMemberView;
+import com.Director.DirectorModel;
+import com.Director.DirectorView;
+import com.Exception.BadRequestException;
+import com.Exception.PreconditionFailedException;
 import com.Exception.ResourceNotFoundException;
+import com.Pagination.Cursor;
+import com.Pagination.CursorPage;
+import com.Studio.StudioModel;
+import com.Studio.StudioView;
+import com.User.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
@@ -25,6 +62,16 @@ class MovieServiceUnitTest {
 
     @Mock
     private MovieRepository movieRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private UserService userService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     private MovieService underTest;
 
     @BeforeEach
@@ -36,11 +83,266 @@ class MovieServiceUnitTest {
         //MovieService.getAllMovies()
     void itShouldGetAllMovies() {
         //given
-        underTest.getAllMovies();
+        underTest.getAllMovies(MovieFilter.NONE, null, 50);
+        //when
+
+        //then
+        ArgumentCaptor<Pageable> pageableArgumentCaptor = ArgumentCaptor.forClass(Pageable.class);
+        // verify the first page starts before any mid, and reads one extra row
+        verify(movieRepository).findByMidGreaterThanOrderByMidAsc(eq(Long.MIN_VALUE), pageableArgumentCaptor.capture());
+        assertThat(pageableArgumentCaptor.getValue().getPageSize()).isEqualTo(51);
+    }
+
+    @Test
+        //MovieService.getAllMovies()
+    void itShouldGetTheNextPageOfMovies() {
+        //given
+        MovieView first = movieView(1L, "TestTitle1", new Date());
+        MovieView second = movieView(2L, "TestTitle2", new Date());
+
+        //when
+        when(movieRepository.findByMidGreaterThanOrderByMidAsc(eq(Long.MIN_VALUE), any())).thenReturn(Arrays.asList(first, second));
+        CursorPage<MovieView> page = underTest.getAllMovies(MovieFilter.NONE, null, 1);
+        underTest.getAllMovies(MovieFilter.NONE, page.getNext(), 1);
+
+        //then
+        assertThat(page.getItems()).containsExactly(first);
+        // verify the next page starts after the last mid of the first page
+        verify(movieRepository).findByMidGreaterThanOrderByMidAsc(eq(1L), any());
+    }
+
+    @Test
+        //MovieService.getAllMovieFields()
+    void itShouldGetTheGivenFieldsOfAPageOfMovies() {
+        //given
+        Map<String, Object> first = Collections.singletonMap("mid", 1L);
+        Map<String, Object> second = Collections.singletonMap("mid", 2L);
+
+        //when
+        when(movieRepository.findFieldsByFilterAndMidGreaterThan(MovieFilter.NONE, Arrays.asList("mid", "title"), Long.MIN_VALUE, 2))
+                .thenReturn(Arrays.asList(first, second));
+        CursorPage<Map<String, Object>> page = underTest.getAllMovieFields(MovieFilter.NONE, "title", null, 1);
+
+        //then
+        assertThat(page.getItems()).containsExactly(first);
+        assertThat(Cursor.decodeLong(page.getNext())).isEqualTo(1L);
+    }
+
+    @Test
+        //MovieService.getMovieFieldsById()
+    void itShouldGetTheGivenFieldsOfAMovieFromTheCache() {
+        //given
+        ReflectionTestUtils.setField(underTest, "objectMapper", new ObjectMapper());
+
+        //when
+        when(movieRepository.findViewByMid(1L)).thenReturn(Optional.of(movieView(1L, "TestTitle", new Date())));
+        underTest.getMovieById(1L);
+        Map<String, Object> fields = underTest.getMovieFieldsById(1L, "genre,title");
+
+        //then
+        // only the first call reads the database
+        verify(movieRepository, times(1)).findViewByMid(1L);
+        assertThat(fields).containsExactly(entry("mid", 1L), entry("genre", "TestGenre"), entry("title", "TestTitle"));
+    }
+
+    @Test
+        //MovieService.getAllMovies()
+    void itShouldGetAllFilteredMovies() {
+        //given
+        MovieFilter filter = new MovieFilter("TestGenre", null, null, null);
+
+        //when
+        underTest.getAllMovies(filter, null, 50);
+
+        //then
+        // verify the filtered page starts before any mid, and reads one extra row
+        verify(movieRepository).findByFilterAndMidGreaterThan(filter, Long.MIN_VALUE, 51);
+        verify(movieRepository, never()).findByMidGreaterThanOrderByMidAsc(any(), any());
+    }
+
+    @Test
+        //MovieService.getAllMovies()
+    void itShouldNotGetMoviesWithABadCursor() {
+        /** throws {@link BadRequestException}*/
+        //given
+        String cursor = "not a cursor";
+
+        //when
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.getAllMovies(MovieFilter.NONE, cursor, 50))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+        //MovieService.getAllMovies()
+    void itShouldNotGetMoviesWithABadLimit() {
+        /** throws {@link BadRequestException}*/
+        //given
+        int limit = CursorPage.MAX_LIMIT + 1;
+
+        //when
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.getAllMovies(MovieFilter.NONE, null, limit))
+                .hasMessageContaining("Limit: " + limit + " must be between 1 and " + CursorPage.MAX_LIMIT + "!");
+    }
+
+    @Test
+        //MovieService.getAllUserMovies()
+    void itShouldGetTheNextPageOfUserMoviesByTitle() {
+        //given
+        MovieView first = movieView(1L, "TestTitle", new Date());
+        MovieView second = movieView(2L, "TestTitle", new Date());
+
+        //when
+        when(movieRepository.findByUserOrderByTitle(eq("TestUserName"), any())).thenReturn(Arrays.asList(first, second));
+        CursorPage<MovieView> page = underTest.getAllUserMovies("TestUserName", "title", null, 1);
+        underTest.getAllUserMovies("TestUserName", "title", page.getNext(), 1);
+
+        //then
+        assertThat(page.getItems()).containsExactly(first);
+        // verify the next page starts after the last title and mid of the first page
+        verify(movieRepository).findByUserOrderByTitleAfter(eq("TestUserName"), eq("TestTitle"), eq(1L), any());
+    }
+
+    @Test
+        //MovieService.getAllUserMovies()
+    void itShouldGetUserMoviesWithoutAReleaseDateAfterTheOnesWithOne() {
+        //given
+        MovieView dated = movieView(2L, "TestTitle", new Date(0));
+        MovieView undated = movieView(1L, "TestTitle", null);
+        MovieView nextUndated = movieView(3L, "TestTitle", null);
+
+        //when
+        when(movieRepository.findByUserOrderByReleaseDate(eq("TestUserName"), any())).thenReturn(Collections.singletonList(dated));
+        when(movieRepository.findByUserWithoutReleaseDateAfter(eq("TestUserName"), eq(Long.MIN_VALUE), any()))
+                .thenReturn(Arrays.asList(undated, nextUndated));
+        CursorPage<MovieView> page = underTest.getAllUserMovies("TestUserName", "releaseDate", null, 2);
+        underTest.getAllUserMovies("TestUserName", "releaseDate", page.getNext(), 2);
+
+        //then
+        assertThat(page.getItems()).containsExactly(dated, undated);
+        ArgumentCaptor<Pageable> pageableArgumentCaptor = ArgumentCaptor.forClass(Pageable.class);
+        // verify only what was left of the page was read from the undated movies
+        verify(movieRepository).findByUserWithoutReleaseDateAfter(eq("TestUserName"), eq(Long.MIN_VALUE), pageableArgumentCaptor.capture());
+        assertThat(pageableArgumentCaptor.getValue().getPageSize()).isEqualTo(2);
+        // verify a page after an undated movie does not read the dated ones again
+        verify(movieRepository).findByUserWithoutReleaseDateAfter(eq("TestUserName"), eq(1L), any());
+        verify(movieRepository, never()).findByUserOrderByReleaseDateAfter(any(), any(), any(), any());
+    }
+
+    @Test
+        //MovieService.getAllUserMovies()
+    void itShouldNotGetUserMoviesWithABadSort() {
+        /** throws {@link BadRequestException}*/
+        //given
+        String sort = "length";
+
+        //when
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.getAllUserMovies("TestUserName", sort, null, 50))
+                .hasMessageContaining("Sort: " + sort + " is not valid!");
+    }
+
+    @Test
+        //MovieService.getAllUserMovies()
+    void itShouldNotGetMoviesOfAUserThatDoesNotExist() {
+        /** throws {@link ResourceNotFoundException}*/
+        //exception thrown iff user does not exist
+
+        //given
+        ReflectionTestUtils.setField(underTest, "userService", userService);
+
         //when
 
+        // I get the movies of a user that doesn't exist
+
         //then
-        verify(movieRepository).findAll();
+        assertThatThrownBy(
+                () ->
+                        underTest.getAllUserMovies("iDontExist", "title", null, 50))
+                .hasMessageContaining("User With the username: iDontExist does not exist!");
+    }
+
+    @Test
+        //MovieService.searchMovies()
+    void itShouldSearchMoviesForTheWordsOfAQuery() {
+        //given
+        MovieView first = movieView(1L, "Star Wars", new Date());
+        MovieView second = movieView(2L, "Star Wars: The Empire Strikes Back", new Date());
+
+        //when
+        when(movieRepository.searchByTitle(Arrays.asList("star", "wars"), 0, 2)).thenReturn(Arrays.asList(first, second));
+        CursorPage<MovieView> page = underTest.searchMovies(" Star-WARS!", null, 1);
+        underTest.searchMovies(" Star-WARS!", page.getNext(), 1);
+
+        //then
+        assertThat(page.getItems()).containsExactly(first);
+        // verify the next page starts after the matches of the first page
+        verify(movieRepository).searchByTitle(Arrays.asList("star", "wars"), 1, 2);
+    }
+
+    @Test
+        //MovieService.searchMovies()
+    void itShouldNotSearchMoviesForAQueryWithoutWords() {
+        /** throws {@link BadRequestException}*/
+        //given
+        String query = " %_! ";
+
+        //when
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.searchMovies(query, null, 50))
+                .hasMessageContaining("Query: " + query + " has no words to search for!");
+    }
+
+    @Test
+        //MovieService.searchMovies()
+    void itShouldNotSearchMoviesWithANegativeCursor() {
+        /** throws {@link BadRequestException}*/
+        //given
+        String cursor = Cursor.encode("-1");
+
+        //when
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.searchMovies("Star", cursor, 50))
+                .hasMessageContaining("Cursor: " + cursor + " is not valid!");
+    }
+
+    @Test
+        //MovieService.exportMovies()
+    void itShouldExportAllMoviesAsNewlineDelimitedJson() throws IOException {
+        //given
+        MovieModel first = new MovieModel("TestTitle1", "TestLength", "TestGenre", null);
+        MovieModel second = new MovieModel("TestTitle2", "TestLength", "TestGenre", null);
+        ReflectionTestUtils.setField(first, "mid", 1L);
+        ReflectionTestUtils.setField(second, "mid", 2L);
+        ReflectionTestUtils.setField(underTest, "objectMapper", new ObjectMapper());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        when(movieRepository.streamAllByOrderByMid()).thenReturn(Stream.of(first, second));
+        underTest.exportMovies(out);
+
+        //then
+        String[] lines = out.toString("UTF-8").split("\n");
+        assertThat(lines).containsExactly(
+                "{\"mid\":1,\"title\":\"TestTitle1\",\"length\":\"TestLength\",\"genre\":\"TestGenre\",\"releaseDate\":null}",
+                "{\"mid\":2,\"title\":\"TestTitle2\",\"length\":\"TestLength\",\"genre\":\"TestGenre\",\"releaseDate\":null}"
+        );
     }
 
     @Test
@@ -64,27 +366,132 @@ class MovieServiceUnitTest {
         assertThat(capturedMovie).isEqualTo(movieModel);
     }
 
+    @Test
+        //MovieService.createMovies()
+    void itShouldCreateMoviesInBulk() {
+        //given
+        MovieModel first = new MovieModel("TestTitle1", "TestLength", "TestGenre", new Date());
+        MovieModel second = new MovieModel("TestTitle2", "TestLength", "TestGenre", new Date());
+        useTransactions();
+
+        //when
+        List<MovieBulkResult> results = underTest.createMovies(Arrays.asList(first, second));
+
+        //then
+        // verify both movies are persisted in the same flush
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager).persist(first);
+        inOrder.verify(entityManager).persist(second);
+        inOrder.verify(entityManager).flush();
+        assertThat(results).extracting(MovieBulkResult::getIndex).containsExactly(0, 1);
+        assertThat(results).extracting(MovieBulkResult::getError).containsOnlyNulls();
+    }
+
+    @Test
+        //MovieService.createMovie()
+    void itShouldPublishTheDirectorsCreatedWithAMovie() {
+        //given
+        MovieModel movieModel = new MovieModel("TestTitle", "TestLength", "TestGenre", new Date());
+        DirectorModel director = new DirectorModel("TestFirstName", "TestLastName");
+        movieModel.getDirectorModels().add(director);
+        ReflectionTestUtils.setField(underTest, "eventPublisher", eventPublisher);
+
+        //when
+        underTest.createMovie(movieModel);
+
+        //then
+        ArgumentCaptor<PeopleSavedEvent> eventArgumentCaptor = ArgumentCaptor.forClass(PeopleSavedEvent.class);
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        assertThat(eventArgumentCaptor.getValue().getDirectors()).containsExactly(director);
+        assertThat(eventArgumentCaptor.getValue().getCastMembers()).isEmpty();
+    }
+
+    @Test
+        //MovieService.createMovies()
+    void itShouldPublishOnlyTheCastMembersCreatedInBulk() {
+        //given
+        MovieModel movie = new MovieModel("TestTitle", "TestLength", "TestGenre", new Date());
+        CastMemberModel created = new CastMemberModel("TestFirstName", "TestLastName");
+        CastMemberModel linked = new CastMemberModel();
+        ReflectionTestUtils.setField(linked, "cmid", 5L);
+        movie.getCastMemberModels().add(created);
+        movie.getCastMemberModels().add(linked);
+        useTransactions();
+        ReflectionTestUtils.setField(underTest, "eventPublisher", eventPublisher);
+        Query query = mock(Query.class);
+
+        //when
+        when(entityManager.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter(eq("ids"), any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(Collections.singletonList(5L));
+        when(entityManager.getReference(CastMemberModel.class, 5L)).thenReturn(linked);
+        underTest.createMovies(Collections.singletonList(movie));
+
+        //then
+        // the linked cast member is already indexed, only the one saved with the movie is new
+        ArgumentCaptor<PeopleSavedEvent> eventArgumentCaptor = ArgumentCaptor.forClass(PeopleSavedEvent.class);
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        assertThat(eventArgumentCaptor.getValue().getCastMembers()).containsExactly(created);
+    }
+
+    @Test
+        //MovieService.createMovies()
+    void itShouldNotCreateAMovieWithoutATitleInBulk() {
+        //given
+        MovieModel valid = new MovieModel("TestTitle", "TestLength", "TestGenre", new Date());
+        MovieModel untitled = new MovieModel(null, "TestLength", "TestGenre", new Date());
+        useTransactions();
+
+        //when
+        List<MovieBulkResult> results = underTest.createMovies(Arrays.asList(untitled, valid));
+
+        //then
+        // verify only the valid movie is persisted
+        verify(entityManager).persist(valid);
+        verify(entityManager, never()).persist(untitled);
+        assertThat(results.get(0).getError()).isEqualTo("Movie title is required!");
+        assertThat(results.get(1).getError()).isNull();
+    }
+
+    @Test
+        //MovieService.createMovies()
+    void itShouldNotCreateAMovieWithAMissingDirectorInBulk() {
+        //given
+        MovieModel movie = new MovieModel("TestTitle", "TestLength", "TestGenre", new Date());
+        DirectorModel director = new DirectorModel();
+        ReflectionTestUtils.setField(director, "did", 5L);
+        movie.getDirectorModels().add(director);
+        useTransactions();
+        Query query = mock(Query.class);
+
+        //when
+        when(entityManager.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter(eq("ids"), any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(Collections.emptyList());
+        List<MovieBulkResult> results = underTest.createMovies(Collections.singletonList(movie));
+
+        //then
+        verify(entityManager, never()).persist(movie);
+        assertThat(results.get(0).getError()).isEqualTo("Director With the did: 5 does not exist!");
+    }
+
     @Test
         //MovieService.getMovieById()
     void itShouldGetAMovieById() {
         //given
-        MovieModel movieModel = new MovieModel(
-                "TestTitle",
-                "TestLength",
-                "TestGenre",
-                new Date()
-        );
+        MovieView movieView = movieView(1L, "TestTitle", new Date());
 
         //when
-        when(movieRepository.findById(any())).thenReturn(Optional.of(movieModel));
-        underTest.getMovieById(movieModel.getMid());
+        when(movieRepository.findViewByMid(any())).thenReturn(Optional.of(movieView));
+        underTest.getMovieById(movieView.getMid());
 
         //then
         ArgumentCaptor<Long> movieArgumentCaptor = ArgumentCaptor.forClass(Long.class);
-        // verify findById was invoked w/ mid, and capture the mid
-        verify(movieRepository).findById(movieArgumentCaptor.capture());
+        // verify findViewByMid was invoked w/ mid, and capture the mid
+        verify(movieRepository).findViewByMid(movieArgumentCaptor.capture());
         Long capturedMid = movieArgumentCaptor.getValue();
-        assertThat(movieModel.getMid()).isEqualTo(capturedMid);
+        assertThat(movieView.getMid()).isEqualTo(capturedMid);
+        verify(movieRepository, never()).findById(any()); // the entity is never loaded
     }
 
     @Test
@@ -106,6 +513,226 @@ class MovieServiceUnitTest {
                 );
     }
 
+    @Test
+        //MovieService.getMovieById()
+    void itShouldGetARepeatedMovieByIdFromTheCache() {
+        //given
+        //when
+        when(movieRepository.findViewByMid(1L)).thenReturn(Optional.of(movieView(1L, "TestTitle", new Date())));
+        MovieView first = underTest.getMovieById(1L);
+        MovieView second = underTest.getMovieById(1L);
+
+        //then
+        verify(movieRepository, times(1)).findViewByMid(1L);
+        assertThat(second.getTitle()).isEqualTo("TestTitle");
+        assertThat(second).isSameAs(first); // a view can not be changed, so it is shared
+    }
+
+    @Test
+        //MovieService.getMovieById()
+    void itShouldLoadAMovieOnceForConcurrentMisses() throws Exception {
+        //given
+        MovieView movieView = movieView(1L, "TestTitle", new Date());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+
+        //when
+        when(movieRepository.findViewByMid(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(); // hold the load open while the other callers miss
+            return Optional.of(movieView);
+        });
+        List<Future<MovieView>> movies = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            movies.add(callers.submit(() -> underTest.getMovieById(1L)));
+        }
+        loading.await(5, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        release.countDown();
+
+        //then
+        for (Future<MovieView> movie : movies) {
+            assertThat(movie.get(5, TimeUnit.SECONDS).getTitle()).isEqualTo("TestTitle");
+        }
+        callers.shutdown();
+        verify(movieRepository, times(1)).findViewByMid(1L);
+    }
+
+    @Test
+        //MovieService.updateMovie()
+    void itShouldNotGetACachedMovieAfterAnUpdate() {
+        //given
+        MovieModel movieModel = new MovieModel("TestTitle", "TestLength", "TestGenre", new Date());
+        movieModel.setMid(1L);
+        when(movieRepository.findViewByMid(1L)).thenReturn(Optional.of(movieView(1L, "TestTitle", new Date())),
+                Optional.of(movieView(1L, "newTitle", new Date())));
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movieModel));
+        when(movieRepository.save(movieModel)).thenReturn(movieModel);
+        underTest.getMovieById(1L);
+
+        //when
+        underTest.updateMovie(1L, new MovieModel("newTitle", "newLength", "newGenre", new Date()), null);
+
+        //then
+        assertThat(underTest.getMovieById(1L).getTitle()).isEqualTo("newTitle");
+        verify(movieRepository, times(2)).findViewByMid(1L); // cache load, reload
+    }
+
+    @Test
+        //MovieService.patchMovie()
+    void itShouldPatchAMovie() {
+        //given
+        usePatch();
+        Map<String, Object> changes = Collections.singletonMap("title", "newTitle");
+
+        //when
+        when(jdbcTemplate.update("update movie set title = ?, version = version + 1 where mid = ? and version = ?", "newTitle", 1L, 3L))
+                .thenReturn(1);
+        Long version = underTest.patchMovie(1L, changes, 3L);
+
+        //then
+        // one update, the movie is never loaded
+        verify(movieRepository, never()).findById(any());
+        assertThat(version).isEqualTo(4L);
+    }
+
+    @Test
+        //MovieService.patchMovie()
+    void itShouldNotPatchAMovie() {
+        /** throws {@link ResourceNotFoundException}*/
+        //given
+        usePatch();
+        Map<String, Object> changes = Collections.singletonMap("title", "newTitle");
+
+        //when
+        when(jdbcTemplate.update("update movie set title = ?, version = version + 1 where mid = ?", "newTitle", 1L)).thenReturn(0);
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.patchMovie(1L, changes, null))
+                .hasMessageContaining("Movie With the mid: 1 does not exist!"
+                );
+    }
+
+    @Test
+        //MovieService.patchMovie()
+    void itShouldNotPatchAMovieThatHasChanged() {
+        /** throws {@link PreconditionFailedException}*/
+        //given
+        usePatch();
+        Map<String, Object> changes = Collections.singletonMap("title", "newTitle");
+
+        //when
+        when(jdbcTemplate.update("update movie set title = ?, version = version + 1 where mid = ? and version = ?", "newTitle", 1L, 3L))
+                .thenReturn(0);
+        when(movieRepository.existsById(1L)).thenReturn(true);
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.patchMovie(1L, changes, 3L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("Movie With the mid: 1 has changed since version: 3!");
+    }
+
+    @Test
+        //MovieService.deleteMovie()
+    void itShouldNotGetACachedMovieAfterADelete() {
+        //given
+        when(movieRepository.findViewByMid(1L)).thenReturn(Optional.of(movieView(1L, "TestTitle", new Date())));
+        underTest.getMovieById(1L);
+
+        //when
+        useDelete();
+        when(jdbcTemplate.update("delete from movie_director where mid = ?", 1L)).thenReturn(2);
+        when(jdbcTemplate.update("delete from movie_cast_member where mid = ?", 1L)).thenReturn(2);
+        when(jdbcTemplate.update("delete from movie_studio where mid = ?", 1L)).thenReturn(2);
+        when(jdbcTemplate.update("delete from movie where mid = ?", 1L)).thenReturn(1);
+        underTest.deleteMovie(1L);
+        when(movieRepository.findViewByMid(1L)).thenReturn(Optional.empty());
+
+        //then
+        assertThatThrownBy(() -> underTest.getMovieById(1L))
+                .hasMessageContaining("Movie With the mid: 1 does not exist!");
+    }
+
+    @Test
+        //MovieService.getMovieDetail()
+    void itShouldGetAMovieDetailById() {
+        //given
+        Long mid = 1L;
+        List<DirectorView> directors = Collections.singletonList(new DirectorView(1L, 0L, "TestFirstName", "TestLastName"));
+        List<CastMemberView> castMembers = Collections.singletonList(new CastMemberView(1L, 0L, "TestFirstName", "TestLastName"));
+        List<StudioView> studios = Collections.singletonList(new StudioView(1L, 0L, "TestName"));
+
+        //when
+        when(movieRepository.findViewByMid(mid)).thenReturn(Optional.of(movieView(mid, "TestTitle", new Date())));
+        when(movieRepository.findDirectorViewsByMid(mid)).thenReturn(directors);
+        when(movieRepository.findCastMemberViewsByMid(mid)).thenReturn(castMembers);
+        when(movieRepository.findStudioViewsByMid(mid)).thenReturn(studios);
+        MovieDetail movieDetail = underTest.getMovieDetail(mid);
+
+        //then
+        // verify every collection is selected with its own query, and no entity is loaded
+        verify(movieRepository, never()).findById(any());
+        assertThat(movieDetail.getTitle()).isEqualTo("TestTitle");
+        assertThat(movieDetail.getDirectors()).isEqualTo(directors);
+        assertThat(movieDetail.getCastMembers()).isEqualTo(castMembers);
+        assertThat(movieDetail.getStudios()).isEqualTo(studios);
+    }
+
+    @Test
+        //MovieService.getMovieDirectors()
+    void itShouldGetTheDirectorsOfAMovieWithOneQuery() {
+        //given
+        List<DirectorView> directors = Collections.singletonList(new DirectorView(1L, 0L, "TestFirstName", "TestLastName"));
+
+        //when
+        when(movieRepository.findDirectorViewsByMid(1L)).thenReturn(directors);
+
+        //then
+        assertThat(underTest.getMovieDirectors(1L)).isEqualTo(directors);
+        verify(movieRepository, never()).existsById(any()); // only looked up when nothing was found
+    }
+
+    @Test
+        //MovieService.getMovieStudios()
+    void itShouldNotGetTheStudiosOfAMovieThatDoesNotExist() {
+        /** throws {@link ResourceNotFoundException}*/
+        //given
+
+        //when
+        when(movieRepository.findStudioViewsByMid(1L)).thenReturn(Collections.emptyList());
+        when(movieRepository.existsById(1L)).thenReturn(false);
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.getMovieStudios(1L))
+                .hasMessageContaining("Movie With the mid: 1 does not exist!");
+    }
+
+    @Test
+        //MovieService.getMovieDetail()
+    void itShouldNotGetAMovieDetailById() {
+        /** throws {@link ResourceNotFoundException}*/
+        //given
+        Long mid = 1L;
+
+        //when
+
+        // I get a movie that doesn't exist
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.getMovieDetail(mid))
+                .hasMessageContaining("Movie With the mid: " + mid + " does not exist!"
+                );
+    }
+
     @Test
         //MovieService.updateMovie()
     void itShouldUpdateAMovie() {
@@ -122,9 +749,11 @@ class MovieServiceUnitTest {
                 "newGenre",
                 new Date()
         );
+        movieModel.setMid(1L);
+        newMovieModel.setMid(1L);
         //when
         when(movieRepository.findById(any())).thenReturn(Optional.of(movieModel));
-        underTest.updateMovie(newMovieModel.getMid(), newMovieModel);
+        underTest.updateMovie(newMovieModel.getMid(), newMovieModel, null);
 
         //then
         assertThat(movieModel.getGenre()).isEqualTo(newMovieModel.getGenre());
@@ -156,32 +785,71 @@ class MovieServiceUnitTest {
         //then
         assertThatThrownBy(
                 () ->
-                        underTest.updateMovie(mid, new MovieModel()))
+                        underTest.updateMovie(mid, new MovieModel(), null))
                 .hasMessageContaining("Movie With the mid: " + mid + " does not exist!"
                 );
     }
 
+    @Test
+        //MovieService.updateMovie()
+    void itShouldNotUpdateAMovieThatHasChanged() {
+        /** throws {@link PreconditionFailedException}*/
+        //given
+        MovieModel movieModel = new MovieModel("TestTitle", "TestLength", "TestGenre", new Date());
+
+        //when
+        when(movieRepository.findById(any())).thenReturn(Optional.of(movieModel));
+
+        //then
+        // the client read version 3, the stored movie is at another version
+        assertThatThrownBy(
+                () ->
+                        underTest.updateMovie(1L, movieModel, 3L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("Movie With the mid: 1 has changed since version: 3!");
+        verify(movieRepository, never()).save(any());
+    }
+
+    @Test
+        //MovieService.updateMovie()
+    void itShouldNotUpdateAMovieChangedWhileUpdating() {
+        /** throws {@link PreconditionFailedException}*/
+        //given
+        MovieModel movieModel = new MovieModel("TestTitle", "TestLength", "TestGenre", new Date());
+
+        //when
+        when(movieRepository.findById(any())).thenReturn(Optional.of(movieModel));
+        when(movieRepository.save(movieModel)).thenThrow(new ObjectOptimisticLockingFailureException(MovieModel.class, 1L));
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.updateMovie(1L, movieModel, null))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
     @Test
         //MovieService.deleteMovie()
     void itShouldDeleteAMovie() {
         //given
-        MovieModel movieModel = new MovieModel(
-                "TestTitle",
-                "TestLength",
-                "TestGenre",
-                new Date()
-        );
+        useDelete();
+        when(jdbcTemplate.update("delete from movie_director where mid = ?", 1L)).thenReturn(2);
+        when(jdbcTemplate.update("delete from movie_cast_member where mid = ?", 1L)).thenReturn(2);
+        when(jdbcTemplate.update("delete from movie_studio where mid = ?", 1L)).thenReturn(2);
+        when(jdbcTemplate.update("delete from movie where mid = ?", 1L)).thenReturn(1);
 
         //when
-        when(movieRepository.findById(any())).thenReturn(Optional.of(movieModel));
-        underTest.deleteMovie(movieModel.getMid());
+        underTest.deleteMovie(1L);
 
         //then
-        ArgumentCaptor<MovieModel> movieArgumentCaptor = ArgumentCaptor.forClass(MovieModel.class);
-        // verify delete was invoked w/ movie
-        verify(movieRepository).delete(movieArgumentCaptor.capture());
-        MovieModel capturedMovie = movieArgumentCaptor.getValue();
-        assertThat(movieModel).isEqualTo(capturedMovie);
+        // unlinked from its directors, cast members and studios, then deleted, without loading it
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update("delete from movie_director where mid = ?", 1L);
+        inOrder.verify(jdbcTemplate).update("delete from movie_cast_member where mid = ?", 1L);
+        inOrder.verify(jdbcTemplate).update("delete from movie_studio where mid = ?", 1L);
+        inOrder.verify(jdbcTemplate).update("delete from movie where mid = ?", 1L);
+        verifyNoMoreInteractions(jdbcTemplate);
+        verifyNoInteractions(movieRepository);
     }
 
     @Test
@@ -192,10 +860,11 @@ class MovieServiceUnitTest {
 
         //given
         Long mid = 1L;
+        useDelete();
 
         //when
 
-        // I get a movie that doesn't exist
+        // I delete a movie that doesn't exist
 
         //then
         assertThatThrownBy(
@@ -204,4 +873,55 @@ class MovieServiceUnitTest {
                 .hasMessageContaining("Movie With the mid: " + mid + " does not exist!"
                 );
     }
-}
\ No newline at end of file
+
+    @Test
+        //MovieService.onMoviesDeleted()
+    void itShouldNotGetACachedMovieAfterItsUserIsDeleted() {
+        //given
+        when(movieRepository.findViewByMid(1L)).thenReturn(Optional.of(movieView(1L, "TestTitle", new Date())));
+        underTest.getMovieById(1L);
+
+        //when
+        underTest.onMoviesDeleted(new MoviesDeletedEvent(Collections.singletonList(1L)));
+        when(movieRepository.findViewByMid(1L)).thenReturn(Optional.empty());
+
+        //then
+        assertThatThrownBy(() -> underTest.getMovieById(1L))
+                .hasMessageContaining("Movie With the mid: 1 does not exist!");
+    }
+
+    @Test
+        //MovieService.onMoviesDeleted()
+    void itShouldNotGetAnyCachedMovieAfterTooManyMoviesAreDeleted() {
+        //given
+        when(movieRepository.findViewByMid(1L)).thenReturn(Optional.of(movieView(1L, "TestTitle", new Date())));
+        underTest.getMovieById(1L);
+
+        //when
+        underTest.onMoviesDeleted(MoviesDeletedEvent.everyMovie());
+        when(movieRepository.findViewByMid(1L)).thenReturn(Optional.empty());
+
+        //then
+        assertThatThrownBy(() -> underTest.getMovieById(1L))
+                .hasMessageContaining("Movie With the mid: 1 does not exist!");
+    }
+
+    private static MovieView movieView(Long mid, String title, Date releaseDate) {
+        return new MovieView(mid, 0L, title, "TestLength", "TestGenre", releaseDate);
+    }
+
+    private void useTransactions() {
+        ReflectionTestUtils.setField(underTest, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(underTest, "entityManager", entityManager);
+    }
+
+    private void usePatch() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "objectMapper", new ObjectMapper());
+    }
+
+    private void useDelete() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "transactionTemplate", new TransactionTemplate(transactionManager));
+    }
+}
@@ -0,0 +1,59 @@
+package com.Pagination;
+
+import com.Exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link Cursor} and {@link CursorPage} to test cursors survive a round trip and pages are cut properly.
+ */
+class CursorUnitTest {
+
+    @Test
+        //Cursor.encode(), Cursor.decode()
+    void itShouldDecodeAnEncodedCursor() {
+        //given
+        String cursor = Cursor.encode("Some Title", "42");
+
+        //when
+        String[] values = Cursor.decode(cursor, 2);
+
+        //then
+        assertThat(values).containsExactly("Some Title", "42");
+    }
+
+    @Test
+        //Cursor.decodeLong()
+    void itShouldNotDecodeABadCursor() {
+        /** throws {@link BadRequestException}*/
+        //given
+        String cursor = Cursor.encode("notANumber");
+
+        //when
+
+        //then
+        assertThatThrownBy(() -> Cursor.decodeLong(cursor)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> Cursor.decode("%%%", 1)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> Cursor.decode(cursor, 2)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+        //CursorPage.of()
+    void itShouldCutAPageAndPointAfterTheLastItem() {
+        //given
+        CursorPage<Integer> page = CursorPage.of(Arrays.asList(1, 2, 3), 2, i -> Cursor.encode(String.valueOf(i)));
+        CursorPage<Integer> lastPage = CursorPage.of(Arrays.asList(3), 2, i -> Cursor.encode(String.valueOf(i)));
+
+        //then
+        assertThat(page.getItems()).containsExactly(1, 2);
+        assertThat(Cursor.decodeLong(page.getNext())).isEqualTo(2L);
+        assertThat(lastPage.getItems()).containsExactly(3);
+        assertThat(lastPage.getNext()).isNull();
+    }
+}
@@ -0,0 +1,89 @@
+package com.Patch;
+
+import com.Exception.BadRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link PartialUpdate} to test the update statements it runs.
+ */
+@ExtendWith(MockitoExtension.class)
+class PartialUpdateUnitTest {
+
+    private static final PartialUpdate UNDER_TEST = new PartialUpdate("movie", "mid")
+            .column("title", "title", String.class, false)
+            .column("genre", "genre", String.class, true)
+            .column("releaseDate", "release_date", java.util.Date.class, true);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+        //PartialUpdate.execute()
+    void itShouldUpdateOnlyTheGivenColumns() {
+        //given
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("genre", null);
+        changes.put("releaseDate", "2020-01-01");
+
+        //when
+        when(jdbcTemplate.update("update movie set genre = ?, release_date = ?, version = version + 1 where mid = ?",
+                null, Date.valueOf("2020-01-01"), 1L)).thenReturn(1);
+        int updated = UNDER_TEST.execute(jdbcTemplate, objectMapper, 1L, changes, null);
+
+        //then
+        assertThat(updated).isEqualTo(1);
+    }
+
+    @Test
+        //PartialUpdate.execute()
+    void itShouldOnlyUpdateTheExpectedVersion() {
+        //given
+        Map<String, Object> changes = Collections.singletonMap("title", "newTitle");
+
+        //when
+        when(jdbcTemplate.update("update movie set title = ?, version = version + 1 where mid = ? and version = ?",
+                "newTitle", 1L, 3L)).thenReturn(0);
+        int updated = UNDER_TEST.execute(jdbcTemplate, objectMapper, 1L, changes, 3L);
+
+        //then
+        assertThat(updated).isZero();
+    }
+
+    @Test
+        //PartialUpdate.execute()
+    void itShouldNotUpdateAFieldThatCanNotBePatched() {
+        /** throws {@link BadRequestException}*/
+        //given
+
+        //when
+
+        //then
+        assertThatThrownBy(() -> UNDER_TEST.execute(jdbcTemplate, objectMapper, 1L, Collections.singletonMap("mid", 2), null))
+                .hasMessageContaining("Field: mid can not be patched!");
+        assertThatThrownBy(() -> UNDER_TEST.execute(jdbcTemplate, objectMapper, 1L, Collections.singletonMap("title", null), null))
+                .hasMessageContaining("Field: title can not be null!");
+        assertThatThrownBy(() -> UNDER_TEST.execute(jdbcTemplate, objectMapper, 1L, Collections.singletonMap("releaseDate", "soon"), null))
+                .hasMessageContaining("Field: releaseDate is not valid!");
+        assertThatThrownBy(() -> UNDER_TEST.execute(jdbcTemplate, objectMapper, 1L, Collections.emptyMap(), null))
+                .hasMessageContaining("Nothing to patch!");
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,78 @@
+package com.Projection;
+
+import com.Exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link FieldProjection} to test a fields parameter only selects declared fields, with the id first.
+ */
+class FieldProjectionUnitTest {
+
+    private final FieldProjection underTest = new FieldProjection("id")
+            .field("title")
+            .field("genre");
+
+    @Test
+        //FieldProjection.parse()
+    void itShouldParseFieldsWithTheIdFirst() {
+        //given
+        String fields = "genre, title,genre";
+
+        //when
+        List<String> columns = underTest.parse(fields);
+
+        //then
+        // trimmed and without the repeated genre
+        assertThat(columns).containsExactly("id", "genre", "title");
+    }
+
+    @Test
+        //FieldProjection.parse()
+    void itShouldParseTheIdOnceWhenItIsAsked() {
+        //given
+        String fields = "title,id";
+
+        //when
+        List<String> columns = underTest.parse(fields);
+
+        //then
+        assertThat(columns).containsExactly("id", "title");
+    }
+
+    @Test
+        //FieldProjection.parse()
+    void itShouldParseNoFieldsAsTheIdAlone() {
+        //given
+        String fields = "";
+
+        //when
+        List<String> columns = underTest.parse(fields);
+
+        //then
+        assertThat(columns).containsExactly("id");
+    }
+
+    @Test
+        //FieldProjection.parse()
+    void itShouldNotParseAFieldThatCanNotBeSelected() {
+        /** throws {@link BadRequestException}*/
+        //given
+        String fields = "title,password";
+
+        //when
+
+        // I ask for a field that is not declared
+
+        //then
+        assertThatThrownBy(() -> underTest.parse(fields))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Field: password can not be selected!");
+    }
+}
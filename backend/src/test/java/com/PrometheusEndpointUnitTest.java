@@ -0,0 +1,103 @@
+package com;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for the metrics scraped from /actuator/prometheus, to test each route's latency, status, the pool's
+ * wait time and the hits of each cache region are exported.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class PrometheusEndpointUnitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+        //GET /actuator/prometheus
+    void itShouldExportTheLatencyOfEachRouteByTemplate() throws Exception {
+        //given
+        mockMvc.perform(get("/api/v1/director")).andExpect(status().isOk());
+
+        //when
+        String scrape = scrape();
+
+        //then
+        // with the buckets and percentiles of the route
+        assertThat(scrape).containsPattern("http_server_requests_seconds_bucket\\{[^}]*status=\"200\"[^}]*uri=\"/api/v1/director\"");
+        assertThat(scrape).containsPattern("http_server_requests_seconds\\{[^}]*uri=\"/api/v1/director\",quantile=\"0.99\"");
+    }
+
+    @Test
+        //GET /actuator/prometheus
+    void itShouldExportTheStatusAndExceptionOfAFailedRequest() throws Exception {
+        //given
+        mockMvc.perform(get("/api/v1/movie/-1/detail")).andExpect(status().isNotFound());
+
+        //when
+        String scrape = scrape();
+
+        //then
+        // by route template, not by id
+        assertThat(scrape).containsPattern("http_server_requests_seconds_count\\{[^}]*exception=\"ResourceNotFoundException\""
+                + "[^}]*outcome=\"CLIENT_ERROR\"[^}]*status=\"404\"[^}]*uri=\"/api/v1/movie/\\{mid}/detail\"");
+    }
+
+    @Test
+        //GET /actuator/prometheus
+    void itShouldTagEveryMetricWithTheApplication() throws Exception {
+        //given
+        mockMvc.perform(get("/api/v1/director")).andExpect(status().isOk());
+
+        //when
+        String scrape = scrape();
+
+        //then
+        assertThat(scrape).containsPattern("http_server_requests_seconds_count\\{application=\"backend\"");
+    }
+
+    @Test
+        //GET /actuator/prometheus
+    void itShouldExportTheTimeSpentWaitingForAConnection() throws Exception {
+        //given
+        mockMvc.perform(get("/api/v1/director")).andExpect(status().isOk()); // borrows a pooled connection
+
+        //when
+        String scrape = scrape();
+
+        //then
+        assertThat(scrape).containsPattern("hikaricp_connections_acquire_seconds_bucket\\{");
+        assertThat(scrape).containsPattern("hikaricp_connections_pending\\{");
+    }
+
+    @Test
+        //GET /actuator/prometheus
+    void itShouldExportTheHitsAndMissesOfEachCacheRegion() throws Exception {
+        //given
+        mockMvc.perform(get("/api/v1/director")).andExpect(status().isOk());
+
+        //when
+        String scrape = scrape();
+
+        //then
+        assertThat(scrape).containsPattern("cache_gets_total\\{[^}]*cache=\"director\"[^}]*result=\"hit\"");
+        assertThat(scrape).containsPattern("cache_gets_total\\{[^}]*cache=\"director\"[^}]*result=\"miss\"");
+    }
+
+    private String scrape() throws Exception {
+        return mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
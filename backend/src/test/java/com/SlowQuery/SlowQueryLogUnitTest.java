@@ -0,0 +1,238 @@
+package com.SlowQuery;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link SlowQueryLog} to test which statements are kept, how many, and how their plan is captured.
+ */
+@ExtendWith(MockitoExtension.class)
+class SlowQueryLogUnitTest {
+
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    @Mock
+    private ObjectProvider<DataSource> dataSourceProvider;
+    private SlowQueryProperties properties;
+    private SlowQueryLog underTest;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SlowQueryProperties();
+        properties.setCapacity(2);
+        underTest = new SlowQueryLog(properties, dataSourceProvider, Runnable::run);
+    }
+
+    @Test
+        //SlowQueryLog.executed()
+    void itShouldKeepAStatementOverTheThreshold() {
+        //given
+        String sql = "select * from movie where mid=?";
+
+        //when
+        underTest.executed(sql, Collections.singletonList(1L), SLOW);
+
+        //then
+        List<SlowQuery> slowQueries = underTest.getSlowQueries();
+        assertThat(slowQueries).hasSize(1);
+        assertThat(slowQueries.get(0).getSql()).isEqualTo(sql);
+        assertThat(slowQueries.get(0).getDurationMillis()).isEqualTo(1000.0);
+        assertThat(slowQueries.get(0).getCaller()).isEqualTo("unknown"); // not run from a service
+        assertThat(slowQueries.get(0).getPlan()).isNull();
+        verifyNoInteractions(dataSourceProvider);
+    }
+
+    @Test
+        //SlowQueryLog.executed(), isCapturingParameters()
+    void itShouldNotShowTheParametersOfAStatementByDefault() {
+        //given
+        List<Object> parameters = Collections.singletonList("Test@gmail.com");
+
+        //when
+        underTest.executed("select * from users where email=?", parameters, SLOW);
+
+        //then
+        assertThat(underTest.getSlowQueries().get(0).getParameters()).isEmpty();
+        assertThat(underTest.isCapturingParameters()).isFalse(); // not even bound to the log
+    }
+
+    @Test
+        //SlowQueryLog.executed()
+    void itShouldShowTheParametersOfAStatementWhenAsked() {
+        //given
+        properties.setLogParameters(true);
+
+        //when
+        underTest.executed("select * from movie where mid=?", Collections.singletonList(1L), SLOW);
+
+        //then
+        assertThat(underTest.getSlowQueries().get(0).getParameters()).containsExactly("1");
+    }
+
+    @Test
+        //SlowQueryLog.show()
+    void itShouldRedactThePasswordOfAnInsert() {
+        //given
+        String sql = "insert into users (creation_date, email, password, username) values (?, ?, ?, ?)";
+
+        //when
+        List<String> shown = SlowQueryLog.show(sql, Arrays.asList("2021-01-01", "Test@gmail.com", "TestPassword", "TestUserName"));
+
+        //then
+        assertThat(shown).containsExactly("2021-01-01", "Test@gmail.com", SlowQueryLog.REDACTED, "TestUserName");
+    }
+
+    @Test
+        //SlowQueryLog.show()
+    void itShouldRedactThePasswordOfAnUpdate() {
+        //given
+        String sql = "update users set email=?, password = ? where username=?";
+
+        //when
+        List<String> shown = SlowQueryLog.show(sql, Arrays.asList("Test@gmail.com", "TestPassword", "TestUserName"));
+
+        //then
+        assertThat(shown).containsExactly("Test@gmail.com", SlowQueryLog.REDACTED, "TestUserName");
+    }
+
+    @Test
+        //SlowQueryLog.show()
+    void itShouldRedactAValueWhoseColumnCanNotBeToldNextToAPassword() {
+        //given
+        String sql = "select username from users where password in (?, ?) and username=?";
+
+        //when
+        List<String> shown = SlowQueryLog.show(sql, Arrays.asList("TestPassword", "OtherPassword", "TestUserName"));
+
+        //then
+        assertThat(shown).containsExactly(SlowQueryLog.REDACTED, SlowQueryLog.REDACTED, "TestUserName");
+    }
+
+    @Test
+        //SlowQueryLog.executed()
+    void itShouldNotKeepAStatementUnderTheThreshold() {
+        //given
+        long nanos = Duration.ofMillis(499).toNanos();
+
+        //when
+        underTest.executed("select * from movie", Collections.emptyList(), nanos);
+
+        //then
+        assertThat(underTest.getSlowQueries()).isEmpty();
+    }
+
+    @Test
+        //SlowQueryLog.executed()
+    void itShouldDropTheOldestStatementWhenFull() {
+        //given
+        underTest.executed("select 1", Collections.emptyList(), SLOW);
+        underTest.executed("select 2", Collections.emptyList(), SLOW);
+
+        //when
+        underTest.executed("select 3", Collections.emptyList(), SLOW);
+
+        //then
+        assertThat(underTest.getSlowQueries()).extracting(SlowQuery::getSql).containsExactly("select 3", "select 2");
+    }
+
+    @Test
+        //SlowQueryLog.clear()
+    void itShouldClearTheStatementsKept() {
+        //given
+        underTest.executed("select 1", Collections.emptyList(), SLOW);
+
+        //when
+        underTest.clear();
+
+        //then
+        assertThat(underTest.getSlowQueries()).isEmpty();
+    }
+
+    @Test
+        //SlowQueryLog.executed()
+    void itShouldCaptureThePlanOfASlowSelectOnPostgres() throws SQLException {
+        //given
+        properties.setExplain(true);
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet rows = mock(ResultSet.class);
+        when(dataSourceProvider.getObject()).thenReturn(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) select * from movie where mid=?")).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(rows);
+        when(rows.next()).thenReturn(true, true, false);
+        when(rows.getString(1)).thenReturn("Index Scan using movie_pkey on movie", "Buffers: shared hit=3");
+
+        //when
+        underTest.executed("select * from movie where mid=?", Collections.singletonList(1L), SLOW);
+
+        //then
+        verify(statement).setObject(1, 1L);
+        // the plan is captured read only and rolled back, it runs the select again
+        verify(connection).setReadOnly(true);
+        verify(connection).rollback();
+        assertThat(underTest.getSlowQueries().get(0).getPlan())
+                .isEqualTo("Index Scan using movie_pkey on movie\nBuffers: shared hit=3\n");
+    }
+
+    @Test
+        //SlowQueryLog.executed()
+    void itShouldNotCaptureThePlanOfAnUpdate() {
+        //given
+        properties.setExplain(true);
+        properties.setLogParameters(true);
+
+        //when
+        underTest.executed("update movie set title=? where mid=?", Arrays.asList("TestTitle", 1L), SLOW);
+
+        //then
+        assertThat(underTest.getSlowQueries().get(0).getParameters()).containsExactly("TestTitle", "1");
+        verifyNoInteractions(dataSourceProvider);
+    }
+
+    @Test
+        //SlowQueryLog.executed()
+    void itShouldNotCaptureAPlanOffPostgres() throws SQLException {
+        //given
+        properties.setExplain(true);
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(dataSourceProvider.getObject()).thenReturn(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+
+        //when
+        underTest.executed("select * from movie", Collections.emptyList(), SLOW);
+
+        //then
+        verify(connection, never()).prepareStatement(anyString());
+        assertThat(underTest.getSlowQueries().get(0).getPlan()).isNull();
+    }
+}
@@ -0,0 +1,94 @@
+package com.SlowQuery;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.Matchers.startsWithIgnoringCase;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for the slowqueries actuator endpoint, with every statement counted as slow and its parameters shown, to
+ * test a repository's statements reach it with their parameters, but never a password, and the service method that ran
+ * them.
+ */
+@SpringBootTest(properties = {"slow-query.threshold=0ms", "slow-query.log-parameters=true"})
+@AutoConfigureMockMvc
+class SlowQueryUnitTest {
+
+    private static final String SLOW_QUERIES = "/actuator/slowqueries";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockMvc.perform(delete(SLOW_QUERIES)).andExpect(status().isNoContent());
+    }
+
+    @Test
+        //GET /actuator/slowqueries
+    void itShouldGetTheSlowQueriesOfARequest() throws Exception {
+        //given
+        mockMvc.perform(post("/api/v1/director").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"George\",\"lastName\":\"Lucas\"}")).andExpect(status().isOk());
+
+        //when
+        ResultActions slowQueries = mockMvc.perform(get(SLOW_QUERIES));
+
+        //then
+        slowQueries.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sql").value(startsWithIgnoringCase("insert into director")))
+                .andExpect(jsonPath("$[0].parameters", hasItem("George")))
+                .andExpect(jsonPath("$[0].caller").value(startsWith("DirectorService.")));
+    }
+
+    @Test
+        //GET /actuator/slowqueries
+    void itShouldNeverShowAPassword() throws Exception {
+        //given
+        mockMvc.perform(post("/api/v1/users").contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"SlowUserName\","
+                + "\"firstName\":\"TestFirstName\",\"lastName\":\"TestLastName\",\"password\":\"TestPassword\","
+                + "\"email\":\"Test@gmail.com\",\"creationDate\":\"2021-01-01\",\"lastAccessDate\":\"2021-01-01\"}"))
+                .andExpect(status().isOk());
+
+        //when
+        ResultActions slowQueries = mockMvc.perform(get(SLOW_QUERIES));
+
+        //then
+        slowQueries.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sql").value(startsWithIgnoringCase("insert into users")))
+                .andExpect(jsonPath("$[0].parameters", hasItem("SlowUserName")))
+                .andExpect(jsonPath("$[0].parameters", hasItem("[redacted]")))
+                .andExpect(jsonPath("$[0].parameters", not(hasItem("TestPassword"))));
+    }
+
+    @Test
+        //DELETE /actuator/slowqueries
+    void itShouldClearTheSlowQueries() throws Exception {
+        //given
+        mockMvc.perform(get("/api/v1/director")).andExpect(status().isOk());
+
+        //when
+        mockMvc.perform(delete(SLOW_QUERIES)).andExpect(status().isNoContent());
+
+        //then
+        mockMvc.perform(get(SLOW_QUERIES))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+}
@@ -0,0 +1,556 @@
+package com.Statement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.Statement.StatementRecordingAssert.assertThatStatements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for the statements each endpoint runs, recorded per request by the {@link RepeatedStatementFilter}. Every
+ * movie is given several users' movies, directors, cast members and studios, so a statement run once per row would
+ * show in the counts and fail the request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EndpointStatementUnitTest {
+
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    private static final String MOVIE = "{\"title\":\"Star Wars\",\"length\":\"2h1m\",\"genre\":\"Sci-Fi\",\"releaseDate\":\"1977-05-25\"}";
+
+    private static final String PERSON = "{\"firstName\":\"George\",\"lastName\":\"Lucas\"}";
+
+    private static final String STUDIO = "{\"name\":\"Lucasfilm\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String username;
+
+    private long mid;
+
+    private long did;
+
+    private long cmid;
+
+    private long sid;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        username = "TestUserName" + USERS.incrementAndGet();
+        perform(post("/api/v1/users").contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"" + username
+                + "\",\"firstName\":\"TestFirstName\",\"lastName\":\"TestLastName\",\"password\":\"TestPassword\","
+                + "\"email\":\"Test@gmail.com\",\"creationDate\":\"2021-01-01\",\"lastAccessDate\":\"2021-01-01\"}"));
+        for (int i = 0; i < 3; i++) {
+            mid = id(perform(post("/api/v1/users/movie").param("username", username)
+                    .contentType(MediaType.APPLICATION_JSON).content(MOVIE)), "mid");
+        }
+        for (int i = 0; i < 3; i++) {
+            did = id(perform(post("/api/v1/movie/director").param("mid", "" + mid)
+                    .contentType(MediaType.APPLICATION_JSON).content(PERSON)), "did");
+            cmid = id(perform(post("/api/v1/movie/castMember").param("mid", "" + mid)
+                    .contentType(MediaType.APPLICATION_JSON).content(PERSON)), "cmid");
+            sid = id(perform(post("/api/v1/studio/movie").param("mid", "" + mid)
+                    .contentType(MediaType.APPLICATION_JSON).content(STUDIO)), "sid");
+        }
+    }
+
+    @Test
+        //MovieController.getAllMovies()
+    void itShouldGetAllMoviesInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/movie");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //MovieController.getAllMovies()
+    void itShouldGetTheFieldsOfAllMoviesInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/movie").param("fields", "title");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //MovieController.getAllMovies()
+    void itShouldFilterMoviesInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/movie").param("genre", "Sci-Fi").param("titlePrefix", "Star");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //MovieController.searchMovies()
+    void itShouldSearchMoviesInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/movie/search").param("q", "star");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //MovieController.exportMovies()
+    void itShouldExportMoviesInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/movie/export");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //MovieController.getAllUserMovies()
+    void itShouldGetAUsersMoviesInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/users/movie").param("username", username);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //MovieController.getMovieById()
+    void itShouldGetAMovieByIdInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/movie/" + mid);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //MovieController.getMovieById()
+    void itShouldGetACachedMovieByIdWithoutAStatement() throws Exception {
+        //given
+        statementsOf(get("/api/v1/movie/" + mid)); // caches the movie
+        MockHttpServletRequestBuilder request = get("/api/v1/movie/" + mid);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasNoStatements();
+    }
+
+    @Test
+        //MovieController.getMovieById()
+    void itShouldGetTheFieldsOfACachedMovieWithoutAStatement() throws Exception {
+        //given
+        statementsOf(get("/api/v1/movie/" + mid)); // caches the movie
+        MockHttpServletRequestBuilder request = get("/api/v1/movie/" + mid).param("fields", "title");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasNoStatements();
+    }
+
+    @Test
+        //MovieController.getMovieDetail()
+    void itShouldGetAMovieDetailInOneStatementPerCollection() throws Exception {
+        //given
+        statementsOf(get("/api/v1/movie/" + mid)); // caches the movie
+        MockHttpServletRequestBuilder request = get("/api/v1/movie/" + mid + "/detail");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        // the movie is cached, then its directors, cast members and studios
+        assertThatStatements(statements).hasSelectCount(3).hasCount(3);
+    }
+
+    @Test
+        //DirectorController.getAllMovieDirectors()
+    void itShouldGetAMoviesDirectorsInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/movie/director").param("mid", "" + mid);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //CastMemberController.getAllMovieCastMembers()
+    void itShouldGetAMoviesCastMembersInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/movie/castMember").param("mid", "" + mid);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //StudioController.getAllMovieStudios()
+    void itShouldGetAMoviesStudiosInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/studio/movie").param("mid", "" + mid);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //DirectorController.getAllDirectors()
+    void itShouldGetAllDirectorsInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/director");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //DirectorController.getAllDirectors()
+    void itShouldGetTheFieldsOfAllDirectorsInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/director").param("fields", "firstName");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //DirectorController.getDirectorById()
+    void itShouldGetADirectorByIdFromTheSecondLevelCache() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/director/" + did);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasNoStatements();
+    }
+
+    @Test
+        //DirectorController.getDirectorById()
+    void itShouldGetTheFieldsOfADirectorInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/director/" + did).param("fields", "firstName");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //DirectorController.suggestDirectors()
+    void itShouldSuggestDirectorsWithoutAStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/director/suggest").param("q", "geo");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasNoStatements();
+    }
+
+    @Test
+        //CastMemberController.getAllCastMembers()
+    void itShouldGetAllCastMembersInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/castMember");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //CastMemberController.getCastMemberById()
+    void itShouldGetACastMemberByIdFromTheSecondLevelCache() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/castMember/" + cmid);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasNoStatements();
+    }
+
+    @Test
+        //CastMemberController.suggestCastMembers()
+    void itShouldSuggestCastMembersWithoutAStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/castMember/suggest").param("q", "geo");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasNoStatements();
+    }
+
+    @Test
+        //StudioController.getAllStudios()
+    void itShouldGetAllStudiosInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/studio");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //StudioController.getStudioById()
+    void itShouldGetAStudioByIdFromTheSecondLevelCache() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/studio/" + sid);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasNoStatements();
+    }
+
+    @Test
+        //UserController.getAllUsers()
+    void itShouldGetAllUsersInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/users");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //UserController.getAllUsers()
+    void itShouldGetTheFieldsOfAllUsersInOneStatement() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/users").param("fields", "email");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasCount(1);
+    }
+
+    @Test
+        //UserController.getUserById()
+    void itShouldGetAUserByIdInTwoStatements() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = get("/api/v1/users/" + username);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        // the version for the ETag, then the user
+        assertThatStatements(statements).hasSelectCount(2).hasCount(2);
+    }
+
+    @Test
+        //MovieController.createUserMovie()
+    void itShouldCreateAUsersMovieInOneInsert() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = post("/api/v1/users/movie").param("username", username)
+                .contentType(MediaType.APPLICATION_JSON).content(MOVIE);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        // the user, then the movie, however many movies the user has
+        assertThatStatements(statements).hasSelectCount(1).hasInsertCount(1);
+    }
+
+    @Test
+        //MovieController.createMovies()
+    void itShouldCreateMoviesInOneBatch() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = post("/api/v1/movie/bulk").contentType(MediaType.APPLICATION_JSON)
+                .content("[" + MOVIE + "," + MOVIE + "," + MOVIE + "]");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasSelectCount(0).hasInsertCount(1); // one batch
+    }
+
+    @Test
+        //DirectorController.createMovieDirector()
+    void itShouldCreateAMovieDirectorInAFixedNumberOfStatements() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = post("/api/v1/movie/director").param("mid", "" + mid)
+                .contentType(MediaType.APPLICATION_JSON).content(PERSON);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        // the movie and its directors, then the director and its join row
+        assertThatStatements(statements).hasSelectCount(2).hasInsertCount(2);
+    }
+
+    @Test
+        //DirectorController.linkMovieDirector()
+    void itShouldLinkAMovieDirectorInOneInsert() throws Exception {
+        //given
+        long newDid = id(perform(post("/api/v1/director").contentType(MediaType.APPLICATION_JSON).content(PERSON)), "did");
+        MockHttpServletRequestBuilder request = put("/api/v1/movie/" + mid + "/director/" + newDid);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasSelectCount(2).hasInsertCount(1);
+    }
+
+    @Test
+        //DirectorController.unlinkMovieDirector()
+    void itShouldUnlinkAMovieDirectorInOneDelete() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = delete("/api/v1/movie/" + mid + "/director/" + did);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasDeleteCount(1).hasCount(1);
+    }
+
+    @Test
+        //MovieController.patchMovie()
+    void itShouldPatchAMovieInOneUpdate() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = patch("/api/v1/movie/" + mid).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"A New Hope\"}");
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        assertThatStatements(statements).hasUpdateCount(1).hasCount(1);
+    }
+
+    @Test
+        //DirectorController.deleteDirector()
+    void itShouldDeleteADirectorInTwoDeletes() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = delete("/api/v1/director/" + did);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        // its movie links, then the director
+        assertThatStatements(statements).hasDeleteCount(2).hasCount(2);
+    }
+
+    @Test
+        //MovieController.deleteMovie()
+    void itShouldDeleteAMovieInFourDeletes() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = delete("/api/v1/movie/" + mid);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        // every join table, then the movie
+        assertThatStatements(statements).hasDeleteCount(4).hasCount(4);
+    }
+
+    @Test
+        //UserController.deleteUser()
+    void itShouldDeleteAUserInAFixedNumberOfStatements() throws Exception {
+        //given
+        MockHttpServletRequestBuilder request = delete("/api/v1/users/" + username);
+
+        //when
+        StatementRecording statements = statementsOf(request);
+
+        //then
+        // the user's movies for the caches, then every join table, the movies and the user
+        assertThatStatements(statements).hasSelectCount(1).hasDeleteCount(5);
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andExpect(status().is2xxSuccessful()).andReturn();
+    }
+
+    private StatementRecording statementsOf(MockHttpServletRequestBuilder request) throws Exception {
+        return (StatementRecording) perform(request).getRequest().getAttribute(RepeatedStatementFilter.RECORDING_ATTRIBUTE);
+    }
+
+    private long id(MvcResult result, String field) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get(field).asLong();
+    }
+}
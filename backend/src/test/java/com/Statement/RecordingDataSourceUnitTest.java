@@ -0,0 +1,119 @@
+package com.Statement;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.Statement.StatementRecordingAssert.assertThatStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link RecordingDataSource} against an h2 database, to test only the statements over a listener's
+ * threshold reach it, with their parameters only when it wants them.
+ */
+@ExtendWith(MockitoExtension.class)
+class RecordingDataSourceUnitTest {
+
+    private static final String SELECT = "select count(*) from movie where mid = ? and title = ?";
+
+    @Mock
+    private StatementListener listener;
+    private SingleConnectionDataSource target;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:recording;DB_CLOSE_DELAY=-1");
+        target = new SingleConnectionDataSource(h2.getConnection(), true);
+        new JdbcTemplate(target).execute("create table if not exists movie (mid bigint, title varchar(100))");
+    }
+
+    @Test
+        //RecordingDataSource.getConnection()
+    void itShouldPassOnASlowStatementWithItsParameters() {
+        //given
+        when(listener.getThresholdNanos()).thenReturn(0L);
+        when(listener.isCapturingParameters()).thenReturn(true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new RecordingDataSource(target, listener));
+
+        //when
+        jdbcTemplate.queryForObject(SELECT, Long.class, 1L, "Star Wars");
+
+        //then
+        verify(listener).executed(eq(SELECT), eq(Arrays.asList(1L, "Star Wars")), anyLong());
+    }
+
+    @Test
+        //RecordingDataSource.getConnection()
+    void itShouldNotKeepParametersItsListenerDoesNotWant() {
+        //given
+        when(listener.getThresholdNanos()).thenReturn(0L);
+        when(listener.isCapturingParameters()).thenReturn(false);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new RecordingDataSource(target, listener));
+
+        //when
+        jdbcTemplate.queryForObject(SELECT, Long.class, 1L, "Star Wars");
+
+        //then
+        verify(listener).executed(eq(SELECT), eq(Collections.emptyList()), anyLong());
+    }
+
+    @Test
+        //RecordingDataSource.getConnection()
+    void itShouldNotPassOnAStatementUnderTheThreshold() {
+        //given
+        when(listener.getThresholdNanos()).thenReturn(Long.MAX_VALUE);
+        when(listener.isCapturingParameters()).thenReturn(true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new RecordingDataSource(target, listener));
+
+        //when
+        jdbcTemplate.queryForObject(SELECT, Long.class, 1L, "Star Wars");
+
+        //then
+        verify(listener, never()).executed(any(), any(), anyLong());
+    }
+
+    @Test
+        //RecordingDataSource.getConnection()
+    void itShouldHandOutTheDriversStatementWhenNothingRecords() throws SQLException {
+        //given
+        RecordingDataSource underTest = new RecordingDataSource(target);
+
+        //when
+        PreparedStatement statement = underTest.getConnection().prepareStatement(SELECT);
+
+        //then
+        assertThat(Proxy.isProxyClass(statement.getClass())).isFalse();
+        statement.close();
+    }
+
+    @Test
+        //RecordingDataSource.getConnection()
+    void itShouldRecordAStatementPreparedWhileRecording() throws SQLException {
+        //given
+        Connection connection = new RecordingDataSource(target).getConnection(); // taken before the recording
+
+        //when
+        try (StatementRecording recording = StatementRecorder.start()) {
+            new JdbcTemplate(new SingleConnectionDataSource(connection, true)).queryForObject(SELECT, Long.class, 1L, "Star Wars");
+
+            //then
+            assertThatStatements(recording).hasSelectCount(1);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.Statement;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+
+import static com.Statement.StatementRecordingAssert.assertThatStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link RepeatedStatementFilter} to test a request is recorded on its own and a request repeating a
+ * statement is caught.
+ */
+class RepeatedStatementFilterUnitTest {
+
+    private StatementRecorderProperties properties;
+
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StatementRecorderProperties();
+        properties.setRepeatedStatementThreshold(2);
+        request = new MockHttpServletRequest("GET", "/api/v1/movie");
+    }
+
+    @Test
+        //RepeatedStatementFilter.doFilterInternal()
+    void itShouldLeaveTheRecordingOfARequestOnIt() throws Exception {
+        //given
+        FilterChain chain = (req, res) -> {
+            StatementRecorder.record("select * from movie where mid = 1");
+            StatementRecorder.record("select * from users where username = 'TestUserName'");
+        };
+
+        //when
+        new RepeatedStatementFilter(properties).doFilter(request, new MockHttpServletResponse(), chain);
+
+        //then
+        StatementRecording recording = (StatementRecording) request.getAttribute(RepeatedStatementFilter.RECORDING_ATTRIBUTE);
+        assertThatStatements(recording).hasSelectCount(2);
+        StatementRecorder.record("select 1"); // closed with the request
+        assertThatStatements(recording).hasCount(2);
+    }
+
+    @Test
+        //RepeatedStatementFilter.doFilterInternal()
+    void itShouldOnlyWarnOfARepeatedStatementByDefault() throws Exception {
+        //given
+        FilterChain chain = repeating("select * from director where did = ?", 3);
+
+        //when
+        new RepeatedStatementFilter(properties).doFilter(request, new MockHttpServletResponse(), chain);
+
+        //then
+        // the request went through, and its repeats are on its recording
+        StatementRecording recording = (StatementRecording) request.getAttribute(RepeatedStatementFilter.RECORDING_ATTRIBUTE);
+        assertThat(recording.getStatementsRepeatedMoreThan(2)).containsOnlyKeys("select * from director where did = ?");
+    }
+
+    @Test
+        //RepeatedStatementFilter.doFilterInternal()
+    void itShouldFailARequestRepeatingAStatementWhenAsked() {
+        /** throws {@link IllegalStateException}*/
+        //given
+        properties.setFailOnRepeatedStatements(true);
+        FilterChain chain = repeating("select * from director where did = ?", 3);
+
+        //when
+
+        // I run a request repeating a statement more than the threshold
+
+        //then
+        assertThatThrownBy(() -> new RepeatedStatementFilter(properties).doFilter(request, new MockHttpServletResponse(), chain))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("select * from director where did = ?");
+    }
+
+    @Test
+        //RepeatedStatementFilter.doFilterInternal()
+    void itShouldNotFailARequestRunningAStatementUpToTheThreshold() throws Exception {
+        //given
+        properties.setFailOnRepeatedStatements(true);
+        FilterChain chain = repeating("select * from director where did = ?", 2);
+
+        //when
+        new RepeatedStatementFilter(properties).doFilter(request, new MockHttpServletResponse(), chain);
+
+        //then
+        StatementRecording recording = (StatementRecording) request.getAttribute(RepeatedStatementFilter.RECORDING_ATTRIBUTE);
+        assertThatStatements(recording).hasSelectCount(2).hasNoStatementRepeatedMoreThan(2);
+    }
+
+    private static FilterChain repeating(String sql, int times) {
+        return (req, res) -> {
+            for (int i = 0; i < times; i++) {
+                StatementRecorder.record(sql);
+            }
+        };
+    }
+}
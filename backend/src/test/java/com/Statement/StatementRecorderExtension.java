@@ -0,0 +1,42 @@
+package com.Statement;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Records the statements of each test and hands the recording to any test method taking a {@link StatementRecording}.
+ * A test clears it once its data is set up, then counts what the code under test ran with
+ * {@link StatementRecordingAssert}.
+ */
+public class StatementRecorderExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(StatementRecorderExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(StatementRecording.class, StatementRecorder.start());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        StatementRecording recording = context.getStore(NAMESPACE).remove(StatementRecording.class, StatementRecording.class);
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == StatementRecording.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).get(StatementRecording.class, StatementRecording.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.Statement;
+
+import org.assertj.core.api.AbstractAssert;
+
+import java.util.Map;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Assertions on the statements a {@link StatementRecording} holds, failing with every recorded statement so a
+ * regression shows the query that was added.
+ */
+public class StatementRecordingAssert extends AbstractAssert<StatementRecordingAssert, StatementRecording> {
+
+    //Constructor
+    private StatementRecordingAssert(StatementRecording actual) {
+        super(actual, StatementRecordingAssert.class);
+    }
+
+    public static StatementRecordingAssert assertThatStatements(StatementRecording actual) {
+        return new StatementRecordingAssert(actual);
+    }
+
+    public StatementRecordingAssert hasCount(int expected) {
+        return hasCount("statements", actual.getCount(), expected);
+    }
+
+    public StatementRecordingAssert hasSelectCount(int expected) {
+        return hasCount("selects", actual.getSelectCount(), expected);
+    }
+
+    public StatementRecordingAssert hasInsertCount(int expected) {
+        return hasCount("inserts", actual.getInsertCount(), expected);
+    }
+
+    public StatementRecordingAssert hasUpdateCount(int expected) {
+        return hasCount("updates", actual.getUpdateCount(), expected);
+    }
+
+    public StatementRecordingAssert hasDeleteCount(int expected) {
+        return hasCount("deletes", actual.getDeleteCount(), expected);
+    }
+
+    public StatementRecordingAssert hasNoStatements() {
+        return hasCount(0);
+    }
+
+    /**
+     * Checks no statement ran more often than a threshold, see {@link StatementRecording#getStatementsRepeatedMoreThan(int)}
+     */
+    public StatementRecordingAssert hasNoStatementRepeatedMoreThan(int threshold) {
+        isNotNull();
+        Map<String, Integer> repeated = actual.getStatementsRepeatedMoreThan(threshold);
+        if (!repeated.isEmpty()) {
+            failWithMessage("Expected no statement to run more than %s times but ran:%n%s", threshold, repeated);
+        }
+        return this;
+    }
+
+    private StatementRecordingAssert hasCount(String kind, int count, int expected) {
+        isNotNull();
+        if (count != expected) {
+            failWithMessage("Expected %s %s but ran %s:%n%s", expected, kind, count, String.join("\n", actual.getStatements()));
+        }
+        return this;
+    }
+}
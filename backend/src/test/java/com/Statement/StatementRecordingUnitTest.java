@@ -0,0 +1,122 @@
+package com.Statement;
+
+import org.junit.jupiter.api.Test;
+
+import static com.Statement.StatementRecordingAssert.assertThatStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link StatementRecording} and {@link StatementRecorder} to test what is recorded and how statements
+ * are counted.
+ */
+class StatementRecordingUnitTest {
+
+    @Test
+        //StatementRecording.normalize()
+    void itShouldNormalizeTheSameQueryWithOtherValuesToOneShape() {
+        //given
+        String first = "select m.mid from movie m\n  where m.mid in (1, 2, 3) and m.title = 'It''s'";
+        String second = "SELECT m.mid FROM movie m WHERE m.mid IN (?) AND m.title = ?";
+
+        //when
+        String firstShape = StatementRecording.normalize(first);
+        String secondShape = StatementRecording.normalize(second);
+
+        //then
+        assertThat(firstShape).isEqualTo(secondShape)
+                .isEqualTo("select m.mid from movie m where m.mid in (?) and m.title = ?");
+    }
+
+    @Test
+        //StatementRecording.normalize()
+    void itShouldKeepTheAliasesOfAQuery() {
+        //given
+        String sql = "select moviemodel0_.mid from movie_model moviemodel0_";
+
+        //when
+        String shape = StatementRecording.normalize(sql);
+
+        //then
+        assertThat(shape).isEqualTo("select moviemodel0_.mid from movie_model moviemodel0_");
+    }
+
+    @Test
+        //StatementRecording.getSelectCount(), getInsertCount(), getUpdateCount(), getDeleteCount()
+    void itShouldCountStatementsByKind() {
+        //given
+        try (StatementRecording recording = StatementRecorder.start()) {
+
+            //when
+            StatementRecorder.record("select * from director where did = 1");
+            StatementRecorder.record("select * from director where did = 2");
+            StatementRecorder.record("insert into director values (?, ?, ?)");
+            StatementRecorder.record("update director set first_name = ? where did = ?");
+
+            //then
+            assertThatStatements(recording).hasCount(4).hasSelectCount(2).hasInsertCount(1).hasUpdateCount(1)
+                    .hasDeleteCount(0);
+        }
+    }
+
+    @Test
+        //StatementRecording.getStatementsRepeatedMoreThan()
+    void itShouldCountStatementsByShape() {
+        //given
+        try (StatementRecording recording = StatementRecorder.start()) {
+
+            //when
+            StatementRecorder.record("select * from director where did = 1");
+            StatementRecorder.record("select * from director where did = 2");
+            StatementRecorder.record("select * from director where did = 3");
+            StatementRecorder.record("select * from movie where mid = 1");
+
+            //then
+            assertThat(recording.getStatementsRepeatedMoreThan(2))
+                    .containsOnlyKeys("select * from director where did = ?")
+                    .containsValue(3);
+            assertThatStatements(recording).hasNoStatementRepeatedMoreThan(3);
+        }
+    }
+
+    @Test
+        //StatementRecordingAssert.hasNoStatementRepeatedMoreThan()
+    void itShouldFailAnAssertionOnAStatementRepeatedMoreThanAllowed() {
+        /** throws {@link AssertionError}*/
+        //given
+        StatementRecording recording = StatementRecorder.start();
+        StatementRecorder.record("select * from director where did = 1");
+        StatementRecorder.record("select * from director where did = 2");
+        StatementRecorder.record("select * from director where did = 3");
+        recording.close();
+
+        //when
+
+        // I allow a statement to be repeated only twice
+
+        //then
+        assertThatThrownBy(() -> assertThatStatements(recording).hasNoStatementRepeatedMoreThan(2))
+                .isInstanceOf(AssertionError.class);
+    }
+
+    @Test
+        //StatementRecorder.start()
+    void itShouldRecordIntoEveryOpenRecordingUntilItIsClosed() {
+        //given
+        StatementRecording outer = StatementRecorder.start();
+        StatementRecording inner = StatementRecorder.start();
+
+        //when
+        StatementRecorder.record("select 1");
+        inner.close();
+        StatementRecorder.record("select 2");
+        outer.close();
+        StatementRecorder.record("select 3");
+
+        //then
+        assertThat(inner.getStatements()).containsExactly("select 1");
+        assertThat(outer.getStatements()).containsExactly("select 1", "select 2");
+    }
+}
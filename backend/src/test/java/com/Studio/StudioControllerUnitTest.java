@@ -6,10 +6,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.util.Collections;
+import java.util.Map;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.*;
 
 /**
  * @author Connor Hunter        connh321@gmail.com
@@ -34,7 +40,7 @@ public class StudioControllerUnitTest {
         //given
 
         //when
-        underTest.getAllStudios();
+        underTest.getAllStudios(null);
 
         //then
         verify(studioService).getAllStudios();
@@ -62,19 +68,18 @@ public class StudioControllerUnitTest {
         //StudioController.getStudioById()
     void itShouldGetAStudioById() {
         //given
-        StudioModel studioModel = new StudioModel(
-                "Test"
-        );
+        StudioView studioView = new StudioView(1L, 0L, "Test");
 
         //when
-        underTest.getStudioById(studioModel.getSid());
+        when(studioService.getStudioById(any())).thenReturn(studioView);
+        underTest.getStudioById(studioView.getSid(), null, new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
 
         //then
         ArgumentCaptor<Long> sidArgumentCaptor = ArgumentCaptor.forClass(Long.class);
         // verify findById was invoked w/ sid, and capture the sid
         verify(studioService).getStudioById(sidArgumentCaptor.capture());
         Long capturedSid = sidArgumentCaptor.getValue();
-        assertThat(studioModel.getSid()).isEqualTo(capturedSid);
+        assertThat(studioView.getSid()).isEqualTo(capturedSid);
     }
 
 
@@ -91,14 +96,15 @@ public class StudioControllerUnitTest {
         );
 
         //when
-        underTest.updateStudio(studioModel.getSid(), newStudioModel);
+        when(studioService.updateStudio(any(), any(), any())).thenReturn(newStudioModel);
+        underTest.updateStudio(studioModel.getSid(), newStudioModel, null);
 
         //then
 
         ArgumentCaptor<Long> sidArgumentCaptor = ArgumentCaptor.forClass(Long.class);
         ArgumentCaptor<StudioModel> newStudioArgumentCaptor = ArgumentCaptor.forClass(StudioModel.class);
         // verify updateStudio was called with current Studio sid and new Studio details
-        verify(studioService).updateStudio(sidArgumentCaptor.capture(), newStudioArgumentCaptor.capture());
+        verify(studioService).updateStudio(sidArgumentCaptor.capture(), newStudioArgumentCaptor.capture(), isNull());
         StudioModel capturedNewStudio = newStudioArgumentCaptor.getValue();
         Long capturedCurrentSid = sidArgumentCaptor.getValue();
         assertThat(newStudioModel).isEqualTo(capturedNewStudio); //assert new studio was passed in
@@ -106,6 +112,50 @@ public class StudioControllerUnitTest {
     }
 
 
+    @Test
+        //StudioController.patchStudio()
+    void itShouldPatchAStudio() {
+        //given
+        Map<String, Object> changes = Collections.singletonMap("someField", "newValue");
+
+        //when
+        when(studioService.patchStudio(1L, changes, 3L)).thenReturn(4L);
+        ResponseEntity<Void> response = underTest.patchStudio(1L, changes, "\"3\"");
+
+        //then
+        assertThat(response.getStatusCodeValue()).isEqualTo(204);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+    }
+
+
+    @Test
+        //StudioController.linkMovieStudio()
+    void itShouldLinkAStudioToAMovie() {
+        //given
+
+        //when
+        ResponseEntity<Void> response = underTest.linkMovieStudio(1L, 2L);
+
+        //then
+        verify(studioService).linkMovieStudio(1L, 2L);
+        assertThat(response.getStatusCodeValue()).isEqualTo(204);
+    }
+
+
+    @Test
+        //StudioController.unlinkMovieStudio()
+    void itShouldUnlinkAStudioFromAMovie() {
+        //given
+
+        //when
+        ResponseEntity<Void> response = underTest.unlinkMovieStudio(1L, 2L);
+
+        //then
+        verify(studioService).unlinkMovieStudio(1L, 2L);
+        assertThat(response.getStatusCodeValue()).isEqualTo(204);
+    }
+
+
     @Test
         //StudioController.deleteStudio()
     void itShouldDeleteAStudio() {
@@ -1,14 +1,29 @@
 package com.Studio;
 
+import com.Cache.SecondLevelCacheLock;
+import com.Exception.PreconditionFailedException;
 import com.Exception.ResourceNotFoundException;
+import com.Movie.MovieService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
@@ -24,6 +39,14 @@ class StudioServiceUnitTest {
 
     @Mock
     private StudioRepository studioRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private MovieService movieService;
+    @Mock
+    private SecondLevelCacheLock secondLevelCacheLock;
+    @Mock
+    private PlatformTransactionManager transactionManager;
     private StudioService underTest;
 
     @BeforeEach
@@ -39,7 +62,7 @@ class StudioServiceUnitTest {
         //when
 
         //then
-        verify(studioRepository).findAll();
+        verify(studioRepository).findAllViews();
     }
 
     @Test
@@ -112,7 +135,7 @@ class StudioServiceUnitTest {
 
         //when
         when(studioRepository.findById(any())).thenReturn(Optional.of(studioModel));
-        underTest.updateStudio(newStudioModel.getSid(), newStudioModel);
+        underTest.updateStudio(newStudioModel.getSid(), newStudioModel, null);
 
         //then
         assertThat(studioModel.getName()).isEqualTo(newStudioModel.getName());
@@ -140,43 +163,235 @@ class StudioServiceUnitTest {
         //then
         assertThatThrownBy(
                 () ->
-                        underTest.updateStudio(sid, new StudioModel()))
+                        underTest.updateStudio(sid, new StudioModel(), null))
                 .hasMessageContaining("Studio With the sid: " + sid + " does not exist!"
                 );
     }
 
+    @Test
+        //StudioService.updateStudio()
+    void itShouldNotUpdateAStudioThatHasChanged() {
+        /** throws {@link PreconditionFailedException}*/
+        //given
+        StudioModel studioModel = new StudioModel("TestName");
+
+        //when
+        when(studioRepository.findById(any())).thenReturn(Optional.of(studioModel));
+
+        //then
+        // the client read version 3, the stored studio is at another version
+        assertThatThrownBy(
+                () ->
+                        underTest.updateStudio(1L, studioModel, 3L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("Studio With the sid: 1 has changed since version: 3!");
+        verify(studioRepository, never()).save(any());
+    }
+
+    @Test
+        //StudioService.updateStudio()
+    void itShouldNotUpdateAStudioChangedWhileUpdating() {
+        /** throws {@link PreconditionFailedException}*/
+        //given
+        StudioModel studioModel = new StudioModel("TestName");
+
+        //when
+        when(studioRepository.findById(any())).thenReturn(Optional.of(studioModel));
+        when(studioRepository.save(studioModel)).thenThrow(new ObjectOptimisticLockingFailureException(StudioModel.class, 1L));
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.updateStudio(1L, studioModel, null))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+        //StudioService.patchStudio()
+    void itShouldPatchAStudio() {
+        //given
+        usePatch();
+        Map<String, Object> changes = Collections.singletonMap("name", "newName");
+
+        //when
+        when(jdbcTemplate.update("update studio set name = ?, version = version + 1 where sid = ? and version = ?", "newName", 1L, 3L))
+                .thenReturn(1);
+        Long version = underTest.patchStudio(1L, changes, 3L);
+
+        //then
+        // one update, the studio is never loaded
+        verify(studioRepository, never()).findById(any());
+        verify(secondLevelCacheLock).write(eq(StudioModel.class), eq(1L), any()); // locked while written behind hibernate's back
+        assertThat(version).isEqualTo(4L);
+    }
+
+    @Test
+        //StudioService.patchStudio()
+    void itShouldNotPatchAStudio() {
+        /** throws {@link ResourceNotFoundException}*/
+        //given
+        usePatch();
+        Map<String, Object> changes = Collections.singletonMap("name", "newName");
+
+        //when
+        when(jdbcTemplate.update("update studio set name = ?, version = version + 1 where sid = ?", "newName", 1L)).thenReturn(0);
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.patchStudio(1L, changes, null))
+                .hasMessageContaining("Studio With the sid: 1 does not exist!"
+                );
+    }
+
+    @Test
+        //StudioService.linkMovieStudio()
+    void itShouldLinkAStudioToAMovie() {
+        //given
+        useLinks();
+        when(movieService.existsMovieById(1L)).thenReturn(true);
+        when(studioRepository.existsById(2L)).thenReturn(true);
+
+        //when
+        underTest.linkMovieStudio(1L, 2L);
+
+        //then
+        // only the join row is written, neither side is loaded
+        verify(jdbcTemplate).update(
+                "insert into movie_studio (mid, sid) select cast(? as bigint), cast(? as bigint) "
+                        + "where not exists (select 1 from movie_studio where mid = ? and sid = ?)", 1L, 2L, 1L, 2L);
+        verifyNoMoreInteractions(movieService, studioRepository, jdbcTemplate);
+    }
+
+    @Test
+        //StudioService.linkMovieStudio()
+    void itShouldLinkAStudioThatWasLinkedAtTheSameTime() {
+        //given
+        useLinks();
+        when(movieService.existsMovieById(1L)).thenReturn(true);
+        when(studioRepository.existsById(2L)).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), eq(1L), eq(2L), eq(1L), eq(2L))).thenThrow(new DuplicateKeyException("duplicate"));
+
+        //when
+        underTest.linkMovieStudio(1L, 2L);
+
+        //then
+        verify(jdbcTemplate).update(anyString(), eq(1L), eq(2L), eq(1L), eq(2L));
+    }
+
+    @Test
+        //StudioService.linkMovieStudio()
+    void itShouldNotLinkAStudioDeletedSinceItWasChecked() {
+        /** throws {@link ResourceNotFoundException}*/
+        //given
+        useLinks();
+        when(movieService.existsMovieById(1L)).thenReturn(true);
+        when(studioRepository.existsById(2L)).thenReturn(true, false); // deleted between the check and the insert
+
+        //when
+        when(jdbcTemplate.update(anyString(), eq(1L), eq(2L), eq(1L), eq(2L)))
+                .thenThrow(new DataIntegrityViolationException("foreign key"));
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.linkMovieStudio(1L, 2L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Studio With the sid: 2 does not exist!");
+    }
+
+    @Test
+        //StudioService.linkMovieStudio()
+    void itShouldNotLinkAStudioToAMovie() {
+        /** throws {@link ResourceNotFoundException}*/
+        //exception thrown iff movie does not exist
+
+        //given
+        useLinks();
+
+        //when
+
+        // I link to a movie that doesn't exist
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.linkMovieStudio(1L, 2L))
+                .hasMessageContaining("Movie With the mid: 1 does not exist!"
+                );
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+        //StudioService.unlinkMovieStudio()
+    void itShouldUnlinkAStudioFromAMovie() {
+        //given
+        useLinks();
+        when(jdbcTemplate.update("delete from movie_studio where mid = ? and sid = ?", 1L, 2L)).thenReturn(1);
+
+        //when
+        underTest.unlinkMovieStudio(1L, 2L);
+
+        //then
+        verifyNoInteractions(movieService, studioRepository);
+    }
+
+    @Test
+        //StudioService.unlinkMovieStudio()
+    void itShouldNotUnlinkAStudioFromAMovie() {
+        /** throws {@link ResourceNotFoundException}*/
+        //exception thrown iff studio does not exist
+
+        //given
+        useLinks();
+        when(movieService.existsMovieById(1L)).thenReturn(true);
+
+        //when
+
+        // I unlink a studio that doesn't exist
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.unlinkMovieStudio(1L, 2L))
+                .hasMessageContaining("Studio With the sid: 2 does not exist!"
+                );
+    }
+
     @Test
         //StudioService.deleteStudio()
     void itShouldDeleteAStudio() {
         //given
-        StudioModel studioModel = new StudioModel(
-                "TestName"
-        );
+        useDelete();
+        when(jdbcTemplate.update("delete from movie_studio where sid = ?", 1L)).thenReturn(2);
+        when(jdbcTemplate.update("delete from studio where sid = ?", 1L)).thenReturn(1);
 
         //when
-        when(studioRepository.findById(any())).thenReturn(Optional.of(studioModel));
-        underTest.deleteStudio(studioModel.getSid());
+        underTest.deleteStudio(1L);
 
         //then
-        ArgumentCaptor<StudioModel> studioArgumentCaptor = ArgumentCaptor.forClass(StudioModel.class);
-        // verify delete was invoked w/ studio
-        verify(studioRepository).delete(studioArgumentCaptor.capture());
-        StudioModel capturedStudio = studioArgumentCaptor.getValue();
-        assertThat(studioModel).isEqualTo(capturedStudio);
+        // unlinked from its movies, then deleted, without loading it
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update("delete from movie_studio where sid = ?", 1L);
+        inOrder.verify(jdbcTemplate).update("delete from studio where sid = ?", 1L);
+        verifyNoMoreInteractions(jdbcTemplate);
+        verifyNoInteractions(studioRepository);
+        verify(secondLevelCacheLock).write(eq(StudioModel.class), eq(1L), any()); // locked while written behind hibernate's back
     }
 
     @Test
         //StudioService.deleteStudio()
     void itShouldNotDeleteAStudio() {
-        /** throws {@link com.Exception.ResourceNotFoundException}*/
+        /** throws {@link ResourceNotFoundException}*/
         //exception thrown iff studio does not exist
 
         //given
         Long sid = 1L;
+        useDelete();
 
         //when
 
-        // I get a studio that doesn't exist
+        // I delete a studio that doesn't exist
 
         //then
         assertThatThrownBy(
@@ -185,4 +400,23 @@ class StudioServiceUnitTest {
                 .hasMessageContaining("Studio With the sid: " + sid + " does not exist!"
                 );
     }
-}
\ No newline at end of file
+
+    private void usePatch() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(underTest, "secondLevelCacheLock", secondLevelCacheLock);
+        when(secondLevelCacheLock.write(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(2, Supplier.class).get());
+    }
+
+    private void useDelete() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(underTest, "secondLevelCacheLock", secondLevelCacheLock);
+        when(secondLevelCacheLock.write(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(2, Supplier.class).get());
+    }
+
+    private void useLinks() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "movieService", movieService);
+    }
+}
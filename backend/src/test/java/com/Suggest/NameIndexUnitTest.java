@@ -0,0 +1,122 @@
+package com.Suggest;
+
+import com.Exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link NameIndex} to test names are found by the start of either name, whatever the case and accents.
+ */
+class NameIndexUnitTest {
+
+    private final NameIndex underTest = new NameIndex();
+
+    @Test
+        //NameIndex.suggest()
+    void itShouldSuggestByTheStartOfEitherName() {
+        //given
+        underTest.put(1L, "John", "Smith");
+        underTest.put(2L, "Johanna", "Adams");
+        underTest.put(3L, "Mary", "Johnson");
+
+        //when
+
+        //then
+        // in name order, "johanna adams" < "john smith" < "johnson mary"
+        assertThat(underTest.suggest("jo", 10)).extracting(NameSuggestion::getId).containsExactly(2L, 1L, 3L);
+        assertThat(underTest.suggest("john sm", 10)).extracting(NameSuggestion::getId).containsExactly(1L);
+        assertThat(underTest.suggest("smith", 10)).extracting(NameSuggestion::getId).containsExactly(1L);
+        assertThat(underTest.suggest("x", 10)).isEmpty();
+    }
+
+    @Test
+        //NameIndex.suggest()
+    void itShouldSuggestWhateverTheCaseAndAccents() {
+        //given
+        underTest.put(1L, "Zoë", "Saldaña");
+        underTest.put(2L, "Jean-Luc", "Godard");
+
+        //when
+
+        //then
+        assertThat(underTest.suggest("ZOE SAL", 10)).extracting(NameSuggestion::getId).containsExactly(1L);
+        assertThat(underTest.suggest("saldana", 10)).extracting(NameSuggestion::getFirstName).containsExactly("Zoë");
+        assertThat(underTest.suggest("jean luc", 10)).extracting(NameSuggestion::getId).containsExactly(2L);
+        assertThat(underTest.suggest(" - ", 10)).isEmpty();
+    }
+
+    @Test
+        //NameIndex.suggest()
+    void itShouldSuggestAPersonOnceAndAtMostTheLimit() {
+        //given
+        underTest.put(1L, "Sam", "Samson");
+        underTest.put(2L, "Sam", "Smith");
+        underTest.put(3L, "Sam", "Stone");
+
+        //when
+
+        //then
+        // "sam samson" and "samson sam" are the same person
+        assertThat(underTest.suggest("sam", 10)).extracting(NameSuggestion::getId).containsExactly(1L, 2L, 3L);
+        assertThat(underTest.suggest("sam", 2)).extracting(NameSuggestion::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+        //NameIndex.put(), NameIndex.remove()
+    void itShouldForgetAnOldNameAndARemovedPerson() {
+        //given
+        underTest.put(1L, "John", "Smith");
+        underTest.put(2L, "Jane", "Smith");
+
+        //when
+        underTest.put(1L, "Johnny", "Walker");
+        underTest.remove(2L);
+
+        //then
+        assertThat(underTest.suggest("smith", 10)).isEmpty();
+        assertThat(underTest.suggest("walker", 10)).extracting(NameSuggestion::getId).containsExactly(1L);
+        assertThat(underTest.size()).isEqualTo(1);
+    }
+
+    @Test
+        //NameIndex.putAll()
+    void itShouldMergeABatchIntoTheIndex() {
+        //given
+        underTest.put(2L, "Bob", "Brown");
+        underTest.put(4L, "Dan", "Davis");
+
+        //when
+        underTest.putAll(Arrays.asList(
+                new NameSuggestion(3L, "Cat", "Clark"),
+                new NameSuggestion(1L, "Ann", "Allen"),
+                new NameSuggestion(4L, "Dana", "Dale"),
+                new NameSuggestion(3L, "Cathy", "Clark"))); // the last one wins
+
+        //then
+        assertThat(underTest.size()).isEqualTo(4);
+        assertThat(underTest.suggest("d", 10)).extracting(NameSuggestion::getFirstName).containsExactly("Dana");
+        assertThat(underTest.suggest("cat", 10)).extracting(NameSuggestion::getFirstName).containsExactly("Cathy");
+        assertThat(underTest.suggest("a", 10)).extracting(NameSuggestion::getId).containsExactly(1L);
+        assertThat(underTest.suggest("b", 10)).extracting(NameSuggestion::getId).containsExactly(2L);
+    }
+
+    @Test
+        //NameIndex.checkLimit()
+    void itShouldNotAllowALimitOutOfBounds() {
+        /** throws {@link BadRequestException}*/
+        //given
+
+        //when
+
+        //then
+        assertThat(NameIndex.checkLimit(NameIndex.MAX_LIMIT)).isEqualTo(NameIndex.MAX_LIMIT);
+        assertThatThrownBy(() -> NameIndex.checkLimit(0)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> NameIndex.checkLimit(NameIndex.MAX_LIMIT + 1)).isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,62 @@
+package com.Suggest;
+
+import com.Director.DirectorModel;
+import com.Director.DirectorService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for the name indexes against the h2 database, to test a name is only suggested once the transaction
+ * saving it has committed.
+ */
+@SpringBootTest
+class NameSuggestionAfterCommitUnitTest {
+
+    @Autowired
+    private DirectorService directorService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+        //DirectorService.onPeopleSaved()
+    void itShouldSuggestADirectorOnceTheSaveCommits() {
+        //given
+        DirectorModel director = new DirectorModel("Committed", "Zanuck");
+
+        //when
+        transactionTemplate.execute(status -> {
+            directorService.createDirector(director);
+            // not suggested before the commit
+            assertThat(directorService.suggestDirectors("zanuck", 10)).isEmpty();
+            return null;
+        });
+
+        //then
+        assertThat(directorService.suggestDirectors("zanuck", 10)).extracting(NameSuggestion::getId)
+                .containsExactly(director.getDid());
+    }
+
+    @Test
+        //DirectorService.onPeopleSaved()
+    void itShouldNotSuggestADirectorWhoseSaveRolledBack() {
+        //given
+        DirectorModel director = new DirectorModel("RolledBack", "Selznick");
+
+        //when
+        transactionTemplate.execute(status -> {
+            directorService.createDirector(director);
+            status.setRollbackOnly();
+            return null;
+        });
+
+        //then
+        assertThat(directorService.suggestDirectors("selznick", 10)).isEmpty();
+    }
+}
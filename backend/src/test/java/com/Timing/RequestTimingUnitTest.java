@@ -0,0 +1,64 @@
+package com.Timing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link RequestTiming} to test what is timed and how it is reported.
+ */
+class RequestTimingUnitTest {
+
+    @Test
+        //RequestTiming.start(), stop()
+    void itShouldOnlyBeCurrentWhileARequestIsTimed() {
+        //given
+        RequestTiming timing = RequestTiming.start();
+
+        //when
+        RequestTiming current = RequestTiming.current();
+        timing.stop();
+
+        //then
+        assertThat(current).isSameAs(timing);
+        assertThat(RequestTiming.current()).isNull();
+    }
+
+    @Test
+        //RequestTiming.enterService(), exitService()
+    void itShouldOnlyTimeTheOutermostServiceCall() throws InterruptedException {
+        //given
+        RequestTiming timing = RequestTiming.start();
+
+        //when
+        timing.enterService();
+        timing.enterService(); // a service calling another
+        Thread.sleep(5);
+        timing.exitService();
+        long innerExited = timing.getServiceNanos();
+        timing.exitService();
+        timing.stop();
+
+        //then
+        assertThat(innerExited).isZero();
+        assertThat(timing.getServiceNanos()).isGreaterThanOrEqualTo(5_000_000L).isLessThanOrEqualTo(timing.getTotalNanos());
+    }
+
+    @Test
+        //RequestTiming.toHeader()
+    void itShouldDescribeTheTimingAsAServerTimingHeader() {
+        //given
+        RequestTiming timing = RequestTiming.start();
+
+        //when
+        timing.serialized(1_500_000L);
+        String header = timing.toHeader();
+        timing.stop();
+
+        //then
+        assertThat(header).matches("service;dur=0\\.0, db;dur=0\\.0;desc=\"0 statements\", serialization;dur=1\\.5, "
+                + "total;dur=\\d+\\.\\d");
+    }
+}
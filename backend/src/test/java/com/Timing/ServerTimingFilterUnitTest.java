@@ -0,0 +1,62 @@
+package com.Timing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for {@link ServerTimingFilter} to test only sampled requests are timed and reported.
+ */
+class ServerTimingFilterUnitTest {
+
+    private ServerTimingProperties properties;
+
+    private MockHttpServletResponse response;
+
+    private AtomicReference<RequestTiming> timed;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ServerTimingProperties();
+        response = new MockHttpServletResponse();
+        timed = new AtomicReference<>();
+    }
+
+    @Test
+        //ServerTimingFilter.doFilterInternal()
+    void itShouldTimeAndReportASampledRequest() throws Exception {
+        //given
+        properties.setSampleRate(1.0);
+
+        //when
+        new ServerTimingFilter(properties).doFilter(new MockHttpServletRequest("DELETE", "/api/v1/movie/1"), response,
+                (req, res) -> timed.set(RequestTiming.current()));
+
+        //then
+        assertThat(timed.get()).isNotNull();
+        assertThat(RequestTiming.current()).isNull();
+        assertThat(response.getHeader(RequestTiming.HEADER)).startsWith("service;dur=").contains("db;dur=", "total;dur=");
+    }
+
+    @Test
+        //ServerTimingFilter.doFilterInternal()
+    void itShouldNotTimeARequestThatIsNotSampled() throws Exception {
+        //given
+        properties.setSampleRate(0.0);
+
+        //when
+        new ServerTimingFilter(properties).doFilter(new MockHttpServletRequest("DELETE", "/api/v1/movie/1"), response,
+                (req, res) -> timed.set(RequestTiming.current()));
+
+        //then
+        assertThat(timed.get()).isNull();
+        assertThat(response.getHeader(RequestTiming.HEADER)).isNull();
+    }
+}
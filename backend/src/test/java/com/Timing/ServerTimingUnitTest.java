@@ -0,0 +1,44 @@
+package com.Timing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for the Server-Timing header of a request, to test the service, db and serialization time all reach it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ServerTimingUnitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+        //GET /api/v1/director
+    void itShouldReportTheServiceDbAndSerializationTimeOfARequest() throws Exception {
+        //given
+        mockMvc.perform(post("/api/v1/director").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"George\",\"lastName\":\"Lucas\"}")).andExpect(status().isOk());
+
+        //when
+        String header = mockMvc.perform(get("/api/v1/director")).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(RequestTiming.HEADER);
+
+        //then
+        // the one select, run inside the service
+        assertThat(header).matches("service;dur=\\d+\\.\\d, db;dur=\\d+\\.\\d;desc=\"1 statements\", "
+                + "serialization;dur=\\d+\\.\\d, total;dur=\\d+\\.\\d");
+        assertThat(header).doesNotContain("service;dur=0.0,");
+    }
+}
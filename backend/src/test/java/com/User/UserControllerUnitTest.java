@@ -9,11 +9,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.*;
 
 /**
  * @author Connor Hunter        connh321@gmail.com
@@ -39,7 +45,7 @@ class UserControllerUnitTest {
         //given
 
         //when
-        underTest.getAllUsers();
+        underTest.getAllUsers(null);
 
         //then
         verify(userService).getAllUsers();
@@ -73,25 +79,45 @@ class UserControllerUnitTest {
         //UserController.getUserById()
     void itShouldGetAUserById() {
         //given
-        UserModel userModel = new UserModel(
+        UserView userView = new UserView(
                 "TestUserName",
                 "TestFirstName",
                 "TestLastName",
-                "TestPassword",
                 "Test@gmail.com",
                 new Date(),
                 new Date()
         );
 
         //when
-        underTest.getUserById(userModel.getUsername());
+        when(userService.getUserVersion(any())).thenReturn(0L);
+        when(userService.getUserById(any())).thenReturn(userView);
+        underTest.getUserById(userView.getUsername(), null, new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
 
         //then
         ArgumentCaptor<String> usernameArgumentCaptor = ArgumentCaptor.forClass(String.class);
         // verify findById was invoked w/ username, and capture the username
         verify(userService).getUserById(usernameArgumentCaptor.capture());
         String capturedUsername = usernameArgumentCaptor.getValue();
-        assertThat(userModel.getUsername()).isEqualTo(capturedUsername);
+        assertThat(userView.getUsername()).isEqualTo(capturedUsername);
+    }
+
+
+    @Test
+        //UserController.getUserById()
+    void itShouldNotLoadAUserThatIsNotModified() {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/TestUserName");
+        request.addHeader("If-None-Match", "\"3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        when(userService.getUserVersion("TestUserName")).thenReturn(3L);
+        ResponseEntity<?> entity = underTest.getUserById("TestUserName", null, new ServletWebRequest(request, response));
+
+        //then
+        assertThat(entity).isNull();
+        assertThat(response.getStatus()).isEqualTo(304);
+        verify(userService, never()).getUserById(any()); // answered from the version alone
     }
 
 
@@ -120,14 +146,15 @@ class UserControllerUnitTest {
         );
 
         //when
-        underTest.updateUser(userModel.getUsername(), newUserModel);
+        when(userService.updateUser(any(), any(), any())).thenReturn(newUserModel);
+        underTest.updateUser(userModel.getUsername(), newUserModel, null);
 
         //then
 
         ArgumentCaptor<String> usernameArgumentCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<UserModel> newUserArgumentCaptor = ArgumentCaptor.forClass(UserModel.class);
         // verify updateUser was called with current user username and new user details
-        verify(userService).updateUser(usernameArgumentCaptor.capture(), newUserArgumentCaptor.capture());
+        verify(userService).updateUser(usernameArgumentCaptor.capture(), newUserArgumentCaptor.capture(), isNull());
         UserModel capturedNewUser = newUserArgumentCaptor.getValue();
         String capturedCurrentUsername = usernameArgumentCaptor.getValue();
         assertThat(newUserModel).isEqualTo(capturedNewUser); //assert new user was passed in
@@ -135,6 +162,22 @@ class UserControllerUnitTest {
     }
 
 
+    @Test
+        //UserController.patchUser()
+    void itShouldPatchAUser() {
+        //given
+        Map<String, Object> changes = Collections.singletonMap("someField", "newValue");
+
+        //when
+        when(userService.patchUser("TestUserName", changes, 3L)).thenReturn(4L);
+        ResponseEntity<Void> response = underTest.patchUser("TestUserName", changes, "\"3\"");
+
+        //then
+        assertThat(response.getStatusCodeValue()).isEqualTo(204);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+    }
+
+
     @Test
         //UserController.deleteUser()
     void itShouldDeleteAUser() {
@@ -0,0 +1,43 @@
+package com.User;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author Connor Hunter        connh321@gmail.com
+ * <p>
+ * Unit Tests for the user endpoints against the h2 database, to test what a request that can not be saved answers.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserEndpointUnitTest {
+
+    private static final String USER = "{\"username\":\"DuplicateUserName\",\"firstName\":\"TestFirstName\","
+            + "\"lastName\":\"TestLastName\",\"password\":\"TestPassword\",\"email\":\"Test@gmail.com\","
+            + "\"creationDate\":\"2021-01-01\",\"lastAccessDate\":\"2021-01-01\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+        //POST /api/v1/users
+    void itShouldNotCreateAUserTwice() throws Exception {
+        //given
+        mockMvc.perform(post("/api/v1/users").contentType(MediaType.APPLICATION_JSON).content(USER))
+                .andExpect(status().isOk());
+
+        //when
+        ResultActions duplicate = mockMvc.perform(post("/api/v1/users").contentType(MediaType.APPLICATION_JSON).content(USER));
+
+        //then
+        duplicate.andExpect(status().isConflict());
+    }
+}
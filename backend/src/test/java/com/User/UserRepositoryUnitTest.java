@@ -1,7 +1,22 @@
 package com.User;
 
-import com.User.UserRepository;
+import com.Cache.SecondLevelCacheConfig;
+import com.Movie.MovieModel;
+import com.Statement.StatementRecorderConfig;
+import com.Statement.StatementRecorderExtension;
+import com.Statement.StatementRecording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.Statement.StatementRecordingAssert.assertThatStatements;
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * @author Connor Hunter        connh321@gmail.com
@@ -9,6 +24,59 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
  * Unit Tests for {@link UserRepository} to test custom SQL Queries, not the pre-defined and tested given CRUD methods.
  */
 @DataJpaTest
+@Import({SecondLevelCacheConfig.class, StatementRecorderConfig.class})
+@ExtendWith(StatementRecorderExtension.class)
 class UserRepositoryUnitTest {
 
-}
\ No newline at end of file
+    @Autowired
+    private UserRepository underTest;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+        //UserRepository.findAllViews()
+    void itShouldGetEveryUserInOneStatementWhateverTheirMovies(StatementRecording statements) {
+        //given
+        persistUserWithMovies("TestUserName2", 3);
+        persistUserWithMovies("TestUserName1", 3);
+        statements.clear();
+
+        //when
+        List<UserView> users = underTest.findAllViews();
+
+        //then
+        assertThat(users).extracting(UserView::getUsername).containsExactly("TestUserName1", "TestUserName2");
+        assertThatStatements(statements).hasSelectCount(1).hasCount(1);
+    }
+
+    @Test
+        //UserRepository.findViewByUsername(), findVersionByUsername()
+    void itShouldGetAUserAndItsVersionInOneStatementEach(StatementRecording statements) {
+        //given
+        persistUserWithMovies("TestUserName", 3);
+        statements.clear();
+
+        //when
+        UserView user = underTest.findViewByUsername("TestUserName").get();
+        Long version = underTest.findVersionByUsername("TestUserName").get();
+
+        //then
+        assertThat(user.getEmail()).isEqualTo("Test@gmail.com");
+        assertThat(version).isZero();
+        assertThatStatements(statements).hasSelectCount(2).hasCount(2);
+        assertThat(underTest.findViewByUsername("TestOtherUserName")).isEmpty();
+    }
+
+    private void persistUserWithMovies(String username, int librarySize) {
+        UserModel user = entityManager.persist(new UserModel(username, "TestFirstName", "TestLastName",
+                "TestPassword", "Test@gmail.com", new Date(), new Date()));
+        for (int i = 0; i < librarySize; i++) {
+            MovieModel movie = new MovieModel("TestTitle" + i, "TestLength", "TestGenre", new Date());
+            movie.setUser(user);
+            entityManager.persist(movie);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -1,16 +1,31 @@
 package com.User;
 
+import com.Exception.ConflictException;
+import com.Exception.PreconditionFailedException;
+import com.Movie.MoviesDeletedEvent;
 import com.User.UserModel;
 import com.User.UserRepository;
 import com.User.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -27,6 +42,12 @@ class UserServiceUnitTest {
 
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     private UserService underTest;
 
     @BeforeEach
@@ -42,7 +63,7 @@ class UserServiceUnitTest {
         //when
 
         //then
-        verify(userRepository).findAll();
+        verify(userRepository).findAllViews();
     }
 
     @Test
@@ -70,8 +91,9 @@ class UserServiceUnitTest {
     }
 
     @Test
-        //UserService.getUserById()
-    void itShouldGetAUserById() {
+        //UserService.createUser()
+    void itShouldNotCreateAUserWithATakenUsername() {
+        /** throws {@link ConflictException}*/
         //given
         UserModel userModel = new UserModel(
                 "TestUserName",
@@ -84,15 +106,90 @@ class UserServiceUnitTest {
         );
 
         //when
-        when(userRepository.findById(any())).thenReturn(Optional.of(userModel));
-        underTest.getUserById(userModel.getUsername());
+        when(userRepository.existsById("TestUserName")).thenReturn(true);
+
+        //then
+        assertThatThrownBy(() -> underTest.createUser(userModel))
+                .isInstanceOf(ConflictException.class);
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+        //UserService.createUser()
+    void itShouldNotCreateAUserTakenByAnotherRequest() {
+        /** throws {@link ConflictException}*/
+        //given
+        UserModel userModel = new UserModel(
+                "TestUserName",
+                "TestFirstName",
+                "TestLastName",
+                "TestPassword",
+                "Test@gmail.com",
+                new Date(),
+                new Date()
+        );
+
+        //when
+        when(userRepository.save(userModel)).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        //then
+        assertThatThrownBy(() -> underTest.createUser(userModel))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+        //UserService.getUserById()
+    void itShouldGetAUserById() {
+        //given
+        UserView userView = new UserView(
+                "TestUserName",
+                "TestFirstName",
+                "TestLastName",
+                "Test@gmail.com",
+                new Date(),
+                new Date()
+        );
+
+        //when
+        when(userRepository.findViewByUsername(any())).thenReturn(Optional.of(userView));
+        underTest.getUserById(userView.getUsername());
 
         //then
         ArgumentCaptor<String> usernameArgumentCaptor = ArgumentCaptor.forClass(String.class);
-        // verify findById was invoked w/ username, and capture the username
-        verify(userRepository).findById(usernameArgumentCaptor.capture());
+        // verify findViewByUsername was invoked w/ username, and capture the username
+        verify(userRepository).findViewByUsername(usernameArgumentCaptor.capture());
         String capturedUsername = usernameArgumentCaptor.getValue();
-        assertThat(userModel.getUsername()).isEqualTo(capturedUsername);
+        assertThat(userView.getUsername()).isEqualTo(capturedUsername);
+    }
+
+    @Test
+        //UserService.getUserFieldsById()
+    void itShouldGetTheGivenFieldsOfAUserById() {
+        //given
+        Map<String, Object> fields = Collections.singletonMap("username", "TestUserName");
+
+        //when
+        when(userRepository.findFieldsById(UserModel.class, Arrays.asList("username", "email"), "TestUserName"))
+                .thenReturn(Optional.of(fields));
+
+        //then
+        assertThat(underTest.getUserFieldsById("TestUserName", "email")).isEqualTo(fields);
+    }
+
+    @Test
+        //UserService.getAllUserFields()
+    void itShouldNotSelectAUsersPassword() {
+        /** throws {@link com.Exception.BadRequestException}*/
+        //given
+
+        //when
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.getAllUserFields("username,password"))
+                .hasMessageContaining("Field: password can not be selected!");
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -139,7 +236,7 @@ class UserServiceUnitTest {
 
         //when
         when(userRepository.findById(any())).thenReturn(Optional.of(userModel));
-        underTest.updateUser(newUserModel.getUsername(), newUserModel);
+        underTest.updateUser(newUserModel.getUsername(), newUserModel, null);
 
         //then
         assertThat(userModel.getPassword()).isEqualTo(newUserModel.getPassword());
@@ -168,35 +265,133 @@ class UserServiceUnitTest {
         //then
         assertThatThrownBy(
                 () ->
-                        underTest.updateUser("iDontExist", new UserModel()))
+                        underTest.updateUser("iDontExist", new UserModel(), null))
                 .hasMessageContaining("User With the username: " + username + " does not exist!"
                 );
     }
 
     @Test
-        //UserService.deleteUser()
-    void itShouldDeleteAUser() {
+        //UserService.updateUser()
+    void itShouldNotUpdateAUserThatHasChanged() {
+        /** throws {@link PreconditionFailedException}*/
         //given
-        UserModel userModel = new UserModel(
-                "TestUserName",
-                "TestFirstName",
-                "TestLastName",
-                "TestPassword",
-                "Test@gmail.com",
-                new Date(),
-                new Date()
-        );
+        UserModel userModel = new UserModel("TestUserName", "TestFirstName", "TestLastName", "TestPassword", "Test@gmail.com", new Date(), new Date());
 
         //when
         when(userRepository.findById(any())).thenReturn(Optional.of(userModel));
-        underTest.deleteUser(userModel.getUsername());
 
         //then
-        ArgumentCaptor<UserModel> userArgumentCaptor = ArgumentCaptor.forClass(UserModel.class);
-        // verify delete was invoked w/ user
-        verify(userRepository).delete(userArgumentCaptor.capture());
-        UserModel capturedUser = userArgumentCaptor.getValue();
-        assertThat(userModel).isEqualTo(capturedUser);
+        // the client read version 3, the stored user is at another version
+        assertThatThrownBy(
+                () ->
+                        underTest.updateUser("TestUserName", userModel, 3L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("User With the username: TestUserName has changed since version: 3!");
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+        //UserService.updateUser()
+    void itShouldNotUpdateAUserChangedWhileUpdating() {
+        /** throws {@link PreconditionFailedException}*/
+        //given
+        UserModel userModel = new UserModel("TestUserName", "TestFirstName", "TestLastName", "TestPassword", "Test@gmail.com", new Date(), new Date());
+
+        //when
+        when(userRepository.findById(any())).thenReturn(Optional.of(userModel));
+        when(userRepository.save(userModel)).thenThrow(new ObjectOptimisticLockingFailureException(UserModel.class, "TestUserName"));
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.updateUser("TestUserName", userModel, null))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+        //UserService.patchUser()
+    void itShouldPatchAUser() {
+        //given
+        usePatch();
+        Map<String, Object> changes = Collections.singletonMap("email", "new@gmail.com");
+
+        //when
+        when(jdbcTemplate.update("update users set email = ?, version = version + 1 where username = ? and version = ?", "new@gmail.com", "TestUserName", 3L))
+                .thenReturn(1);
+        Long version = underTest.patchUser("TestUserName", changes, 3L);
+
+        //then
+        // one update, the user is never loaded
+        verify(userRepository, never()).findById(any());
+        assertThat(version).isEqualTo(4L);
+    }
+
+    @Test
+        //UserService.patchUser()
+    void itShouldNotPatchAUser() {
+        /** throws {@link ResourceNotFoundException}*/
+        //given
+        usePatch();
+        Map<String, Object> changes = Collections.singletonMap("email", "new@gmail.com");
+
+        //when
+        when(jdbcTemplate.update("update users set email = ?, version = version + 1 where username = ?", "new@gmail.com", "TestUserName")).thenReturn(0);
+
+        //then
+        assertThatThrownBy(
+                () ->
+                        underTest.patchUser("TestUserName", changes, null))
+                .hasMessageContaining("User With the username: TestUserName does not exist!"
+                );
+    }
+
+    @Test
+        //UserService.deleteUser()
+    void itShouldDeleteAUserAndTheirMovies() {
+        //given
+        useDelete();
+        when(jdbcTemplate.queryForList("select mid from movie where fk_user = ? limit ?", Long.class, "TestUserName", 1001))
+                .thenReturn(Arrays.asList(1L, 2L));
+        when(jdbcTemplate.update(anyString(), eq("TestUserName"))).thenReturn(1);
+
+        //when
+        underTest.deleteUser("TestUserName");
+
+        //then
+        // the same statements no matter how many movies the user has, without loading any of them
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).queryForList("select mid from movie where fk_user = ? limit ?", Long.class, "TestUserName", 1001);
+        inOrder.verify(jdbcTemplate).update("delete from movie_director where mid in (select mid from movie where fk_user = ?)", "TestUserName");
+        inOrder.verify(jdbcTemplate).update("delete from movie_cast_member where mid in (select mid from movie where fk_user = ?)", "TestUserName");
+        inOrder.verify(jdbcTemplate).update("delete from movie_studio where mid in (select mid from movie where fk_user = ?)", "TestUserName");
+        inOrder.verify(jdbcTemplate).update("delete from movie where fk_user = ?", "TestUserName");
+        inOrder.verify(jdbcTemplate).update("delete from users where username = ?", "TestUserName");
+        verifyNoMoreInteractions(jdbcTemplate);
+        verifyNoInteractions(userRepository);
+
+        ArgumentCaptor<MoviesDeletedEvent> eventArgumentCaptor = ArgumentCaptor.forClass(MoviesDeletedEvent.class);
+        // verify the deleted movies were published so they can be dropped from the movie cache
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        assertThat(eventArgumentCaptor.getValue().getMids()).isEqualTo(Arrays.asList(1L, 2L));
+    }
+
+    @Test
+        //UserService.deleteUser()
+    void itShouldDropEveryMovieWhenAUserWithTooManyMoviesIsDeleted() {
+        //given
+        useDelete();
+        when(jdbcTemplate.queryForList("select mid from movie where fk_user = ? limit ?", Long.class, "TestUserName", 1001))
+                .thenReturn(Collections.nCopies(UserService.MAX_MOVIES_INVALIDATED + 1, 1L));
+        when(jdbcTemplate.update(anyString(), eq("TestUserName"))).thenReturn(1);
+
+        //when
+        underTest.deleteUser("TestUserName");
+
+        //then
+        // the mids past the limit are never read, the whole movie cache is dropped instead
+        ArgumentCaptor<MoviesDeletedEvent> eventArgumentCaptor = ArgumentCaptor.forClass(MoviesDeletedEvent.class);
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        assertThat(eventArgumentCaptor.getValue().isEveryMovie()).isTrue();
     }
 
     @Test
@@ -207,10 +402,11 @@ class UserServiceUnitTest {
 
         //given
         String username = "iDontExist";
+        useDelete();
 
         //when
 
-        // I get a user that doesn't exist
+        // I delete a user that doesn't exist
 
         //then
         assertThatThrownBy(
@@ -218,5 +414,17 @@ class UserServiceUnitTest {
                         underTest.deleteUser("iDontExist"))
                 .hasMessageContaining("User With the username: " + username + " does not exist!"
                 );
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private void usePatch() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "objectMapper", new ObjectMapper());
+    }
+
+    private void useDelete() {
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(underTest, "eventPublisher", eventPublisher);
     }
-}
\ No newline at end of file
+}